@@ -1,4 +1,10 @@
 // Importações necessárias para o funcionamento do compilador
+import bench.BenchmarkLexico;       // Benchmark do analisador léxico
+import cli.ClienteLexico;           // Cliente do servidor léxico
+import cli.MonitorFontes;           // Monitoramento de uma árvore de fontes
+import cli.ProcessadorLote;         // Modo em lote, sem interface gráfica
+import cli.ServidorLexico;          // Servidor léxico residente
+import cli.VerificadorSintatico;    // Análises sintática e semântica pela linha de comando
 import gui.CompiladorGUI;           // Interface gráfica principal do compilador
 import gui.TelaAnalisadorLexico;    // Tela específica para análise léxica
 import gui.TelaInicial;             // Tela inicial com menu de opções
@@ -12,14 +18,57 @@ import lexico.TipoToken;            // Enumeração dos tipos de tokens
  * Esta é a classe de entrada do programa que inicializa a interface gráfica
  * do compilador. O compilador possui três fases principais:
  * 1. Análise Léxica (implementada)
- * 2. Análise Sintática (não implementada)
- * 3. Análise Semântica (não implementada)
+ * 2. Análise Sintática (implementada, apenas pela linha de comando: --sintatico)
+ * 3. Análise Semântica (implementada, apenas pela linha de comando: --sintatico)
+ * 
+ * Com o argumento --lote o compilador roda sem interface gráfica,
+ * analisando arquivos, diretórios ou padrões glob em paralelo; com
+ * --benchmark, mede a vazão do analisador léxico sobre corpora sintéticos;
+ * com --sintatico, verifica a sintaxe e a semântica dos arquivos informados;
+ * com --monitorar, mantém os tokens de uma árvore de fontes atualizados
+ * enquanto os arquivos são editados; com --servidor, fica residente com o
+ * analisador léxico aquecido, atendendo pedidos de tokenização por socket
+ * enviados com --cliente.
  * 
  */
 @SuppressWarnings("unused")
 public class Main {
 
     public static void main(String[] args) {
+        // Modo em lote (linha de comando, sem JavaFX)
+        if (args.length > 0 && args[0].equals("--lote")) {
+            ProcessadorLote.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Benchmark do analisador léxico (sem JavaFX)
+        if (args.length > 0 && args[0].equals("--benchmark")) {
+            BenchmarkLexico.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Monitoramento de uma árvore de fontes (sem JavaFX)
+        if (args.length > 0 && args[0].equals("--monitorar")) {
+            MonitorFontes.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Servidor léxico residente e o seu cliente (sem JavaFX)
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            ServidorLexico.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--cliente")) {
+            ClienteLexico.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Análises sintática e semântica pela linha de comando (sem JavaFX)
+        if (args.length > 0 && args[0].equals("--sintatico")) {
+            VerificadorSintatico.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Lança a aplicação JavaFX com interface gráfica
         System.out.println("Iniciando Compilador GUI...");
         CompiladorGUI.main(args);
@@ -0,0 +1,363 @@
+package bench;
+
+import bench.GeradorCorpus.Perfil;
+
+import lexico.AnalisadorLexico;
+import lexico.FonteCaracteres;
+import lexico.TabelaSimbolos;
+import lexico.Token;
+
+import sintatico.AnalisadorSintatico;
+import sintatico.ArvoreSintatica;
+
+import semantico.AnalisadorSemantico;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Benchmark da vazão de AnalisadorLexico.proximoToken()
+ *
+ * Para cada perfil do GeradorCorpus e cada tamanho, mede, como o JMH:
+ * - aquecimento: iterações descartadas, para que o JIT compile o analisador
+ * - medição: iterações de duração mínima fixa; cada operação analisa o
+ *   corpus inteiro, consumindo todos os tokens
+ *
+ * São informados, com média e desvio entre as iterações: operações/s,
+ * MB/s, tokens/s e, como o profiler "gc" do JMH, a taxa de alocação
+ * (MB/s e bytes por operação, pela contagem da própria thread) e a
+ * quantidade e o tempo das coletas de lixo.
+ *
+ * Corpora de até LIMITE_MEMORIA ficam em memória (String); os maiores são
+ * gravados uma única vez no diretório de corpus e analisados por
+ * mapeamento em memória, como no modo em lote.
+ *
+ * Com -s, cada operação usa uma TabelaSimbolos nova, para medir o custo da
+ * internação e a alocação evitada nos lexemas dos identificadores.
+ *
+ * Com -a, cada operação faz também a análise sintática (AnalisadorSintatico,
+ * que consome os tokens à medida que são produzidos) e a alocação inclui a
+ * árvore; o perfil PROGRAMA gera código sintaticamente válido para isso.
+ * Com -e, a árvore passa também pela análise semântica (AnalisadorSemantico).
+ *
+ * Uso: java Main --benchmark [-p perfis] [-t tamanhos] [-w aquecimento] [-i medicoes] [-d diretorio] [-s] [-a] [-e]
+ *
+ */
+public class BenchmarkLexico {
+
+    // === CONFIGURAÇÕES PADRÃO ===
+    private static final String TAMANHOS_PADRAO = "1k,64k,1m,16m";
+    private static final int AQUECIMENTO_PADRAO = 3;
+    private static final int MEDICOES_PADRAO = 5;
+    private static final long DURACAO_ITERACAO_NANOS = 1_000_000_000L;
+    private static final String DIRETORIO_CORPUS_PADRAO = "corpus_bench";
+
+    // Corpora acima deste tamanho são analisados a partir de arquivo mapeado
+    private static final long LIMITE_MEMORIA = 64L * 1024 * 1024;
+
+    // === ATRIBUTOS DE CONFIGURAÇÃO ===
+    private final List<Perfil> perfis = new ArrayList<>();
+    private final List<Long> tamanhos = new ArrayList<>();
+    private int aquecimento = AQUECIMENTO_PADRAO;
+    private int medicoes = MEDICOES_PADRAO;
+    private Path diretorioCorpus = Paths.get(DIRETORIO_CORPUS_PADRAO);
+    private boolean internarSimbolos;   // Internar os identificadores em uma TabelaSimbolos
+    private boolean analisarSintaxe;    // Construir também a árvore sintática
+    private boolean analisarSemantica;  // Verificar também nomes e tipos (implica analisarSintaxe)
+
+    // Impede que o JIT elimine a análise cujo resultado não é usado
+    private static volatile long sumidouro;
+
+    public static void main(String[] args) {
+        BenchmarkLexico benchmark = new BenchmarkLexico();
+        if (!benchmark.lerArgumentos(args)) {
+            exibirUso();
+            System.exit(2);
+        }
+        try {
+            benchmark.executar();
+        } catch (IOException e) {
+            System.err.println("Erro no benchmark: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void exibirUso() {
+        System.err.println("Uso: java Main --benchmark [-p perfis] [-t tamanhos] [-w aquecimento] [-i medicoes] [-d diretorio] [-s] [-a] [-e]");
+        System.err.println("  -p perfis     lista separada por vírgulas (padrão: todos)");
+        System.err.println("                identificadores, numeros, comentarios, strings, desconhecidos, negativos, programa");
+        System.err.println("  -t tamanhos   lista de 1k a 1g (padrão: " + TAMANHOS_PADRAO + ")");
+        System.err.println("  -w n          iterações de aquecimento (padrão: " + AQUECIMENTO_PADRAO + ")");
+        System.err.println("  -i n          iterações medidas (padrão: " + MEDICOES_PADRAO + ")");
+        System.err.println("  -d diretorio  corpora gravados em arquivo (padrão: " + DIRETORIO_CORPUS_PADRAO + ")");
+        System.err.println("  -s            internar os identificadores em uma tabela de símbolos");
+        System.err.println("  -a            fazer também a análise sintática");
+        System.err.println("  -e            fazer também as análises sintática e semântica");
+    }
+
+    boolean lerArgumentos(String[] args) {
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("-p") && i + 1 < args.length) {
+                    for (String nome : args[++i].split(",")) {
+                        perfis.add(Perfil.valueOf(nome.trim().toUpperCase(Locale.ROOT)));
+                    }
+                } else if (arg.equals("-t") && i + 1 < args.length) {
+                    for (String tamanho : args[++i].split(",")) {
+                        tamanhos.add(GeradorCorpus.tamanhoEmBytes(tamanho));
+                    }
+                } else if (arg.equals("-w") && i + 1 < args.length) {
+                    aquecimento = Math.max(0, Integer.parseInt(args[++i]));
+                } else if (arg.equals("-i") && i + 1 < args.length) {
+                    medicoes = Math.max(1, Integer.parseInt(args[++i]));
+                } else if (arg.equals("-d") && i + 1 < args.length) {
+                    diretorioCorpus = Paths.get(args[++i]);
+                } else if (arg.equals("-s")) {
+                    internarSimbolos = true;
+                } else if (arg.equals("-a")) {
+                    analisarSintaxe = true;
+                } else if (arg.equals("-e")) {
+                    analisarSintaxe = true;
+                    analisarSemantica = true;
+                } else {
+                    return false;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return false; // Perfil desconhecido ou número inválido
+        }
+        if (perfis.isEmpty()) {
+            perfis.addAll(List.of(Perfil.values()));
+        }
+        if (tamanhos.isEmpty()) {
+            for (String tamanho : TAMANHOS_PADRAO.split(",")) {
+                tamanhos.add(GeradorCorpus.tamanhoEmBytes(tamanho));
+            }
+        }
+        return true;
+    }
+
+    // === EXECUÇÃO ===
+
+    void executar() throws IOException {
+        System.out.println(String.format(Locale.ROOT, "%-16s %8s %14s %12s %14s %12s %14s %8s %9s",
+                                         "Perfil", "Tamanho", "ops/s", "MB/s", "tokens/s",
+                                         "aloc MB/s", "aloc B/op", "gc.count", "gc.ms"));
+        for (Perfil perfil : perfis) {
+            for (long tamanho : tamanhos) {
+                Resultado resultado = medir(prepararCorpus(perfil, tamanho), tamanho);
+                System.out.println(resultado.formatar(perfil, tamanho));
+            }
+        }
+    }
+
+    /**
+     * Corpus em memória ou, se for grande, em arquivo (gerado uma única vez)
+     */
+    private Corpus prepararCorpus(Perfil perfil, long tamanho) throws IOException {
+        if (tamanho <= LIMITE_MEMORIA) {
+            return new Corpus(GeradorCorpus.gerarTexto(perfil, (int) tamanho), null);
+        }
+        Files.createDirectories(diretorioCorpus);
+        Path arquivo = diretorioCorpus.resolve(perfil.name().toLowerCase(Locale.ROOT) + "_" + tamanho + ".pas");
+        if (!Files.isRegularFile(arquivo) || Files.size(arquivo) != tamanho) {
+            System.err.println("Gerando " + arquivo + "...");
+            GeradorCorpus.gravar(perfil, tamanho, arquivo);
+        }
+        return new Corpus(null, arquivo);
+    }
+
+    private Resultado medir(Corpus corpus, long tamanho) throws IOException {
+        for (int i = 0; i < aquecimento; i++) {
+            iteracao(corpus);
+        }
+        Resultado resultado = new Resultado();
+        for (int i = 0; i < medicoes; i++) {
+            Iteracao iteracao = iteracao(corpus);
+            double segundos = iteracao.nanos / 1e9;
+            resultado.opsPorSegundo.adicionar(iteracao.operacoes / segundos);
+            resultado.mbPorSegundo.adicionar(iteracao.operacoes * tamanho / (1024.0 * 1024.0) / segundos);
+            resultado.tokensPorSegundo.adicionar(iteracao.tokens / segundos);
+            resultado.alocacaoMbPorSegundo.adicionar(iteracao.alocados / (1024.0 * 1024.0) / segundos);
+            resultado.alocacaoPorOperacao.adicionar((double) iteracao.alocados / iteracao.operacoes);
+            resultado.coletas += iteracao.coletas;
+            resultado.tempoColetasMs += iteracao.tempoColetasMs;
+        }
+        return resultado;
+    }
+
+    /**
+     * Repete a operação até completar a duração mínima da iteração
+     */
+    private Iteracao iteracao(Corpus corpus) throws IOException {
+        Iteracao iteracao = new Iteracao();
+        long coletasAntes = contarColetas();
+        long tempoColetasAntes = tempoColetas();
+        long alocadosAntes = bytesAlocados();
+        long inicio = System.nanoTime();
+        do {
+            iteracao.tokens += operacao(corpus, internarSimbolos, analisarSintaxe, analisarSemantica);
+            iteracao.operacoes++;
+            iteracao.nanos = System.nanoTime() - inicio;
+        } while (iteracao.nanos < DURACAO_ITERACAO_NANOS);
+        iteracao.alocados = bytesAlocados() - alocadosAntes;
+        iteracao.coletas = contarColetas() - coletasAntes;
+        iteracao.tempoColetasMs = tempoColetas() - tempoColetasAntes;
+        return iteracao;
+    }
+
+    /**
+     * Uma operação: analisa o corpus inteiro com proximoToken() ou, se
+     * analisarSintaxe, com o AnalisadorSintatico (seguido do
+     * AnalisadorSemantico, se analisarSemantica)
+     *
+     * @return quantidade de tokens
+     */
+    private static long operacao(Corpus corpus, boolean internarSimbolos, boolean analisarSintaxe,
+                                 boolean analisarSemantica) throws IOException {
+        try (FonteCaracteres fonte = corpus.texto != null ? FonteCaracteres.deTexto(corpus.texto)
+                                                         : FonteCaracteres.deArquivoMapeado(corpus.arquivo)) {
+            AnalisadorLexico analisador = new AnalisadorLexico(fonte);
+            if (internarSimbolos) {
+                analisador.setTabelaSimbolos(new TabelaSimbolos());
+            }
+            if (analisarSintaxe) {
+                ArvoreSintatica arvore = new AnalisadorSintatico(analisador).analisar();
+                sumidouro += arvore.tamanho();
+                if (analisarSemantica) {
+                    AnalisadorSemantico semantico = new AnalisadorSemantico(arvore, analisador);
+                    semantico.analisar();
+                    sumidouro += semantico.getTotalErros();
+                }
+                return arvore.getQuantidadeTokens();
+            }
+            long tokens = 0;
+            long soma = 0;
+            Token token;
+            while ((token = analisador.proximoToken()) != null) {
+                soma += token.posicao + token.lexema.length();
+                tokens++;
+            }
+            sumidouro += soma;
+            return tokens;
+        }
+    }
+
+    // === PROFILER DE ALOCAÇÃO E GC ===
+
+    private static long bytesAlocados() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0; // JVM sem contagem de alocação por thread
+    }
+
+    private static long contarColetas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long tempoColetas() {
+        long total = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, coletor.getCollectionTime());
+        }
+        return total;
+    }
+
+    // === ESTRUTURAS DE RESULTADO ===
+
+    private static final class Corpus {
+        final String texto;     // Corpus em memória (ou null)
+        final Path arquivo;     // Corpus em arquivo (ou null)
+
+        Corpus(String texto, Path arquivo) {
+            this.texto = texto;
+            this.arquivo = arquivo;
+        }
+    }
+
+    private static final class Iteracao {
+        long operacoes;
+        long tokens;
+        long nanos;
+        long alocados;
+        long coletas;
+        long tempoColetasMs;
+    }
+
+    /**
+     * Média e desvio padrão de uma métrica entre as iterações medidas
+     */
+    private static final class Estatistica {
+        private double soma;
+        private double somaQuadrados;
+        private int quantidade;
+
+        void adicionar(double valor) {
+            soma += valor;
+            somaQuadrados += valor * valor;
+            quantidade++;
+        }
+
+        double media() {
+            return soma / quantidade;
+        }
+
+        double desvio() {
+            if (quantidade < 2) {
+                return 0;
+            }
+            double media = media();
+            return Math.sqrt(Math.max(0, (somaQuadrados - quantidade * media * media) / (quantidade - 1)));
+        }
+
+        String formatar(int largura) {
+            return String.format(Locale.ROOT, "%" + largura + "s", String.format(Locale.ROOT, "%.1f±%.1f", media(), desvio()));
+        }
+    }
+
+    private static final class Resultado {
+        final Estatistica opsPorSegundo = new Estatistica();
+        final Estatistica mbPorSegundo = new Estatistica();
+        final Estatistica tokensPorSegundo = new Estatistica();
+        final Estatistica alocacaoMbPorSegundo = new Estatistica();
+        final Estatistica alocacaoPorOperacao = new Estatistica();
+        long coletas;
+        long tempoColetasMs;
+
+        String formatar(Perfil perfil, long tamanho) {
+            return String.format(Locale.ROOT, "%-16s %8s %s %s %14.0f %s %14.0f %8d %9d",
+                                 perfil.name().toLowerCase(Locale.ROOT), formatarTamanho(tamanho),
+                                 opsPorSegundo.formatar(14), mbPorSegundo.formatar(12),
+                                 tokensPorSegundo.media(), alocacaoMbPorSegundo.formatar(12),
+                                 alocacaoPorOperacao.media(), coletas, tempoColetasMs);
+        }
+    }
+
+    private static String formatarTamanho(long bytes) {
+        if (bytes >= 1024L * 1024 * 1024 && bytes % (1024L * 1024 * 1024) == 0) {
+            return bytes / (1024L * 1024 * 1024) + "g";
+        }
+        if (bytes >= 1024L * 1024 && bytes % (1024L * 1024) == 0) {
+            return bytes / (1024L * 1024) + "m";
+        }
+        if (bytes >= 1024 && bytes % 1024 == 0) {
+            return bytes / 1024 + "k";
+        }
+        return Long.toString(bytes);
+    }
+}
@@ -0,0 +1,467 @@
+package bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador determinístico de código Pascal sintético para os benchmarks
+ *
+ * Cada perfil exercita um caminho do analisador léxico. O conteúdo depende
+ * apenas do perfil, do tamanho e da semente, de modo que o mesmo corpus é
+ * reproduzido em qualquer máquina. O texto é ASCII (um byte por caractere)
+ * e tem exatamente o tamanho pedido: "program" (no perfil PROGRAMA, também
+ * as declarações), as linhas do perfil e "end." no fim.
+ *
+ * Uso: java bench.GeradorCorpus perfil tamanho arquivo
+ *      (tamanho em bytes, com sufixo opcional k, m ou g)
+ *
+ */
+public final class GeradorCorpus {
+
+    /**
+     * Tipos de código gerados
+     */
+    public enum Perfil {
+        /** Atribuições e expressões com muitos identificadores e palavras reservadas */
+        IDENTIFICADORES,
+        /** Números inteiros e reais, com expoentes e sinais */
+        NUMEROS,
+        /** Comentários longos, de várias linhas, entre poucos comandos */
+        COMENTARIOS,
+        /** Literais de string longos */
+        STRINGS,
+        /** Rajadas de caracteres não reconhecidos pela linguagem */
+        DESCONHECIDOS,
+        /** Sequências em que '-' é ora operador, ora sinal de número negativo */
+        NEGATIVOS,
+        /** Programa sintaticamente válido: declarações e comandos estruturados aninhados */
+        PROGRAMA
+    }
+
+    public static final long SEMENTE_PADRAO = 20240601L;
+
+    private static final String CABECALHO = "program corpus;\nbegin\n";
+    private static final String RODAPE = "end.\n";
+
+    // Cabeçalho do perfil PROGRAMA: declara as variáveis e o procedimento usados nos comandos
+    private static final String CABECALHO_PROGRAMA =
+        "program corpus;\n"
+        + "var a, b, c, i, k, n, soma, total: integer;\n"
+        + "    media: real;\n"
+        + "    letra: char;\n"
+        + "    nome: string;\n"
+        + "proc mostrar(v: integer);\n"
+        + "begin\n"
+        + "  total := total + v\n"
+        + "end;\n"
+        + "begin\n";
+
+    private static final String[] VARIAVEIS_INTEIRAS = { "a", "b", "c", "i", "k", "n", "soma", "total" };
+    private static final String[] OPERADORES_INTEIROS = { " + ", " - ", " * ", " div ", " mod " };
+    private static final String[] RELACIONAIS = { " = ", " <> ", " < ", " <= ", " > ", " >= " };
+
+    // Aninhamento máximo dos comandos estruturados do perfil PROGRAMA
+    private static final int ANINHAMENTO_PROGRAMA = 3;
+
+    private static final String[] SILABAS = {
+        "ta", "re", "mo", "xi", "lu", "va", "con", "per", "tot", "al", "in", "dex", "som", "fim", "pos"
+    };
+    private static final String[] RESERVADAS = {
+        "if", "then", "else", "while", "do", "begin", "end", "var", "integer", "real", "and", "or", "not"
+    };
+    private static final String[] OPERADORES = { " + ", " - ", " * ", " / ", " = ", " < ", " >= ", " <> " };
+    private static final String PALAVRAS_TEXTO =
+        "o analisador lexico percorre o codigo fonte caractere por caractere ate o fim ";
+    private static final String DESCONHECIDOS = "@#$%&!?~`^|\\";
+
+    private final Perfil perfil;
+    private final SplittableRandom aleatorio;
+    private final StringBuilder linha = new StringBuilder(1024);
+
+    public GeradorCorpus(Perfil perfil, long semente) {
+        this.perfil = perfil;
+        this.aleatorio = new SplittableRandom(semente * 31 + perfil.ordinal());
+    }
+
+    /**
+     * Gera o corpus inteiro em memória (tamanhos até Integer.MAX_VALUE)
+     */
+    public static String gerarTexto(Perfil perfil, int tamanho) {
+        StringBuilder destino = new StringBuilder(tamanho);
+        try {
+            new GeradorCorpus(perfil, SEMENTE_PADRAO).gerar(tamanho, destino);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder não lança IOException
+        }
+        return destino.toString();
+    }
+
+    /**
+     * Grava o corpus em arquivo, em fluxo (memória constante)
+     */
+    public static void gravar(Perfil perfil, long tamanho, Path arquivo) throws IOException {
+        try (Writer escritor = Files.newBufferedWriter(arquivo, StandardCharsets.US_ASCII)) {
+            new GeradorCorpus(perfil, SEMENTE_PADRAO).gerar(tamanho, escritor);
+        }
+    }
+
+    /**
+     * Escreve exatamente 'tamanho' caracteres de código (no mínimo o
+     * cabeçalho e o rodapé)
+     */
+    public void gerar(long tamanho, Appendable destino) throws IOException {
+        String cabecalho = perfil == Perfil.PROGRAMA ? CABECALHO_PROGRAMA : CABECALHO;
+        destino.append(cabecalho);
+        long restante = tamanho - cabecalho.length() - RODAPE.length();
+        while (restante > 0) {
+            linha.setLength(0);
+            gerarLinha();
+            if (linha.length() > restante) {
+                // Completar com espaços, sem cortar um token ao meio
+                linha.setLength(0);
+                for (long i = 0; i < restante - 1; i++) {
+                    linha.append(' ');
+                }
+                linha.append('\n');
+            }
+            destino.append(linha);
+            restante -= linha.length();
+        }
+        destino.append(RODAPE);
+    }
+
+    // === LINHAS POR PERFIL ===
+
+    private void gerarLinha() {
+        switch (perfil) {
+            case IDENTIFICADORES:
+                linhaIdentificadores();
+                break;
+            case NUMEROS:
+                linhaNumeros();
+                break;
+            case COMENTARIOS:
+                linhaComentarios();
+                break;
+            case STRINGS:
+                linhaStrings();
+                break;
+            case DESCONHECIDOS:
+                linhaDesconhecidos();
+                break;
+            case PROGRAMA:
+                linhaPrograma();
+                break;
+            case NEGATIVOS:
+            default:
+                linhaNegativos();
+                break;
+        }
+    }
+
+    private void linhaIdentificadores() {
+        linha.append("  ");
+        if (aleatorio.nextInt(4) == 0) {
+            linha.append(RESERVADAS[aleatorio.nextInt(RESERVADAS.length)]).append(' ');
+        }
+        identificador();
+        linha.append(" := ");
+        int termos = 2 + aleatorio.nextInt(6);
+        for (int i = 0; i < termos; i++) {
+            if (i > 0) {
+                linha.append(OPERADORES[aleatorio.nextInt(OPERADORES.length)]);
+            }
+            identificador();
+        }
+        linha.append(";\n");
+    }
+
+    private void linhaNumeros() {
+        linha.append("  ");
+        identificador();
+        linha.append(" := ");
+        int termos = 2 + aleatorio.nextInt(5);
+        for (int i = 0; i < termos; i++) {
+            if (i > 0) {
+                linha.append(aleatorio.nextBoolean() ? " + " : " * ");
+            }
+            numero(true);
+        }
+        linha.append(";\n");
+    }
+
+    private void linhaComentarios() {
+        if (aleatorio.nextInt(8) == 0) {
+            linhaIdentificadores();
+            return;
+        }
+        linha.append("/* ");
+        int linhas = 1 + aleatorio.nextInt(12);
+        for (int i = 0; i < linhas; i++) {
+            texto(40 + aleatorio.nextInt(80));
+            // Asteriscos e barras soltos obrigam a procurar o par "*/"
+            linha.append(aleatorio.nextInt(3) == 0 ? " * nota / " : "\n   ");
+        }
+        linha.append(" */\n");
+    }
+
+    private void linhaStrings() {
+        linha.append("  ");
+        identificador();
+        linha.append(" := \"");
+        texto(50 + aleatorio.nextInt(450));
+        linha.append("\";\n");
+    }
+
+    private void linhaDesconhecidos() {
+        linha.append("  ");
+        identificador();
+        linha.append(" := ");
+        int rajada = 1 + aleatorio.nextInt(24);
+        for (int i = 0; i < rajada; i++) {
+            linha.append(DESCONHECIDOS.charAt(aleatorio.nextInt(DESCONHECIDOS.length())));
+        }
+        linha.append(' ');
+        identificador();
+        linha.append(";\n");
+    }
+
+    private void linhaNegativos() {
+        linha.append("  ");
+        identificador();
+        linha.append(" := ");
+        int termos = 3 + aleatorio.nextInt(6);
+        for (int i = 0; i < termos; i++) {
+            switch (aleatorio.nextInt(5)) {
+                case 0:
+                    linha.append("-");           // Sinal: após ":=" ou operador
+                    numero(false);
+                    break;
+                case 1:
+                    identificador();
+                    linha.append(" - ");         // Subtração após identificador
+                    numero(false);
+                    break;
+                case 2:
+                    numero(false);
+                    linha.append("-");           // Subtração colada após número
+                    numero(false);
+                    break;
+                case 3:
+                    linha.append("(-");
+                    identificador();             // '-' sem dígito: operador
+                    linha.append(")");
+                    break;
+                default:
+                    linha.append("- -");
+                    numero(true);
+                    break;
+            }
+            if (i < termos - 1) {
+                linha.append(" - ");
+            }
+        }
+        linha.append(";\n");
+    }
+
+    private void linhaPrograma() {
+        linha.append("  ");
+        comando(0);
+        linha.append(";\n");
+    }
+
+    // === COMANDOS E EXPRESSÕES DO PERFIL PROGRAMA ===
+
+    private void comando(int nivel) {
+        int escolha = nivel < ANINHAMENTO_PROGRAMA ? aleatorio.nextInt(10) : aleatorio.nextInt(4);
+        switch (escolha) {
+            case 0:
+            case 1:
+                linha.append(variavelInteira()).append(" := ");
+                expressaoInteira(0);
+                break;
+            case 2:
+                atribuicaoOutroTipo();
+                break;
+            case 3:
+                linha.append("mostrar(");
+                expressaoInteira(0);
+                linha.append(')');
+                break;
+            case 4:
+                linha.append("if ");
+                condicao();
+                linha.append(" then ");
+                comando(nivel + 1);
+                if (aleatorio.nextBoolean()) {
+                    linha.append(" else ");
+                    comando(nivel + 1);
+                }
+                break;
+            case 5:
+                linha.append("while ");
+                condicao();
+                linha.append(" do ");
+                comando(nivel + 1);
+                break;
+            case 6:
+                linha.append("for i := ").append(aleatorio.nextInt(10));
+                linha.append(aleatorio.nextBoolean() ? " to " : " dowto ").append(aleatorio.nextInt(100));
+                linha.append(" do ");
+                comando(nivel + 1);
+                break;
+            case 7:
+                linha.append("repeat ");
+                comando(nivel + 1);
+                linha.append("; ");
+                comando(nivel + 1);
+                linha.append(" until ");
+                condicao();
+                break;
+            case 8:
+                linha.append("case k of 1: ");
+                comando(nivel + 1);
+                linha.append("; 2, 3: ");
+                comando(nivel + 1);
+                linha.append(" else ");
+                comando(nivel + 1);
+                linha.append(" end");
+                break;
+            default:
+                linha.append("begin\n");
+                int comandos = 1 + aleatorio.nextInt(4);
+                for (int i = 0; i < comandos; i++) {
+                    recuo(nivel + 2);
+                    comando(nivel + 1);
+                    linha.append(i < comandos - 1 ? ";\n" : "\n");
+                }
+                recuo(nivel + 1);
+                linha.append("end");
+                break;
+        }
+    }
+
+    private void atribuicaoOutroTipo() {
+        switch (aleatorio.nextInt(3)) {
+            case 0:
+                linha.append("media := ");
+                expressaoInteira(0);
+                linha.append(" / ").append(1 + aleatorio.nextInt(9)).append('.').append(aleatorio.nextInt(10));
+                break;
+            case 1:
+                linha.append("letra := '").append((char) ('a' + aleatorio.nextInt(26))).append('\'');
+                break;
+            default:
+                linha.append("nome := \"");
+                texto(5 + aleatorio.nextInt(30));
+                linha.append('"');
+                break;
+        }
+    }
+
+    private void expressaoInteira(int nivel) {
+        int termos = 1 + aleatorio.nextInt(4);
+        for (int i = 0; i < termos; i++) {
+            if (i > 0) {
+                linha.append(OPERADORES_INTEIROS[aleatorio.nextInt(OPERADORES_INTEIROS.length)]);
+            }
+            int termo = aleatorio.nextInt(nivel < 2 ? 6 : 4);
+            if (termo < 2) {
+                linha.append(variavelInteira());
+            } else if (termo < 4) {
+                linha.append(1 + aleatorio.nextInt(999));
+            } else {
+                linha.append('(');
+                expressaoInteira(nivel + 1);
+                linha.append(')');
+            }
+        }
+    }
+
+    private void condicao() {
+        expressaoInteira(1);
+        linha.append(RELACIONAIS[aleatorio.nextInt(RELACIONAIS.length)]);
+        expressaoInteira(1);
+    }
+
+    private String variavelInteira() {
+        return VARIAVEIS_INTEIRAS[aleatorio.nextInt(VARIAVEIS_INTEIRAS.length)];
+    }
+
+    private void recuo(int nivel) {
+        for (int i = 0; i < nivel; i++) {
+            linha.append("  ");
+        }
+    }
+
+    // === PEÇAS ===
+
+    private void identificador() {
+        int silabas = 1 + aleatorio.nextInt(4);
+        for (int i = 0; i < silabas; i++) {
+            String silaba = SILABAS[aleatorio.nextInt(SILABAS.length)];
+            linha.append(i == 0 || aleatorio.nextInt(3) != 0 ? silaba
+                         : Character.toUpperCase(silaba.charAt(0)) + silaba.substring(1));
+        }
+        if (aleatorio.nextBoolean()) {
+            linha.append(aleatorio.nextInt(100));
+        }
+    }
+
+    private void numero(boolean comExpoente) {
+        linha.append(1 + aleatorio.nextInt(99_999));
+        if (aleatorio.nextBoolean()) {
+            linha.append('.').append(aleatorio.nextInt(10_000));
+        }
+        if (comExpoente && aleatorio.nextInt(3) == 0) {
+            linha.append(aleatorio.nextBoolean() ? 'e' : 'E');
+            int sinal = aleatorio.nextInt(3);
+            if (sinal > 0) {
+                linha.append(sinal == 1 ? '+' : '-');
+            }
+            linha.append(aleatorio.nextInt(300));
+        }
+    }
+
+    /**
+     * Trecho de texto sem aspas nem "*\/", com aproximadamente 'tamanho' caracteres
+     */
+    private void texto(int tamanho) {
+        int inicio = aleatorio.nextInt(PALAVRAS_TEXTO.length());
+        for (int i = 0; i < tamanho; i++) {
+            linha.append(PALAVRAS_TEXTO.charAt((inicio + i) % PALAVRAS_TEXTO.length()));
+        }
+    }
+
+    // === LINHA DE COMANDO ===
+
+    /**
+     * Converte "512", "64k", "16m" ou "1g" em bytes
+     */
+    public static long tamanhoEmBytes(String texto) {
+        String normalizado = texto.trim().toLowerCase(Locale.ROOT);
+        long multiplicador = 1;
+        char sufixo = normalizado.charAt(normalizado.length() - 1);
+        if (sufixo == 'k' || sufixo == 'm' || sufixo == 'g') {
+            multiplicador = sufixo == 'k' ? 1024L : sufixo == 'm' ? 1024L * 1024 : 1024L * 1024 * 1024;
+            normalizado = normalizado.substring(0, normalizado.length() - 1);
+        }
+        return Long.parseLong(normalizado) * multiplicador;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Uso: java bench.GeradorCorpus <perfil> <tamanho[k|m|g]> <arquivo>");
+            System.err.println("  perfis: identificadores, numeros, comentarios, strings, desconhecidos, negativos, programa");
+            System.exit(2);
+        }
+        Perfil perfil = Perfil.valueOf(args[0].toUpperCase(Locale.ROOT));
+        gravar(perfil, tamanhoEmBytes(args[1]), Paths.get(args[2]));
+    }
+}
@@ -0,0 +1,277 @@
+package cli;
+
+// Importações do analisador léxico
+import lexico.BufferTokens;
+import lexico.Diagnostico;
+import lexico.TipoToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cliente do ServidorLexico, para uso em scripts
+ *
+ * Envia cada arquivo informado (ou a entrada padrão, sem arquivos) ao
+ * servidor pela mesma conexão e escreve os tokens recebidos no formato da
+ * tela do analisador léxico (<lexema, TIPO>, um por linha); os erros
+ * léxicos vão para a saída de erros. Com -c, escreve apenas a quantidade
+ * de tokens e de erros de cada arquivo. O cliente não carrega o
+ * analisador: o custo de cada execução é a inicialização da JVM e a ida e
+ * volta pelo socket.
+ *
+ * O código de saída é 0 se nenhum arquivo tem erros léxicos, 1 caso
+ * contrário ou se o servidor não responder.
+ *
+ * Uso: java Main --cliente [-s caminhoSocket | -p porta] [-c] [arquivo...]
+ *      java Main --cliente [-s caminhoSocket | -p porta] --ping | --encerrar
+ *
+ */
+public class ClienteLexico {
+
+    private static final TipoToken[] TIPOS = TipoToken.values();
+    private static final Diagnostico.Tipo[] TIPOS_DIAGNOSTICO = Diagnostico.Tipo.values();
+
+    // === ATRIBUTOS DE CONFIGURAÇÃO ===
+    private Path caminhoSocket = ProtocoloLexico.SOCKET_PADRAO;
+    private int porta = -1;
+    private boolean apenasContagem;
+    private int comando = ProtocoloLexico.TOKENIZAR;
+    private final List<Path> arquivos = new ArrayList<>();
+
+    // === CONEXÃO ===
+    private DataInputStream entrada;
+    private DataOutputStream saidaConexao;
+    private final ProtocoloLexico.Quadro resposta = new ProtocoloLexico.Quadro();
+
+    public static void main(String[] args) {
+        ClienteLexico cliente = new ClienteLexico();
+        if (!cliente.lerArgumentos(args)) {
+            exibirUso();
+            System.exit(2);
+        }
+        try {
+            System.exit(cliente.executar() ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("Erro na comunicação com o servidor léxico: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void exibirUso() {
+        System.err.println("Uso: java Main --cliente [-s caminhoSocket | -p porta] [-c] [arquivo...]");
+        System.err.println("     java Main --cliente [-s caminhoSocket | -p porta] --ping | --encerrar");
+        System.err.println("  -s caminho    socket de domínio Unix do servidor (padrão: " + ProtocoloLexico.SOCKET_PADRAO + ")");
+        System.err.println("  -p porta      porta TCP do servidor no endereço de loopback");
+        System.err.println("  -c            exibir apenas a quantidade de tokens e de erros");
+        System.err.println("  --ping        exibir a versão e os contadores do servidor");
+        System.err.println("  --encerrar    encerrar o servidor");
+        System.err.println("Sem arquivos, o código fonte é lido da entrada padrão.");
+    }
+
+    /**
+     * Interpreta os argumentos da linha de comando
+     *
+     * @return false se os argumentos forem inválidos
+     */
+    boolean lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-s") && i + 1 < args.length) {
+                caminhoSocket = Paths.get(args[++i]);
+            } else if (arg.equals("-p") && i + 1 < args.length) {
+                try {
+                    porta = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (porta < 0 || porta > 65535) {
+                    return false;
+                }
+            } else if (arg.equals("-c")) {
+                apenasContagem = true;
+            } else if (arg.equals("--ping")) {
+                comando = ProtocoloLexico.PING;
+            } else if (arg.equals("--encerrar")) {
+                comando = ProtocoloLexico.ENCERRAR;
+            } else if (arg.startsWith("-")) {
+                return false;
+            } else {
+                arquivos.add(Paths.get(arg));
+            }
+        }
+        return comando == ProtocoloLexico.TOKENIZAR || arquivos.isEmpty();
+    }
+
+    // === EXECUÇÃO ===
+
+    /**
+     * Conecta ao servidor e envia os pedidos
+     *
+     * @return true se nenhum arquivo teve erros léxicos
+     */
+    boolean executar() throws IOException {
+        try (SocketChannel conexao = SocketChannel.open(ProtocoloLexico.endereco(caminhoSocket, porta))) {
+            if (conexao.getRemoteAddress() instanceof InetSocketAddress) {
+                conexao.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(conexao), 64 * 1024));
+            saidaConexao = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(conexao), 64 * 1024));
+            switch (comando) {
+                case ProtocoloLexico.PING:
+                    pedir(ProtocoloLexico.PING, new byte[0], ProtocoloLexico.OK);
+                    System.out.println("Servidor léxico: protocolo " + resposta.lerVarint() + ", "
+                                       + resposta.lerVarint() + " conexões, " + resposta.lerVarint()
+                                       + " pedidos, " + resposta.lerVarint() + " tokens");
+                    return true;
+                case ProtocoloLexico.ENCERRAR:
+                    pedir(ProtocoloLexico.ENCERRAR, new byte[0], ProtocoloLexico.OK);
+                    return true;
+                default:
+                    return tokenizarTodos();
+            }
+        }
+    }
+
+    private boolean tokenizarTodos() throws IOException {
+        Writer saida = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                                                                 StandardCharsets.UTF_8), 64 * 1024);
+        BufferTokens tokens = new BufferTokens();
+        boolean semErros = true;
+        try {
+            if (arquivos.isEmpty()) {
+                semErros = tokenizar("<entrada>", System.in.readAllBytes(), tokens, saida);
+            }
+            for (Path arquivo : arquivos) {
+                byte[] codigo;
+                try {
+                    codigo = Files.readAllBytes(arquivo);
+                } catch (IOException e) {
+                    System.err.println(arquivo + ": erro de leitura: " + e.getMessage());
+                    semErros = false;
+                    continue;
+                }
+                semErros &= tokenizar(arquivo.toString(), codigo, tokens, saida);
+            }
+        } finally {
+            saida.flush();
+        }
+        return semErros;
+    }
+
+    /**
+     * Envia um código fonte ao servidor e escreve os tokens à medida que
+     * os quadros TOKENS chegam
+     *
+     * @return true se o código não tem erros léxicos
+     */
+    private boolean tokenizar(String nome, byte[] codigo, BufferTokens tokens, Writer saida) throws IOException {
+        if (codigo.length > ProtocoloLexico.TAMANHO_MAXIMO_PEDIDO) {
+            saida.flush();
+            System.err.println(nome + ": arquivo maior que " + ProtocoloLexico.TAMANHO_MAXIMO_PEDIDO / (1024 * 1024)
+                               + " MB, o limite do servidor (use --lote)");
+            return false;
+        }
+        ProtocoloLexico.Quadro.enviar(saidaConexao, ProtocoloLexico.TOKENIZAR, codigo);
+
+        // Os lexemas são recortados do próprio código enviado
+        String texto = new String(codigo, StandardCharsets.UTF_8);
+        long quantidade = 0;
+        int fimAnterior = 0;
+        while (receberResposta() == ProtocoloLexico.TOKENS) {
+            int lote = resposta.lerInt();
+            tokens.limpar();
+            for (int i = 0; i < lote; i++) {
+                TipoToken tipo = TIPOS[resposta.lerInt()];
+                int inicio = fimAnterior + resposta.lerInt();
+                int comprimento = resposta.lerInt();
+                tokens.adicionar(tipo, inicio, comprimento);
+                fimAnterior = inicio + comprimento;
+            }
+            quantidade += lote;
+            if (!apenasContagem) {
+                for (int i = 0; i < lote; i++) {
+                    saida.write('<');
+                    saida.append(texto, tokens.inicioLexema(i, texto), tokens.fimLexema(i, texto));
+                    saida.write(", ");
+                    saida.write(tokens.tipo(i).name());
+                    saida.write(">\n");
+                }
+            }
+        }
+        if (resposta.tipo == ProtocoloLexico.ERRO) {
+            // O servidor recusou ou interrompeu este pedido; a conexão continua válida
+            saida.flush();
+            System.err.println(nome + ": erro no servidor: " + resposta.conteudoTexto());
+            return false;
+        }
+        if (resposta.tipo != ProtocoloLexico.FIM_TOKENS) {
+            throw new IOException("resposta inesperada do servidor: " + resposta.tipo);
+        }
+
+        long totalErros = resposta.lerVarint();
+        int retidos = resposta.lerInt();
+        if (apenasContagem) {
+            saida.write(nome + ": " + quantidade + " tokens, " + totalErros + " erros léxicos\n");
+        }
+        if (retidos > 0) {
+            saida.flush();
+            for (int i = 0; i < retidos; i++) {
+                Diagnostico.Tipo tipo = TIPOS_DIAGNOSTICO[resposta.lerInt()];
+                int posicao = resposta.lerInt();
+                int linha = resposta.lerInt();
+                int coluna = resposta.lerInt();
+                int comprimento = resposta.lerInt();
+                String trecho = resposta.lerTexto();
+                System.err.println(nome + ": " + new Diagnostico(tipo, posicao, linha, coluna, comprimento, trecho));
+            }
+        }
+        return totalErros == 0;
+    }
+
+    /**
+     * Envia um pedido e recebe a resposta, que deve ser do tipo esperado
+     */
+    private void pedir(int tipo, byte[] conteudo, int esperado) throws IOException {
+        ProtocoloLexico.Quadro.enviar(saidaConexao, tipo, conteudo);
+        receberResposta();
+        if (resposta.tipo == ProtocoloLexico.ERRO) {
+            throw new IOException(resposta.conteudoTexto());
+        }
+        if (resposta.tipo != esperado) {
+            throw new IOException("resposta inesperada do servidor: " + resposta.tipo);
+        }
+    }
+
+    /**
+     * Recebe o próximo quadro de resposta
+     *
+     * @return tipo do quadro
+     */
+    private int receberResposta() throws IOException {
+        if (!resposta.receber(entrada, ProtocoloLexico.TAMANHO_MAXIMO_RESPOSTA)) {
+            throw new IOException("conexão fechada pelo servidor");
+        }
+        if (resposta.excedido) {
+            throw new IOException("resposta grande demais do servidor");
+        }
+        return resposta.tipo;
+    }
+}
@@ -0,0 +1,502 @@
+package cli;
+
+// Importações do analisador léxico
+import lexico.AlteracaoTokens;
+import lexico.BufferTokens;
+import lexico.ColetorDiagnosticos;
+import lexico.ExportadorTokens;
+import lexico.FormatoExportacao;
+import lexico.HashConteudo;
+import lexico.SessaoIncremental;
+import lexico.TipoToken;
+
+// Importações para manipulação de arquivos e monitoramento
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Modo de monitoramento: mantém os arquivos de tokens de uma árvore de
+ * fontes Pascal atualizados enquanto os arquivos são editados
+ *
+ * Os diretórios informados (e os seus subdiretórios, inclusive os criados
+ * depois) são registrados em um WatchService. Cada arquivo .pas/.pascal
+ * tem uma SessaoIncremental: quando o arquivo muda, o novo conteúdo é
+ * comparado com o anterior (maior prefixo e sufixo em comum) e apenas o
+ * trecho alterado é analisado de novo. Em seguida o arquivo de tokens é
+ * regravado (em um arquivo temporário, movido sobre o antigo, para que
+ * nunca seja lido pela metade) e o resumo é atualizado.
+ *
+ * Rajadas de eventos (um editor costuma truncar, gravar e renomear em
+ * sequência) são agrupadas: o lote é processado quando os eventos param
+ * por ESPERA_PADRAO_MS, ou após ATRASO_MAXIMO_MS de eventos contínuos.
+ * Um arquivo apenas tocado, com o mesmo conteúdo, não é processado. Se o
+ * WatchService perder eventos (OVERFLOW), a árvore inteira é comparada.
+ *
+ * Uso: java Main --monitorar [-o dirSaida] [-f formato] [-e esperaMs] diretorio...
+ *
+ */
+public class MonitorFontes {
+
+    // === CONFIGURAÇÕES PADRÃO ===
+    private static final String DIRETORIO_SAIDA_PADRAO = "tokens_monitor";
+    private static final String ARQUIVO_RESUMO = "resumo_monitor.txt";
+    private static final long ESPERA_PADRAO_MS = 25;        // Silêncio que encerra uma rajada de eventos
+    private static final long ATRASO_MAXIMO_MS = 500;       // Rajada contínua: processada mesmo assim
+
+    private static final DateTimeFormatter HORARIO = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    // === ATRIBUTOS DE CONFIGURAÇÃO ===
+    private Path diretorioSaida = Paths.get(DIRETORIO_SAIDA_PADRAO);
+    private FormatoExportacao formato = FormatoExportacao.TEXTO;
+    private long esperaMs = ESPERA_PADRAO_MS;
+    private final List<Path> raizes = new ArrayList<>();
+    private Path base;                      // Ancestral comum das raízes: os nomes de saída são relativos a ele
+    private boolean excluirSaida;           // O diretório de saída está dentro de uma raiz, não a contém
+
+    // === ESTADO DO MONITORAMENTO ===
+    private WatchService servico;
+    private final Map<WatchKey, Path> diretorios = new HashMap<>();
+    private final Set<Path> registrados = new HashSet<>();         // Diretórios já registrados
+    private final Map<Path, ArquivoMonitorado> arquivos = new HashMap<>();
+    private final ResumoMonitor resumo = new ResumoMonitor();
+
+    /**
+     * Ponto de entrada do modo de monitoramento (termina com Ctrl+C)
+     */
+    public static void main(String[] args) {
+        MonitorFontes monitor = new MonitorFontes();
+        if (!monitor.lerArgumentos(args)) {
+            exibirUso();
+            System.exit(2);
+        }
+        try {
+            monitor.executar();
+        } catch (IOException e) {
+            System.err.println("Erro no monitoramento: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void exibirUso() {
+        System.err.println("Uso: java Main --monitorar [-o dirSaida] [-f formato] [-e esperaMs] <diretorio>...");
+        System.err.println("  -o dirSaida   diretório dos arquivos de tokens (padrão: " + DIRETORIO_SAIDA_PADRAO + ")");
+        System.err.println("  -f formato    texto, jsonl, csv ou binario (padrão: texto)");
+        System.err.println("  -e esperaMs   silêncio que encerra uma rajada de alterações (padrão: " + ESPERA_PADRAO_MS + " ms)");
+    }
+
+    /**
+     * Interpreta os argumentos da linha de comando
+     *
+     * @return false se os argumentos forem inválidos
+     */
+    boolean lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-o") && i + 1 < args.length) {
+                diretorioSaida = Paths.get(args[++i]);
+            } else if (arg.equals("-f") && i + 1 < args.length) {
+                formato = FormatoExportacao.porNome(args[++i]);
+                if (formato == null) {
+                    return false;
+                }
+            } else if (arg.equals("-e") && i + 1 < args.length) {
+                try {
+                    esperaMs = Math.max(0, Long.parseLong(args[++i]));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arg.startsWith("-")) {
+                return false;
+            } else {
+                Path raiz = Paths.get(arg);
+                if (!Files.isDirectory(raiz)) {
+                    System.err.println("Não é um diretório: " + arg);
+                    return false;
+                }
+                raizes.add(raiz.toAbsolutePath().normalize());
+            }
+        }
+        return !raizes.isEmpty();
+    }
+
+    // === EXECUÇÃO ===
+
+    /**
+     * Analisa a árvore inteira uma vez e, em seguida, processa as
+     * alterações até a thread ser interrompida
+     */
+    void executar() throws IOException, InterruptedException {
+        Files.createDirectories(diretorioSaida);
+        diretorioSaida = diretorioSaida.toAbsolutePath().normalize();
+        base = ProcessadorLote.ancestralComum(raizes);
+        if (base == null) {
+            throw new IOException("os diretórios monitorados estão em raízes diferentes");
+        }
+        excluirSaida = true;
+        for (Path raiz : raizes) {
+            if (raiz.startsWith(diretorioSaida)) {
+                excluirSaida = false;
+            }
+        }
+        servico = FileSystems.getDefault().newWatchService();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::encerrar));
+        try {
+            TreeSet<Path> iniciais = new TreeSet<>();
+            for (Path raiz : raizes) {
+                registrarArvore(raiz, iniciais);
+            }
+            processar(iniciais);
+            System.out.println("Monitorando " + arquivos.size() + " arquivo(s) em " + diretorios.size()
+                               + " diretório(s). Ctrl+C para encerrar.");
+            while (true) {
+                processar(aguardarRajada());
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Encerrado pelo gancho de desligamento
+        }
+    }
+
+    private void encerrar() {
+        try {
+            servico.close();
+        } catch (IOException e) {
+            // Encerrando de qualquer forma
+        }
+    }
+
+    /**
+     * Espera o primeiro evento e acumula os seguintes até a rajada terminar
+     *
+     * @return arquivos a processar (criados, alterados ou removidos)
+     */
+    private TreeSet<Path> aguardarRajada() throws IOException, InterruptedException {
+        TreeSet<Path> pendentes = new TreeSet<>();
+        WatchKey chave = servico.take();
+        long inicio = System.nanoTime();
+        while (chave != null) {
+            coletar(chave, pendentes);
+            long decorrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            long restante = ATRASO_MAXIMO_MS - decorrido;
+            if (restante <= 0) {
+                break;
+            }
+            chave = servico.poll(Math.min(esperaMs, restante), TimeUnit.MILLISECONDS);
+        }
+        return pendentes;
+    }
+
+    /**
+     * Converte os eventos de um diretório em arquivos pendentes
+     */
+    private void coletar(WatchKey chave, TreeSet<Path> pendentes) throws IOException {
+        Path diretorio = diretorios.get(chave);
+        for (WatchEvent<?> evento : chave.pollEvents()) {
+            WatchEvent.Kind<?> tipo = evento.kind();
+            if (tipo == StandardWatchEventKinds.OVERFLOW) {
+                // Eventos perdidos: comparar todos os arquivos conhecidos e procurar novos
+                pendentes.addAll(arquivos.keySet());
+                for (Path raiz : raizes) {
+                    registrarArvore(raiz, pendentes);
+                }
+                continue;
+            }
+            if (diretorio == null) {
+                continue;
+            }
+            Path caminho = diretorio.resolve((Path) evento.context());
+            if (tipo == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(caminho)) {
+                // Diretório novo (ou movido para a árvore): os arquivos já podem estar lá
+                registrarArvore(caminho, pendentes);
+            } else if (tipo == StandardWatchEventKinds.ENTRY_DELETE) {
+                // Um diretório removido não gera eventos para os seus arquivos
+                for (Path conhecido : arquivos.keySet()) {
+                    if (conhecido.startsWith(caminho)) {
+                        pendentes.add(conhecido);
+                    }
+                }
+                if (ProcessadorLote.ehFontePascal(caminho)) {
+                    pendentes.add(caminho);
+                }
+            } else if (ProcessadorLote.ehFontePascal(caminho)) {
+                pendentes.add(caminho);
+            }
+        }
+        if (!chave.reset()) {
+            registrados.remove(diretorios.remove(chave));
+        }
+    }
+
+    /**
+     * Registra um diretório e os seus subdiretórios e acrescenta os arquivos
+     * Pascal encontrados aos pendentes
+     *
+     * O diretório de saída é pulado quando está dentro de uma raiz; se ele
+     * contém uma raiz (-o . fontes), nada é pulado: as saídas não são
+     * arquivos Pascal, e os seus eventos são ignorados.
+     */
+    private void registrarArvore(Path inicio, TreeSet<Path> pendentes) throws IOException {
+        try (Stream<Path> caminhos = Files.walk(inicio)) {
+            for (Path caminho : (Iterable<Path>) caminhos::iterator) {
+                Path absoluto = caminho.toAbsolutePath().normalize();
+                if (excluirSaida && absoluto.startsWith(diretorioSaida)) {
+                    continue;
+                }
+                if (Files.isDirectory(absoluto)) {
+                    if (registrados.add(absoluto)) {
+                        WatchKey chave = absoluto.register(servico, StandardWatchEventKinds.ENTRY_CREATE,
+                                                           StandardWatchEventKinds.ENTRY_MODIFY,
+                                                           StandardWatchEventKinds.ENTRY_DELETE);
+                        diretorios.put(chave, absoluto);
+                    }
+                } else if (Files.isRegularFile(absoluto) && ProcessadorLote.ehFontePascal(absoluto)) {
+                    pendentes.add(absoluto);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Diretório removido durante a varredura: os eventos seguintes corrigem o estado
+            if (Files.isDirectory(inicio)) {
+                throw e;
+            }
+        }
+    }
+
+    // === PROCESSAMENTO DAS ALTERAÇÕES ===
+
+    /**
+     * Atualiza os arquivos pendentes, regrava o resumo e exibe uma linha
+     * por arquivo alterado
+     */
+    private void processar(TreeSet<Path> pendentes) throws IOException {
+        long inicio = System.nanoTime();
+        List<String> linhas = new ArrayList<>();
+        for (Path caminho : pendentes) {
+            String linha;
+            try {
+                linha = Files.isRegularFile(caminho) ? atualizar(caminho) : remover(caminho);
+            } catch (IOException | RuntimeException e) {
+                linha = "falha em " + caminho + ": " + e;
+            }
+            if (linha != null) {
+                linhas.add(linha);
+            }
+        }
+        if (linhas.isEmpty()) {
+            return; // Apenas arquivos tocados, sem alteração
+        }
+        long duracao = System.nanoTime() - inicio;
+        resumo.registrarLote(linhas.size(), duracao);
+        Files.write(diretorioSaida.resolve(ARQUIVO_RESUMO), resumo.formatar(arquivos.size()).getBytes(StandardCharsets.UTF_8));
+
+        String horario = LocalTime.now().format(HORARIO);
+        for (String linha : linhas) {
+            System.out.println(horario + "  " + linha);
+        }
+        System.out.println(String.format(Locale.ROOT, "%s  %d arquivo(s) em %.2f ms", horario, linhas.size(), duracao / 1e6));
+    }
+
+    /**
+     * Analisa um arquivo novo ou alterado e regrava o seu arquivo de tokens
+     *
+     * @return linha a exibir, ou null se o conteúdo não mudou
+     */
+    private String atualizar(Path caminho) throws IOException {
+        byte[] bytes = Files.readAllBytes(caminho);
+        String texto = new String(bytes, StandardCharsets.UTF_8);
+        ArquivoMonitorado arquivo = arquivos.get(caminho);
+        String descricao;
+        if (arquivo == null) {
+            arquivo = new ArquivoMonitorado(caminho, nomeRelativo(caminho), new SessaoIncremental(texto));
+            arquivos.put(caminho, arquivo);
+            descricao = "novo";
+        } else {
+            if (texto.contentEquals(arquivo.sessao.getTexto())) {
+                return null;
+            }
+            resumo.subtrair(arquivo);
+            AlteracaoTokens alteracao = arquivo.sessao.atualizar(texto);
+            descricao = String.format(Locale.ROOT, "tokens %d..%d: -%d +%d", alteracao.inicio,
+                                      alteracao.inicio + alteracao.inseridos, alteracao.removidos, alteracao.inseridos);
+        }
+        arquivo.contar(bytes.length);
+        resumo.somar(arquivo);
+        exportar(arquivo);
+        return arquivo.nomeRelativo + ": " + arquivo.tokens + " tokens (" + descricao + ")";
+    }
+
+    /**
+     * Esquece um arquivo removido e apaga o seu arquivo de tokens
+     */
+    private String remover(Path caminho) throws IOException {
+        ArquivoMonitorado arquivo = arquivos.remove(caminho);
+        if (arquivo == null) {
+            return null;
+        }
+        resumo.subtrair(arquivo);
+        Files.deleteIfExists(destino(arquivo));
+        return arquivo.nomeRelativo + ": removido";
+    }
+
+    /**
+     * Grava os tokens da sessão em um arquivo temporário e o move sobre o
+     * arquivo de tokens
+     */
+    private void exportar(ArquivoMonitorado arquivo) throws IOException {
+        Path destino = destino(arquivo);
+        if (destino.getParent() != null) {
+            Files.createDirectories(destino.getParent());
+        }
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        CharSequence texto = arquivo.sessao.getTexto();
+        BufferTokens tokens = arquivo.sessao.getTokens();
+        try (ExportadorTokens exportador = ExportadorTokens.criar(formato, temporario)) {
+            if (formato == FormatoExportacao.BINARIO) {
+                exportador.setHashFonte(HashConteudo.deTexto(texto));
+            }
+            exportador.exportar(tokens, 0, tokens.tamanho(), texto);
+            exportador.finalizar(arquivo.diagnosticos);
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path destino(ArquivoMonitorado arquivo) {
+        return diretorioSaida.resolve(arquivo.nomeRelativo + ProcessadorLote.SUFIXO_SAIDA + formato.extensao);
+    }
+
+    /**
+     * Nome do arquivo relativo ao ancestral comum das raízes (a própria
+     * raiz, se há uma só): arquivos de raízes diferentes com o mesmo nome
+     * relativo, como a/main.pas e b/main.pas, não dividem a saída
+     */
+    private String nomeRelativo(Path caminho) {
+        return base.relativize(caminho).toString();
+    }
+
+    // === ESTRUTURAS ===
+
+    /**
+     * Arquivo monitorado: sessão incremental e a sua contribuição ao resumo
+     */
+    static final class ArquivoMonitorado {
+        final Path origem;
+        final String nomeRelativo;
+        final SessaoIncremental sessao;
+        final long[] contagens = new long[TipoToken.values().length];
+        ColetorDiagnosticos diagnosticos;
+        long bytes;
+        long tokens;
+        long naoIdentificados;
+
+        ArquivoMonitorado(Path origem, String nomeRelativo, SessaoIncremental sessao) {
+            this.origem = origem;
+            this.nomeRelativo = nomeRelativo;
+            this.sessao = sessao;
+        }
+
+        /**
+         * Recalcula as contagens a partir dos tokens atuais da sessão
+         */
+        void contar(long bytesArquivo) {
+            BufferTokens buffer = sessao.getTokens();
+            Arrays.fill(contagens, 0);
+            for (int i = 0; i < buffer.tamanho(); i++) {
+                contagens[buffer.tipoOrdinal(i)]++;
+            }
+            diagnosticos = sessao.getDiagnosticos();
+            bytes = bytesArquivo;
+            tokens = buffer.tamanho();
+            naoIdentificados = diagnosticos.getTotalCaracteresDesconhecidos();
+        }
+    }
+
+    /**
+     * Totais de todos os arquivos monitorados, atualizados a cada alteração
+     * (a contribuição antiga do arquivo é subtraída e a nova somada)
+     */
+    static final class ResumoMonitor {
+        final long[] contagens = new long[TipoToken.values().length];
+        long bytes;
+        long tokens;
+        long naoIdentificados;
+        long lotes;
+        long arquivosProcessados;
+        long duracaoTotalNanos;
+        long duracaoUltimoNanos;
+
+        void somar(ArquivoMonitorado arquivo) {
+            acumular(arquivo, 1);
+        }
+
+        void subtrair(ArquivoMonitorado arquivo) {
+            acumular(arquivo, -1);
+        }
+
+        private void acumular(ArquivoMonitorado arquivo, int sinal) {
+            bytes += sinal * arquivo.bytes;
+            tokens += sinal * arquivo.tokens;
+            naoIdentificados += sinal * arquivo.naoIdentificados;
+            for (int i = 0; i < contagens.length; i++) {
+                contagens[i] += sinal * arquivo.contagens[i];
+            }
+        }
+
+        void registrarLote(int arquivos, long duracaoNanos) {
+            lotes++;
+            arquivosProcessados += arquivos;
+            duracaoTotalNanos += duracaoNanos;
+            duracaoUltimoNanos = duracaoNanos;
+        }
+
+        /**
+         * Formata o resumo com os totais atuais e a contagem por tipo de token
+         */
+        String formatar(int arquivos) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("========================================\n");
+            sb.append("        RESUMO DO MONITORAMENTO\n");
+            sb.append("========================================\n");
+            sb.append(String.format(Locale.ROOT, "Arquivos monitorados: %d%n", arquivos));
+            sb.append(String.format(Locale.ROOT, "Bytes: %d%n", bytes));
+            sb.append(String.format(Locale.ROOT, "Tokens: %d%n", tokens));
+            sb.append(String.format(Locale.ROOT, "Caracteres não identificados: %d%n", naoIdentificados));
+            sb.append(String.format(Locale.ROOT, "Atualizações: %d (%d arquivos)%n", lotes, arquivosProcessados));
+            sb.append(String.format(Locale.ROOT, "Última atualização: %.2f ms%n", duracaoUltimoNanos / 1e6));
+            sb.append(String.format(Locale.ROOT, "Tempo médio por atualização: %.2f ms%n",
+                                    duracaoTotalNanos / 1e6 / Math.max(lotes, 1)));
+            sb.append("----------------------------------------\n");
+            sb.append("Tokens por tipo:\n");
+            TipoToken[] tipos = TipoToken.values();
+            for (int i = 0; i < tipos.length; i++) {
+                if (contagens[i] > 0) {
+                    sb.append(String.format(Locale.ROOT, "  %-20s %d%n", tipos[i], contagens[i]));
+                }
+            }
+            sb.append("========================================\n");
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package cli;
+
+// Importações do analisador léxico
+import lexico.AnalisadorLexico;
+import lexico.AnalisadorParalelo;
+import lexico.BufferTokens;
+import lexico.CacheTokens;
+import lexico.ColetorDiagnosticos;
+import lexico.ExportadorTokens;
+import lexico.FonteCaracteres;
+import lexico.FormatoExportacao;
+import lexico.HashConteudo;
+import lexico.LeitorTokensBinario;
+import lexico.TextoMapeado;
+import lexico.TipoToken;
+import lexico.Token;
+
+// Importações para manipulação de arquivos
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Processador em lote do analisador léxico (modo sem interface gráfica)
+ *
+ * Permite executar o analisador léxico sobre milhares de arquivos Pascal
+ * a partir da linha de comando, sem inicializar o JavaFX. Os arquivos são
+ * analisados em paralelo em um pool fork-join, e para cada arquivo é gerado
+ * um arquivo de tokens no mesmo formato usado pela tela do analisador léxico
+ * (ou em JSON Lines / CSV / binário), gravado à medida que os tokens são produzidos.
+ *
+ * Entradas aceitas:
+ * - Arquivos individuais (ex: programa.pas)
+ * - Diretórios, percorridos recursivamente (arquivos .pas e .pascal)
+ * - Padrões glob (ex: "fontes/**.pas")
+ *
+ * Com -c, os resultados ficam em um cache em disco (CacheTokens): um
+ * arquivo cujo conteúdo não mudou desde a execução anterior não é
+ * analisado de novo, e seus tokens são exportados a partir do cache.
+ *
+ * Com -s, arquivos a partir do tamanho informado são divididos em partes
+ * analisadas em paralelo (AnalisadorParalelo), com o mesmo resultado da
+ * análise sequencial.
+ *
+ * Ao final é exibido um resumo com a contagem de tokens por TipoToken,
+ * arquivos por segundo e MB por segundo.
+ *
+ */
+public class ProcessadorLote {
+
+    // === CONFIGURAÇÕES PADRÃO ===
+    private static final String DIRETORIO_SAIDA_PADRAO = "tokens_lote";
+    static final String SUFIXO_SAIDA = ".tokens";          // Seguido da extensão do formato
+    private static final String ARQUIVO_RESUMO = "resumo_lote.txt";
+
+    // Quantidade de arquivos abaixo da qual uma tarefa não é mais dividida
+    private static final int LIMITE_DIVISAO = 4;
+
+    // === ATRIBUTOS DE CONFIGURAÇÃO ===
+    private Path diretorioSaida = Paths.get(DIRETORIO_SAIDA_PADRAO);
+    private int paralelismo = Runtime.getRuntime().availableProcessors();
+    private FormatoExportacao formato = FormatoExportacao.TEXTO;
+    private Path diretorioCache;                            // null: sem cache
+    private long limiteCache = CacheTokens.LIMITE_PADRAO;
+    private long limiteDivisaoArquivo = Long.MAX_VALUE;     // Tamanho a partir do qual um arquivo é dividido
+    private final List<String> entradas = new ArrayList<>();
+    private CacheTokens cache;
+
+    /**
+     * Ponto de entrada do modo em lote
+     *
+     * Uso: java Main --lote [-o dirSaida] [-p threads] [-f formato] [-c dirCache] [-l limiteMB] [-s tamanhoMB] entrada...
+     */
+    public static void main(String[] args) {
+        ProcessadorLote processador = new ProcessadorLote();
+        if (!processador.lerArgumentos(args)) {
+            exibirUso();
+            System.exit(2);
+        }
+        try {
+            ResumoLote resumo = processador.executar();
+            System.exit(resumo.falhas == 0 ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("Erro no processamento em lote: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Exibe as instruções de uso do modo em lote
+     */
+    private static void exibirUso() {
+        System.err.println("Uso: java Main --lote [-o dirSaida] [-p threads] [-f formato] [-c dirCache] [-l limiteMB] [-s tamanhoMB] <arquivo|diretorio|glob>...");
+        System.err.println("  -o dirSaida   diretório dos arquivos de tokens (padrão: " + DIRETORIO_SAIDA_PADRAO + ")");
+        System.err.println("  -p threads    quantidade de threads do pool (padrão: núcleos disponíveis)");
+        System.err.println("  -f formato    texto, jsonl, csv ou binario (padrão: texto)");
+        System.err.println("  -c dirCache   reaproveitar a análise de arquivos inalterados (cache em disco)");
+        System.err.println("  -l limiteMB   tamanho máximo do cache (padrão: " + CacheTokens.LIMITE_PADRAO / (1024 * 1024) + " MB)");
+        System.err.println("  -s tamanhoMB  dividir arquivos a partir desse tamanho em partes analisadas em paralelo");
+    }
+
+    /**
+     * Interpreta os argumentos da linha de comando
+     *
+     * @return false se os argumentos forem inválidos
+     */
+    boolean lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-o") && i + 1 < args.length) {
+                diretorioSaida = Paths.get(args[++i]);
+            } else if (arg.equals("-p") && i + 1 < args.length) {
+                try {
+                    paralelismo = Math.max(1, Integer.parseInt(args[++i]));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arg.equals("-f") && i + 1 < args.length) {
+                formato = FormatoExportacao.porNome(args[++i]);
+                if (formato == null) {
+                    return false;
+                }
+            } else if (arg.equals("-c") && i + 1 < args.length) {
+                diretorioCache = Paths.get(args[++i]);
+            } else if (arg.equals("-l") && i + 1 < args.length) {
+                try {
+                    limiteCache = Math.max(1, Long.parseLong(args[++i])) * 1024 * 1024;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arg.equals("-s") && i + 1 < args.length) {
+                try {
+                    limiteDivisaoArquivo = Math.max(1, Long.parseLong(args[++i])) * 1024 * 1024;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            } else if (arg.startsWith("-")) {
+                return false;
+            } else {
+                entradas.add(arg);
+            }
+        }
+        return !entradas.isEmpty();
+    }
+
+    // === EXECUÇÃO DO LOTE ===
+
+    /**
+     * Executa a análise de todas as entradas e grava os resultados
+     */
+    ResumoLote executar() throws IOException {
+        List<ArquivoLote> arquivos = expandirEntradas(entradas);
+        if (arquivos.isEmpty()) {
+            System.err.println("Nenhum arquivo encontrado para as entradas informadas.");
+        }
+        Files.createDirectories(diretorioSaida);
+        if (diretorioCache != null) {
+            cache = CacheTokens.abrir(diretorioCache, limiteCache);
+        }
+
+        long inicio = System.nanoTime();
+        ResultadoArquivo[] resultados = new ResultadoArquivo[arquivos.size()];
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            pool.invoke(new TarefaLote(arquivos, resultados, 0, arquivos.size()));
+        } finally {
+            pool.shutdown();
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        // Consolidar resultados na ordem determinística dos arquivos
+        ResumoLote resumo = new ResumoLote();
+        resumo.comCache = cache != null;
+        for (ResultadoArquivo resultado : resultados) {
+            resumo.acumular(resultado);
+            if (resultado.erro != null) {
+                System.err.println("Falha em " + resultado.arquivo.origem + ": " + resultado.erro);
+            }
+        }
+        resumo.duracaoNanos = duracao;
+
+        String relatorio = resumo.formatar();
+        System.out.print(relatorio);
+        Files.write(diretorioSaida.resolve(ARQUIVO_RESUMO), relatorio.getBytes(StandardCharsets.UTF_8));
+        return resumo;
+    }
+
+    /**
+     * Tarefa fork-join que divide a lista de arquivos ao meio até o limite
+     * e analisa cada arquivo, guardando o resultado na posição do índice
+     */
+    private class TarefaLote extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ArquivoLote> arquivos;
+        private final ResultadoArquivo[] resultados;
+        private final int inicio;
+        private final int fim;
+
+        TarefaLote(List<ArquivoLote> arquivos, ResultadoArquivo[] resultados, int inicio, int fim) {
+            this.arquivos = arquivos;
+            this.resultados = resultados;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected Void compute() {
+            if (fim - inicio <= LIMITE_DIVISAO) {
+                for (int i = inicio; i < fim; i++) {
+                    resultados[i] = analisarArquivo(arquivos.get(i));
+                }
+                return null;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new TarefaLote(arquivos, resultados, inicio, meio),
+                      new TarefaLote(arquivos, resultados, meio, fim));
+            return null;
+        }
+    }
+
+    /**
+     * Analisa um único arquivo e grava seus tokens no diretório de saída
+     */
+    private ResultadoArquivo analisarArquivo(ArquivoLote arquivo) {
+        ResultadoArquivo resultado = new ResultadoArquivo(arquivo);
+        try {
+            resultado.bytes = Files.size(arquivo.origem);
+
+            Path destino = diretorioSaida.resolve(arquivo.nomeRelativo + SUFIXO_SAIDA + formato.extensao);
+            if (destino.getParent() != null) {
+                Files.createDirectories(destino.getParent());
+            }
+
+            boolean precisaHash = cache != null || formato == FormatoExportacao.BINARIO;
+            long hash = precisaHash ? HashConteudo.deArquivo(arquivo.origem) : 0;
+            LeitorTokensBinario salvo = cache != null ? cache.buscar(hash) : null;
+            // Gravação em um temporário ao lado do destino: uma falha não deixa saída truncada
+            Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+            try {
+                try (ExportadorTokens exportador = ExportadorTokens.criar(formato, temporario)) {
+                    exportador.setHashFonte(hash);
+                    if (salvo != null) {
+                        // Conteúdo inalterado: tokens e erros vêm do cache, sem análise
+                        resultado.doCache = true;
+                        Token token;
+                        while ((token = salvo.proximoToken()) != null) {
+                            resultado.contagens[token.tipo.ordinal()]++;
+                            exportador.exportar(token);
+                        }
+                        ColetorDiagnosticos diagnosticos = salvo.diagnosticos();
+                        exportador.finalizar(diagnosticos);
+                        resultado.naoIdentificados = diagnosticos.getTotalCaracteresDesconhecidos();
+                    } else if (resultado.bytes >= limiteDivisaoArquivo) {
+                        analisarEmPartes(arquivo, hash, exportador, resultado);
+                    } else {
+                        analisar(arquivo, hash, exportador, resultado);
+                    }
+                }
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario); // Só sobra se a análise ou a gravação falhou
+            }
+        } catch (IOException | RuntimeException e) {
+            resultado.erro = e.toString();
+        }
+        return resultado;
+    }
+
+    /**
+     * Analisa o arquivo, exportando cada token para o destino e, se houver
+     * cache, também para uma nova entrada do cache
+     */
+    private void analisar(ArquivoLote arquivo, long hash, ExportadorTokens exportador,
+                          ResultadoArquivo resultado) throws IOException {
+        // Arquivo mapeado em memória: o código não é carregado inteiro no heap
+        try (FonteCaracteres fonte = FonteCaracteres.deArquivoMapeado(arquivo.origem);
+             CacheTokens.Entrada entrada = cache != null ? cache.novaEntrada(hash) : null) {
+            AnalisadorLexico analisador = new AnalisadorLexico(fonte);
+            Token token;
+            while ((token = analisador.proximoToken()) != null) {
+                resultado.contagens[token.tipo.ordinal()]++;
+                exportador.exportar(token);
+                if (entrada != null) {
+                    entrada.getExportador().exportar(token);
+                }
+            }
+            // Mesmo relatório exibido pela tela do analisador léxico
+            exportador.finalizar(analisador.getDiagnosticos());
+            if (entrada != null) {
+                entrada.getExportador().finalizar(analisador.getDiagnosticos());
+                entrada.confirmar();
+            }
+            resultado.naoIdentificados = analisador.getDiagnosticos().getTotalCaracteresDesconhecidos();
+        }
+    }
+
+    /**
+     * Analisa um arquivo grande dividido em partes paralelas (no mesmo pool
+     * do lote) e exporta os tokens ao final
+     */
+    private void analisarEmPartes(ArquivoLote arquivo, long hash, ExportadorTokens exportador,
+                                  ResultadoArquivo resultado) throws IOException {
+        TextoMapeado texto = TextoMapeado.abrir(arquivo.origem);
+        AnalisadorParalelo.Resultado analise = AnalisadorParalelo.analisar(texto, paralelismo);
+        BufferTokens tokens = analise.tokens;
+        for (int i = 0; i < tokens.tamanho(); i++) {
+            resultado.contagens[tokens.tipoOrdinal(i)]++;
+        }
+        exportador.exportar(tokens, 0, tokens.tamanho(), texto);
+        exportador.finalizar(analise.diagnosticos);
+        if (cache != null) {
+            cache.guardar(hash, tokens, texto, analise.diagnosticos);
+        }
+        resultado.naoIdentificados = analise.diagnosticos.getTotalCaracteresDesconhecidos();
+    }
+
+    // === EXPANSÃO DAS ENTRADAS ===
+
+    /**
+     * Converte arquivos, diretórios e padrões glob em uma lista ordenada
+     * de arquivos, sem repetições, para que a saída seja determinística
+     */
+    static List<ArquivoLote> expandirEntradas(List<String> entradas) throws IOException {
+        TreeMap<Path, ArquivoLote> encontrados = new TreeMap<>();
+        for (String entrada : entradas) {
+            if (ehPadraoGlob(entrada)) {
+                expandirGlob(entrada, encontrados);
+            } else {
+                Path caminho = Paths.get(entrada);
+                if (Files.isDirectory(caminho)) {
+                    expandirDiretorio(caminho, encontrados);
+                } else if (Files.isRegularFile(caminho)) {
+                    adicionar(encontrados, caminho, caminho.getFileName());
+                } else {
+                    System.err.println("Entrada ignorada (não encontrada): " + entrada);
+                }
+            }
+        }
+        return nomesUnicos(encontrados);
+    }
+
+    /**
+     * Garante que dois arquivos não gravem a mesma saída
+     *
+     * O nome de saída é relativo à entrada de cada arquivo, de modo que
+     * entradas diferentes podem produzir o mesmo nome (a/main.pas e
+     * b/main.pas, com as entradas a e b). Nesse caso, todos os nomes passam
+     * a ser relativos ao ancestral comum dos arquivos, que é único para
+     * cada arquivo. Nomes que diferem só em maiúsculas e minúsculas também
+     * colidem, em sistemas de arquivos que não as diferenciam.
+     */
+    private static List<ArquivoLote> nomesUnicos(TreeMap<Path, ArquivoLote> encontrados) throws IOException {
+        if (nomeRepetido(encontrados.values()) == null) {
+            return new ArrayList<>(encontrados.values());
+        }
+        Path ancestral = ancestralComum(encontrados.keySet());
+        if (ancestral == null) {
+            throw new IOException("arquivos em raízes diferentes geram saídas com o mesmo nome");
+        }
+        List<ArquivoLote> renomeados = new ArrayList<>(encontrados.size());
+        for (ArquivoLote arquivo : encontrados.values()) {
+            Path absoluto = arquivo.origem.toAbsolutePath().normalize();
+            renomeados.add(new ArquivoLote(arquivo.origem, ancestral.relativize(absoluto).toString()));
+        }
+        String repetido = nomeRepetido(renomeados);
+        if (repetido != null) {
+            throw new IOException("mais de um arquivo geraria a saída " + repetido);
+        }
+        return renomeados;
+    }
+
+    private static String nomeRepetido(Iterable<ArquivoLote> arquivos) {
+        HashSet<String> nomes = new HashSet<>();
+        for (ArquivoLote arquivo : arquivos) {
+            if (!nomes.add(arquivo.nomeRelativo.toLowerCase(Locale.ROOT))) {
+                return arquivo.nomeRelativo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Diretório mais profundo que contém todos os caminhos (absolutos e
+     * normalizados), ou null se estão em raízes diferentes
+     */
+    static Path ancestralComum(Iterable<Path> caminhos) {
+        Path ancestral = null;
+        for (Path caminho : caminhos) {
+            if (ancestral == null) {
+                ancestral = Files.isDirectory(caminho) ? caminho : caminho.getParent();
+            }
+            while (ancestral != null && !caminho.startsWith(ancestral)) {
+                ancestral = ancestral.getParent();
+            }
+            if (ancestral == null) {
+                return null;
+            }
+        }
+        return ancestral;
+    }
+
+    private static boolean ehPadraoGlob(String entrada) {
+        return entrada.indexOf('*') >= 0 || entrada.indexOf('?') >= 0
+            || entrada.indexOf('[') >= 0 || entrada.indexOf('{') >= 0;
+    }
+
+    private static void expandirDiretorio(Path diretorio, TreeMap<Path, ArquivoLote> encontrados) throws IOException {
+        try (Stream<Path> caminhos = Files.walk(diretorio)) {
+            caminhos.filter(Files::isRegularFile)
+                    .filter(ProcessadorLote::ehFontePascal)
+                    .forEach(caminho -> adicionar(encontrados, caminho, diretorio.relativize(caminho)));
+        }
+    }
+
+    /**
+     * Expande um padrão glob a partir do maior prefixo sem curingas
+     */
+    private static void expandirGlob(String padrao, TreeMap<Path, ArquivoLote> encontrados) throws IOException {
+        String normalizado = padrao.replace('\\', '/');
+        int curinga = normalizado.length();
+        for (char c : new char[] {'*', '?', '[', '{'}) {
+            int indice = normalizado.indexOf(c);
+            if (indice >= 0 && indice < curinga) {
+                curinga = indice;
+            }
+        }
+        int barra = normalizado.lastIndexOf('/', curinga);
+        Path base = barra >= 0 ? Paths.get(normalizado.substring(0, barra + 1)) : Paths.get(".");
+        String relativo = barra >= 0 ? normalizado.substring(barra + 1) : normalizado;
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + relativo);
+        try (Stream<Path> caminhos = Files.walk(base)) {
+            caminhos.filter(Files::isRegularFile)
+                    .filter(caminho -> matcher.matches(base.relativize(caminho)))
+                    .forEach(caminho -> adicionar(encontrados, caminho, base.relativize(caminho)));
+        }
+    }
+
+    static boolean ehFontePascal(Path caminho) {
+        String nome = caminho.getFileName().toString().toLowerCase(Locale.ROOT);
+        return nome.endsWith(".pas") || nome.endsWith(".pascal");
+    }
+
+    private static void adicionar(TreeMap<Path, ArquivoLote> encontrados, Path caminho, Path relativo) {
+        Path absoluto = caminho.toAbsolutePath().normalize();
+        encontrados.putIfAbsent(absoluto, new ArquivoLote(caminho, relativo.normalize().toString()));
+    }
+
+    // === ESTRUTURAS DE RESULTADO ===
+
+    /**
+     * Arquivo de entrada e o nome relativo usado para gerar a saída
+     */
+    static final class ArquivoLote {
+        final Path origem;
+        final String nomeRelativo;
+
+        ArquivoLote(Path origem, String nomeRelativo) {
+            this.origem = origem;
+            this.nomeRelativo = nomeRelativo;
+        }
+    }
+
+    /**
+     * Resultado da análise de um arquivo (preenchido por uma única thread)
+     */
+    static final class ResultadoArquivo {
+        final ArquivoLote arquivo;
+        final long[] contagens = new long[TipoToken.values().length];
+        long bytes;
+        long naoIdentificados;
+        boolean doCache;            // Resultado obtido do cache, sem análise
+        String erro;
+
+        ResultadoArquivo(ArquivoLote arquivo) {
+            this.arquivo = arquivo;
+        }
+    }
+
+    /**
+     * Resumo consolidado de todo o lote
+     */
+    static final class ResumoLote {
+        final long[] contagens = new long[TipoToken.values().length];
+        int arquivos;
+        int falhas;
+        long bytes;
+        long tokens;
+        long naoIdentificados;
+        long acertosCache;
+        boolean comCache;
+        long duracaoNanos;
+
+        void acumular(ResultadoArquivo resultado) {
+            arquivos++;
+            if (resultado.erro != null) {
+                falhas++;
+                return;
+            }
+            bytes += resultado.bytes;
+            naoIdentificados += resultado.naoIdentificados;
+            if (resultado.doCache) {
+                acertosCache++;
+            }
+            for (int i = 0; i < contagens.length; i++) {
+                contagens[i] += resultado.contagens[i];
+                tokens += resultado.contagens[i];
+            }
+        }
+
+        /**
+         * Formata o resumo com totais, vazão e contagem por tipo de token
+         */
+        String formatar() {
+            double segundos = Math.max(duracaoNanos, 1) / 1e9;
+            StringBuilder sb = new StringBuilder();
+            sb.append("========================================\n");
+            sb.append("         RESUMO DO PROCESSAMENTO\n");
+            sb.append("========================================\n");
+            sb.append(String.format(Locale.ROOT, "Arquivos analisados: %d (falhas: %d)%n", arquivos, falhas));
+            sb.append(String.format(Locale.ROOT, "Bytes lidos: %d%n", bytes));
+            sb.append(String.format(Locale.ROOT, "Tokens: %d%n", tokens));
+            sb.append(String.format(Locale.ROOT, "Caracteres não identificados: %d%n", naoIdentificados));
+            if (comCache) {
+                sb.append(String.format(Locale.ROOT, "Obtidos do cache: %d de %d%n", acertosCache, arquivos - falhas));
+            }
+            sb.append(String.format(Locale.ROOT, "Tempo: %.3f s%n", segundos));
+            sb.append(String.format(Locale.ROOT, "Arquivos/s: %.1f%n", arquivos / segundos));
+            sb.append(String.format(Locale.ROOT, "MB/s: %.2f%n", bytes / (1024.0 * 1024.0) / segundos));
+            sb.append("----------------------------------------\n");
+            sb.append("Tokens por tipo:\n");
+            TipoToken[] tipos = TipoToken.values();
+            for (int i = 0; i < tipos.length; i++) {
+                if (contagens[i] > 0) {
+                    sb.append(String.format(Locale.ROOT, "  %-20s %d%n", tipos[i], contagens[i]));
+                }
+            }
+            sb.append("========================================\n");
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package cli;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.InetAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Protocolo entre o ServidorLexico e o ClienteLexico
+ *
+ * Cada mensagem é um quadro: tamanho (int de 4 bytes, big-endian, sem
+ * contar ele próprio), tipo (1 byte) e conteúdo (tamanho - 1 bytes). Uma
+ * conexão pode levar quantos pedidos o cliente quiser, um de cada vez.
+ *
+ * Pedidos:
+ * - PING: sem conteúdo; resposta OK com a versão do protocolo e os
+ *   contadores do servidor (conexões, pedidos, tokens), em varints
+ * - TOKENIZAR: conteúdo = código fonte em UTF-8, com no máximo
+ *   TAMANHO_MAXIMO_PEDIDO bytes; resposta: zero ou mais quadros TOKENS
+ *   seguidos de um quadro FIM_TOKENS
+ * - ENCERRAR: sem conteúdo; resposta OK e o servidor deixa de aceitar conexões
+ *
+ * Quadro TOKENS (inteiros em varint, 7 bits por byte): quantidade de
+ * tokens (no máximo TOKENS_POR_QUADRO); para cada token: ordinal do
+ * TipoToken, distância entre o fim do token anterior (também o do quadro
+ * anterior) e o início deste, comprimento (posições em caracteres UTF-16
+ * do código decodificado). Os quadros são enviados à medida que os tokens
+ * são produzidos: nem o servidor nem o cliente guardam a lista inteira.
+ *
+ * Quadro FIM_TOKENS: total de erros léxicos e quantidade de erros
+ * retidos; para cada erro retido: ordinal do Diagnostico.Tipo, posição,
+ * linha, coluna, comprimento e trecho (tamanho em bytes + UTF-8).
+ *
+ * Resposta ERRO: mensagem em UTF-8. Substitui a resposta de um pedido
+ * inválido ou grande demais (cujo conteúdo é descartado sem ser guardado)
+ * e também pode encerrar uma sequência de quadros TOKENS; em ambos os
+ * casos a conexão continua aceitando pedidos.
+ *
+ * Endereços: um socket de domínio Unix ou uma porta TCP no endereço de
+ * loopback. O socket padrão fica em um diretório do próprio usuário
+ * ($XDG_RUNTIME_DIR ou ~/.compilador-lexico, criado com permissão 0700),
+ * e não no diretório temporário compartilhado: outros usuários não podem
+ * conectar nem ocupar o nome antes do servidor.
+ *
+ */
+final class ProtocoloLexico {
+
+    static final int VERSAO = 1;
+
+    // === TIPOS DE QUADRO ===
+    static final int PING = 0;
+    static final int TOKENIZAR = 1;
+    static final int ENCERRAR = 2;
+
+    static final int OK = 0x40;
+    static final int TOKENS = 0x41;
+    static final int FIM_TOKENS = 0x42;
+    static final int ERRO = 0x7F;
+
+    // Maior código aceito em TOKENIZAR: o servidor guarda o pedido e o texto
+    // decodificado de cada conexão (arquivos maiores: --lote)
+    static final int TAMANHO_MAXIMO_PEDIDO = 16 * 1024 * 1024;
+
+    // Tokens por quadro TOKENS (cerca de 1 MB no pior caso)
+    static final int TOKENS_POR_QUADRO = 64 * 1024;
+
+    // Maior resposta aceita pelo cliente (TOKENS e FIM_TOKENS ficam bem abaixo)
+    static final int TAMANHO_MAXIMO_RESPOSTA = 4 * 1024 * 1024;
+
+    static final String NOME_SOCKET = "compilador-lexico.sock";
+    static final Path SOCKET_PADRAO = socketPadrao();
+
+    private ProtocoloLexico() {
+    }
+
+    /**
+     * Socket padrão do usuário: no diretório de execução da sessão
+     * ($XDG_RUNTIME_DIR, já restrito ao usuário) ou em ~/.compilador-lexico
+     */
+    private static Path socketPadrao() {
+        String diretorioExecucao = System.getenv("XDG_RUNTIME_DIR");
+        if (diretorioExecucao != null && !diretorioExecucao.isEmpty()
+                && Files.isDirectory(Paths.get(diretorioExecucao))) {
+            return Paths.get(diretorioExecucao, NOME_SOCKET);
+        }
+        return Paths.get(System.getProperty("user.home"), ".compilador-lexico", NOME_SOCKET);
+    }
+
+    /**
+     * Endereço do servidor: socket de domínio Unix, ou loopback se porta >= 0
+     */
+    static SocketAddress endereco(Path socket, int porta) {
+        if (porta >= 0) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), porta);
+        }
+        return UnixDomainSocketAddress.of(socket);
+    }
+
+    /**
+     * Conteúdo de um quadro, lido ou em montagem, com leitura e escrita de
+     * varints; o vetor é reaproveitado entre quadros da mesma conexão
+     */
+    static final class Quadro {
+
+        private byte[] dados = new byte[8 * 1024];
+        private int tamanho;        // Bytes de conteúdo
+        private int posicao;        // Próximo byte a ler
+        int tipo;
+        boolean excedido;           // O conteúdo recebido passou do limite e foi descartado
+
+        // === LEITURA ===
+
+        /**
+         * Lê o próximo quadro da conexão
+         *
+         * Um conteúdo maior que o limite é lido e descartado, sem ser
+         * guardado, e o quadro fica marcado como excedido: a conexão
+         * continua sincronizada e pode receber a resposta de erro.
+         *
+         * @return false se a conexão foi fechada antes de um novo quadro
+         */
+        boolean receber(DataInputStream entrada, int limite) throws IOException {
+            int total;
+            try {
+                total = entrada.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            if (total < 1) {
+                throw new IOException("tamanho de quadro inválido: " + total);
+            }
+            tipo = entrada.readUnsignedByte();
+            tamanho = total - 1;
+            posicao = 0;
+            excedido = tamanho > limite;
+            if (excedido) {
+                entrada.skipNBytes(tamanho);
+                tamanho = 0;
+                return true;
+            }
+            if (tamanho > dados.length) {
+                dados = new byte[Math.max(tamanho, dados.length * 2)];
+            }
+            entrada.readFully(dados, 0, tamanho);
+            return true;
+        }
+
+        long lerVarint() throws IOException {
+            long valor = 0;
+            for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+                if (posicao >= tamanho) {
+                    throw new IOException("quadro truncado");
+                }
+                int b = dados[posicao++];
+                valor |= (long) (b & 0x7F) << deslocamento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+            throw new IOException("varint inválido");
+        }
+
+        int lerInt() throws IOException {
+            long valor = lerVarint();
+            if (valor > Integer.MAX_VALUE) {
+                throw new IOException("valor fora do intervalo: " + valor);
+            }
+            return (int) valor;
+        }
+
+        String lerTexto() throws IOException {
+            int bytes = lerInt();
+            if (bytes > tamanho - posicao) {
+                throw new IOException("quadro truncado");
+            }
+            String texto = new String(dados, posicao, bytes, StandardCharsets.UTF_8);
+            posicao += bytes;
+            return texto;
+        }
+
+        /**
+         * Todo o conteúdo decodificado como UTF-8
+         */
+        String conteudoTexto() {
+            return new String(dados, 0, tamanho, StandardCharsets.UTF_8);
+        }
+
+        // === ESCRITA ===
+
+        void iniciar(int tipo) {
+            this.tipo = tipo;
+            tamanho = 0;
+        }
+
+        void escreverVarint(long valor) {
+            garantir(10);
+            while ((valor & ~0x7FL) != 0) {
+                dados[tamanho++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            dados[tamanho++] = (byte) valor;
+        }
+
+        void escreverBytes(byte[] origem) {
+            garantir(origem.length);
+            System.arraycopy(origem, 0, dados, tamanho, origem.length);
+            tamanho += origem.length;
+        }
+
+        void escreverTexto(String texto) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escreverVarint(bytes.length);
+            escreverBytes(bytes);
+        }
+
+        /**
+         * Envia o quadro montado e descarrega a conexão
+         */
+        void enviar(DataOutputStream saida) throws IOException {
+            saida.writeInt(tamanho + 1);
+            saida.writeByte(tipo);
+            saida.write(dados, 0, tamanho);
+            saida.flush();
+        }
+
+        /**
+         * Envia um quadro com o conteúdo informado, sem copiá-lo
+         */
+        static void enviar(DataOutputStream saida, int tipo, byte[] conteudo) throws IOException {
+            saida.writeInt(conteudo.length + 1);
+            saida.writeByte(tipo);
+            saida.write(conteudo);
+            saida.flush();
+        }
+
+        private void garantir(int adicionais) {
+            if (tamanho + adicionais > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(tamanho + adicionais, dados.length * 2));
+            }
+        }
+    }
+}
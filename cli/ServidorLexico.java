@@ -0,0 +1,381 @@
+package cli;
+
+// Importações do analisador léxico
+import lexico.AnalisadorLexico;
+import lexico.BufferTokens;
+import lexico.ColetorDiagnosticos;
+import lexico.Diagnostico;
+import lexico.FonteCaracteres;
+
+// Corpus sintético para o aquecimento
+import bench.GeradorCorpus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor residente do analisador léxico (modo sem interface gráfica)
+ *
+ * Cada execução do compilador paga a inicialização da JVM e o carregamento
+ * das classes antes do primeiro token, e o analisador só atinge a vazão
+ * máxima depois que o JIT compila o laço de reconhecimento. Em arquivos
+ * pequenos esse custo é muito maior que a própria análise. O servidor
+ * fica em execução: aquece o analisador ao iniciar, analisando os corpora
+ * sintéticos do benchmark, e atende pedidos de tokenização pelo
+ * ProtocoloLexico, em um socket de domínio Unix ou em uma porta TCP de
+ * loopback.
+ *
+ * Cada conexão é atendida por uma thread própria, com os seus buffers
+ * (BufferTokens e quadros) reaproveitados entre os pedidos. Em Java 21 ou
+ * posterior, as threads são virtuais; em Java 17, são threads de
+ * plataforma de um pool que as cria sob demanda e as reaproveita.
+ *
+ * Uso: java Main --servidor [-s caminhoSocket | -p porta] [-w]
+ *
+ */
+public class ServidorLexico {
+
+    // Aquecimento: cada perfil do GeradorCorpus, analisado várias vezes
+    private static final int TAMANHO_AQUECIMENTO = 64 * 1024;
+    private static final int ITERACOES_AQUECIMENTO = 20;
+
+    // Socket e diretório do socket: apenas o próprio usuário conecta
+    private static final String PERMISSAO_SOCKET = "rw-------";
+    private static final String PERMISSAO_DIRETORIO = "rwx------";
+
+    // === ATRIBUTOS DE CONFIGURAÇÃO ===
+    private Path caminhoSocket = ProtocoloLexico.SOCKET_PADRAO;
+    private int porta = -1;                 // >= 0: TCP no loopback em vez do socket Unix
+    private boolean aquecer = true;
+
+    // === ESTADO DO SERVIDOR ===
+    private ServerSocketChannel canal;
+    private ExecutorService executor;
+    private final AtomicLong conexoes = new AtomicLong();
+    private final AtomicLong pedidos = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+
+    /**
+     * Ponto de entrada do servidor (termina com Ctrl+C ou com um pedido ENCERRAR)
+     */
+    public static void main(String[] args) {
+        ServidorLexico servidor = new ServidorLexico();
+        if (!servidor.lerArgumentos(args)) {
+            exibirUso();
+            System.exit(2);
+        }
+        try {
+            servidor.executar();
+        } catch (IOException e) {
+            System.err.println("Erro no servidor léxico: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void exibirUso() {
+        System.err.println("Uso: java Main --servidor [-s caminhoSocket | -p porta] [-w]");
+        System.err.println("  -s caminho    socket de domínio Unix (padrão: " + ProtocoloLexico.SOCKET_PADRAO + ")");
+        System.err.println("  -p porta      porta TCP no endereço de loopback, em vez do socket Unix");
+        System.err.println("  -w            não aquecer o analisador antes de aceitar conexões");
+    }
+
+    /**
+     * Interpreta os argumentos da linha de comando
+     *
+     * @return false se os argumentos forem inválidos
+     */
+    boolean lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-s") && i + 1 < args.length) {
+                caminhoSocket = Paths.get(args[++i]);
+            } else if (arg.equals("-p") && i + 1 < args.length) {
+                try {
+                    porta = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (porta < 0 || porta > 65535) {
+                    return false;
+                }
+            } else if (arg.equals("-w")) {
+                aquecer = false;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // === EXECUÇÃO ===
+
+    /**
+     * Aquece o analisador, abre o socket e aceita conexões até ser encerrado
+     */
+    void executar() throws IOException {
+        if (aquecer) {
+            aquecer();
+        }
+        abrir();
+        executor = criarExecutor();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::encerrar));
+        System.out.println("Servidor léxico em " + canal.getLocalAddress() + ". Ctrl+C para encerrar.");
+        try {
+            while (true) {
+                SocketChannel cliente = canal.accept();
+                conexoes.incrementAndGet();
+                executor.execute(() -> atender(cliente));
+            }
+        } catch (ClosedChannelException e) {
+            // Encerrado por um pedido ENCERRAR ou pelo gancho de desligamento
+        } finally {
+            encerrar();
+            executor.shutdown();
+        }
+        System.out.println("Servidor léxico encerrado: " + conexoes.get() + " conexões, "
+                           + pedidos.get() + " pedidos, " + tokens.get() + " tokens.");
+    }
+
+    /**
+     * Analisa os corpora sintéticos de todos os perfis, para que o JIT
+     * compile o analisador antes do primeiro pedido
+     */
+    private void aquecer() {
+        long inicio = System.nanoTime();
+        BufferTokens buffer = new BufferTokens();
+        long quantidade = 0;
+        for (GeradorCorpus.Perfil perfil : GeradorCorpus.Perfil.values()) {
+            String texto = GeradorCorpus.gerarTexto(perfil, TAMANHO_AQUECIMENTO);
+            for (int i = 0; i < ITERACOES_AQUECIMENTO; i++) {
+                buffer.limpar();
+                quantidade += new AnalisadorLexico(FonteCaracteres.deTexto(texto)).tokenizar(buffer);
+            }
+        }
+        System.out.printf("Analisador aquecido: %d tokens em %.0f ms%n",
+                          quantidade, (System.nanoTime() - inicio) / 1e6);
+    }
+
+    private void abrir() throws IOException {
+        if (porta >= 0) {
+            canal = ServerSocketChannel.open(StandardProtocolFamily.INET);
+        } else {
+            criarDiretorioSocket();
+            removerSocketAbandonado();
+            canal = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        }
+        canal.bind(ProtocoloLexico.endereco(caminhoSocket, porta));
+        if (porta < 0) {
+            restringirAoUsuario(caminhoSocket, PERMISSAO_SOCKET);
+        }
+    }
+
+    /**
+     * Cria o diretório do socket, se ainda não existe, acessível apenas ao
+     * usuário; o diretório padrão (~/.compilador-lexico) é sempre restrito
+     */
+    private void criarDiretorioSocket() throws IOException {
+        Path diretorio = caminhoSocket.toAbsolutePath().getParent();
+        if (diretorio == null) {
+            return;
+        }
+        if (!Files.isDirectory(diretorio)) {
+            Files.createDirectories(diretorio);
+            restringirAoUsuario(diretorio, PERMISSAO_DIRETORIO);
+        } else if (caminhoSocket.equals(ProtocoloLexico.SOCKET_PADRAO)
+                   && diretorio.getFileName().toString().equals(".compilador-lexico")) {
+            restringirAoUsuario(diretorio, PERMISSAO_DIRETORIO);
+        }
+    }
+
+    /**
+     * Aplica permissões POSIX (ignorado em sistemas de arquivos sem elas)
+     */
+    private static void restringirAoUsuario(Path caminho, String permissoes) throws IOException {
+        try {
+            Files.setPosixFilePermissions(caminho, PosixFilePermissions.fromString(permissoes));
+        } catch (UnsupportedOperationException e) {
+            // Sistema de arquivos sem permissões POSIX
+        }
+    }
+
+    /**
+     * Um socket que sobrou de uma execução interrompida impede o bind e é
+     * removido; se um servidor ainda aceita conexões nele, não
+     */
+    private void removerSocketAbandonado() throws IOException {
+        if (!Files.exists(caminhoSocket)) {
+            return;
+        }
+        try {
+            SocketChannel.open(ProtocoloLexico.endereco(caminhoSocket, -1)).close();
+        } catch (ConnectException e) {
+            // Ninguém escuta: socket abandonado
+            Files.deleteIfExists(caminhoSocket);
+            return;
+        }
+        throw new IOException("servidor já em execução em " + caminhoSocket);
+    }
+
+    /**
+     * Deixa de aceitar conexões; as já abertas terminam com o processo
+     */
+    private synchronized void encerrar() {
+        try {
+            if (canal.isOpen()) {
+                canal.close();
+            }
+            if (porta < 0) {
+                Files.deleteIfExists(caminhoSocket);
+            }
+        } catch (IOException e) {
+            // Encerrando de qualquer forma
+        }
+    }
+
+    /**
+     * Uma thread virtual por conexão, se a JVM oferecer (Java 21+); senão,
+     * um pool de threads de plataforma criadas sob demanda
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger numero = new AtomicInteger();
+            return Executors.newCachedThreadPool(tarefa -> {
+                Thread thread = new Thread(tarefa, "conexao-lexico-" + numero.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // === ATENDIMENTO ===
+
+    /**
+     * Atende os pedidos de uma conexão até o cliente fechá-la
+     */
+    private void atender(SocketChannel cliente) {
+        try (SocketChannel conexao = cliente) {
+            if (porta >= 0) {
+                conexao.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(conexao), 64 * 1024));
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(conexao), 64 * 1024));
+            ProtocoloLexico.Quadro pedido = new ProtocoloLexico.Quadro();
+            ProtocoloLexico.Quadro resposta = new ProtocoloLexico.Quadro();
+            BufferTokens buffer = new BufferTokens();
+            while (pedido.receber(entrada, ProtocoloLexico.TAMANHO_MAXIMO_PEDIDO)) {
+                pedidos.incrementAndGet();
+                if (pedido.excedido) {
+                    enviarErro(saida, "pedido maior que " + ProtocoloLexico.TAMANHO_MAXIMO_PEDIDO / (1024 * 1024)
+                                      + " MB (use --lote para arquivos grandes)");
+                    continue;
+                }
+                switch (pedido.tipo) {
+                    case ProtocoloLexico.PING:
+                        resposta.iniciar(ProtocoloLexico.OK);
+                        resposta.escreverVarint(ProtocoloLexico.VERSAO);
+                        resposta.escreverVarint(conexoes.get());
+                        resposta.escreverVarint(pedidos.get());
+                        resposta.escreverVarint(tokens.get());
+                        resposta.enviar(saida);
+                        break;
+                    case ProtocoloLexico.TOKENIZAR:
+                        try {
+                            tokenizar(pedido.conteudoTexto(), buffer, resposta, saida);
+                        } catch (RuntimeException | OutOfMemoryError e) {
+                            // Os objetos do pedido já não são alcançáveis: a conexão segue atendendo
+                            enviarErro(saida, "falha na análise: " + e);
+                        }
+                        break;
+                    case ProtocoloLexico.ENCERRAR:
+                        resposta.iniciar(ProtocoloLexico.OK);
+                        resposta.enviar(saida);
+                        encerrar();
+                        return;
+                    default:
+                        enviarErro(saida, "tipo de pedido desconhecido: " + pedido.tipo);
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            // Conexão interrompida ou quadro inválido: apenas essa conexão é descartada
+        }
+    }
+
+    private static void enviarErro(DataOutputStream saida, String mensagem) throws IOException {
+        ProtocoloLexico.Quadro.enviar(saida, ProtocoloLexico.ERRO, mensagem.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Analisa o código fonte e envia os tokens em quadros TOKENS, à medida
+     * que são produzidos, seguidos do quadro FIM_TOKENS com os erros
+     *
+     * O buffer e o quadro de resposta têm no máximo TOKENS_POR_QUADRO
+     * tokens, qualquer que seja o tamanho do código.
+     */
+    private void tokenizar(String texto, BufferTokens buffer, ProtocoloLexico.Quadro resposta,
+                           DataOutputStream saida) throws IOException {
+        try (FonteCaracteres fonte = FonteCaracteres.deTexto(texto)) {
+            AnalisadorLexico analisador = new AnalisadorLexico(fonte);
+            int fimAnterior = 0;
+            int quantidade;
+            try {
+                do {
+                    buffer.limpar();
+                    quantidade = analisador.tokenizar(buffer, ProtocoloLexico.TOKENS_POR_QUADRO);
+                    if (quantidade == 0) {
+                        break;
+                    }
+                    tokens.addAndGet(quantidade);
+                    resposta.iniciar(ProtocoloLexico.TOKENS);
+                    resposta.escreverVarint(quantidade);
+                    for (int i = 0; i < quantidade; i++) {
+                        resposta.escreverVarint(buffer.tipoOrdinal(i));
+                        resposta.escreverVarint(buffer.inicio(i) - fimAnterior);
+                        resposta.escreverVarint(buffer.comprimento(i));
+                        fimAnterior = buffer.fim(i);
+                    }
+                    resposta.enviar(saida);
+                } while (quantidade == ProtocoloLexico.TOKENS_POR_QUADRO);
+            } finally {
+                analisador.concluir(); // Conexão perdida antes do fim: registrar a medição
+            }
+
+            resposta.iniciar(ProtocoloLexico.FIM_TOKENS);
+            ColetorDiagnosticos coletor = analisador.getDiagnosticos();
+            List<Diagnostico> diagnosticos = coletor.getDiagnosticos();
+            resposta.escreverVarint(coletor.getTotal());
+            resposta.escreverVarint(diagnosticos.size());
+            for (Diagnostico diagnostico : diagnosticos) {
+                resposta.escreverVarint(diagnostico.tipo.ordinal());
+                resposta.escreverVarint(diagnostico.posicao);
+                resposta.escreverVarint(diagnostico.linha);
+                resposta.escreverVarint(diagnostico.coluna);
+                resposta.escreverVarint(diagnostico.comprimento);
+                resposta.escreverTexto(diagnostico.trecho);
+            }
+            resposta.enviar(saida);
+        }
+    }
+}
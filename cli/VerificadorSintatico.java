@@ -0,0 +1,122 @@
+package cli;
+
+// Importações do analisador léxico
+import lexico.AnalisadorLexico;
+import lexico.Diagnostico;
+import lexico.FonteCaracteres;
+import lexico.TabelaSimbolos;
+import lexico.TextoMapeado;
+
+// Importações do analisador sintático
+import sintatico.AnalisadorSintatico;
+import sintatico.ArvoreSintatica;
+import sintatico.ErroSintatico;
+
+// Importações do analisador semântico
+import semantico.AnalisadorSemantico;
+import semantico.ErroSemantico;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verificador sintático e semântico (modo sem interface gráfica)
+ *
+ * Analisa cada arquivo informado com o AnalisadorSintatico, que consome os
+ * tokens à medida que o analisador léxico os produz, e em seguida com o
+ * AnalisadorSemantico. Exibe a quantidade de tokens e de nós da árvore, os
+ * erros sintáticos e semânticos e os diagnósticos léxicos. Com -t, exibe
+ * também a árvore sintática.
+ *
+ * O código de saída é 0 se nenhum arquivo tem erros, 1 caso contrário.
+ *
+ * Uso: java Main --sintatico [-t] arquivo...
+ *
+ */
+public class VerificadorSintatico {
+
+    private final List<Path> arquivos = new ArrayList<>();
+    private boolean exibirArvore;   // Exibir a árvore sintática de cada arquivo
+
+    public static void main(String[] args) {
+        VerificadorSintatico verificador = new VerificadorSintatico();
+        if (!verificador.lerArgumentos(args)) {
+            exibirUso();
+            System.exit(2);
+        }
+        boolean semErros = true;
+        for (Path arquivo : verificador.arquivos) {
+            try {
+                semErros &= verificador.verificar(arquivo);
+            } catch (IOException e) {
+                System.err.println(arquivo + ": erro de leitura: " + e.getMessage());
+                semErros = false;
+            }
+        }
+        System.exit(semErros ? 0 : 1);
+    }
+
+    private static void exibirUso() {
+        System.err.println("Uso: java Main --sintatico [-t] arquivo...");
+        System.err.println("  -t            exibir a árvore sintática");
+    }
+
+    boolean lerArgumentos(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("-t")) {
+                exibirArvore = true;
+            } else if (arg.startsWith("-")) {
+                return false;
+            } else {
+                arquivos.add(Paths.get(arg));
+            }
+        }
+        return !arquivos.isEmpty();
+    }
+
+    /**
+     * Analisa um arquivo e exibe o resultado
+     *
+     * @return true se não houve erros léxicos, sintáticos nem semânticos
+     */
+    boolean verificar(Path arquivo) throws IOException {
+        if (!Files.isRegularFile(arquivo)) {
+            throw new IOException("arquivo não encontrado");
+        }
+        // Texto mapeado em memória: serve à análise e à exibição da árvore
+        TextoMapeado texto = TextoMapeado.abrir(arquivo);
+        try (FonteCaracteres fonte = FonteCaracteres.deTexto(texto)) {
+            AnalisadorLexico lexico = new AnalisadorLexico(fonte);
+            lexico.setTabelaSimbolos(new TabelaSimbolos());
+            AnalisadorSintatico sintatico = new AnalisadorSintatico(lexico);
+            ArvoreSintatica arvore = sintatico.analisar();
+            AnalisadorSemantico semantico = new AnalisadorSemantico(arvore, lexico);
+            semantico.analisar();
+
+            List<Diagnostico> diagnosticos = lexico.getDiagnosticos().getDiagnosticos();
+            System.out.println(arquivo + ": " + arvore.getQuantidadeTokens() + " tokens, "
+                               + arvore.tamanho() + " nós, "
+                               + sintatico.getTotalErros() + " erros sintáticos, "
+                               + semantico.getTotalErros() + " erros semânticos, "
+                               + lexico.getDiagnosticos().getTotal() + " diagnósticos léxicos");
+            for (ErroSintatico erro : sintatico.getErros()) {
+                System.out.println("  " + erro);
+            }
+            for (ErroSemantico erro : semantico.getErros()) {
+                System.out.println("  " + erro);
+            }
+            for (Diagnostico diagnostico : diagnosticos) {
+                System.out.println("  " + diagnostico);
+            }
+            if (exibirArvore) {
+                arvore.escrever(System.out, texto);
+            }
+            return sintatico.getTotalErros() == 0 && semantico.getTotalErros() == 0
+                   && lexico.getDiagnosticos().getTotal() == 0;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package gui;
+
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+import javafx.scene.control.TableColumn;
+
+import lexico.BufferTokens;
+import lexico.IndiceLinhas;
+import lexico.TextoMapeado;
+import lexico.TipoToken;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lista observável de tokens exibida pela tabela de resultados
+ *
+ * Cada item é apenas o índice do token no BufferTokens; lexema, tipo e
+ * posição são calculados pela tabela somente para as linhas visíveis.
+ * Filtro e ordenação produzem um vetor de índices (visao) em vez de
+ * copiar ou criar objetos por token. A ordenação ordena um vetor primitivo
+ * em segundo plano e troca a visão ao terminar; o vetor inverso (linhas)
+ * localiza a linha de um token sem percorrer a visão.
+ *
+ */
+final class ModeloTokens extends ObservableListBase<Integer> {
+
+    /**
+     * Colunas da tabela (guardadas em TableColumn.setUserData)
+     */
+    enum Coluna { INDICE, LEXEMA, TIPO, POSICAO }
+
+    private BufferTokens tokens = new BufferTokens(16);
+    private CharSequence texto = "";
+    private IndiceLinhas indiceLinhas;      // Construído na primeira consulta de posição
+
+    private int[] visao;                    // Índices exibidos (null: todos, em ordem)
+    private int[] linhas;                   // Linha de cada token na visão, -1 se filtrado (null: sem visão)
+    private TipoToken filtro;               // null: todos os tipos
+    private List<Chave> ordem;              // Colunas de ordenação (null: ordem original)
+    private Task<int[][]> ordenacao;        // Ordenação em andamento (null: nenhuma)
+
+    // === LISTA OBSERVÁVEL ===
+
+    @Override
+    public Integer get(int linha) {
+        if (visao != null) {
+            return visao[linha];
+        }
+        if (linha < 0 || linha >= tokens.tamanho()) {
+            throw new IndexOutOfBoundsException("Linha " + linha + ", tamanho " + tokens.tamanho());
+        }
+        return linha;
+    }
+
+    @Override
+    public int size() {
+        return visao != null ? visao.length : tokens.tamanho();
+    }
+
+    // === CONTEÚDO ===
+
+    /**
+     * Exibe os tokens de uma análise (o buffer e o texto não devem mais mudar)
+     */
+    void definir(BufferTokens tokens, CharSequence texto) {
+        List<Integer> anteriores = vista();
+        this.tokens = tokens;
+        this.texto = texto;
+        this.indiceLinhas = null;
+        reconstruir(anteriores);
+    }
+
+    void limpar() {
+        definir(new BufferTokens(16), "");
+    }
+
+    BufferTokens getTokens() {
+        return tokens;
+    }
+
+    CharSequence getTexto() {
+        return texto;
+    }
+
+    // === VALORES DAS CÉLULAS ===
+
+    String lexema(int indice) {
+        return tokens.lexema(indice, texto);
+    }
+
+    TipoToken tipo(int indice) {
+        return tokens.tipo(indice);
+    }
+
+    /**
+     * Posição do token no formato "linha:coluna"
+     */
+    String posicao(int indice) {
+        if (indiceLinhas == null) {
+            // Arquivo mapeado: o índice esparso já foi construído pelo visualizador
+            indiceLinhas = texto instanceof TextoMapeado ? ((TextoMapeado) texto).indiceLinhas()
+                                                         : IndiceLinhas.de(texto);
+        }
+        int inicio = tokens.inicio(indice);
+        return indiceLinhas.linha(inicio) + ":" + indiceLinhas.coluna(inicio);
+    }
+
+    // === FILTRO, ORDENAÇÃO E BUSCA ===
+
+    void setFiltro(TipoToken tipo) {
+        List<Integer> anteriores = vista();
+        this.filtro = tipo;
+        reconstruir(anteriores);
+    }
+
+    /**
+     * Política de ordenação da tabela: aplica as colunas na ordem de prioridade
+     *
+     * A ordenação é feita em segundo plano; a tabela continua exibindo a
+     * ordem atual até a nova visão ficar pronta.
+     */
+    boolean ordenar(List<TableColumn<Integer, ?>> colunas) {
+        List<Chave> chaves = new ArrayList<>(colunas.size());
+        for (TableColumn<Integer, ?> coluna : colunas) {
+            chaves.add(new Chave((Coluna) coluna.getUserData(),
+                                 coluna.getSortType() == TableColumn.SortType.DESCENDING));
+        }
+        this.ordem = chaves.isEmpty() ? null : chaves;
+        if (ordem == null) {
+            reconstruir(vista());
+        } else {
+            iniciarOrdenacao(filtrar());
+        }
+        return true;
+    }
+
+    /**
+     * Linha da tabela em que o token aparece, ou -1 se estiver filtrado
+     */
+    int linhaDoToken(int indice) {
+        if (indice < 0 || indice >= tokens.tamanho()) {
+            return -1;
+        }
+        return linhas != null ? linhas[indice] : indice;
+    }
+
+    /**
+     * Recalcula a visão a partir do filtro e notifica a tabela; com
+     * ordenação, a visão filtrada é exibida até a ordenada ficar pronta
+     */
+    private void reconstruir(List<Integer> anteriores) {
+        cancelarOrdenacao();
+        int[] filtrados = filtrar();
+        aplicar(anteriores, filtrados, filtrados != null ? inversa(filtrados, tokens.tamanho()) : null);
+        if (ordem != null) {
+            iniciarOrdenacao(filtrados);
+        }
+    }
+
+    /**
+     * Índices dos tokens do tipo filtrado, em ordem (null: sem filtro)
+     */
+    private int[] filtrar() {
+        if (filtro == null) {
+            return null;
+        }
+        int total = tokens.tamanho();
+        int alvo = filtro.ordinal();
+        int quantidade = 0;
+        for (int i = 0; i < total; i++) {
+            if (tokens.tipoOrdinal(i) == alvo) {
+                quantidade++;
+            }
+        }
+        int[] filtrados = new int[quantidade];
+        int j = 0;
+        for (int i = 0; i < total; i++) {
+            if (tokens.tipoOrdinal(i) == alvo) {
+                filtrados[j++] = i;
+            }
+        }
+        return filtrados;
+    }
+
+    /**
+     * Troca a visão exibida e notifica a tabela
+     */
+    private void aplicar(List<Integer> anteriores, int[] nova, int[] novasLinhas) {
+        visao = nova;
+        linhas = novasLinhas;
+
+        beginChange();
+        if (!anteriores.isEmpty()) {
+            nextRemove(0, anteriores);
+        }
+        if (size() > 0) {
+            nextAdd(0, size());
+        }
+        endChange();
+    }
+
+    // === ORDENAÇÃO EM SEGUNDO PLANO ===
+
+    /**
+     * Ordena os índices informados (null: todos) fora da thread da tela e
+     * troca a visão ao terminar, se nada mudou nesse meio tempo
+     */
+    private void iniciarOrdenacao(int[] filtrados) {
+        cancelarOrdenacao();
+        BufferTokens buffer = tokens;
+        // TextoMapeado guarda o bloco decodificado: a tarefa lê uma cópia própria
+        CharSequence copia = texto instanceof TextoMapeado ? ((TextoMapeado) texto).duplicar() : texto;
+        List<Chave> chaves = ordem;
+        Task<int[][]> tarefa = new Task<int[][]>() {
+            @Override
+            protected int[][] call() {
+                int total = buffer.tamanho();
+                int[] indices = filtrados != null ? filtrados.clone() : identidade(total);
+                ordenarIndices(indices, comparador(chaves, buffer, copia, indices));
+                return new int[][] { indices, inversa(indices, total) };
+            }
+        };
+        tarefa.setOnSucceeded(e -> {
+            if (ordenacao == tarefa) {
+                ordenacao = null;
+                int[][] resultado = tarefa.getValue();
+                aplicar(vista(), resultado[0], resultado[1]);
+            }
+        });
+        ordenacao = tarefa;
+        Thread trabalhador = new Thread(tarefa, "ordenacao-tokens");
+        trabalhador.setDaemon(true);
+        trabalhador.start();
+    }
+
+    private void cancelarOrdenacao() {
+        if (ordenacao != null) {
+            ordenacao.cancel();
+            ordenacao = null;
+        }
+    }
+
+    /**
+     * Comparação de dois índices de token pelas chaves, na ordem de prioridade
+     *
+     * O tipo é lido direto do buffer; para o lexema, os quatro primeiros
+     * caracteres de cada token são calculados uma única vez (o texto só é
+     * percorrido quando eles empatam).
+     */
+    private static ComparadorIndices comparador(List<Chave> chaves, BufferTokens tokens, CharSequence texto,
+                                                int[] indices) {
+        ComparadorIndices composto = null;
+        for (Chave chave : chaves) {
+            ComparadorIndices c;
+            switch (chave.coluna) {
+                case LEXEMA:
+                    long[] prefixos = prefixosLexemas(tokens, texto, indices);
+                    c = (a, b) -> {
+                        int d = Long.compare(prefixos[a], prefixos[b]);
+                        return d != 0 ? d : compararTrechos(tokens, texto, a, b);
+                    };
+                    break;
+                case TIPO:
+                    c = (a, b) -> Integer.compare(tokens.tipoOrdinal(a), tokens.tipoOrdinal(b));
+                    break;
+                case INDICE:
+                case POSICAO:
+                default:
+                    // Os tokens estão em ordem de posição: índice e posição coincidem
+                    c = Integer::compare;
+                    break;
+            }
+            if (chave.descendente) {
+                ComparadorIndices crescente = c;
+                c = (a, b) -> crescente.comparar(b, a);
+            }
+            if (composto == null) {
+                composto = c;
+            } else {
+                ComparadorIndices anterior = composto;
+                ComparadorIndices seguinte = c;
+                composto = (a, b) -> {
+                    int d = anterior.comparar(a, b);
+                    return d != 0 ? d : seguinte.comparar(a, b);
+                };
+            }
+        }
+        return composto;
+    }
+
+    /**
+     * Quatro primeiros caracteres do lexema de cada token, em 16 bits cada
+     * (completados com 0): a ordem dos prefixos é a ordem dos lexemas,
+     * exceto nos empates
+     */
+    private static long[] prefixosLexemas(BufferTokens tokens, CharSequence texto, int[] indices) {
+        long[] prefixos = new long[tokens.tamanho()];
+        for (int indice : indices) {
+            int inicio = tokens.inicioLexema(indice, texto);
+            int fim = Math.min(tokens.fimLexema(indice, texto), inicio + 4);
+            long prefixo = 0;
+            for (int k = 0; k < 4; k++) {
+                prefixo = (prefixo << 16) | (inicio + k < fim ? texto.charAt(inicio + k) : 0);
+            }
+            // Deslocado para que a comparação com sinal siga a ordem sem sinal
+            prefixos[indice] = prefixo ^ Long.MIN_VALUE;
+        }
+        return prefixos;
+    }
+
+    /**
+     * Compara os lexemas de dois tokens diretamente no código fonte, sem criar Strings
+     */
+    private static int compararTrechos(BufferTokens tokens, CharSequence texto, int a, int b) {
+        int inicioA = tokens.inicioLexema(a, texto);
+        int inicioB = tokens.inicioLexema(b, texto);
+        int comprimentoA = tokens.fimLexema(a, texto) - inicioA;
+        int comprimentoB = tokens.fimLexema(b, texto) - inicioB;
+        int n = Math.min(comprimentoA, comprimentoB);
+        for (int k = 0; k < n; k++) {
+            int d = texto.charAt(inicioA + k) - texto.charAt(inicioB + k);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return comprimentoA - comprimentoB;
+    }
+
+    /**
+     * Ordenação estável (mergesort) de um vetor primitivo de índices
+     */
+    private static void ordenarIndices(int[] indices, ComparadorIndices comparador) {
+        int[] auxiliar = new int[indices.length];
+        int[] origem = indices;
+        int[] destino = auxiliar;
+        for (int largura = 1; largura < indices.length; largura *= 2) {
+            for (int inicio = 0; inicio < indices.length; inicio += 2 * largura) {
+                int meio = Math.min(inicio + largura, indices.length);
+                int fim = Math.min(inicio + 2 * largura, indices.length);
+                int i = inicio;
+                int j = meio;
+                int k = inicio;
+                while (i < meio && j < fim) {
+                    destino[k++] = comparador.comparar(origem[j], origem[i]) < 0 ? origem[j++] : origem[i++];
+                }
+                while (i < meio) {
+                    destino[k++] = origem[i++];
+                }
+                while (j < fim) {
+                    destino[k++] = origem[j++];
+                }
+            }
+            int[] troca = origem;
+            origem = destino;
+            destino = troca;
+        }
+        if (origem != indices) {
+            System.arraycopy(origem, 0, indices, 0, indices.length);
+        }
+    }
+
+    private static int[] identidade(int total) {
+        int[] indices = new int[total];
+        for (int i = 0; i < total; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Linha de cada token na visão (-1 se não aparece), para linhaDoToken
+     */
+    private static int[] inversa(int[] visao, int total) {
+        int[] linhas = new int[total];
+        Arrays.fill(linhas, -1);
+        for (int linha = 0; linha < visao.length; linha++) {
+            linhas[visao[linha]] = linha;
+        }
+        return linhas;
+    }
+
+    /**
+     * Coluna de ordenação e sentido
+     */
+    private static final class Chave {
+        final Coluna coluna;
+        final boolean descendente;
+
+        Chave(Coluna coluna, boolean descendente) {
+            this.coluna = coluna;
+            this.descendente = descendente;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ComparadorIndices {
+        int comparar(int a, int b);
+    }
+
+    /**
+     * Visão imutável do conteúdo atual, usada para notificar as remoções
+     */
+    private List<Integer> vista() {
+        final int[] v = visao;
+        final int n = size();
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int i) {
+                return v != null ? v[i] : i;
+            }
+
+            @Override
+            public int size() {
+                return n;
+            }
+        };
+    }
+}
@@ -0,0 +1,341 @@
+package gui;
+
+import javafx.concurrent.Task;
+
+import lexico.AcompanhamentoAnalise;
+import lexico.AnalisadorLexico;
+import lexico.BufferTokens;
+import lexico.CacheTokens;
+import lexico.ColetorDiagnosticos;
+import lexico.ExportadorTokens;
+import lexico.FonteCaracteres;
+import lexico.FormatoExportacao;
+import lexico.HashConteudo;
+import lexico.LeitorTokensBinario;
+import lexico.SessaoIncremental;
+import lexico.TextoMapeado;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Análise léxica executada fora da thread da interface gráfica
+ *
+ * A sessão incremental consulta a tarefa a cada bloco de tokens para
+ * informar o progresso (em caracteres consumidos) e verificar o
+ * cancelamento. Ao final, a tarefa devolve uma cópia dos tokens e do
+ * texto, de modo que a tabela de resultados nunca lê a sessão enquanto
+ * uma nova análise a modifica.
+ *
+ * Arquivos grandes, exibidos pelo VisualizadorArquivo, são analisados
+ * diretamente sobre o arquivo mapeado (sem sessão incremental e sem
+ * passar pelo texto da tela).
+ *
+ * Se houver arquivo de saída, os tokens são exportados pela própria
+ * tarefa (formato deduzido da extensão); na análise de arquivo mapeado,
+ * cada bloco de tokens é gravado assim que é produzido. A gravação vai
+ * para um arquivo temporário ao lado do destino, movido para o destino só
+ * ao final: uma exportação cancelada ou com falha não deixa arquivo
+ * parcial. Uma falha de gravação não invalida a análise: o resultado é
+ * exibido normalmente e traz a mensagem de erro da exportação.
+ *
+ * Análises completas (arquivo mapeado ou primeira análise de uma sessão)
+ * consultam o CacheTokens do usuário: um código já analisado antes é
+ * carregado do cache, sem análise léxica.
+ *
+ */
+final class TarefaAnalise extends Task<TarefaAnalise.Resultado> implements AcompanhamentoAnalise {
+
+    /**
+     * Resultado imutável de uma análise, exibido pela tela
+     */
+    static final class Resultado {
+        final BufferTokens tokens;
+        final CharSequence texto;   // String ou TextoMapeado (de uso exclusivo da thread da tela)
+        final String relatorio;     // Seção de caracteres não identificados e erros
+        final String erroExportacao; // Falha ao salvar os tokens (null: salvos ou sem destino)
+
+        Resultado(BufferTokens tokens, CharSequence texto, String relatorio, String erroExportacao) {
+            this.tokens = tokens;
+            this.texto = texto;
+            this.relatorio = relatorio;
+            this.erroExportacao = erroExportacao;
+        }
+    }
+
+    // Quantidade de tokens entre duas consultas de progresso e cancelamento (arquivo)
+    private static final int INTERVALO_ACOMPANHAMENTO = 4096;
+
+    // Cache compartilhado pelas análises (aberto na primeira análise; null se indisponível)
+    private static CacheTokens cache;
+    private static boolean cacheAberto;
+
+    private final SessaoIncremental sessao;
+    private final String codigo;
+    private final TextoMapeado arquivo;
+    private final Path destino;         // Arquivo de saída (null: não exportar)
+
+    TarefaAnalise(SessaoIncremental sessao, String codigo, Path destino) {
+        this.sessao = sessao;
+        this.codigo = codigo;
+        this.arquivo = null;
+        this.destino = destino;
+    }
+
+    /**
+     * Análise de um arquivo mapeado
+     *
+     * A tarefa lê uma cópia própria do texto; a instância informada, usada
+     * pela thread da tela, é devolvida no resultado.
+     */
+    TarefaAnalise(TextoMapeado arquivo, Path destino) {
+        this.sessao = null;
+        this.codigo = null;
+        this.arquivo = arquivo;
+        this.destino = destino;
+    }
+
+    @Override
+    protected Resultado call() throws Exception {
+        updateMessage("Analisando...");
+        return arquivo != null ? analisarArquivo() : analisarSessao();
+    }
+
+    private Resultado analisarSessao() throws IOException {
+        // Primeira análise da sessão: o documento inteiro pode vir do cache
+        boolean completa = sessao.getTexto().length() == 0;
+        long hash = completa ? HashConteudo.deTexto(codigo) : 0;
+        LeitorTokensBinario salvo = completa ? buscarNoCache(hash) : null;
+        ColetorDiagnosticos salvos = salvo != null ? salvo.diagnosticos() : null;
+        if (salvos != null && salvos.getDescartados() == 0) {
+            sessao.restaurar(codigo, salvo.paraBuffer(), salvos.getDiagnosticos());
+            completa = false; // Já está no cache
+        } else {
+            sessao.setAcompanhamento(this);
+            try {
+                sessao.atualizar(codigo);
+            } finally {
+                sessao.setAcompanhamento(null);
+            }
+        }
+
+        BufferTokens tokens = sessao.getTokens().copia();
+        String texto = sessao.getTexto().toString();
+        ColetorDiagnosticos diagnosticos = sessao.getDiagnosticos();
+        if (completa) {
+            guardarNoCache(hash, tokens, texto, diagnosticos);
+        }
+        String erroExportacao = null;
+        if (destino != null) {
+            updateMessage("Salvando...");
+            boolean binario = FormatoExportacao.porArquivo(destino) == FormatoExportacao.BINARIO;
+            try (Exportacao exportacao = new Exportacao(destino,
+                     binario && !completa && salvo == null ? HashConteudo.deTexto(texto) : hash)) {
+                exportacao.exportar(tokens, 0, tokens.tamanho(), texto);
+                exportacao.concluir(diagnosticos);
+                erroExportacao = exportacao.getErro();
+            }
+        }
+        updateProgress(1, 1);
+        updateMessage(tokens.tamanho() + " tokens");
+        return new Resultado(tokens, texto, diagnosticos.relatorio(), erroExportacao);
+    }
+
+    private Resultado analisarArquivo() throws Exception {
+        TextoMapeado texto = arquivo.duplicar();
+        long hash = HashConteudo.deArquivo(arquivo.getArquivo());
+        LeitorTokensBinario salvo = buscarNoCache(hash);
+        if (salvo != null) {
+            BufferTokens tokens = salvo.paraBuffer();
+            ColetorDiagnosticos diagnosticos = salvo.diagnosticos();
+            String erroExportacao = null;
+            if (destino != null) {
+                updateMessage("Salvando...");
+                try (Exportacao exportacao = new Exportacao(destino, hash)) {
+                    exportacao.exportar(tokens, 0, tokens.tamanho(), texto);
+                    exportacao.concluir(diagnosticos);
+                    erroExportacao = exportacao.getErro();
+                }
+            }
+            updateProgress(1, 1);
+            updateMessage(tokens.tamanho() + " tokens (cache)");
+            return new Resultado(tokens, arquivo, diagnosticos.relatorio(), erroExportacao);
+        }
+
+        BufferTokens tokens = new BufferTokens();
+        try (FonteCaracteres fonte = FonteCaracteres.deTexto(texto);
+             Exportacao exportacao = destino == null ? null : new Exportacao(destino, hash)) {
+            AnalisadorLexico analisador = new AnalisadorLexico(fonte);
+            int exportados = 0;
+            int lidos;
+            do {
+                lidos = analisador.tokenizar(tokens, INTERVALO_ACOMPANHAMENTO);
+                if (exportacao != null) {
+                    exportacao.exportar(tokens, exportados, tokens.tamanho(), texto);
+                    exportados = tokens.tamanho();
+                }
+                if (isCancelled()) {
+                    analisador.concluir();
+                    throw new CancellationException("Análise cancelada");
+                }
+                if (lidos > 0) {
+                    progresso(tokens.fim(tokens.tamanho() - 1), texto.length());
+                }
+            } while (lidos == INTERVALO_ACOMPANHAMENTO);
+            if (exportacao != null) {
+                exportacao.concluir(analisador.getDiagnosticos());
+            }
+            guardarNoCache(hash, tokens, texto, analisador.getDiagnosticos());
+            updateProgress(1, 1);
+            updateMessage(tokens.tamanho() + " tokens");
+            return new Resultado(tokens, arquivo, analisador.getDiagnosticos().relatorio(),
+                                 exportacao != null ? exportacao.getErro() : null);
+        }
+    }
+
+    // === EXPORTAÇÃO ===
+
+    /**
+     * Gravação dos tokens em um arquivo temporário ao lado do destino
+     *
+     * concluir() finaliza o temporário e o move para o destino. Uma falha
+     * de gravação apenas é guardada: o temporário é apagado, as chamadas
+     * seguintes são ignoradas e a análise continua. Fechada sem concluir
+     * (análise cancelada ou com falha), o temporário é apagado.
+     */
+    private static final class Exportacao implements AutoCloseable {
+
+        private final Path destino;
+        private final Path temporario;
+        private ExportadorTokens exportador;    // null após concluir ou após uma falha
+        private String erro;
+
+        Exportacao(Path destino, long hash) {
+            this.destino = destino;
+            this.temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+            try {
+                exportador = ExportadorTokens.criar(FormatoExportacao.porArquivo(destino), temporario);
+                exportador.setHashFonte(hash);
+            } catch (IOException e) {
+                falhar(e);
+            }
+        }
+
+        void exportar(BufferTokens tokens, int de, int ate, CharSequence texto) {
+            if (exportador == null) {
+                return;
+            }
+            try {
+                exportador.exportar(tokens, de, ate, texto);
+            } catch (IOException e) {
+                falhar(e);
+            }
+        }
+
+        void concluir(ColetorDiagnosticos diagnosticos) {
+            if (exportador == null) {
+                return;
+            }
+            try {
+                exportador.finalizar(diagnosticos);
+                exportador.close();
+                exportador = null;
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                falhar(e);
+            }
+        }
+
+        /**
+         * Mensagem da falha de gravação, ou null
+         */
+        String getErro() {
+            return erro;
+        }
+
+        private void falhar(IOException e) {
+            erro = e.toString();
+            descartar();
+        }
+
+        private void descartar() {
+            if (exportador != null) {
+                try {
+                    exportador.close();
+                } catch (IOException e) {
+                    // O temporário é apagado de qualquer forma
+                }
+                exportador = null;
+            }
+            try {
+                Files.deleteIfExists(temporario);
+            } catch (IOException e) {
+                // Sobra apenas o temporário; o destino não foi alterado
+            }
+        }
+
+        @Override
+        public void close() {
+            descartar();
+        }
+    }
+
+    // === CACHE ===
+
+    /**
+     * Cache do usuário, aberto na primeira chamada (null se não puder ser aberto)
+     */
+    private static synchronized CacheTokens cache() {
+        if (!cacheAberto) {
+            cacheAberto = true;
+            try {
+                cache = CacheTokens.abrir(CacheTokens.diretorioPadrao(), CacheTokens.LIMITE_PADRAO);
+            } catch (IOException e) {
+                cache = null; // Sem cache: todas as análises são feitas normalmente
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Análise salva do código com o hash informado, ou null
+     *
+     * Falhas do cache não impedem a análise: o código é simplesmente analisado.
+     */
+    private static LeitorTokensBinario buscarNoCache(long hash) {
+        CacheTokens cache = cache();
+        try {
+            return cache != null ? cache.buscar(hash) : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void guardarNoCache(long hash, BufferTokens tokens, CharSequence texto,
+                                       ColetorDiagnosticos diagnosticos) {
+        CacheTokens cache = cache();
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.guardar(hash, tokens, texto, diagnosticos);
+        } catch (IOException e) {
+            // A análise já foi concluída; apenas não fica no cache
+        }
+    }
+
+    // === ACOMPANHAMENTO DA SESSÃO ===
+
+    @Override
+    public void progresso(long processados, long total) {
+        updateProgress(processados, Math.max(1, total));
+    }
+
+    @Override
+    public boolean cancelado() {
+        return isCancelled();
+    }
+}
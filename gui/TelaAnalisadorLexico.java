@@ -1,6 +1,8 @@
 package gui;
 
 // Importações do JavaFX para interface gráfica
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -12,23 +14,28 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 // Importações do analisador léxico
-import lexico.AnalisadorLexico;
+import lexico.AcompanhamentoAnalise;
+import lexico.SessaoIncremental;
+import lexico.TextoMapeado;
 import lexico.TipoToken;
-import lexico.Token;
 
 // Importações para manipulação de arquivos
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntFunction;
 
 /**
  * Classe responsável pela interface gráfica do analisador léxico
  * 
  * Esta tela permite ao usuário:
  * - Selecionar arquivos de código fonte para análise
- * - Visualizar o conteúdo do arquivo
+ * - Visualizar o conteúdo do arquivo (arquivos grandes em modo somente leitura, paginado)
  * - Executar a análise léxica
  * - Ver os tokens identificados
  * - Salvar os resultados em arquivo
@@ -41,6 +48,16 @@ import java.util.Locale;
     private Stage primaryStage;    // Janela principal da aplicação
     private CompiladorGUI mainApp; // Referência para a aplicação principal
     
+    // Sessão incremental: após a primeira análise, só o trecho editado é analisado de novo
+    private SessaoIncremental sessao;
+    
+    // Opção do filtro que exibe todos os tipos de token
+    private static final String TODOS_OS_TIPOS = "TODOS OS TIPOS";
+    
+    // Arquivos maiores que este limite (em bytes) não são carregados na TextArea:
+    // são exibidos pelo VisualizadorArquivo e analisados direto do arquivo mapeado
+    private static final long LIMITE_TEXTO_EDITAVEL = 4L * 1024 * 1024;
+    
     /**
      * Construtor da tela do analisador léxico
      */
@@ -187,6 +204,12 @@ import java.util.Locale;
         // Configurar suporte a caracteres brasileiros
         configurarInputMethodBrasileiro(txtConteudo);
         
+        // Visualizador paginado de arquivos grandes (ocupa o lugar da TextArea)
+        VisualizadorArquivo visualizador = new VisualizadorArquivo();
+        visualizador.setPrefHeight(200);
+        visualizador.setVisible(false);
+        StackPane areaConteudo = new StackPane(txtConteudo, visualizador);
+        
         // --- Botão principal para executar análise ---
         Button btnAnalisar = new Button("ANALISAR");
         btnAnalisar.setPrefWidth(150);
@@ -194,15 +217,66 @@ import java.util.Locale;
         btnAnalisar.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; " +
                             "-fx-font-weight: bold; -fx-font-size: 14px; -fx-background-radius: 10;");
         
+        // --- Cancelamento e progresso da análise (executada em segundo plano) ---
+        Button btnCancelar = new Button("Cancelar");
+        btnCancelar.setPrefHeight(40);
+        btnCancelar.setDisable(true);  // Habilitado apenas durante a análise
+        btnCancelar.setStyle("-fx-background-color: #7f8c8d; -fx-text-fill: white; -fx-background-radius: 10;");
+        
+        ProgressBar barraProgresso = new ProgressBar(0);
+        barraProgresso.setPrefWidth(300);
+        
+        Label lblStatus = new Label();
+        lblStatus.setFont(Font.font("Arial", 12));
+        
+        HBox analiseBox = new HBox(15, btnAnalisar, btnCancelar, barraProgresso, lblStatus);
+        analiseBox.setAlignment(Pos.CENTER_LEFT);
+        
         // --- Área de exibição dos resultados ---
         Label lblResultados = new Label("Tokens Encontrados:");
         lblResultados.setFont(Font.font("Arial", FontWeight.BOLD, 12));
         
+        // Tabela virtualizada: apenas as linhas visíveis são desenhadas, e cada
+        // linha é só o índice do token no buffer (ver ModeloTokens)
+        ModeloTokens modelo = new ModeloTokens();
+        TableView<Integer> tabelaTokens = new TableView<>(modelo);
+        tabelaTokens.setPrefHeight(220);
+        tabelaTokens.setPlaceholder(new Label("Os tokens analisados aparecerão aqui..."));
+        tabelaTokens.setStyle("-fx-font-family: 'Courier New'; -fx-font-size: 11px;");
+        tabelaTokens.getColumns().add(criarColuna("#", ModeloTokens.Coluna.INDICE, 80, i -> i));
+        tabelaTokens.getColumns().add(criarColuna("Lexema", ModeloTokens.Coluna.LEXEMA, 450, modelo::lexema));
+        tabelaTokens.getColumns().add(criarColuna("Tipo", ModeloTokens.Coluna.TIPO, 220, modelo::tipo));
+        tabelaTokens.getColumns().add(criarColuna("Posição (linha:coluna)", ModeloTokens.Coluna.POSICAO, 180, modelo::posicao));
+        tabelaTokens.setSortPolicy(tabela -> modelo.ordenar(tabela.getSortOrder()));
+        
+        // Filtro por tipo de token e navegação direta para um token
+        ComboBox<String> cmbFiltro = new ComboBox<>();
+        cmbFiltro.getItems().add(TODOS_OS_TIPOS);
+        for (TipoToken tipo : TipoToken.values()) {
+            cmbFiltro.getItems().add(tipo.name());
+        }
+        cmbFiltro.setValue(TODOS_OS_TIPOS);
+        cmbFiltro.setOnAction(e -> {
+            String valor = cmbFiltro.getValue();
+            modelo.setFiltro(TODOS_OS_TIPOS.equals(valor) ? null : TipoToken.valueOf(valor));
+        });
+        
+        TextField txtIrPara = new TextField();
+        txtIrPara.setPrefWidth(100);
+        txtIrPara.setPromptText("nº do token");
+        Button btnIrPara = new Button("Ir para token");
+        btnIrPara.setOnAction(e -> irParaToken(txtIrPara.getText(), tabelaTokens, modelo));
+        txtIrPara.setOnAction(e -> irParaToken(txtIrPara.getText(), tabelaTokens, modelo));
+        
+        HBox navegacaoBox = new HBox(10, new Label("Tipo:"), cmbFiltro, txtIrPara, btnIrPara);
+        navegacaoBox.setAlignment(Pos.CENTER_LEFT);
+        
+        // Relatório de caracteres não identificados e erros léxicos
         TextArea txtResultados = new TextArea();
-        txtResultados.setPrefRowCount(18);
-        txtResultados.setPrefHeight(250);
+        txtResultados.setPrefRowCount(5);
+        txtResultados.setPrefHeight(90);
         txtResultados.setEditable(false);  // Somente leitura
-        txtResultados.setPromptText("Os tokens analisados aparecerão aqui...");
+        txtResultados.setPromptText("Caracteres não identificados e erros léxicos aparecerão aqui...");
         txtResultados.setStyle("-fx-font-family: 'Courier New'; -fx-font-size: 11px; -fx-background-color: #ecf0f1;");
         
         // Configurar suporte a caracteres brasileiros (mesmo sendo read-only)
@@ -213,11 +287,13 @@ import java.util.Locale;
             fileGrid,                // Seção de arquivos
             new Separator(),         // Linha separadora
             lblConteudo,             // Label do código fonte
-            txtConteudo,             // Área do código fonte
-            btnAnalisar,             // Botão de análise
+            areaConteudo,            // Área do código fonte (TextArea ou visualizador)
+            analiseBox,              // Botões de análise e progresso
             new Separator(),         // Linha separadora
             lblResultados,           // Label dos resultados
-            txtResultados            // Área dos resultados
+            navegacaoBox,            // Filtro e navegação
+            tabelaTokens,            // Tabela de tokens
+            txtResultados            // Relatório de erros
         );
         
         // Adicionar área central ao layout principal
@@ -237,8 +313,9 @@ import java.util.Locale;
             if (arquivo != null) {
                 // Exibir nome do arquivo com @ (convenção do compilador)
                 txtCaminhoEntrada.setText("@" + arquivo.getName());
-                // Carregar conteúdo do arquivo na área de texto
-                carregarArquivo(arquivo, txtConteudo);
+                // Carregar conteúdo do arquivo na área de texto (ou no visualizador)
+                carregarArquivo(arquivo, txtConteudo, visualizador, lblConteudo, btnSelecionarEntrada, btnAnalisar,
+                                btnCancelar, barraProgresso, lblStatus);
             }
         });
         
@@ -246,8 +323,11 @@ import java.util.Locale;
         btnSelecionarSaida.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Selecionar local para salvar tokens");
-            fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Arquivos de texto", "*.txt")
+            fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Arquivos de texto", "*.txt"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("Tokens binários", "*.tokb")
             );
             
             // Definir diretório padrão como lexico/tabelas_de_tokens/
@@ -271,21 +351,71 @@ import java.util.Locale;
         
         // Evento do botão "ANALISAR" (principal)
         btnAnalisar.setOnAction(e -> {
-            String conteudo = txtConteudo.getText();
-            if (conteudo.isEmpty()) {
-                mostrarAviso("Por favor, selecione um arquivo ou digite o código fonte.");
-                return;
+            // Os tokens são gravados pela tarefa, à medida que são produzidos,
+            // se um arquivo de saída foi especificado
+            String caminhoSaida = txtCaminhoSaida.getText();
+            Path destino = caminhoSaida.isEmpty() ? null : Paths.get(caminhoSaida);
+            TarefaAnalise tarefa;
+            if (visualizador.getTexto() != null) {
+                // Arquivo grande: analisado direto do arquivo mapeado
+                tarefa = new TarefaAnalise(visualizador.getTexto(), destino);
+            } else {
+                String conteudo = txtConteudo.getText();
+                if (conteudo.isEmpty()) {
+                    mostrarAviso("Por favor, selecione um arquivo ou digite o código fonte.");
+                    return;
+                }
+                
+                // Executar análise léxica do código em segundo plano; a sessão
+                // incremental reaproveita a análise anterior (apenas o trecho
+                // editado é analisado de novo)
+                if (sessao == null) {
+                    sessao = new SessaoIncremental("");
+                }
+                tarefa = new TarefaAnalise(sessao, conteudo, destino);
             }
+            barraProgresso.progressProperty().bind(tarefa.progressProperty());
+            lblStatus.textProperty().bind(tarefa.messageProperty());
+            // Outro arquivo só pode ser carregado ao fim da análise: a sessão
+            // incremental não é compartilhada entre tarefas
+            btnSelecionarEntrada.setDisable(true);
+            btnAnalisar.setDisable(true);
+            btnCancelar.setDisable(false);
+            btnCancelar.setOnAction(ev -> tarefa.cancel());
             
-            // Executar análise léxica do código
-            String resultados = analisarCodigo(conteudo);
-            txtResultados.setText(resultados);
+            Runnable finalizar = () -> {
+                barraProgresso.progressProperty().unbind();
+                lblStatus.textProperty().unbind();
+                btnSelecionarEntrada.setDisable(false);
+                btnAnalisar.setDisable(false);
+                btnCancelar.setDisable(true);
+            };
+            tarefa.setOnSucceeded(ev -> {
+                finalizar.run();
+                TarefaAnalise.Resultado resultado = tarefa.getValue();
+                modelo.definir(resultado.tokens, resultado.texto);
+                txtResultados.setText(resultado.relatorio);
+                if (resultado.erroExportacao != null) {
+                    mostrarAviso("Erro ao salvar resultados em " + caminhoSaida + ": " + resultado.erroExportacao);
+                } else if (destino != null) {
+                    informarResultadosSalvos(caminhoSaida);
+                }
+            });
+            tarefa.setOnCancelled(ev -> {
+                finalizar.run();
+                lblStatus.setText("Análise cancelada");
+            });
+            tarefa.setOnFailed(ev -> {
+                finalizar.run();
+                // Capturar e reportar qualquer erro durante a análise
+                sessao = null; // Recomeçar do zero na próxima análise
+                lblStatus.setText("Erro");
+                txtResultados.setText("Erro durante a análise: " + tarefa.getException().getMessage());
+            });
             
-            // Salvar resultados automaticamente se arquivo de saída foi especificado
-            String caminhoSaida = txtCaminhoSaida.getText();
-            if (!caminhoSaida.isEmpty()) {
-                salvarResultados(resultados, caminhoSaida);
-            }
+            Thread trabalhador = new Thread(tarefa, "analise-lexica");
+            trabalhador.setDaemon(true);  // Não impedir o encerramento da aplicação
+            trabalhador.start();
         });
         
         // Retornar a cena configurada com dimensões fixas
@@ -295,104 +425,143 @@ import java.util.Locale;
     /**
      * Carrega o conteúdo de um arquivo para a área de texto
      * 
-     * Lê todo o conteúdo do arquivo e exibe na TextArea fornecida.
-     * Em caso de erro, exibe um aviso para o usuário.
+     * Arquivos pequenos são lidos inteiros e exibidos na TextArea fornecida.
+     * Arquivos maiores que LIMITE_TEXTO_EDITAVEL são mapeados em memória, em
+     * segundo plano, e exibidos pelo visualizador paginado (somente leitura);
+     * enquanto isso, a seleção de arquivo e a análise ficam desabilitadas e o
+     * botão Cancelar interrompe a abertura (o conteúdo anterior continua
+     * exibido). Em caso de erro, exibe um aviso para o usuário.
      */
-    private void carregarArquivo(File arquivo, TextArea txtConteudo) {
-        try {
-            // Ler todo o conteúdo do arquivo como String
-            String conteudo = new String(Files.readAllBytes(arquivo.toPath()));
-            txtConteudo.setText(conteudo);
-        } catch (IOException e) {
-            // Exibir erro caso não consiga ler o arquivo
-            mostrarAviso("Erro ao carregar arquivo: " + e.getMessage());
+    private void carregarArquivo(File arquivo, TextArea txtConteudo, VisualizadorArquivo visualizador,
+                                 Label lblConteudo, Button btnSelecionarEntrada, Button btnAnalisar,
+                                 Button btnCancelar, ProgressBar barraProgresso, Label lblStatus) {
+        if (arquivo.length() <= LIMITE_TEXTO_EDITAVEL) {
+            try {
+                // Ler todo o conteúdo do arquivo como String
+                String conteudo = new String(Files.readAllBytes(arquivo.toPath()), StandardCharsets.UTF_8);
+                visualizador.limpar();
+                visualizador.setVisible(false);
+                txtConteudo.setVisible(true);
+                txtConteudo.setText(conteudo);
+                lblConteudo.setText("Conteúdo do Arquivo:");
+            } catch (IOException e) {
+                // Exibir erro caso não consiga ler o arquivo
+                mostrarAviso("Erro ao carregar arquivo: " + e.getMessage());
+            }
+            return;
         }
-    }
-    
-    /**
-     * Executa a análise léxica do código fonte fornecido
-     * 
-     * Este método é o coração da funcionalidade do analisador léxico.
-     * Processa o código e retorna uma string formatada com:
-     * 1. Lista de todos os tokens identificados
-     * 2. Lista de caracteres não reconhecidos (se houver)
-     */
-    private String analisarCodigo(String codigo) {
-        StringBuilder resultado = new StringBuilder();
         
-        try {
-            // Criar instância do analisador léxico
-            AnalisadorLexico analisador = new AnalisadorLexico(codigo);
-            analisador.setExibirFimDeArquivo(true);
-            
-            // === PRIMEIRA PARTE: Extrair todos os tokens válidos ===
-            Token token;
-            do {
-                token = analisador.proximoToken();
-                if (token != null) {
-                    // Adicionar token ao resultado no formato <lexema, tipo>
-                    resultado.append(token.toString()).append("\n");
-                }
-            } while (token != null && token.tipo != TipoToken.FIM_DE_ARQUIVO);
-            
-            // === SEGUNDA PARTE: Relatório de caracteres não identificados ===
-            resultado.append("\n");
-            resultado.append("========================================\n");
-            resultado.append("       CARACTERES NÃO IDENTIFICADOS\n");
-            resultado.append("========================================\n");
-            
-            // Obter lista de caracteres que não foram reconhecidos
-            java.util.List<Character> caracteresNaoIdentificados = analisador.getCaracteresNaoIdentificados();
-            if (caracteresNaoIdentificados.isEmpty()) {
-                resultado.append("Nenhum caractere não identificado encontrado.\n");
-            } else {
-                // Listar todos os caracteres não identificados
-                resultado.append("Caracteres encontrados: ");
-                for (int i = 0; i < caracteresNaoIdentificados.size(); i++) {
-                    char c = caracteresNaoIdentificados.get(i);
-                    resultado.append("'").append(c).append("'");
-                    if (i < caracteresNaoIdentificados.size() - 1) {
-                        resultado.append(", ");
+        // Arquivo grande: mapear e indexar as linhas fora da thread da tela
+        Task<TextoMapeado> abertura = new Task<TextoMapeado>() {
+            @Override
+            protected TextoMapeado call() throws Exception {
+                updateMessage("Abrindo arquivo...");
+                TextoMapeado texto = TextoMapeado.abrir(arquivo.toPath(), new AcompanhamentoAnalise() {
+                    @Override
+                    public void progresso(long processados, long total) {
+                        updateProgress(processados, total);
                     }
+                    
+                    @Override
+                    public boolean cancelado() {
+                        return isCancelled();
+                    }
+                });
+                if (isCancelled()) {
+                    throw new CancellationException("Abertura cancelada");
                 }
-                resultado.append("\n");
-                resultado.append("Total de caracteres não identificados: ").append(caracteresNaoIdentificados.size()).append("\n");
+                updateMessage("Indexando linhas...");
+                texto.indiceLinhas();
+                updateMessage(texto.indiceLinhas().quantidadeLinhas() + " linhas");
+                return texto;
             }
-            
-            resultado.append("========================================\n");
-            
-        } catch (Exception e) {
-            // Capturar e reportar qualquer erro durante a análise
-            resultado.append("Erro durante a análise: ").append(e.getMessage());
-        }
+        };
+        barraProgresso.progressProperty().bind(abertura.progressProperty());
+        lblStatus.textProperty().bind(abertura.messageProperty());
+        btnSelecionarEntrada.setDisable(true);
+        btnAnalisar.setDisable(true);
+        btnCancelar.setDisable(false);
+        btnCancelar.setOnAction(ev -> abertura.cancel());
+        Runnable finalizar = () -> {
+            barraProgresso.progressProperty().unbind();
+            lblStatus.textProperty().unbind();
+            barraProgresso.setProgress(0);
+            btnSelecionarEntrada.setDisable(false);
+            btnAnalisar.setDisable(false);
+            btnCancelar.setDisable(true);
+        };
+        abertura.setOnSucceeded(ev -> {
+            finalizar.run();
+            TextoMapeado texto = abertura.getValue();
+            txtConteudo.clear();
+            txtConteudo.setVisible(false);
+            visualizador.setVisible(true);
+            visualizador.exibir(texto);
+            lblConteudo.setText("Conteúdo do Arquivo (somente leitura, " + (texto.getTamanhoBytes() / (1024 * 1024))
+                                + " MB, " + texto.indiceLinhas().quantidadeLinhas() + " linhas):");
+        });
+        abertura.setOnCancelled(ev -> {
+            finalizar.run();
+            lblStatus.setText("Abertura cancelada");
+        });
+        abertura.setOnFailed(ev -> {
+            finalizar.run();
+            mostrarAviso("Erro ao carregar arquivo: " + abertura.getException().getMessage());
+        });
         
-        return resultado.toString();
+        Thread trabalhador = new Thread(abertura, "abertura-arquivo");
+        trabalhador.setDaemon(true);
+        trabalhador.start();
     }
     
     /**
-     * Salva os resultados da análise léxica em um arquivo
+     * Cria uma coluna da tabela de tokens
      * 
-     * Grava o conteúdo dos resultados no arquivo especificado
-     * e exibe uma confirmação para o usuário.
+     * O valor da célula é calculado a partir do índice do token apenas
+     * quando a linha está visível.
      */
-    private void salvarResultados(String resultados, String caminho) {
+    private static <T> TableColumn<Integer, T> criarColuna(String titulo, ModeloTokens.Coluna coluna,
+                                                          double largura, IntFunction<T> valor) {
+        TableColumn<Integer, T> tableColumn = new TableColumn<>(titulo);
+        tableColumn.setUserData(coluna);
+        tableColumn.setPrefWidth(largura);
+        tableColumn.setCellValueFactory(celula -> new ReadOnlyObjectWrapper<>(valor.apply(celula.getValue())));
+        return tableColumn;
+    }
+    
+    /**
+     * Seleciona e exibe na tabela o token de número informado
+     */
+    private void irParaToken(String numero, TableView<Integer> tabela, ModeloTokens modelo) {
+        int indice;
         try {
-            // Criar e escrever no arquivo
-            FileWriter writer = new FileWriter(caminho);
-            writer.write(resultados);
-            writer.close();
-            
-            // Confirmar sucesso para o usuário
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Sucesso");
-            alert.setHeaderText(null);
-            alert.setContentText("Resultados salvos em: " + caminho);
-            alert.showAndWait();
-            
-        } catch (IOException e) {
-            // Exibir erro caso não consiga salvar
-            mostrarAviso("Erro ao salvar arquivo: " + e.getMessage());
+            indice = Integer.parseInt(numero.trim());
+        } catch (NumberFormatException e) {
+            mostrarAviso("Informe o número do token.");
+            return;
         }
+        int linha = modelo.linhaDoToken(indice);
+        if (linha < 0) {
+            mostrarAviso("O token " + indice + " não existe ou não passa pelo filtro atual.");
+            return;
+        }
+        tabela.scrollTo(linha);
+        tabela.getSelectionModel().clearAndSelect(linha);
+        tabela.requestFocus();
+    }
+    
+    /**
+     * Confirma para o usuário que os resultados foram salvos
+     * 
+     * A gravação é feita pela TarefaAnalise (ExportadorTokens), no formato
+     * deduzido da extensão: .txt (<lexema, tipo>), .jsonl, .csv ou .tokb (binário).
+     */
+    private void informarResultadosSalvos(String caminho) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Sucesso");
+        alert.setHeaderText(null);
+        alert.setContentText("Resultados salvos em: " + caminho);
+        alert.showAndWait();
     }
     
     /**
@@ -20,8 +20,8 @@ import java.io.File;
  * 
  * Esta tela apresenta o menu principal com as opções disponíveis:
  * - Analisador Léxico (funcional)
- * - Analisador Sintático (não implementado)
- * - Analisador Semântico (não implementado)
+ * - Analisador Sintático (ainda sem tela; disponível pela linha de comando, --sintatico)
+ * - Analisador Semântico (ainda sem tela; disponível pela linha de comando, --sintatico)
  * 
  * A interface possui um design temático com imagens e cores personalizadas.
  * 
@@ -73,15 +73,15 @@ public class TelaInicial {
         configurarBotao(btnLexico, "#27ae60", true);  // Verde para indicar disponível
         btnLexico.setOnAction(e -> mainApp.abrirAnalisadorLexico());
         
-        // Botão Analisador Sintático (não implementado - cor cinza)
+        // Botão Analisador Sintático (sem tela, apenas linha de comando - cor cinza)
         Button btnSintatico = new Button("✖ Analisador Sintático");
         configurarBotao(btnSintatico, "#95a5a6", false);  // Cinza para indicar bloqueado
-        btnSintatico.setOnAction(e -> mostrarAviso("Analisador Sintático ainda não implementado"));
+        btnSintatico.setOnAction(e -> mostrarAviso("O Analisador Sintático ainda não tem tela; use a linha de comando: java Main --sintatico arquivo.pas"));
         
-        // Botão Analisador Semântico (não implementado - cor cinza)
+        // Botão Analisador Semântico (sem tela, apenas linha de comando - cor cinza)
         Button btnSemantico = new Button("✖ Analisador Semântico");
         configurarBotao(btnSemantico, "#95a5a6", false);  // Cinza para indicar bloqueado
-        btnSemantico.setOnAction(e -> mostrarAviso("Analisador Semântico ainda não implementado"));
+        btnSemantico.setOnAction(e -> mostrarAviso("O Analisador Semântico ainda não tem tela; use a linha de comando: java Main --sintatico arquivo.pas"));
         
         // Adicionar todos os botões ao container
         botoesContainer.getChildren().addAll(btnLexico, btnSintatico, btnSemantico);
@@ -118,7 +118,7 @@ public class TelaInicial {
             botao.setOnMouseExited(e -> botao.setStyle("-fx-background-color: " + cor + "; -fx-text-fill: white; " +
                                                       "-fx-background-radius: 10; -fx-cursor: hand;"));
         } else {
-            // Configuração para botões inativos (não implementados)
+            // Configuração para botões inativos (fases sem tela)
             botao.setStyle("-fx-background-color: " + cor + "; -fx-text-fill: #bdc3c7; " +
                           "-fx-background-radius: 10; -fx-cursor: not-allowed; " +
                           "-fx-opacity: 0.7; -fx-border-color: #7f8c8d; -fx-border-width: 1;");
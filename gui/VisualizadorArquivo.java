@@ -0,0 +1,130 @@
+package gui;
+
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+import lexico.IndiceLinhas;
+import lexico.TextoMapeado;
+
+import java.util.AbstractList;
+
+/**
+ * Visualizador somente leitura de arquivos grandes demais para a TextArea
+ *
+ * O arquivo fica mapeado em memória (TextoMapeado) e a lista contém apenas
+ * números de linha: o ListView cria células só para as linhas visíveis, e
+ * cada célula decodifica a sua linha a partir do índice de linhas esparso
+ * no momento em que é desenhada.
+ *
+ */
+final class VisualizadorArquivo extends ListView<Integer> {
+
+    // Caracteres exibidos por linha (linhas maiores são cortadas na tela)
+    private static final int LIMITE_COLUNAS = 2000;
+
+    private final ModeloLinhas linhas = new ModeloLinhas();
+    private TextoMapeado texto;
+
+    VisualizadorArquivo() {
+        setItems(linhas);
+        setFixedCellSize(18);  // Altura fixa: a rolagem não precisa medir as linhas
+        setStyle("-fx-font-family: 'Courier New'; -fx-font-size: 12px;");
+        setCellFactory(lista -> new ListCell<Integer>() {
+            @Override
+            protected void updateItem(Integer linha, boolean vazia) {
+                super.updateItem(linha, vazia);
+                setText(vazia || linha == null ? null : String.format("%7d  %s", linha, textoDaLinha(linha)));
+            }
+        });
+    }
+
+    /**
+     * Exibe um arquivo mapeado (o índice de linhas deve ter sido construído
+     * fora da thread da tela)
+     */
+    void exibir(TextoMapeado texto) {
+        this.texto = texto;
+        linhas.definir(texto.indiceLinhas().quantidadeLinhas());
+        scrollTo(0);
+    }
+
+    void limpar() {
+        texto = null;
+        linhas.definir(0);
+    }
+
+    /**
+     * Arquivo exibido, ou null se nenhum
+     */
+    TextoMapeado getTexto() {
+        return texto;
+    }
+
+    /**
+     * Texto da linha (começando em 1), sem a quebra de linha
+     */
+    String textoDaLinha(int linha) {
+        IndiceLinhas indice = texto.indiceLinhas();
+        int inicio = indice.inicioLinha(linha);
+        int limite = Math.min(texto.length(), inicio + LIMITE_COLUNAS);
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = inicio; i < limite; i++) {
+            char c = texto.charAt(i);
+            if (c == '\n') {
+                return conteudo.toString();
+            }
+            if (c != '\r') {
+                conteudo.append(c);
+            }
+        }
+        if (limite < texto.length() && texto.charAt(limite) != '\n' && texto.charAt(limite) != '\r') {
+            conteudo.append(" …");  // Linha cortada
+        }
+        return conteudo.toString();
+    }
+
+    /**
+     * Lista dos números de linha 1..quantidade, sem guardar os elementos
+     */
+    private static final class ModeloLinhas extends ObservableListBase<Integer> {
+
+        private int quantidade;
+
+        @Override
+        public Integer get(int indice) {
+            if (indice < 0 || indice >= quantidade) {
+                throw new IndexOutOfBoundsException("Linha " + indice + ", tamanho " + quantidade);
+            }
+            return indice + 1;
+        }
+
+        @Override
+        public int size() {
+            return quantidade;
+        }
+
+        void definir(int novaQuantidade) {
+            int anterior = quantidade;
+            quantidade = novaQuantidade;
+            beginChange();
+            if (anterior > 0) {
+                nextRemove(0, new AbstractList<Integer>() {
+                    @Override
+                    public Integer get(int i) {
+                        return i + 1;
+                    }
+
+                    @Override
+                    public int size() {
+                        return anterior;
+                    }
+                });
+            }
+            if (quantidade > 0) {
+                nextAdd(0, quantidade);
+            }
+            endChange();
+        }
+    }
+}
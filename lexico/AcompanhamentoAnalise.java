@@ -0,0 +1,22 @@
+package lexico;
+
+/**
+ * Acompanhamento de uma análise longa: progresso e cancelamento cooperativo
+ *
+ * O analisador consulta o acompanhamento periodicamente (a cada bloco de
+ * tokens), nunca a cada caractere. Quando cancelado() retorna true, a
+ * análise é interrompida com java.util.concurrent.CancellationException.
+ *
+ */
+public interface AcompanhamentoAnalise {
+
+    /**
+     * Informa quantos caracteres já foram consumidos de um total estimado
+     */
+    void progresso(long processados, long total);
+
+    /**
+     * Indica se a análise deve ser interrompida
+     */
+    boolean cancelado();
+}
@@ -0,0 +1,38 @@
+package lexico;
+
+/**
+ * Trecho da sequência de tokens alterado por uma edição
+ *
+ * Os tokens [inicio, inicio + removidos) da sequência anterior foram
+ * substituídos pelos tokens [inicio, inicio + inseridos) da sequência
+ * atual. Os tokens seguintes não mudaram, exceto pela posição, deslocada
+ * em "deslocamento" caracteres.
+ *
+ */
+public final class AlteracaoTokens {
+
+    public final int inicio;        // Índice do primeiro token alterado
+    public final int removidos;     // Quantidade de tokens antigos substituídos
+    public final int inseridos;     // Quantidade de tokens novos
+    public final int deslocamento;  // Variação da posição dos tokens seguintes
+
+    public AlteracaoTokens(int inicio, int removidos, int inseridos, int deslocamento) {
+        this.inicio = inicio;
+        this.removidos = removidos;
+        this.inseridos = inseridos;
+        this.deslocamento = deslocamento;
+    }
+
+    /**
+     * Indica se a edição não alterou nenhum token (por exemplo, dentro de um comentário)
+     */
+    public boolean semAlteracao() {
+        return removidos == 0 && inseridos == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "tokens [" + inicio + ", " + (inicio + removidos) + ") -> [" + inicio + ", " + (inicio + inseridos)
+             + "), deslocamento " + deslocamento;
+    }
+}
@@ -1,9 +1,13 @@
 package lexico;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Analisador Léxico para linguagem Pascal
@@ -19,83 +23,63 @@ import java.util.List;
  * - Reconhecimento de operadores e símbolos especiais
  * - Tratamento de comentários
  * - Processamento de literais (caracteres e strings)
- * - Detecção de caracteres não reconhecidos
+ * - Detecção de erros léxicos com posição (ColetorDiagnosticos)
+ * - Leitura em fluxo (Reader, entrada padrão ou arquivo mapeado em memória)
  * 
  */
 public class AnalisadorLexico {
 
     // === ATRIBUTOS DE CONTROLE ===
-    private String codigoFonte;                 // Código fonte a ser analisado
+    private final FonteCaracteres fonte;        // Código fonte a ser analisado
+    private final MotorLexico motor;            // Motor de reconhecimento escolhido
+    private final AutomatoLexico automato;      // Tabelas do motor TABELA (null no MANUAL)
     private int posicaoAtual;                   // Posição atual no código fonte
-    private Token tokenAnterior;                // Token anterior (para contexto)
+
+    // Contexto do token anterior (substitui o objeto Token para não exigir alocação)
+    private TipoToken tipoAnterior;             // Tipo do token anterior (null no início)
+    private boolean anteriorEhEnd;              // Token anterior é a palavra reservada "end"
+
+    // Resultado do último reconhecimento (preenchido por reconhecerProximo)
+    private int inicioToken;                    // Posição do primeiro caractere do token
+    private int inicioLexema;                   // Início do lexema (sem aspas, em literais)
+    private int fimLexema;                      // Fim (exclusivo) do lexema
+    private Token tokenFixo;                    // Token pré-construído, para símbolos fixos
+    private int palavraReservada;               // Índice em PalavrasReservadas, ou NENHUMA
+    private int simboloAtual;                   // ID na TabelaSimbolos, ou TabelaSimbolos.NENHUM
+
+    // Internação dos identificadores (opcional; sem tabela, nenhum ID é atribuído)
+    private TabelaSimbolos tabelaSimbolos;
     
     // Controle para exibir ou não o token FIM_DE_ARQUIVO
     private boolean exibirFimDeArquivo = false; // Desativado por padrão
     
-    // Lista para armazenar caracteres não identificados
-    private List<Character> caracteresNaoIdentificados = new ArrayList<>();
+    // Erros léxicos (caracteres não identificados, literais e comentários não fechados)
+    private final ColetorDiagnosticos diagnosticos;
+
+    // Instrumentação (JFR e MetricasLexico): null quando nada está sendo coletado
+    private MedicaoAnalise medicao;
+    private boolean medicaoDecidida;            // iniciar() já foi consultado nesta análise
 
     // === TABELAS DE RECONHECIMENTO ===
     
-    // Mapa das palavras reservadas da linguagem Pascal
-    private static final Map<String, TipoToken> PALAVRAS_RESERVADAS = new HashMap<>();
+    // Palavras reservadas da linguagem Pascal: ver PalavrasReservadas (hash perfeito)
 
     // Mapa dos símbolos simples (um caractere)
     private static final Map<Character, Token> SIMBOLOS_SIMPLES = new HashMap<>();
 
+    // Símbolos simples indexados pelo caractere ASCII (evita o boxing do mapa)
+    private static final Token[] SIMBOLOS_ASCII = new Token[128];
+
+    // Tokens pré-construídos dos símbolos compostos e do fim de programa
+    private static final Token TOKEN_ATRIBUICAO = new Token(TipoToken.ATRIBUICAO, ":=");
+    private static final Token TOKEN_MENOR_IGUAL = new Token(TipoToken.OPERADOR_RELACIONAL, "<=");
+    private static final Token TOKEN_DIFERENTE = new Token(TipoToken.OPERADOR_RELACIONAL, "<>");
+    private static final Token TOKEN_MAIOR_IGUAL = new Token(TipoToken.OPERADOR_RELACIONAL, ">=");
+    private static final Token TOKEN_FIM = new Token(TipoToken.FIM, ".");
+
 
     // === INICIALIZAÇÃO ESTÁTICA DAS TABELAS ===
     static {
-        // Inicializar mapa de palavras reservadas
-        PALAVRAS_RESERVADAS.put("absolute", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("array", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("begin", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("case", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("char", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("const", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("div", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("do", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("dowto", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("else", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("end", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("external", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("file", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("for", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("forward", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("func", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("function", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("goto", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("if", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("implementation", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("integer", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("interface", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("interrupt", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("label", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("main", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("nil", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("nit", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("of", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("packed", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("proc", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("program", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("real", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("record", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("repeat", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("set", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("shl", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("shr", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("string", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("then", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("to", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("type", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("unit", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("until", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("uses", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("var", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("while", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("with", TipoToken.PALAVRA_RESERVADA);
-        PALAVRAS_RESERVADAS.put("xor", TipoToken.PALAVRA_RESERVADA);
-
         // Inicializar mapa de símbolos simples
         SIMBOLOS_SIMPLES.put('(', new Token(TipoToken.SIMBOLO_ESPECIAL, "("));
         SIMBOLOS_SIMPLES.put(')', new Token(TipoToken.SIMBOLO_ESPECIAL, ")"));
@@ -107,340 +91,661 @@ public class AnalisadorLexico {
         SIMBOLOS_SIMPLES.put('-', new Token(TipoToken.OPERADOR_ARITMETICO, "-"));
         SIMBOLOS_SIMPLES.put('*', new Token(TipoToken.OPERADOR_ARITMETICO, "*"));
         SIMBOLOS_SIMPLES.put('/', new Token(TipoToken.OPERADOR_ARITMETICO, "/"));
+        SIMBOLOS_SIMPLES.put('<', new Token(TipoToken.OPERADOR_RELACIONAL, "<"));
+        SIMBOLOS_SIMPLES.put('>', new Token(TipoToken.OPERADOR_RELACIONAL, ">"));
+        SIMBOLOS_SIMPLES.put('=', new Token(TipoToken.OPERADOR_RELACIONAL, "="));
+
+        for (Map.Entry<Character, Token> simbolo : SIMBOLOS_SIMPLES.entrySet()) {
+            SIMBOLOS_ASCII[simbolo.getKey()] = simbolo.getValue();
+        }
     }
     
     // === CONSTRUTOR ===
-    
+
     /**
      * Construtor do analisador léxico
      */
     public AnalisadorLexico(String codigoFonte) {
-        this.codigoFonte = codigoFonte;
+        this(FonteCaracteres.deTexto(codigoFonte), MotorLexico.MANUAL);
+    }
+
+    /**
+     * Construtor com escolha do motor de reconhecimento
+     */
+    public AnalisadorLexico(String codigoFonte, MotorLexico motor) {
+        this(FonteCaracteres.deTexto(codigoFonte), motor);
+    }
+
+    /**
+     * Construtor a partir de uma fonte de caracteres (Reader, entrada padrão,
+     * arquivo mapeado em memória ou texto)
+     *
+     * Com fontes de janela deslizante a análise usa memória constante,
+     * independentemente do tamanho do arquivo.
+     */
+    public AnalisadorLexico(FonteCaracteres fonte) {
+        this(fonte, MotorLexico.MANUAL);
+    }
+
+    /**
+     * Construtor a partir de uma fonte de caracteres, com escolha do motor
+     *
+     * O motor TABELA percorre o autômato compilado da EspecificacaoLexica;
+     * o resultado é idêntico ao do motor MANUAL, token a token.
+     */
+    public AnalisadorLexico(FonteCaracteres fonte, MotorLexico motor) {
+        this.fonte = fonte;
+        this.motor = motor;
+        this.automato = motor == MotorLexico.TABELA ? AutomatoLexico.pascal() : null;
         this.posicaoAtual = 0;
-        this.tokenAnterior = null; // Inicializa sem token anterior
+        this.tipoAnterior = null; // Inicializa sem token anterior
+        this.simboloAtual = TabelaSimbolos.NENHUM;
+        this.diagnosticos = new ColetorDiagnosticos(fonte);
     }
 
     // === MÉTODOS PRINCIPAIS ===
-    
+
     /**
      * Ignora espaços em branco, tabs e quebras de linha
-     * 
+     *
      * Avança a posição atual até encontrar um caractere não-branco
      */
     private void ignorarEspacosEmBranco() {
-        while (posicaoAtual < codigoFonte.length() && Character.isWhitespace(codigoFonte.charAt(posicaoAtual))) {
-            posicaoAtual++;
-        }
+        posicaoAtual = fonte.pularEspacos(posicaoAtual);
     }
 
     /**
      * Método principal para obter o próximo token do código fonte
-     * 
+     *
      * Este é o método mais importante do analisador léxico. Ele:
-     * 1. Ignora espaços em branco
-     * 2. Verifica se chegou ao fim do código
-     * 3. Identifica o tipo de token baseado no primeiro caractere
-     * 4. Chama o método apropriado para processar cada tipo
-     * 5. Atualiza o token anterior para contexto
-     * 
+     * 1. Reconhece o próximo token (reconhecerProximo)
+     * 2. Materializa o objeto Token com sua posição inicial; símbolos
+     *    fixos reutilizam o lexema pré-construído, sem criar String
+     *
      */
     public Token proximoToken() {
-        // Pular espaços em branco
-        ignorarEspacosEmBranco();
-
-        // Verificar se chegou ao fim do código fonte
-        if (posicaoAtual >= codigoFonte.length()) {
+        TipoToken tipo = reconhecerProximo();
+        if (tipo == null) {
             return null; // Fim da análise
         }
+        int comprimento = posicaoAtual - inicioToken;
+        if (tokenFixo != null) {
+            return new Token(tipo, tokenFixo.lexema, inicioToken, comprimento);
+        }
+        if (simboloAtual != TabelaSimbolos.NENHUM) {
+            // Todas as ocorrências do identificador compartilham a String da tabela
+            return new Token(tipo, tabelaSimbolos.nome(simboloAtual), inicioToken, comprimento, simboloAtual);
+        }
+        return new Token(tipo, fonte.trecho(inicioLexema, fimLexema), inicioToken, comprimento);
+    }
 
-        char caractereAtual = codigoFonte.charAt(posicaoAtual);
+    /**
+     * Fluxo dos tokens restantes, do ponto atual até o fim do código fonte
+     *
+     * Com o código em memória, fluxo().parallel() divide o texto em partes
+     * analisadas de forma independente, uma por thread (ver
+     * SpliteradorTokens); a ordem dos tokens é preservada. Este analisador
+     * analisa a primeira parte e, num fluxo paralelo, termina antes do fim,
+     * e os erros léxicos das demais partes não são reunidos nele.
+     */
+    public Stream<Token> fluxo() {
+        CharSequence texto = fonte instanceof FonteTexto ? ((FonteTexto) fonte).texto() : null;
+        int fim = texto != null ? texto.length() : Integer.MAX_VALUE;
+        return StreamSupport.stream(new SpliteradorTokens(this, texto, fim), false);
+    }
 
-        // === RECONHECIMENTO POR TIPO DE CARACTERE ===
-        
-        // Identificadores e palavras reservadas (começam com letra)
-        if (Character.isLetter(caractereAtual)) {
-            Token token = reconhecerIdentificador();
-            tokenAnterior = token;
-            return token;
+    /**
+     * Iterador dos tokens restantes (equivalente a chamar proximoToken()
+     * até null)
+     */
+    public Iterator<Token> iterador() {
+        return Spliterators.iterator(new SpliteradorTokens(this, null, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Publicador dos tokens restantes, analisados no Executor conforme a
+     * demanda do assinante (ver PublicadorTokens)
+     */
+    public PublicadorTokens publicador(Executor executor) {
+        return new PublicadorTokens(this, executor);
+    }
+
+    /**
+     * Encerra a análise antes do fim do código fonte (leitura cancelada ou
+     * interrompida): a medição em andamento (JFR e MetricasLexico), se
+     * houver, é registrada com o que foi analisado até aqui
+     *
+     * No fim do código fonte a medição já é registrada automaticamente;
+     * chamadas repetidas não têm efeito, e nenhum token analisado depois é
+     * medido.
+     */
+    public void concluir() {
+        medicaoDecidida = true;
+        if (medicao != null) {
+            medicao.concluir(posicaoAtual, diagnosticos);
+            medicao = null;
         }
+    }
+
+    /**
+     * Não medir esta análise: analisadores internos (partes especulativas,
+     * emendas) são medidos pela análise lógica que os usa
+     */
+    void desativarMedicao() {
+        medicaoDecidida = true;
+        medicao = null;
+    }
+
+    /**
+     * Mede esta análise como parte de outra (ou não mede, se principal for null)
+     */
+    void medirComoParte(MedicaoAnalise principal) {
+        medicaoDecidida = true;
+        medicao = principal != null ? principal.parte(posicaoAtual) : null;
+    }
 
-        // Números (começam com dígito)
-        if (Character.isDigit(caractereAtual)) {
-            Token token = reconhecerNumero();
-            tokenAnterior = token;
-            return token;
+    /**
+     * Medição desta análise, iniciada agora se ainda não foi decidida
+     * (null se nada está sendo coletado)
+     */
+    MedicaoAnalise medicaoParaPartes() {
+        if (!medicaoDecidida) {
+            medicaoDecidida = true;
+            medicao = MedicaoAnalise.iniciar(motor, posicaoAtual);
         }
+        return medicao;
+    }
 
-        // === SÍMBOLOS E OPERADORES ===
-        // Cada case avança a posição e retorna o token apropriado
-    switch (caractereAtual) {
-        case '(':
-            posicaoAtual++;
-            Token token1 = new Token(TipoToken.SIMBOLO_ESPECIAL, "(");
-            tokenAnterior = token1;
-            return token1;
-        case ')':
-            posicaoAtual++;
-            Token token2 = new Token(TipoToken.SIMBOLO_ESPECIAL, ")");
-            tokenAnterior = token2;
-            return token2;
-        case ';':
-            posicaoAtual++;
-            Token token3 = new Token(TipoToken.SIMBOLO_ESPECIAL, ";");
-            tokenAnterior = token3;
-            return token3;
-        case ',':
-            posicaoAtual++;
-            Token token4 = new Token(TipoToken.SIMBOLO_ESPECIAL, ",");
-            tokenAnterior = token4;
-            return token4;
-        case '.':
-            // REGRA ESPECIAL: Se o token anterior é 'end', então '.' é fim de programa
-            if (tokenAnterior != null && tokenAnterior.tipo == TipoToken.PALAVRA_RESERVADA && tokenAnterior.lexema.equals("end")) {
-                posicaoAtual++;
-                Token tokenFim = new Token(TipoToken.FIM, ".");
-                tokenAnterior = tokenFim;
-                return tokenFim;
-            } else {
-                // Caso contrário, é apenas um ponto normal
-                posicaoAtual++;
-                Token token5 = new Token(TipoToken.SIMBOLO_ESPECIAL, ".");
-                tokenAnterior = token5;
-                return token5;
+    /**
+     * Conclui a medição de um trecho que termina em 'fim', descontando o
+     * token já reconhecido que pertence ao trecho seguinte
+     *
+     * @param descartado tipo desse token, ou null se não há
+     */
+    void concluirAte(int fim, TipoToken descartado) {
+        medicaoDecidida = true;
+        if (medicao != null) {
+            if (descartado != null) {
+                medicao.descontar(descartado);
             }
-        case '+':
-            posicaoAtual++;
-            Token token6 = new Token(TipoToken.OPERADOR_ARITMETICO, "+");
-            tokenAnterior = token6;
-            return token6;
-        case '-':
-            // REGRA COMPLEXA: O '-' pode ser operador ou parte de número negativo
-            if (tokenAnterior != null && 
-                (tokenAnterior.tipo == TipoToken.NUMERO_INTEIRO || 
-                 tokenAnterior.tipo == TipoToken.NUMERO_REAL ||
-                 tokenAnterior.tipo == TipoToken.IDENTIFICADOR)) {
-                // Precedido de número ou identificador -> é operador de subtração
-                posicaoAtual++;
-                Token token = new Token(TipoToken.OPERADOR_ARITMETICO, "-");
-                tokenAnterior = token;
-                return token;
+            medicao.concluir(fim, diagnosticos);
+            medicao = null;
+        }
+    }
+
+    /**
+     * Posição atual no código fonte (logo após o último token reconhecido)
+     */
+    int getPosicao() {
+        return posicaoAtual;
+    }
+
+    /**
+     * Posiciona o analisador em uma fronteira de token já conhecida,
+     * restaurando o contexto do token anterior (usado pela SessaoIncremental)
+     *
+     * @param posicao posição logo após o token anterior
+     * @param tipoAnterior tipo do token anterior, ou null no início do código
+     * @param anteriorEhEnd se o token anterior é "end" em minúsculas
+     */
+    void reposicionar(int posicao, TipoToken tipoAnterior, boolean anteriorEhEnd) {
+        this.posicaoAtual = posicao;
+        this.tipoAnterior = tipoAnterior;
+        this.anteriorEhEnd = anteriorEhEnd;
+    }
+
+    /**
+     * Linha (começando em 1) de uma posição do código fonte, por exemplo
+     * Token.posicao
+     *
+     * Com texto em memória, o índice de linhas só é construído na primeira
+     * consulta; a análise em si nunca conta quebras de linha. Com fontes de
+     * janela deslizante, a posição ainda não pode ter sido liberada.
+     */
+    public int linhaDe(int posicao) {
+        return fonte.linhaDe(posicao);
+    }
+
+    /**
+     * Coluna (começando em 1) de uma posição do código fonte
+     */
+    public int colunaDe(int posicao) {
+        return fonte.colunaDe(posicao);
+    }
+
+    /**
+     * Analisa todo o restante do código fonte e acrescenta os tokens ao buffer
+     *
+     * Nenhum objeto Token é criado: o buffer guarda apenas o tipo, a posição,
+     * o comprimento e o ID do símbolo de cada token em vetores primitivos.
+     *
+     * @return quantidade de tokens acrescentados
+     */
+    public int tokenizar(BufferTokens buffer) {
+        return tokenizar(buffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Acrescenta ao buffer no máximo a quantidade informada de tokens
+     *
+     * Permite processar arquivos grandes em lotes, reaproveitando o mesmo
+     * buffer (após limpar()) a cada chamada.
+     *
+     * @return quantidade de tokens acrescentados (0 no fim do código fonte)
+     */
+    public int tokenizar(BufferTokens buffer, int maximo) {
+        int adicionados = 0;
+        TipoToken tipo;
+        while (adicionados < maximo && (tipo = reconhecerProximo()) != null) {
+            buffer.adicionar(tipo, inicioToken, posicaoAtual - inicioToken, simboloAtual);
+            adicionados++;
+        }
+        return adicionados;
+    }
+
+    /**
+     * Reconhece o próximo token sem criar objetos, usando o motor escolhido
+     *
+     * Ao retornar, inicioToken e posicaoAtual delimitam o token, e
+     * inicioLexema/fimLexema delimitam o lexema.
+     *
+     * @return tipo do token reconhecido, ou null no fim do código fonte
+     */
+    private TipoToken reconhecerProximo() {
+        if (!medicaoDecidida) {
+            medicaoDecidida = true;
+            medicao = MedicaoAnalise.iniciar(motor, posicaoAtual);
+        }
+        if (medicao == null) {
+            return automato != null ? reconhecerPorTabela() : reconhecerManual();
+        }
+        medicao.antesDoToken();
+        TipoToken tipo = automato != null ? reconhecerPorTabela() : reconhecerManual();
+        if (tipo != null) {
+            medicao.token(tipo, inicioToken, posicaoAtual - inicioToken);
+        } else {
+            medicao.concluir(posicaoAtual, diagnosticos);
+            medicao = null;
+        }
+        return tipo;
+    }
+
+    /**
+     * Reconhecimento manual do próximo token
+     *
+     * Este é o núcleo do analisador léxico. Ele:
+     * 1. Ignora espaços em branco
+     * 2. Verifica se chegou ao fim do código
+     * 3. Identifica o tipo de token baseado no primeiro caractere
+     * 4. Chama o método apropriado para processar cada tipo
+     * 5. Atualiza o contexto do token anterior
+     *
+     * Comentários e caracteres desconhecidos não geram token: o laço
+     * recomeça no caractere seguinte, sem recursão, de modo que longas
+     * sequências de erros não esgotam a pilha.
+     *
+     */
+    private TipoToken reconhecerManual() {
+        // Comentários e caracteres desconhecidos voltam ao início do laço (sem recursão)
+        while (true) {
+            // O token anterior já foi concluído: a fonte pode descartar o que ficou para trás
+            fonte.liberarAte(posicaoAtual);
+
+            // Pular espaços em branco
+            ignorarEspacosEmBranco();
+
+            // Verificar se chegou ao fim do código fonte
+            int lido = fonte.caractereEm(posicaoAtual);
+            if (lido == FonteCaracteres.FIM) {
+                return null; // Fim da análise
+            }
+
+            char caractereAtual = (char) lido;
+            inicioToken = posicaoAtual;
+            inicioLexema = posicaoAtual;
+            tokenFixo = null;
+            palavraReservada = PalavrasReservadas.NENHUMA;
+
+            TipoToken tipo;
+
+            // === RECONHECIMENTO POR TIPO DE CARACTERE ===
+
+            if (Character.isLetter(caractereAtual)) {
+                // Identificadores e palavras reservadas (começam com letra)
+                tipo = reconhecerIdentificador();
+            } else if (Character.isDigit(caractereAtual)) {
+                // Números (começam com dígito)
+                tipo = reconhecerNumero();
             } else {
-                // Não precedido de número/identificador -> verificar se próximo é dígito
-                if (posicaoAtual + 1 < codigoFonte.length() && 
-                    Character.isDigit(codigoFonte.charAt(posicaoAtual + 1))) {
-                    // Próximo é dígito -> é número negativo
-                    Token numeroNegativo = reconhecerNumero();
-                    tokenAnterior = numeroNegativo;
-                    return numeroNegativo;
-                } else {
-                    // Próximo não é dígito -> é operador de subtração
-                    posicaoAtual++;
-                    Token token = new Token(TipoToken.OPERADOR_ARITMETICO, "-");
-                    tokenAnterior = token;
-                    return token;
+                // === SÍMBOLOS E OPERADORES ===
+                // Cada case avança a posição e define o tipo do token
+                switch (caractereAtual) {
+                    case '(':
+                    case ')':
+                    case ';':
+                    case ',':
+                    case '+':
+                    case '*':
+                    case '=':
+                        // Símbolos de um único caractere, sem regras de contexto
+                        tipo = consumirSimbolo(SIMBOLOS_ASCII[caractereAtual], 1);
+                        break;
+                    case '.':
+                        // REGRA ESPECIAL: Se o token anterior é 'end', então '.' é fim de programa
+                        if (anteriorEhEnd) {
+                            tipo = consumirSimbolo(TOKEN_FIM, 1);
+                        } else {
+                            // Caso contrário, é apenas um ponto normal
+                            tipo = consumirSimbolo(SIMBOLOS_ASCII['.'], 1);
+                        }
+                        break;
+                    case '-':
+                        // REGRA COMPLEXA: O '-' pode ser operador ou parte de número negativo
+                        if (tokenAnteriorEhNumeroOuIdentificador()) {
+                            // Precedido de número ou identificador -> é operador de subtração
+                            tipo = consumirSimbolo(SIMBOLOS_ASCII['-'], 1);
+                        } else if (ehDigito(fonte.caractereEm(posicaoAtual + 1))) {
+                            // Não precedido de número/identificador e próximo é dígito -> é número negativo
+                            tipo = reconhecerNumero();
+                        } else {
+                            // Próximo não é dígito -> é operador de subtração
+                            tipo = consumirSimbolo(SIMBOLOS_ASCII['-'], 1);
+                        }
+                        break;
+                    case '/':
+                        // REGRA ESPECIAL: Verificar se é comentário /* ou operador de divisão
+                        if (fonte.caractereEm(posicaoAtual + 1) == '*') {
+                            // É início de comentário /* ... */
+                            ignorarComentario();
+                            // Após ignorar o comentário, continuar análise
+                            continue;
+                        }
+                        // É apenas operador de divisão
+                        tipo = consumirSimbolo(SIMBOLOS_ASCII['/'], 1);
+                        break;
+                    case ':':
+                        // Verificar se é atribuição ':=' ou apenas dois pontos ':'
+                        if (peek() == '=') {
+                            tipo = consumirSimbolo(TOKEN_ATRIBUICAO, 2);
+                        } else {
+                            tipo = consumirSimbolo(SIMBOLOS_ASCII[':'], 1);
+                        }
+                        break;
+                    case '<':
+                        // Operadores relacionais: '<', '<=', '<>'
+                        if (peek() == '=') {
+                            tipo = consumirSimbolo(TOKEN_MENOR_IGUAL, 2);
+                        } else if (peek() == '>') {
+                            tipo = consumirSimbolo(TOKEN_DIFERENTE, 2);
+                        } else {
+                            tipo = consumirSimbolo(SIMBOLOS_ASCII['<'], 1);
+                        }
+                        break;
+                    case '>':
+                        // Operadores relacionais: '>', '>='
+                        if (peek() == '=') {
+                            tipo = consumirSimbolo(TOKEN_MAIOR_IGUAL, 2);
+                        } else {
+                            tipo = consumirSimbolo(SIMBOLOS_ASCII['>'], 1);
+                        }
+                        break;
+                    case '\'':
+                        // Literais de caractere (aspas simples)
+                        tipo = reconhecerChar();
+                        break;
+                    case '"':
+                        // Literais de string (aspas duplas)
+                        tipo = reconhecerString();
+                        break;
+                    default:
+                        // Caractere não reconhecido - registrar o erro
+                        diagnosticos.caractereDesconhecido(posicaoAtual, caractereAtual);
+                        posicaoAtual++; // Pular o caractere problemático
+                        continue; // Continuar análise
                 }
             }
-        case '*':
-            posicaoAtual++;
-            Token token7 = new Token(TipoToken.OPERADOR_ARITMETICO, "*");
-            tokenAnterior = token7;
-            return token7;
-        case '/':
-            // REGRA ESPECIAL: Verificar se é comentário /* ou operador de divisão
-            if (posicaoAtual + 1 < codigoFonte.length() && 
-                codigoFonte.charAt(posicaoAtual + 1) == '*') {
-                // É início de comentário /* ... */
-                ignorarComentario();
-                // Após ignorar o comentário, continuar análise
-                return proximoToken();
-            } else {
-                // É apenas operador de divisão
-                posicaoAtual++;
-                Token token8 = new Token(TipoToken.OPERADOR_ARITMETICO, "/");
-                tokenAnterior = token8;
-                return token8;
+
+            if (tipo != TipoToken.CHAR_LITERAL && tipo != TipoToken.STRING_LITERAL) {
+                fimLexema = posicaoAtual;
             }
-        
-        case ':':
-            // Verificar se é atribuição ':=' ou apenas dois pontos ':'
-            if (peek() == '=') {
-                posicaoAtual += 2; // Consumir ':='
-                Token token9 = new Token(TipoToken.ATRIBUICAO, ":=");
-                tokenAnterior = token9;
-                return token9;
-            } else {
-                posicaoAtual++; // Consumir apenas ':'
-                Token token10 = new Token(TipoToken.SIMBOLO_ESPECIAL, ":");
-                tokenAnterior = token10;
-                return token10;
+            return concluirToken(tipo);
+        }
+    }
+
+    /**
+     * Reconhecimento do próximo token pelo autômato da especificação
+     *
+     * Um único laço consulta a classe de cada caractere e a tabela de
+     * transições, guardando a última regra aceita (casamento mais longo).
+     * Espaços, comentários e caracteres desconhecidos são tratados no mesmo
+     * laço externo, sem recursão.
+     */
+    private TipoToken reconhecerPorTabela() {
+        while (true) {
+            fonte.liberarAte(posicaoAtual);
+            int inicio = posicaoAtual;
+            int estado = automato.estadoInicial(tokenAnteriorEhNumeroOuIdentificador());
+            int posicao = inicio;
+            int regraAceita = -1;
+            int fimAceito = inicio;
+            while (true) {
+                int c = fonte.caractereEm(posicao);
+                estado = automato.proximo(estado, automato.classe(c));
+                if (estado == AutomatoLexico.MORTO) {
+                    break;
+                }
+                if (c == FonteCaracteres.FIM) {
+                    // O fim do código não consome caractere
+                    if (automato.regraAceita(estado) >= 0) {
+                        regraAceita = automato.regraAceita(estado);
+                        fimAceito = posicao;
+                    }
+                    break;
+                }
+                posicao++;
+                if (automato.regraAceita(estado) >= 0) {
+                    regraAceita = automato.regraAceita(estado);
+                    fimAceito = posicao;
+                }
             }
 
-        case '<':
-            // Operadores relacionais: '<', '<=', '<>'
-            if (peek() == '=') {
-                posicaoAtual += 2; // Consumir '<='
-                Token token11 = new Token(TipoToken.OPERADOR_RELACIONAL, "<=");
-                tokenAnterior = token11;
-                return token11;
-            } else if (peek() == '>') {
-                posicaoAtual += 2; // Consumir '<>' (diferente)
-                Token token12 = new Token(TipoToken.OPERADOR_RELACIONAL, "<>");
-                tokenAnterior = token12;
-                return token12;
-            } else {
-                posicaoAtual++; // Consumir '<' (menor que)
-                Token token13 = new Token(TipoToken.OPERADOR_RELACIONAL, "<");
-                tokenAnterior = token13;
-                return token13;
+            if (regraAceita < 0) {
+                int c = fonte.caractereEm(inicio);
+                if (c == FonteCaracteres.FIM) {
+                    return null; // Fim da análise
+                }
+                // Caractere não reconhecido - registrar o erro
+                diagnosticos.caractereDesconhecido(inicio, (char) c);
+                posicaoAtual = inicio + 1; // Pular o caractere problemático
+                continue;
             }
-        
-        case '>':
-            // Operadores relacionais: '>', '>='
-            if (peek() == '=') {
-                posicaoAtual += 2; // Consumir '>='
-                Token token14 = new Token(TipoToken.OPERADOR_RELACIONAL, ">=");
-                tokenAnterior = token14;
-                return token14;
-            } else {
-                posicaoAtual++; // Consumir '>' (maior que)
-                Token token15 = new Token(TipoToken.OPERADOR_RELACIONAL, ">");
-                tokenAnterior = token15;
-                return token15;
+
+            posicaoAtual = fimAceito;
+            EspecificacaoLexica.Regra regra = automato.regra(regraAceita);
+            if (regra.acao == EspecificacaoLexica.Acao.IGNORAR) {
+                continue; // Espaços em branco
+            }
+            if (regra.acao == EspecificacaoLexica.Acao.COMENTARIO) {
+                if (medicao != null) {
+                    medicao.comentario(fimAceito - inicio);
+                }
+                continue;
+            }
+            if (regra.acao == EspecificacaoLexica.Acao.COMENTARIO_ABERTO) {
+                diagnosticos.erro(Diagnostico.Tipo.COMENTARIO_NAO_FECHADO, inicio, fimAceito - inicio);
+                if (medicao != null) {
+                    medicao.comentario(fimAceito - inicio);
+                }
+                continue;
             }
 
-        case '=':
-            // Operador de igualdade
-            posicaoAtual++;
-            Token token16 = new Token(TipoToken.OPERADOR_RELACIONAL, "=");
-            tokenAnterior = token16;
-            return token16;
-
-        case '\'':
-            // Literais de caractere (aspas simples)
-            Token tokenChar = reconhecerChar();
-            tokenAnterior = tokenChar;
-            return tokenChar;
-
-        case '"':
-            // Literais de string (aspas duplas)
-            Token tokenString = reconhecerString();
-            tokenAnterior = tokenString;
-            return tokenString;
-
-        default:
-            // Caractere não reconhecido - adicionar à lista de erros
-            caracteresNaoIdentificados.add(caractereAtual);
-            System.err.println("Caractere desconhecido: " + caractereAtual);
-            posicaoAtual++; // Pular o caractere problemático
-            return proximoToken(); // Continuar análise
+            inicioToken = inicio;
+            inicioLexema = inicio;
+            fimLexema = fimAceito;
+            tokenFixo = null;
+            palavraReservada = PalavrasReservadas.NENHUMA;
+            TipoToken tipo = regra.tipo;
+            switch (regra.acao) {
+                case IDENTIFICADOR:
+                    palavraReservada = PalavrasReservadas.procurar(fonte, inicio, fimAceito - inicio);
+                    if (palavraReservada != PalavrasReservadas.NENHUMA) {
+                        tipo = TipoToken.PALAVRA_RESERVADA;
+                    }
+                    break;
+                case PONTO:
+                    if (anteriorEhEnd) {
+                        tipo = TipoToken.FIM;
+                    }
+                    break;
+                case LITERAL_FECHADO:
+                    inicioLexema = inicio + 1;
+                    fimLexema = fimAceito - 1;
+                    break;
+                case STRING_ABERTA:
+                    diagnosticos.erro(Diagnostico.Tipo.STRING_NAO_FECHADA, inicio, fimAceito - inicio);
+                    inicioLexema = inicio + 1;
+                    break;
+                case CHAR_ABERTO:
+                    diagnosticos.erro(Diagnostico.Tipo.CARACTERE_NAO_FECHADO, inicio, fimAceito - inicio);
+                    break;
+                default:
+                    break;
+            }
+            return concluirToken(tipo);
+        }
+    }
+
+    /**
+     * Atualiza o contexto do token anterior com o token recém-reconhecido
+     */
+    private TipoToken concluirToken(TipoToken tipo) {
+        simboloAtual = tabelaSimbolos != null && tipo == TipoToken.IDENTIFICADOR
+            ? tabelaSimbolos.internar(fonte, inicioToken, posicaoAtual - inicioToken)
+            : TabelaSimbolos.NENHUM;
+        tipoAnterior = tipo;
+        anteriorEhEnd = palavraReservada == PalavrasReservadas.END && ehEndMinusculo();
+        return tipo;
+    }
+
+    /**
+     * Consome um símbolo de tamanho fixo representado por um token pré-construído
+     */
+    private TipoToken consumirSimbolo(Token simbolo, int tamanho) {
+        posicaoAtual += tamanho;
+        tokenFixo = simbolo;
+        return simbolo.tipo;
     }
-}
 
     // === MÉTODOS DE RECONHECIMENTO ESPECÍFICOS ===
-    
+
     /**
      * Reconhece identificadores e palavras reservadas
-     * 
+     *
      * Um identificador começa com letra e pode conter letras e dígitos.
-     * Após extrair o lexema, verifica se é palavra reservada.
-     * 
+     * A verificação de palavra reservada é feita diretamente sobre os
+     * caracteres da fonte, antes de qualquer lexema ser extraído.
+     *
      */
-    private Token reconhecerIdentificador() {
+    private TipoToken reconhecerIdentificador() {
         int posicaoInicial = posicaoAtual;
-        
+
         // Consumir todos os caracteres alfanuméricos
-        while (posicaoAtual < codigoFonte.length() && 
-               Character.isLetterOrDigit(codigoFonte.charAt(posicaoAtual))) {
+        int c;
+        while ((c = fonte.caractereEm(posicaoAtual)) != FonteCaracteres.FIM &&
+               Character.isLetterOrDigit((char) c)) {
             posicaoAtual++;
         }
-        
-        // Extrair o lexema completo
-        String lexema = codigoFonte.substring(posicaoInicial, posicaoAtual);
-        
-        // Verificar se é palavra reservada (case-insensitive)
-        TipoToken tipo = PALAVRAS_RESERVADAS.getOrDefault(lexema.toLowerCase(), TipoToken.IDENTIFICADOR);
-        
-        return new Token(tipo, lexema);
+
+        // Verificar se é palavra reservada (case-insensitive, sem alocação)
+        palavraReservada = PalavrasReservadas.procurar(fonte, posicaoInicial, posicaoAtual - posicaoInicial);
+        return palavraReservada != PalavrasReservadas.NENHUMA ? TipoToken.PALAVRA_RESERVADA : TipoToken.IDENTIFICADOR;
     }
 
     /**
      * Reconhece números inteiros e reais
-     * 
+     *
      * Suporta:
      * - Números inteiros: 123, -456
      * - Números reais: 12.34, -5.67
      * - Notação científica: 1.23e-4, 2E+5
      * - Números negativos quando apropriado
-     * 
+     *
      */
-    private Token reconhecerNumero() {
-        int posicaoInicial = posicaoAtual;
+    private TipoToken reconhecerNumero() {
         boolean ehReal = false;
 
         // Consumir sinal negativo se presente
-        if (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) == '-') {
+        if (fonte.caractereEm(posicaoAtual) == '-') {
             posicaoAtual++; // Consumir o '-'
         }
 
         // Consumir parte inteira (dígitos obrigatórios)
-        while (posicaoAtual < codigoFonte.length() && 
-               Character.isDigit(codigoFonte.charAt(posicaoAtual))) {
+        while (ehDigito(fonte.caractereEm(posicaoAtual))) {
             posicaoAtual++;
         }
 
         // Verificar parte fracionária (ponto decimal)
-        if (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) == '.') {
+        if (fonte.caractereEm(posicaoAtual) == '.') {
             // Só consumir o ponto se houver dígito após ele
-            if (posicaoAtual + 1 < codigoFonte.length() && 
-                Character.isDigit(codigoFonte.charAt(posicaoAtual + 1))) {
+            if (ehDigito(fonte.caractereEm(posicaoAtual + 1))) {
                 ehReal = true;
                 posicaoAtual++; // Consumir o '.'
 
                 // Consumir dígitos da parte fracionária
-                while (posicaoAtual < codigoFonte.length() && 
-                       Character.isDigit(codigoFonte.charAt(posicaoAtual))) {
+                while (ehDigito(fonte.caractereEm(posicaoAtual))) {
                     posicaoAtual++;
                 }
             }
             // Se não há dígito após '.', deixar o ponto para próximo token
         }
-        
+
         // Verificar notação científica (e/E)
-        if (posicaoAtual < codigoFonte.length() && 
-            (codigoFonte.charAt(posicaoAtual) == 'e' || codigoFonte.charAt(posicaoAtual) == 'E')) {
+        int expoente = fonte.caractereEm(posicaoAtual);
+        if (expoente == 'e' || expoente == 'E') {
             ehReal = true;
             posicaoAtual++; // Consumir 'e' ou 'E'
 
             // Consumir sinal do expoente (opcional)
-            if (posicaoAtual < codigoFonte.length() && 
-                (codigoFonte.charAt(posicaoAtual) == '+' || codigoFonte.charAt(posicaoAtual) == '-')) {
+            int sinal = fonte.caractereEm(posicaoAtual);
+            if (sinal == '+' || sinal == '-') {
                 posicaoAtual++; // Consumir sinal
             }
 
             // Consumir dígitos do expoente
-            while (posicaoAtual < codigoFonte.length() && 
-                   Character.isDigit(codigoFonte.charAt(posicaoAtual))) {
+            while (ehDigito(fonte.caractereEm(posicaoAtual))) {
                 posicaoAtual++;
             }
         }
 
-        // Extrair lexema e determinar tipo
-        String lexema = codigoFonte.substring(posicaoInicial, posicaoAtual);
-        TipoToken tipo = ehReal ? TipoToken.NUMERO_REAL : TipoToken.NUMERO_INTEIRO;
-
-        return new Token(tipo, lexema);
+        // Determinar tipo (o lexema é o trecho consumido)
+        return ehReal ? TipoToken.NUMERO_REAL : TipoToken.NUMERO_INTEIRO;
     }
 
     // === MÉTODOS UTILITÁRIOS ===
-    
+
     /**
      * Espia o próximo caractere sem consumi-lo
      */
     private char peek() {
-        if (posicaoAtual + 1 >= codigoFonte.length()) {
+        int proximo = fonte.caractereEm(posicaoAtual + 1);
+        if (proximo == FonteCaracteres.FIM) {
             return '\0'; // Caractere nulo indica fim
         }
-        return codigoFonte.charAt(posicaoAtual + 1);
+        return (char) proximo;
+    }
+
+    /**
+     * Verifica se o caractere lido da fonte é um dígito (FIM nunca é dígito)
+     */
+    private static boolean ehDigito(int c) {
+        return c != FonteCaracteres.FIM && Character.isDigit((char) c);
+    }
+
+    /**
+     * Retorna o motor de reconhecimento em uso
+     */
+    public MotorLexico getMotor() {
+        return motor;
     }
 
     /**
@@ -449,7 +754,7 @@ public class AnalisadorLexico {
     public void setExibirFimDeArquivo(boolean exibir) {
         this.exibirFimDeArquivo = exibir;
     }
-    
+
     /**
      * Verifica se está configurado para exibir FIM_DE_ARQUIVO
      */
@@ -459,118 +764,169 @@ public class AnalisadorLexico {
 
     /**
      * Verifica se o token anterior é um número ou identificador
-     * 
+     *
      * Usado para determinar contexto em casos ambíguos (como o operador '-')
      */
     private boolean tokenAnteriorEhNumeroOuIdentificador() {
-        return tokenAnterior != null && 
-               (tokenAnterior.tipo == TipoToken.NUMERO_INTEIRO || 
-                tokenAnterior.tipo == TipoToken.NUMERO_REAL || 
-                tokenAnterior.tipo == TipoToken.IDENTIFICADOR);
+        return tipoAnterior == TipoToken.NUMERO_INTEIRO ||
+               tipoAnterior == TipoToken.NUMERO_REAL ||
+               tipoAnterior == TipoToken.IDENTIFICADOR;
     }
-    
+
+    /**
+     * Verifica se o token recém-reconhecido é "end" escrito em minúsculas
+     *
+     * A regra do ponto final (end.) diferencia maiúsculas: "END." não é fim.
+     */
+    private boolean ehEndMinusculo() {
+        return fonte.caractereEm(inicioToken) == 'e'
+            && fonte.caractereEm(inicioToken + 1) == 'n'
+            && fonte.caractereEm(inicioToken + 2) == 'd';
+    }
+
     /**
      * Ignora comentarios
-     * 
+     *
      * Avanca a posicao ate encontrar o fechamento do comentario.
      * Se o comentario nao for fechado, ignora ate o fim do codigo.
      */
     private void ignorarComentario() {
+        // O início pode ser liberado antes de se saber que o comentário não fecha
+        int posicaoInicial = posicaoAtual;
+        fonte.marcar(posicaoInicial);
+
         // Pular o "/*" inicial
         posicaoAtual += 2;
-        
-        // Procurar pelo fechamento "*/"
-        while (posicaoAtual + 1 < codigoFonte.length()) {
-            if (codigoFonte.charAt(posicaoAtual) == '*' && 
-                codigoFonte.charAt(posicaoAtual + 1) == '/') {
-                // Encontrou fechamento - pular o "*/"
-                posicaoAtual += 2;
-                return;
+
+        // Procurar pelo fechamento "*/" (a fonte libera o trecho percorrido)
+        posicaoAtual = fonte.procurarFimComentario(posicaoAtual);
+        if (fonte.caractereEm(posicaoAtual) != FonteCaracteres.FIM) {
+            // Encontrou fechamento - pular o "*/"
+            posicaoAtual += 2;
+            if (medicao != null) {
+                medicao.comentario(posicaoAtual - posicaoInicial);
             }
-            posicaoAtual++;
+            return;
         }
-        
-        // Comentario nao foi fechado - ir ate o fim (erro tolerado)
-        posicaoAtual = codigoFonte.length();
+        if (medicao != null) {
+            medicao.comentario(posicaoAtual - posicaoInicial);
+        }
+
+        // Comentario nao foi fechado - posicao ja esta no fim (erro tolerado e registrado)
+        diagnosticos.erro(Diagnostico.Tipo.COMENTARIO_NAO_FECHADO, posicaoInicial, posicaoAtual - posicaoInicial);
     }
-    
+
     /**
      * Retorna lista dos caracteres nao identificados durante a analise
+     *
+     * A lista vem dos diagnósticos retidos e, portanto, é limitada; o total
+     * está em getDiagnosticos().getTotalCaracteresDesconhecidos().
      */
     public List<Character> getCaracteresNaoIdentificados() {
-        return new ArrayList<>(caracteresNaoIdentificados);
+        return diagnosticos.getCaracteresRetidos();
     }
-    
+
+    /**
+     * Passa a internar os identificadores na tabela informada (null para
+     * nenhuma): os tokens seguintes trazem o ID do símbolo, e os objetos
+     * Token de um mesmo identificador compartilham o lexema
+     *
+     * Uma tabela pode ser compartilhada por vários analisadores da mesma
+     * compilação, desde que não ao mesmo tempo.
+     */
+    public void setTabelaSimbolos(TabelaSimbolos tabelaSimbolos) {
+        this.tabelaSimbolos = tabelaSimbolos;
+    }
+
+    public TabelaSimbolos getTabelaSimbolos() {
+        return tabelaSimbolos;
+    }
+
+    /**
+     * Retorna o coletor com os erros léxicos encontrados até agora
+     */
+    public ColetorDiagnosticos getDiagnosticos() {
+        return diagnosticos;
+    }
+
     /**
      * Reconhece literais de caractere delimitados por aspas simples
-     * 
+     *
      * Formato: 'c' onde c é qualquer caractere
-     * Retorna apenas o caractere, sem as aspas.
-     * 
-     * @return Token do tipo CHAR_LITERAL
+     * O lexema é apenas o caractere, sem as aspas.
+     *
+     * @return CHAR_LITERAL
      */
-    private Token reconhecerChar() {
+    private TipoToken reconhecerChar() {
         int posicaoInicial = posicaoAtual;
         posicaoAtual++; // Consumir aspa simples inicial '
-        
+
         // Verificar se há caractere suficiente
-        if (posicaoAtual >= codigoFonte.length()) {
-            System.err.println("Erro: Caractere não fechado");
-            return new Token(TipoToken.CHAR_LITERAL, codigoFonte.substring(posicaoInicial));
+        if (fonte.caractereEm(posicaoAtual) == FonteCaracteres.FIM) {
+            diagnosticos.erro(Diagnostico.Tipo.CARACTERE_NAO_FECHADO, posicaoInicial, posicaoAtual - posicaoInicial);
+            lexemaLiteral(posicaoInicial, posicaoAtual);
+            return TipoToken.CHAR_LITERAL;
         }
-        
+
         // Consumir o caractere (qualquer um, incluindo espaços)
-        char caractere = codigoFonte.charAt(posicaoAtual);
         posicaoAtual++;
-        
+
         // Verificar aspa de fechamento
-        if (posicaoAtual >= codigoFonte.length() || codigoFonte.charAt(posicaoAtual) != '\'') {
-            System.err.println("Erro: Caractere não fechado");
-            return new Token(TipoToken.CHAR_LITERAL, codigoFonte.substring(posicaoInicial, posicaoAtual));
+        if (fonte.caractereEm(posicaoAtual) != '\'') {
+            diagnosticos.erro(Diagnostico.Tipo.CARACTERE_NAO_FECHADO, posicaoInicial, posicaoAtual - posicaoInicial);
+            lexemaLiteral(posicaoInicial, posicaoAtual);
+            return TipoToken.CHAR_LITERAL;
         }
-        
+
         posicaoAtual++; // Consumir aspa simples final '
-        
-        // Retornar apenas o conteudo, sem as aspas
-        return new Token(TipoToken.CHAR_LITERAL, String.valueOf(caractere));
+
+        // O lexema é apenas o conteudo, sem as aspas
+        lexemaLiteral(posicaoInicial + 1, posicaoInicial + 2);
+        return TipoToken.CHAR_LITERAL;
     }
-    
+
     /**
      * Reconhece literais de string delimitados por aspas duplas
-     * 
+     *
      * Formato: "texto" onde texto pode conter qualquer caractere
-     * Retorna apenas o conteúdo, sem as aspas.
-     * 
+     * O lexema é apenas o conteúdo, sem as aspas.
+     *
      */
-    private Token reconhecerString() {
-        int posicaoInicial = posicaoAtual;
+    private TipoToken reconhecerString() {
         posicaoAtual++; // Consumir aspa dupla inicial "
-        
-        StringBuilder conteudoString = new StringBuilder();
-        
+        int inicioConteudo = posicaoAtual;
+
         // Consumir todos os caracteres até a aspa de fechamento
-        while (posicaoAtual < codigoFonte.length() && codigoFonte.charAt(posicaoAtual) != '"') {
-            conteudoString.append(codigoFonte.charAt(posicaoAtual));
-            posicaoAtual++;
-        }
-        
+        posicaoAtual = fonte.procurar('"', posicaoAtual);
+        int c = fonte.caractereEm(posicaoAtual);
+
         // Verificar se encontrou aspa de fechamento
-        if (posicaoAtual >= codigoFonte.length()) {
-            System.err.println("Erro: String não fechada");
-            return new Token(TipoToken.STRING_LITERAL, conteudoString.toString());
+        if (c == FonteCaracteres.FIM) {
+            diagnosticos.erro(Diagnostico.Tipo.STRING_NAO_FECHADA, inicioConteudo - 1, posicaoAtual - inicioConteudo + 1);
+            lexemaLiteral(inicioConteudo, posicaoAtual);
+            return TipoToken.STRING_LITERAL;
         }
-        
+
         posicaoAtual++; // Consumir aspa dupla final "
-        
-        // Retornar apenas o conteudo, sem as aspas
-        return new Token(TipoToken.STRING_LITERAL, conteudoString.toString());
+
+        // O lexema é apenas o conteudo, sem as aspas
+        lexemaLiteral(inicioConteudo, posicaoAtual - 1);
+        return TipoToken.STRING_LITERAL;
     }
-    
+
+    /**
+     * Registra os limites do lexema de um literal (sem as aspas)
+     */
+    private void lexemaLiteral(int inicio, int fim) {
+        inicioLexema = inicio;
+        fimLexema = fim;
+    }
+
     /**
      * Limpa a lista de caracteres nao identificados
      * Util para reiniciar a analise ou limpar erros anteriores.
      */
     public void limparCaracteresNaoIdentificados() {
-        caracteresNaoIdentificados.clear();
+        diagnosticos.limpar();
     }
 }
@@ -0,0 +1,270 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Análise léxica paralela de um único texto grande
+ *
+ * O texto é dividido em partes, sempre logo após uma quebra de linha, e
+ * cada parte é analisada em paralelo a partir do seu início, como se fosse
+ * o começo do código (sem token anterior). Essa análise é especulativa:
+ * uma parte pode começar dentro de um comentário ou de um literal de
+ * string, ou seu primeiro '-' ou '.' pode depender do token anterior.
+ *
+ * A junção percorre as emendas em ordem, como a SessaoIncremental: a
+ * partir do fim real da parte anterior (posição e contexto do seu último
+ * token), os tokens são analisados de novo um a um até que um deles seja
+ * idêntico (posição, tipo e comprimento) a um token especulativo. Dali em
+ * diante o texto e o contexto são os mesmos, portanto os tokens
+ * especulativos restantes da parte estão corretos e são aproveitados. Na
+ * maioria das emendas, o primeiro token já coincide.
+ *
+ * O resultado (tokens e erros léxicos) é idêntico ao de um único
+ * AnalisadorLexico percorrendo o texto do início ao fim. Os analisadores
+ * internos não são medidos: a análise inteira é registrada uma única vez
+ * nas métricas, com os tokens e erros do resultado.
+ *
+ * Uso:
+ *   AnalisadorParalelo.Resultado resultado = AnalisadorParalelo.analisar(texto, partes);
+ *   ... resultado.tokens, resultado.diagnosticos ...
+ *
+ */
+public final class AnalisadorParalelo {
+
+    /** Tamanho mínimo de cada parte, em caracteres */
+    public static final int TAMANHO_MINIMO_PARTE = 1024 * 1024;
+
+    // Tokens analisados por chamada a tokenizar() na análise especulativa
+    private static final int BLOCO_TOKENS = 4096;
+
+    /**
+     * Tokens e erros léxicos do texto inteiro
+     */
+    public static final class Resultado {
+        public final BufferTokens tokens;
+        public final ColetorDiagnosticos diagnosticos;
+        public final int partes;        // Quantidade de partes analisadas em paralelo
+        public final int emendas;       // Emendas em que foi preciso analisar tokens de novo
+
+        Resultado(BufferTokens tokens, ColetorDiagnosticos diagnosticos, int partes, int emendas) {
+            this.tokens = tokens;
+            this.diagnosticos = diagnosticos;
+            this.partes = partes;
+            this.emendas = emendas;
+        }
+    }
+
+    /**
+     * Resultado especulativo de uma parte [inicio, fim)
+     */
+    private static final class Parte {
+        final int inicio;
+        final int fim;
+        final BufferTokens tokens = new BufferTokens();     // Tokens que começam em [inicio, fim)
+        List<Diagnostico> diagnosticos;
+        int fimUltimo;                  // Fim do último token da parte
+
+        Parte(int inicio, int fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+
+    private AnalisadorParalelo() {
+    }
+
+    public static Resultado analisar(CharSequence texto, int partes) {
+        return analisar(texto, partes, MotorLexico.MANUAL);
+    }
+
+    /**
+     * Analisa o texto em até 'partes' partes paralelas
+     *
+     * As partes são executadas no ForkJoinPool da tarefa atual (ou no pool
+     * comum). Um TextoMapeado é duplicado para cada thread; outros textos
+     * não devem ser alterados durante a análise.
+     */
+    public static Resultado analisar(CharSequence texto, int partes, MotorLexico motor) {
+        int[] limites = dividir(texto, partes);
+        if (limites.length == 2) {
+            // Uma única parte: análise sequencial comum
+            AnalisadorLexico analisador = new AnalisadorLexico(FonteCaracteres.deTexto(texto), motor);
+            BufferTokens tokens = new BufferTokens();
+            analisador.tokenizar(tokens);
+            return new Resultado(tokens, analisador.getDiagnosticos(), 1, 0);
+        }
+        MedicaoAnalise medicao = MedicaoAnalise.iniciar(motor, 0);
+        if (medicao != null) {
+            medicao.ignorarAlocacao(); // As partes são analisadas em outras threads
+        }
+        Parte[] especulativas = new Parte[limites.length - 1];
+        List<ForkJoinTask<?>> tarefas = new ArrayList<>(especulativas.length);
+        for (int i = 0; i < especulativas.length; i++) {
+            Parte parte = new Parte(limites[i], limites[i + 1]);
+            especulativas[i] = parte;
+            tarefas.add(ForkJoinTask.adapt(() -> especular(copiaPara(texto), motor, parte)));
+        }
+        ForkJoinTask.invokeAll(tarefas);
+        Resultado resultado = juntar(copiaPara(texto), motor, especulativas);
+        if (medicao != null) {
+            medicao.tokens(resultado.tokens, 0, resultado.tokens.tamanho());
+            medicao.concluir(texto.length(), resultado.diagnosticos);
+        }
+        return resultado;
+    }
+
+    // === DIVISÃO ===
+
+    /**
+     * Limites das partes: 0, início de cada parte (após um '\n') e o fim do texto
+     */
+    private static int[] dividir(CharSequence texto, int partes) {
+        int tamanho = texto.length();
+        int quantidade = (int) Math.max(1, Math.min(partes, (long) tamanho / TAMANHO_MINIMO_PARTE));
+        int[] limites = new int[quantidade + 1];
+        int usados = 1;
+        for (int i = 1; i < quantidade; i++) {
+            int posicao = (int) ((long) tamanho * i / quantidade);
+            while (posicao < tamanho && texto.charAt(posicao - 1) != '\n') {
+                posicao++;
+            }
+            if (posicao < tamanho && posicao > limites[usados - 1]) {
+                limites[usados++] = posicao;
+            }
+        }
+        limites[usados++] = tamanho;
+        return Arrays.copyOf(limites, usados);
+    }
+
+    // === ANÁLISE ESPECULATIVA ===
+
+    /**
+     * Analisa a parte a partir do seu início, sem token anterior, guardando
+     * os tokens que começam antes do fim da parte
+     */
+    private static void especular(CharSequence texto, MotorLexico motor, Parte parte) {
+        AnalisadorLexico analisador = criarAnalisador(texto, motor);
+        analisador.reposicionar(parte.inicio, null, false);
+        BufferTokens tokens = parte.tokens;
+        while (analisador.tokenizar(tokens, BLOCO_TOKENS) > 0) {
+            int ultimo = tokens.tamanho() - 1;
+            if (tokens.inicio(ultimo) >= parte.fim) {
+                // Descartar os tokens que já pertencem à parte seguinte
+                int primeiroFora = ultimo;
+                while (primeiroFora > 0 && tokens.inicio(primeiroFora - 1) >= parte.fim) {
+                    primeiroFora--;
+                }
+                tokens.truncar(primeiroFora);
+                break;
+            }
+        }
+        parte.fimUltimo = tokens.tamanho() > 0 ? tokens.fim(tokens.tamanho() - 1) : parte.inicio;
+        parte.diagnosticos = analisador.getDiagnosticos().getDiagnosticos();
+    }
+
+    // === JUNÇÃO ===
+
+    /**
+     * Percorre as emendas em ordem, analisando de novo apenas até
+     * sincronizar com os tokens especulativos
+     */
+    private static Resultado juntar(CharSequence texto, MotorLexico motor, Parte[] partes) {
+        int estimativa = 0;
+        for (Parte parte : partes) {
+            estimativa += parte.tokens.tamanho();
+        }
+        BufferTokens tokens = new BufferTokens(estimativa);
+        List<Diagnostico> diagnosticos = new ArrayList<>();
+
+        AnalisadorLexico reanalise = criarAnalisador(texto, motor);
+        BufferTokens atual = new BufferTokens(16);
+        int indiceParte = 0;
+        int candidato = 0;              // Próximo token especulativo da parte a comparar
+        int reanalisados = 0;           // Tokens reanalisados desde a última sincronização
+        int emendas = 0;
+        while (true) {
+            atual.limpar();
+            if (reanalise.tokenizar(atual, 1) == 0) {
+                diagnosticos.addAll(reanalise.getDiagnosticos().getDiagnosticos());
+                break;
+            }
+            int inicio = atual.inicio(0);
+            while (indiceParte < partes.length - 1 && inicio >= partes[indiceParte].fim) {
+                indiceParte++;
+                candidato = 0;
+            }
+            Parte parte = partes[indiceParte];
+            BufferTokens especulados = parte.tokens;
+            while (candidato < especulados.tamanho() && especulados.inicio(candidato) < inicio) {
+                candidato++;
+            }
+            if (candidato < especulados.tamanho()
+                    && especulados.inicio(candidato) == inicio
+                    && especulados.tipoOrdinal(candidato) == atual.tipoOrdinal(0)
+                    && especulados.comprimento(candidato) == atual.comprimento(0)) {
+                // Sincronizado: o restante da parte especulativa está correto
+                for (Diagnostico diagnostico : reanalise.getDiagnosticos().getDiagnosticos()) {
+                    if (diagnostico.posicao < inicio) {
+                        diagnosticos.add(diagnostico);
+                    }
+                }
+                for (Diagnostico diagnostico : parte.diagnosticos) {
+                    if (diagnostico.posicao >= inicio && diagnostico.posicao < parte.fimUltimo) {
+                        diagnosticos.add(diagnostico);
+                    }
+                }
+                tokens.acrescentar(especulados, candidato, especulados.tamanho());
+                if (reanalisados > 0) {
+                    emendas++;
+                }
+                reanalisados = 0;
+
+                // Continuar após o último token da parte, com o seu contexto
+                int ultimo = especulados.tamanho() - 1;
+                reanalise = criarAnalisador(texto, motor);
+                reanalise.reposicionar(parte.fimUltimo, especulados.tipo(ultimo), ehEndMinusculo(especulados, ultimo, texto));
+                candidato = especulados.tamanho();
+            } else {
+                tokens.adicionar(atual.tipo(0), inicio, atual.comprimento(0));
+                reanalisados++;
+            }
+        }
+        if (reanalisados > 0) {
+            emendas++;
+        }
+        return new Resultado(tokens, ColetorDiagnosticos.reconstruir(texto, diagnosticos), partes.length, emendas);
+    }
+
+    // === UTILITÁRIOS ===
+
+    private static AnalisadorLexico criarAnalisador(CharSequence texto, MotorLexico motor) {
+        AnalisadorLexico analisador = new AnalisadorLexico(FonteCaracteres.deTexto(texto), motor);
+        analisador.getDiagnosticos().setLimite(Integer.MAX_VALUE);
+        analisador.getDiagnosticos().setCalcularLinhas(false);
+        analisador.desativarMedicao(); // Medido pela análise inteira
+        return analisador;
+    }
+
+    /**
+     * Texto que a thread atual pode ler (TextoMapeado guarda o bloco decodificado)
+     */
+    static CharSequence copiaPara(CharSequence texto) {
+        return texto instanceof TextoMapeado ? ((TextoMapeado) texto).duplicar() : texto;
+    }
+
+    /**
+     * Verifica se o token é a palavra reservada "end" em minúsculas
+     * (contexto da regra do ponto final)
+     */
+    private static boolean ehEndMinusculo(BufferTokens tokens, int indice, CharSequence texto) {
+        int inicio = tokens.inicio(indice);
+        return tokens.tipo(indice) == TipoToken.PALAVRA_RESERVADA
+            && tokens.comprimento(indice) == 3
+            && texto.charAt(inicio) == 'e'
+            && texto.charAt(inicio + 1) == 'n'
+            && texto.charAt(inicio + 2) == 'd';
+    }
+}
@@ -0,0 +1,499 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autômato finito determinístico compilado a partir de uma EspecificacaoLexica
+ *
+ * A compilação segue o caminho clássico:
+ * 1. Cada padrão vira um autômato não determinístico (construção de Thompson)
+ * 2. A construção de subconjuntos gera o autômato determinístico
+ * 3. Símbolos com colunas idênticas na tabela são agrupados em classes
+ *
+ * O resultado são vetores densos consultados pelo laço do motor TABELA:
+ * - classes dos caracteres ASCII (um byte por caractere)
+ * - transições em um único int[] (estado * quantidade de classes + classe)
+ * - regra aceita em cada estado (-1 se o estado não é de aceitação)
+ *
+ * Caracteres fora do ASCII são classificados com Character.isLetter,
+ * isDigit e isWhitespace, preservando o comportamento do motor manual.
+ *
+ */
+public final class AutomatoLexico {
+
+    // === ALFABETO DE COMPILAÇÃO ===
+    // Os 128 caracteres ASCII, quatro categorias para os demais caracteres e o fim
+    private static final int NAO_ASCII_LETRA = 128;
+    private static final int NAO_ASCII_DIGITO = 129;
+    private static final int NAO_ASCII_BRANCO = 130;
+    private static final int NAO_ASCII_OUTRO = 131;
+    private static final int SIMBOLO_FIM = 132;
+    private static final int NUM_SIMBOLOS = 133;
+
+    /** Estado morto: nenhuma regra pode mais ser aceita */
+    public static final int MORTO = 0;
+
+    // === TABELAS COMPILADAS ===
+    private final EspecificacaoLexica.Regra[] regras;
+    private final byte[] classeAscii = new byte[128];
+    private final int[] classeNaoAscii = new int[4];
+    private final int classeFim;
+    private final int numClasses;
+    private final int[] transicoes;
+    private final int[] regraAceita;
+    private final int inicioComOperando;    // Token anterior é número ou identificador
+    private final int inicioSemOperando;    // Demais casos (permite número negativo)
+
+    private static AutomatoLexico pascal;
+
+    /**
+     * Autômato da especificação padrão da linguagem (compilado uma única vez)
+     */
+    public static synchronized AutomatoLexico pascal() {
+        if (pascal == null) {
+            pascal = compilar(EspecificacaoLexica.pascal());
+        }
+        return pascal;
+    }
+
+    /**
+     * Compila uma especificação em um autômato determinístico
+     */
+    public static AutomatoLexico compilar(EspecificacaoLexica especificacao) {
+        return new AutomatoLexico(especificacao);
+    }
+
+    private AutomatoLexico(EspecificacaoLexica especificacao) {
+        List<EspecificacaoLexica.Regra> lista = especificacao.getRegras();
+        regras = lista.toArray(new EspecificacaoLexica.Regra[0]);
+
+        // 1. Autômato não determinístico de todas as regras
+        Thompson nfa = new Thompson();
+        List<Integer> todas = new ArrayList<>();
+        List<Integer> semContexto = new ArrayList<>();
+        for (int i = 0; i < regras.length; i++) {
+            int inicio = nfa.compilarRegra(regras[i].padrao, i);
+            todas.add(inicio);
+            if (regras[i].contexto == EspecificacaoLexica.Contexto.SEMPRE) {
+                semContexto.add(inicio);
+            }
+        }
+
+        // 2. Construção de subconjuntos sobre o alfabeto completo
+        List<BitSet> estados = new ArrayList<>();
+        Map<BitSet, Integer> indices = new HashMap<>();
+        List<int[]> linhas = new ArrayList<>();
+        BitSet morto = new BitSet();
+        estados.add(morto);
+        indices.put(morto, MORTO);
+        int inicioA = registrar(nfa.fecho(semContexto), estados, indices);
+        int inicioB = registrar(nfa.fecho(todas), estados, indices);
+        for (int e = 0; e < estados.size(); e++) {
+            int[] linha = new int[NUM_SIMBOLOS];
+            BitSet conjunto = estados.get(e);
+            for (int simbolo = 0; simbolo < NUM_SIMBOLOS && !conjunto.isEmpty(); simbolo++) {
+                linha[simbolo] = registrar(nfa.fecho(nfa.mover(conjunto, simbolo)), estados, indices);
+            }
+            linhas.add(linha);
+        }
+
+        // 3. Agrupar símbolos com colunas idênticas em classes
+        int[] classeDoSimbolo = new int[NUM_SIMBOLOS];
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int simbolo = 0; simbolo < NUM_SIMBOLOS; simbolo++) {
+            int[] coluna = new int[linhas.size()];
+            for (int e = 0; e < coluna.length; e++) {
+                coluna[e] = linhas.get(e)[simbolo];
+            }
+            String chave = Arrays.toString(coluna);
+            Integer classe = colunas.get(chave);
+            if (classe == null) {
+                classe = colunas.size();
+                colunas.put(chave, classe);
+            }
+            classeDoSimbolo[simbolo] = classe;
+        }
+        numClasses = colunas.size();
+        for (int c = 0; c < 128; c++) {
+            classeAscii[c] = (byte) classeDoSimbolo[c];
+        }
+        classeNaoAscii[0] = classeDoSimbolo[NAO_ASCII_LETRA];
+        classeNaoAscii[1] = classeDoSimbolo[NAO_ASCII_DIGITO];
+        classeNaoAscii[2] = classeDoSimbolo[NAO_ASCII_BRANCO];
+        classeNaoAscii[3] = classeDoSimbolo[NAO_ASCII_OUTRO];
+        classeFim = classeDoSimbolo[SIMBOLO_FIM];
+
+        // Tabela densa de transições e regras aceitas
+        transicoes = new int[linhas.size() * numClasses];
+        regraAceita = new int[linhas.size()];
+        for (int e = 0; e < linhas.size(); e++) {
+            int[] linha = linhas.get(e);
+            for (int simbolo = 0; simbolo < NUM_SIMBOLOS; simbolo++) {
+                transicoes[e * numClasses + classeDoSimbolo[simbolo]] = linha[simbolo];
+            }
+            regraAceita[e] = nfa.menorRegra(estados.get(e));
+        }
+        inicioComOperando = inicioA;
+        inicioSemOperando = inicioB;
+    }
+
+    private static int registrar(BitSet conjunto, List<BitSet> estados, Map<BitSet, Integer> indices) {
+        Integer indice = indices.get(conjunto);
+        if (indice == null) {
+            indice = estados.size();
+            estados.add(conjunto);
+            indices.put(conjunto, indice);
+        }
+        return indice;
+    }
+
+    // === CONSULTA (usada pelo laço do motor TABELA) ===
+
+    /**
+     * Estado inicial de acordo com o token anterior
+     */
+    public int estadoInicial(boolean anteriorEhOperando) {
+        return anteriorEhOperando ? inicioComOperando : inicioSemOperando;
+    }
+
+    /**
+     * Classe de um caractere lido da fonte (FonteCaracteres.FIM incluído)
+     */
+    public int classe(int c) {
+        if (c < 128) {
+            return c < 0 ? classeFim : classeAscii[c];
+        }
+        char caractere = (char) c;
+        if (Character.isLetter(caractere)) {
+            return classeNaoAscii[0];
+        }
+        if (Character.isDigit(caractere)) {
+            return classeNaoAscii[1];
+        }
+        if (Character.isWhitespace(caractere)) {
+            return classeNaoAscii[2];
+        }
+        return classeNaoAscii[3];
+    }
+
+    public int proximo(int estado, int classe) {
+        return transicoes[estado * numClasses + classe];
+    }
+
+    /**
+     * Índice da regra aceita no estado, ou -1
+     */
+    public int regraAceita(int estado) {
+        return regraAceita[estado];
+    }
+
+    public EspecificacaoLexica.Regra regra(int indice) {
+        return regras[indice];
+    }
+
+    public int quantidadeEstados() {
+        return regraAceita.length;
+    }
+
+    public int quantidadeClasses() {
+        return numClasses;
+    }
+
+    // === CONSTRUÇÃO DE THOMPSON ===
+
+    /**
+     * Autômato não determinístico com transições por conjunto de símbolos
+     * e no máximo duas transições vazias por estado
+     */
+    private static final class Thompson {
+        private final List<BitSet> rotulos = new ArrayList<>();
+        private int[] destino = new int[64];
+        private int[] vazio1 = new int[64];
+        private int[] vazio2 = new int[64];
+        private int[] regra = new int[64];
+
+        // Estado do analisador de padrões
+        private String padrao;
+        private int pos;
+
+        int novoEstado() {
+            int id = rotulos.size();
+            if (id == destino.length) {
+                destino = Arrays.copyOf(destino, id * 2);
+                vazio1 = Arrays.copyOf(vazio1, id * 2);
+                vazio2 = Arrays.copyOf(vazio2, id * 2);
+                regra = Arrays.copyOf(regra, id * 2);
+            }
+            rotulos.add(null);
+            destino[id] = -1;
+            vazio1[id] = -1;
+            vazio2[id] = -1;
+            regra[id] = -1;
+            return id;
+        }
+
+        void vazio(int de, int para) {
+            if (vazio1[de] < 0) {
+                vazio1[de] = para;
+            } else {
+                vazio2[de] = para;
+            }
+        }
+
+        /**
+         * Compila o padrão da regra e devolve o estado inicial do fragmento
+         */
+        int compilarRegra(String padrao, int indiceRegra) {
+            this.padrao = padrao;
+            this.pos = 0;
+            int[] fragmento = alternativa();
+            if (pos != padrao.length()) {
+                throw erro("caractere inesperado");
+            }
+            regra[fragmento[1]] = indiceRegra;
+            return fragmento[0];
+        }
+
+        // Fragmentos são pares {inicio, fim}; o estado fim ainda não tem saídas
+
+        private int[] alternativa() {
+            int[] f = sequencia();
+            while (pos < padrao.length() && padrao.charAt(pos) == '|') {
+                pos++;
+                int[] g = sequencia();
+                int inicio = novoEstado();
+                int fim = novoEstado();
+                vazio(inicio, f[0]);
+                vazio(inicio, g[0]);
+                vazio(f[1], fim);
+                vazio(g[1], fim);
+                f = new int[] {inicio, fim};
+            }
+            return f;
+        }
+
+        private int[] sequencia() {
+            int inicio = novoEstado();
+            int[] f = {inicio, inicio};
+            while (pos < padrao.length() && padrao.charAt(pos) != '|' && padrao.charAt(pos) != ')') {
+                int[] g = repeticao();
+                vazio(f[1], g[0]);
+                f = new int[] {f[0], g[1]};
+            }
+            return f;
+        }
+
+        private int[] repeticao() {
+            int[] f = atomo();
+            while (pos < padrao.length()) {
+                char operador = padrao.charAt(pos);
+                if (operador != '*' && operador != '+' && operador != '?') {
+                    break;
+                }
+                pos++;
+                int inicio = novoEstado();
+                int fim = novoEstado();
+                vazio(inicio, f[0]);
+                if (operador != '+') {
+                    vazio(inicio, fim);         // '*' e '?' aceitam zero ocorrências
+                }
+                if (operador != '?') {
+                    vazio(f[1], f[0]);          // '*' e '+' repetem
+                }
+                vazio(f[1], fim);
+                f = new int[] {inicio, fim};
+            }
+            return f;
+        }
+
+        private int[] atomo() {
+            if (pos >= padrao.length()) {
+                throw erro("padrão incompleto");
+            }
+            char c = padrao.charAt(pos++);
+            BitSet conjunto;
+            switch (c) {
+                case '(':
+                    int[] f = alternativa();
+                    if (pos >= padrao.length() || padrao.charAt(pos) != ')') {
+                        throw erro("')' esperado");
+                    }
+                    pos++;
+                    return f;
+                case '[':
+                    conjunto = classe();
+                    break;
+                case '.':
+                    conjunto = qualquer();
+                    break;
+                case '{':
+                    conjunto = nomeada();
+                    break;
+                case '\\':
+                    conjunto = unitario(escapado());
+                    break;
+                default:
+                    conjunto = unitario(c);
+            }
+            int inicio = novoEstado();
+            int fim = novoEstado();
+            rotulos.set(inicio, conjunto);
+            destino[inicio] = fim;
+            return new int[] {inicio, fim};
+        }
+
+        private BitSet classe() {
+            boolean negada = pos < padrao.length() && padrao.charAt(pos) == '^';
+            if (negada) {
+                pos++;
+            }
+            BitSet conjunto = new BitSet(NUM_SIMBOLOS);
+            while (pos < padrao.length() && padrao.charAt(pos) != ']') {
+                char c = padrao.charAt(pos++);
+                if (c == '{') {
+                    conjunto.or(nomeada());
+                    continue;
+                }
+                if (c == '\\') {
+                    c = escapado();
+                }
+                if (pos + 1 < padrao.length() && padrao.charAt(pos) == '-' && padrao.charAt(pos + 1) != ']') {
+                    pos++;
+                    char ate = padrao.charAt(pos++);
+                    if (ate == '\\') {
+                        ate = escapado();
+                    }
+                    conjunto.set(c, ate + 1);
+                } else {
+                    conjunto.set(c);
+                }
+            }
+            if (pos >= padrao.length()) {
+                throw erro("']' esperado");
+            }
+            pos++;
+            if (negada) {
+                BitSet complemento = qualquer();
+                complemento.andNot(conjunto);
+                return complemento;
+            }
+            return conjunto;
+        }
+
+        private BitSet nomeada() {
+            int fecha = padrao.indexOf('}', pos);
+            if (fecha < 0) {
+                throw erro("'}' esperado");
+            }
+            String nome = padrao.substring(pos, fecha);
+            pos = fecha + 1;
+            BitSet conjunto = new BitSet(NUM_SIMBOLOS);
+            switch (nome) {
+                case "letra":
+                    for (char c = 0; c < 128; c++) {
+                        conjunto.set(c, Character.isLetter(c));
+                    }
+                    conjunto.set(NAO_ASCII_LETRA);
+                    return conjunto;
+                case "digito":
+                    for (char c = 0; c < 128; c++) {
+                        conjunto.set(c, Character.isDigit(c));
+                    }
+                    conjunto.set(NAO_ASCII_DIGITO);
+                    return conjunto;
+                case "branco":
+                    for (char c = 0; c < 128; c++) {
+                        conjunto.set(c, Character.isWhitespace(c));
+                    }
+                    conjunto.set(NAO_ASCII_BRANCO);
+                    return conjunto;
+                case "fim":
+                    conjunto.set(SIMBOLO_FIM);
+                    return conjunto;
+                default:
+                    throw erro("classe desconhecida {" + nome + "}");
+            }
+        }
+
+        private char escapado() {
+            if (pos >= padrao.length()) {
+                throw erro("escape incompleto");
+            }
+            return padrao.charAt(pos++);
+        }
+
+        private static BitSet qualquer() {
+            BitSet conjunto = new BitSet(NUM_SIMBOLOS);
+            conjunto.set(0, SIMBOLO_FIM);
+            return conjunto;
+        }
+
+        private static BitSet unitario(char c) {
+            if (c >= 128) {
+                throw new IllegalArgumentException("Padrões só aceitam caracteres ASCII literais: " + c);
+            }
+            BitSet conjunto = new BitSet(NUM_SIMBOLOS);
+            conjunto.set(c);
+            return conjunto;
+        }
+
+        private IllegalArgumentException erro(String mensagem) {
+            return new IllegalArgumentException("Padrão inválido \"" + padrao + "\" na posição " + pos + ": " + mensagem);
+        }
+
+        // === OPERAÇÕES DA CONSTRUÇÃO DE SUBCONJUNTOS ===
+
+        BitSet fecho(List<Integer> inicios) {
+            BitSet conjunto = new BitSet();
+            for (int inicio : inicios) {
+                conjunto.set(inicio);
+            }
+            return fecho(conjunto);
+        }
+
+        BitSet fecho(BitSet conjunto) {
+            BitSet resultado = (BitSet) conjunto.clone();
+            int[] pilha = new int[rotulos.size()];
+            int topo = 0;
+            for (int s = conjunto.nextSetBit(0); s >= 0; s = conjunto.nextSetBit(s + 1)) {
+                pilha[topo++] = s;
+            }
+            while (topo > 0) {
+                int s = pilha[--topo];
+                for (int t : new int[] {vazio1[s], vazio2[s]}) {
+                    if (t >= 0 && !resultado.get(t)) {
+                        resultado.set(t);
+                        pilha[topo++] = t;
+                    }
+                }
+            }
+            return resultado;
+        }
+
+        BitSet mover(BitSet conjunto, int simbolo) {
+            BitSet resultado = new BitSet();
+            for (int s = conjunto.nextSetBit(0); s >= 0; s = conjunto.nextSetBit(s + 1)) {
+                BitSet rotulo = rotulos.get(s);
+                if (rotulo != null && rotulo.get(simbolo)) {
+                    resultado.set(destino[s]);
+                }
+            }
+            return resultado;
+        }
+
+        int menorRegra(BitSet conjunto) {
+            int menor = -1;
+            for (int s = conjunto.nextSetBit(0); s >= 0; s = conjunto.nextSetBit(s + 1)) {
+                if (regra[s] >= 0 && (menor < 0 || regra[s] < menor)) {
+                    menor = regra[s];
+                }
+            }
+            return menor;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Buffer colunar de tokens (estrutura de vetores primitivos)
+ *
+ * Em vez de um objeto Token por lexema, guarda cada token como quatro
+ * inteiros em vetores paralelos:
+ * - tipos: ordinal do TipoToken
+ * - inicios: posição do primeiro caractere do token no código fonte
+ * - comprimentos: quantidade de caracteres do token (incluindo aspas)
+ * - simbolos: ID do identificador na TabelaSimbolos, ou TabelaSimbolos.NENHUM
+ *
+ * Os vetores crescem em blocos e são reaproveitados após limpar(), de modo
+ * que analisar um arquivo inteiro praticamente não gera alocações por token.
+ * O vetor de símbolos só é alocado quando o primeiro ID real é guardado:
+ * sem TabelaSimbolos (o caso comum), todos os tokens têm NENHUM.
+ * Objetos Token só são criados sob demanda, a partir do texto original.
+ *
+ */
+public final class BufferTokens {
+
+    // Capacidade inicial dos vetores (em tokens)
+    private static final int TAMANHO_BLOCO = 4096;
+
+    private static final TipoToken[] TIPOS = TipoToken.values();
+
+    private int[] tipos;
+    private int[] inicios;
+    private int[] comprimentos;
+    private int[] simbolos;             // null enquanto todos os tokens têm TabelaSimbolos.NENHUM
+    private int tamanho;
+
+    public BufferTokens() {
+        this(TAMANHO_BLOCO);
+    }
+
+    public BufferTokens(int capacidadeInicial) {
+        int capacidade = Math.max(capacidadeInicial, 16);
+        tipos = new int[capacidade];
+        inicios = new int[capacidade];
+        comprimentos = new int[capacidade];
+    }
+
+    /**
+     * Acrescenta um token ao fim do buffer
+     */
+    public void adicionar(TipoToken tipo, int inicio, int comprimento) {
+        adicionar(tipo, inicio, comprimento, TabelaSimbolos.NENHUM);
+    }
+
+    /**
+     * Acrescenta um token com o ID do seu identificador na TabelaSimbolos
+     */
+    public void adicionar(TipoToken tipo, int inicio, int comprimento, int simbolo) {
+        if (tamanho == tipos.length) {
+            crescer();
+        }
+        tipos[tamanho] = tipo.ordinal();
+        inicios[tamanho] = inicio;
+        comprimentos[tamanho] = comprimento;
+        if (simbolos == null && simbolo != TabelaSimbolos.NENHUM) {
+            alocarSimbolos();
+        }
+        if (simbolos != null) {
+            simbolos[tamanho] = simbolo;
+        }
+        tamanho++;
+    }
+
+    /**
+     * Esvazia o buffer mantendo os vetores já alocados
+     */
+    public void limpar() {
+        tamanho = 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Cópia independente do buffer (os vetores são copiados, no tamanho exato)
+     */
+    public BufferTokens copia() {
+        BufferTokens copia = new BufferTokens(tamanho);
+        System.arraycopy(tipos, 0, copia.tipos, 0, tamanho);
+        System.arraycopy(inicios, 0, copia.inicios, 0, tamanho);
+        System.arraycopy(comprimentos, 0, copia.comprimentos, 0, tamanho);
+        if (simbolos != null) {
+            copia.simbolos = Arrays.copyOf(simbolos, copia.tipos.length);
+        }
+        copia.tamanho = tamanho;
+        return copia;
+    }
+
+    // === ACESSO POR ÍNDICE ===
+
+    public TipoToken tipo(int indice) {
+        return TIPOS[tipos[verificar(indice)]];
+    }
+
+    public int tipoOrdinal(int indice) {
+        return tipos[verificar(indice)];
+    }
+
+    public int inicio(int indice) {
+        return inicios[verificar(indice)];
+    }
+
+    public int comprimento(int indice) {
+        return comprimentos[verificar(indice)];
+    }
+
+    /**
+     * ID do identificador na TabelaSimbolos, ou TabelaSimbolos.NENHUM
+     */
+    public int simbolo(int indice) {
+        verificar(indice);
+        return simbolos != null ? simbolos[indice] : TabelaSimbolos.NENHUM;
+    }
+
+    /**
+     * Posição logo após o último caractere do token
+     */
+    public int fim(int indice) {
+        return inicios[verificar(indice)] + comprimentos[indice];
+    }
+
+    // === MATERIALIZAÇÃO SOB DEMANDA ===
+
+    /**
+     * Extrai o lexema do token a partir do texto original
+     *
+     * Segue as mesmas regras do analisador: literais de string e de
+     * caractere fechados perdem as aspas.
+     */
+    public String lexema(int indice, CharSequence texto) {
+        return texto.subSequence(inicioLexema(indice, texto), fimLexema(indice, texto)).toString();
+    }
+
+    /**
+     * Posição do primeiro caractere do lexema (após a aspa inicial, em literais)
+     */
+    public int inicioLexema(int indice, CharSequence texto) {
+        int inicio = inicio(indice);
+        TipoToken tipo = TIPOS[tipos[indice]];
+        if (tipo == TipoToken.STRING_LITERAL || (tipo == TipoToken.CHAR_LITERAL && comprimentos[indice] == 3)) {
+            return inicio + 1;
+        }
+        return inicio;
+    }
+
+    /**
+     * Posição logo após o último caractere do lexema (antes da aspa final, em literais fechados)
+     */
+    public int fimLexema(int indice, CharSequence texto) {
+        int inicio = inicio(indice);
+        int fim = inicio + comprimentos[indice];
+        TipoToken tipo = TIPOS[tipos[indice]];
+        if (tipo == TipoToken.STRING_LITERAL) {
+            // Sempre começa com aspa; só termina com aspa se foi fechada
+            boolean fechada = fim - inicio >= 2 && texto.charAt(fim - 1) == '"';
+            return fechada ? fim - 1 : fim;
+        }
+        if (tipo == TipoToken.CHAR_LITERAL && fim - inicio == 3) {
+            // Literal fechado 'c': apenas o caractere
+            return inicio + 2;
+        }
+        return fim;
+    }
+
+    /**
+     * Cria o objeto Token correspondente ao índice
+     */
+    public Token token(int indice, CharSequence texto) {
+        return new Token(tipo(indice), lexema(indice, texto), inicios[indice], comprimentos[indice], simbolo(indice));
+    }
+
+    // === EDIÇÃO (usada pela SessaoIncremental e pelo AnalisadorParalelo) ===
+
+    /**
+     * Descarta os tokens a partir do índice informado
+     */
+    void truncar(int novoTamanho) {
+        if (novoTamanho < 0 || novoTamanho > tamanho) {
+            throw new IndexOutOfBoundsException("Tamanho " + novoTamanho + ", tamanho atual " + tamanho);
+        }
+        tamanho = novoTamanho;
+    }
+
+    /**
+     * Acrescenta ao fim os tokens [inicio, fim) de outro buffer
+     */
+    void acrescentar(BufferTokens origem, int inicio, int fim) {
+        int quantidade = fim - inicio;
+        while (tamanho + quantidade > tipos.length) {
+            crescer();
+        }
+        System.arraycopy(origem.tipos, inicio, tipos, tamanho, quantidade);
+        System.arraycopy(origem.inicios, inicio, inicios, tamanho, quantidade);
+        System.arraycopy(origem.comprimentos, inicio, comprimentos, tamanho, quantidade);
+        copiarSimbolos(origem, inicio, tamanho, quantidade);
+        tamanho += quantidade;
+    }
+
+    /**
+     * Substitui os tokens [inicio, fim) pelos tokens de outro buffer e
+     * desloca a posição dos tokens seguintes
+     */
+    void substituir(int inicio, int fim, BufferTokens novos, int deslocamento) {
+        int novoTamanho = tamanho - (fim - inicio) + novos.tamanho;
+        while (novoTamanho > tipos.length) {
+            crescer();
+        }
+        int destino = inicio + novos.tamanho;
+        int restantes = tamanho - fim;
+        System.arraycopy(tipos, fim, tipos, destino, restantes);
+        System.arraycopy(inicios, fim, inicios, destino, restantes);
+        System.arraycopy(comprimentos, fim, comprimentos, destino, restantes);
+        if (simbolos != null) {
+            System.arraycopy(simbolos, fim, simbolos, destino, restantes);
+        }
+        if (deslocamento != 0) {
+            for (int i = destino; i < destino + restantes; i++) {
+                inicios[i] += deslocamento;
+            }
+        }
+        System.arraycopy(novos.tipos, 0, tipos, inicio, novos.tamanho);
+        System.arraycopy(novos.inicios, 0, inicios, inicio, novos.tamanho);
+        System.arraycopy(novos.comprimentos, 0, comprimentos, inicio, novos.tamanho);
+        copiarSimbolos(novos, 0, inicio, novos.tamanho);
+        tamanho = novoTamanho;
+    }
+
+    /**
+     * Copia os IDs de símbolo [de, de + quantidade) de outro buffer para a
+     * posição 'para' deste (que já deve ter capacidade)
+     */
+    private void copiarSimbolos(BufferTokens origem, int de, int para, int quantidade) {
+        if (origem.simbolos != null) {
+            if (simbolos == null) {
+                alocarSimbolos();
+            }
+            System.arraycopy(origem.simbolos, de, simbolos, para, quantidade);
+        } else if (simbolos != null) {
+            Arrays.fill(simbolos, para, para + quantidade, TabelaSimbolos.NENHUM);
+        }
+    }
+
+    // === UTILITÁRIOS ===
+
+    private int verificar(int indice) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + indice + ", tamanho " + tamanho);
+        }
+        return indice;
+    }
+
+    /**
+     * Dobra a capacidade dos vetores
+     */
+    private void crescer() {
+        int novaCapacidade = tipos.length * 2;
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+        inicios = Arrays.copyOf(inicios, novaCapacidade);
+        comprimentos = Arrays.copyOf(comprimentos, novaCapacidade);
+        if (simbolos != null) {
+            simbolos = Arrays.copyOf(simbolos, novaCapacidade);
+        }
+    }
+
+    /**
+     * Aloca o vetor de símbolos na capacidade atual, com NENHUM para os
+     * tokens já guardados
+     */
+    private void alocarSimbolos() {
+        simbolos = new int[tipos.length];
+        Arrays.fill(simbolos, TabelaSimbolos.NENHUM);
+    }
+}
@@ -0,0 +1,274 @@
+package lexico;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cache em disco dos resultados da análise léxica
+ *
+ * Cada entrada é um arquivo de tokens binário (ExportadorBinario) com os
+ * tokens e os erros léxicos (inclusive os caracteres não identificados) de
+ * um código fonte. O nome do arquivo combina o hash dos bytes da fonte
+ * (HashConteudo) com a versão do analisador: qualquer mudança nas palavras
+ * reservadas, nos tipos de token ou no formato gera nomes novos, e as
+ * entradas antigas deixam de ser usadas até serem descartadas.
+ *
+ * O tamanho total do diretório é limitado; ao passar do limite, as entradas
+ * usadas há mais tempo são apagadas (LRU pela data de modificação, que é
+ * atualizada a cada acerto).
+ *
+ * Pode ser usado por várias threads ao mesmo tempo: cada entrada é gravada
+ * em um arquivo temporário e só depois movida para o nome definitivo.
+ *
+ * Uso:
+ *   LeitorTokensBinario leitor = cache.buscar(hash);
+ *   if (leitor == null) {
+ *       try (CacheTokens.Entrada entrada = cache.novaEntrada(hash)) {
+ *           ... entrada.getExportador().exportar(token) ...
+ *           entrada.getExportador().finalizar(diagnosticos);
+ *           entrada.confirmar();
+ *       }
+ *   }
+ *
+ */
+public final class CacheTokens {
+
+    /** Versão das regras do analisador; incrementar ao mudar o reconhecimento de tokens */
+    public static final int VERSAO_ANALISADOR = 1;
+
+    /** Tamanho máximo padrão do cache (em bytes) */
+    public static final long LIMITE_PADRAO = 256L * 1024 * 1024;
+
+    private static final String EXTENSAO = FormatoExportacao.BINARIO.extensao;
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+
+    // Identifica as regras do analisador e o formato das entradas
+    private static final long VERSAO = calcularVersao();
+
+    private final Path diretorio;
+    private final long limite;
+    private long tamanhoTotal;          // Soma dos tamanhos das entradas (aproximada entre varreduras)
+
+    private CacheTokens(Path diretorio, long limite) {
+        this.diretorio = diretorio;
+        this.limite = limite;
+    }
+
+    /**
+     * Abre (ou cria) o cache no diretório informado
+     *
+     * @param limite tamanho máximo do diretório, em bytes
+     */
+    public static CacheTokens abrir(Path diretorio, long limite) throws IOException {
+        Files.createDirectories(diretorio);
+        CacheTokens cache = new CacheTokens(diretorio, limite);
+        synchronized (cache) {
+            cache.descartarAntigas();
+        }
+        return cache;
+    }
+
+    /**
+     * Diretório padrão do cache, na pasta do usuário
+     */
+    public static Path diretorioPadrao() {
+        return Paths.get(System.getProperty("user.home"), ".compilador", "cache_tokens");
+    }
+
+    // === CONSULTA ===
+
+    /**
+     * Procura a análise de um código fonte
+     *
+     * @param hash hash dos bytes do código fonte (HashConteudo)
+     * A entrada inteira é conferida antes de ser entregue (ver
+     * LeitorTokensBinario.abrir): um acerto nunca falha no meio da leitura,
+     * e quem chama pode criar a saída só depois desta consulta. Entradas
+     * ilegíveis, corrompidas ou de outro código são apagadas e contam como
+     * ausentes.
+     *
+     * @return leitor posicionado antes do primeiro token, ou null se não houver
+     *         entrada válida
+     */
+    public LeitorTokensBinario buscar(long hash) throws IOException {
+        Path arquivo = arquivoDe(hash);
+        if (!Files.isRegularFile(arquivo)) {
+            return null;
+        }
+        LeitorTokensBinario leitor;
+        try {
+            leitor = LeitorTokensBinario.abrir(arquivo);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(arquivo);
+            return null;
+        }
+        if (leitor.getHashFonte() != hash) {
+            Files.deleteIfExists(arquivo);
+            return null;
+        }
+        // Válida e usada agora: a última a ser descartada
+        try {
+            Files.setLastModifiedTime(arquivo, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Apenas a ordem de descarte fica desatualizada
+        }
+        return leitor;
+    }
+
+    // === GRAVAÇÃO ===
+
+    /**
+     * Inicia a gravação da análise de um código fonte
+     *
+     * A entrada só passa a existir no cache depois de confirmar(); fechada
+     * sem confirmação (análise cancelada ou com falha), é descartada.
+     */
+    public Entrada novaEntrada(long hash) throws IOException {
+        Path temporario = Files.createTempFile(diretorio, String.format(Locale.ROOT, "%016x-", hash),
+                                               EXTENSAO_TEMPORARIA);
+        ExportadorTokens exportador = ExportadorTokens.criar(FormatoExportacao.BINARIO, temporario);
+        exportador.setHashFonte(hash);
+        return new Entrada(hash, temporario, exportador);
+    }
+
+    /**
+     * Grava de uma vez uma análise já concluída
+     *
+     * @param texto texto de que os lexemas dos tokens são extraídos
+     */
+    public void guardar(long hash, BufferTokens tokens, CharSequence texto,
+                        ColetorDiagnosticos diagnosticos) throws IOException {
+        try (Entrada entrada = novaEntrada(hash)) {
+            entrada.exportador.exportar(tokens, 0, tokens.tamanho(), texto);
+            entrada.exportador.finalizar(diagnosticos);
+            entrada.confirmar();
+        }
+    }
+
+    /**
+     * Entrada em gravação: os tokens são exportados à medida que são
+     * produzidos, como em qualquer ExportadorTokens
+     */
+    public final class Entrada implements Closeable {
+        private final long hash;
+        private final Path temporario;
+        private final ExportadorTokens exportador;
+        private boolean confirmada;
+
+        private Entrada(long hash, Path temporario, ExportadorTokens exportador) {
+            this.hash = hash;
+            this.temporario = temporario;
+            this.exportador = exportador;
+        }
+
+        public ExportadorTokens getExportador() {
+            return exportador;
+        }
+
+        /**
+         * Conclui a gravação e torna a entrada visível no cache
+         */
+        public void confirmar() throws IOException {
+            exportador.close();
+            Path arquivo = arquivoDe(hash);
+            long tamanho = Files.size(temporario);
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            confirmada = true;
+            registrar(tamanho);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!confirmada) {
+                try {
+                    exportador.close();
+                } finally {
+                    Files.deleteIfExists(temporario);
+                }
+            }
+        }
+    }
+
+    // === DESCARTE (LRU) ===
+
+    private synchronized void registrar(long tamanho) throws IOException {
+        tamanhoTotal += tamanho;
+        if (tamanhoTotal > limite) {
+            descartarAntigas();
+        }
+    }
+
+    /**
+     * Recalcula o tamanho do diretório e apaga as entradas usadas há mais
+     * tempo até que ele caiba no limite
+     */
+    private void descartarAntigas() throws IOException {
+        List<Path> entradas = new ArrayList<>();
+        List<BasicFileAttributes> atributos = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, "*" + EXTENSAO)) {
+            for (Path arquivo : arquivos) {
+                try {
+                    BasicFileAttributes atributo = Files.readAttributes(arquivo, BasicFileAttributes.class);
+                    entradas.add(arquivo);
+                    atributos.add(atributo);
+                    total += atributo.size();
+                } catch (IOException e) {
+                    // Apagado por outro processo durante a varredura
+                }
+            }
+        }
+        if (total > limite) {
+            Integer[] ordem = new Integer[entradas.size()];
+            for (int i = 0; i < ordem.length; i++) {
+                ordem[i] = i;
+            }
+            Arrays.sort(ordem, Comparator.comparing(i -> atributos.get(i).lastModifiedTime()));
+            for (int i = 0; i < ordem.length && total > limite; i++) {
+                if (Files.deleteIfExists(entradas.get(ordem[i]))) {
+                    total -= atributos.get(ordem[i]).size();
+                }
+            }
+        }
+        tamanhoTotal = total;
+    }
+
+    // === UTILITÁRIOS ===
+
+    private Path arquivoDe(long hash) {
+        return diretorio.resolve(String.format(Locale.ROOT, "%016x-%016x%s", hash, VERSAO, EXTENSAO));
+    }
+
+    /**
+     * Hash de tudo o que determina o conteúdo de uma entrada: versão das
+     * regras e do formato, tipos de token e de erro e palavras reservadas
+     */
+    private static long calcularVersao() {
+        StringBuilder descricao = new StringBuilder();
+        descricao.append(VERSAO_ANALISADOR).append(';').append(ExportadorBinario.VERSAO).append(';');
+        for (TipoToken tipo : TipoToken.values()) {
+            descricao.append(tipo.name()).append(',');
+        }
+        descricao.append(';');
+        for (Diagnostico.Tipo tipo : Diagnostico.Tipo.values()) {
+            descricao.append(tipo.name()).append(',');
+        }
+        descricao.append(';');
+        for (int i = 0; i < PalavrasReservadas.quantidade(); i++) {
+            descricao.append(PalavrasReservadas.palavra(i)).append(',');
+        }
+        return HashConteudo.deTexto(descricao);
+    }
+}
@@ -0,0 +1,354 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coletor dos erros léxicos de uma análise
+ *
+ * Substitui a impressão em System.err e a lista de caracteres sem limite:
+ * - Cada erro é registrado com posição, linha, coluna e tipo
+ * - Caracteres desconhecidos consecutivos viram um único diagnóstico
+ * - No máximo "limite" diagnósticos são retidos; os demais só são contados
+ * - Um histograma primitivo conta as ocorrências de cada caractere desconhecido
+ *
+ * Linha e coluna só são calculadas para os diagnósticos retidos, de modo
+ * que um arquivo binário ou corrompido não degrada a análise.
+ *
+ */
+public final class ColetorDiagnosticos {
+
+    /** Quantidade padrão de diagnósticos retidos */
+    public static final int LIMITE_PADRAO = 1000;
+
+    // Quantidade máxima de caracteres guardados no trecho de uma sequência
+    private static final int TAMANHO_MAXIMO_TRECHO = 32;
+
+    private FonteCaracteres fonte;              // Usada para calcular linha e coluna
+    private int limite = LIMITE_PADRAO;
+    private boolean ecoNoConsole = false;       // Imprimir diagnósticos retidos em System.err
+    private boolean calcularLinhas = true;      // Calcular linha e coluna dos diagnósticos retidos
+
+    private final List<Diagnostico> retidos = new ArrayList<>();
+    private final long[] totaisPorTipo = new long[Diagnostico.Tipo.values().length];
+    private long totalCaracteresDesconhecidos;
+    private long descartados;                   // Diagnósticos além do limite
+    private int[] histograma;                   // Ocorrências por caractere (criado sob demanda)
+
+    // Sequência de caracteres desconhecidos em aberto
+    private int inicioSequencia = -1;
+    private int fimSequencia = -1;
+    private int linhaSequencia;
+    private int colunaSequencia;
+    private final StringBuilder trechoSequencia = new StringBuilder();
+
+    public ColetorDiagnosticos() {
+    }
+
+    ColetorDiagnosticos(FonteCaracteres fonte) {
+        this.fonte = fonte;
+    }
+
+    /**
+     * Reconstrói um coletor já concluído (lido de um arquivo de tokens binário)
+     */
+    static ColetorDiagnosticos restaurar(List<Diagnostico> retidos, long[] totaisPorTipo, long totalCaracteresDesconhecidos,
+                                         long descartados, char[] caracteres, int[] ocorrencias) {
+        ColetorDiagnosticos coletor = new ColetorDiagnosticos();
+        coletor.limite = Math.max(LIMITE_PADRAO, retidos.size());
+        coletor.retidos.addAll(retidos);
+        System.arraycopy(totaisPorTipo, 0, coletor.totaisPorTipo, 0,
+                         Math.min(totaisPorTipo.length, coletor.totaisPorTipo.length));
+        coletor.totalCaracteresDesconhecidos = totalCaracteresDesconhecidos;
+        coletor.descartados = descartados;
+        if (caracteres.length > 0) {
+            coletor.histograma = new int[Character.MAX_VALUE + 1];
+            for (int i = 0; i < caracteres.length; i++) {
+                coletor.histograma[caracteres[i]] = ocorrencias[i];
+            }
+        }
+        return coletor;
+    }
+
+    /**
+     * Coletor com os diagnósticos informados (em ordem de posição), com
+     * linha e coluna calculadas sobre o texto
+     *
+     * Usado quando os erros de um texto foram reunidos a partir de várias
+     * análises (SessaoIncremental, AnalisadorParalelo).
+     */
+    static ColetorDiagnosticos reconstruir(CharSequence texto, List<Diagnostico> diagnosticos) {
+        ColetorDiagnosticos coletor = new ColetorDiagnosticos(FonteCaracteres.deTexto(texto));
+        for (Diagnostico diagnostico : diagnosticos) {
+            if (diagnostico.tipo == Diagnostico.Tipo.CARACTERE_DESCONHECIDO) {
+                for (int i = 0; i < diagnostico.comprimento; i++) {
+                    int p = diagnostico.posicao + i;
+                    coletor.caractereDesconhecido(p, texto.charAt(p));
+                }
+            } else {
+                coletor.erro(diagnostico.tipo, diagnostico.posicao, diagnostico.comprimento);
+            }
+        }
+        return coletor;
+    }
+
+    // === CONFIGURAÇÃO ===
+
+    public void setLimite(int limite) {
+        this.limite = Math.max(0, limite);
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setEcoNoConsole(boolean eco) {
+        this.ecoNoConsole = eco;
+    }
+
+    /**
+     * Desliga o cálculo de linha e coluna (os diagnósticos ficam com 0),
+     * para quem só precisa das posições, como a SessaoIncremental
+     */
+    void setCalcularLinhas(boolean calcular) {
+        this.calcularLinhas = calcular;
+    }
+
+    // === REGISTRO (chamado pelo analisador) ===
+
+    /**
+     * Registra um caractere desconhecido, estendendo a sequência em aberto
+     * quando ele vem logo após o anterior
+     */
+    public void caractereDesconhecido(int posicao, char caractere) {
+        totalCaracteresDesconhecidos++;
+        if (histograma == null) {
+            histograma = new int[Character.MAX_VALUE + 1];
+        }
+        histograma[caractere]++;
+
+        if (posicao == fimSequencia) {
+            fimSequencia++;
+            if (trechoSequencia.length() < TAMANHO_MAXIMO_TRECHO) {
+                trechoSequencia.append(caractere);
+            }
+            return;
+        }
+        fecharSequencia();
+        totaisPorTipo[Diagnostico.Tipo.CARACTERE_DESCONHECIDO.ordinal()]++;
+        inicioSequencia = posicao;
+        fimSequencia = posicao + 1;
+        trechoSequencia.setLength(0);
+        trechoSequencia.append(caractere);
+        if (retidos.size() < limite) {
+            linhaSequencia = linhaDe(posicao);
+            colunaSequencia = colunaDe(posicao);
+        }
+    }
+
+    /**
+     * Registra um erro que não é de caractere desconhecido
+     * (literal ou comentário não fechado)
+     */
+    public void erro(Diagnostico.Tipo tipo, int posicao, int comprimento) {
+        fecharSequencia();
+        totaisPorTipo[tipo.ordinal()]++;
+        if (retidos.size() < limite) {
+            reter(new Diagnostico(tipo, posicao, linhaDe(posicao), colunaDe(posicao), comprimento, ""));
+        } else {
+            descartados++;
+        }
+    }
+
+    /**
+     * Encerra a sequência de caracteres desconhecidos em aberto
+     */
+    private void fecharSequencia() {
+        if (inicioSequencia < 0) {
+            return;
+        }
+        Diagnostico sequencia = sequenciaAberta();
+        inicioSequencia = -1;
+        fimSequencia = -1;
+        if (sequencia != null) {
+            reter(sequencia);
+        } else {
+            descartados++;
+        }
+    }
+
+    /**
+     * Diagnóstico da sequência em aberto, ou null se ela excede o limite
+     */
+    private Diagnostico sequenciaAberta() {
+        if (inicioSequencia < 0 || retidos.size() >= limite) {
+            return null;
+        }
+        return new Diagnostico(Diagnostico.Tipo.CARACTERE_DESCONHECIDO, inicioSequencia, linhaSequencia,
+                               colunaSequencia, fimSequencia - inicioSequencia, trechoSequencia.toString());
+    }
+
+    private void reter(Diagnostico diagnostico) {
+        retidos.add(diagnostico);
+        if (ecoNoConsole) {
+            System.err.println(diagnostico);
+        }
+    }
+
+    private int linhaDe(int posicao) {
+        return fonte != null && calcularLinhas ? fonte.linhaDe(posicao) : 0;
+    }
+
+    private int colunaDe(int posicao) {
+        return fonte != null && calcularLinhas ? fonte.colunaDe(posicao) : 0;
+    }
+
+    // === CONSULTA ===
+
+    /**
+     * Diagnósticos retidos, em ordem de posição
+     */
+    public List<Diagnostico> getDiagnosticos() {
+        List<Diagnostico> lista = new ArrayList<>(retidos);
+        Diagnostico aberta = sequenciaAberta();
+        if (aberta != null) {
+            lista.add(aberta);
+        }
+        return lista;
+    }
+
+    /**
+     * Quantidade total de erros (retidos ou não) de um tipo
+     */
+    public long getTotal(Diagnostico.Tipo tipo) {
+        return totaisPorTipo[tipo.ordinal()];
+    }
+
+    /**
+     * Quantidade total de erros de todos os tipos
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long t : totaisPorTipo) {
+            total += t;
+        }
+        return total;
+    }
+
+    /**
+     * Quantidade de diagnósticos que não foram retidos por causa do limite
+     */
+    public long getDescartados() {
+        return descartados + (inicioSequencia >= 0 && retidos.size() >= limite ? 1 : 0);
+    }
+
+    public long getTotalCaracteresDesconhecidos() {
+        return totalCaracteresDesconhecidos;
+    }
+
+    /**
+     * Quantidade de ocorrências de um caractere desconhecido
+     */
+    public int getOcorrencias(char caractere) {
+        return histograma == null ? 0 : histograma[caractere];
+    }
+
+    /**
+     * Caracteres desconhecidos distintos, em ordem crescente de código
+     */
+    public char[] getCaracteresDistintos() {
+        if (histograma == null) {
+            return new char[0];
+        }
+        int quantidade = 0;
+        for (int ocorrencias : histograma) {
+            if (ocorrencias > 0) {
+                quantidade++;
+            }
+        }
+        char[] distintos = new char[quantidade];
+        int i = 0;
+        for (int c = 0; c < histograma.length; c++) {
+            if (histograma[c] > 0) {
+                distintos[i++] = (char) c;
+            }
+        }
+        return distintos;
+    }
+
+    /**
+     * Caracteres desconhecidos dos diagnósticos retidos, na ordem em que
+     * apareceram (sequências longas contribuem apenas com seu trecho)
+     */
+    public List<Character> getCaracteresRetidos() {
+        List<Character> caracteres = new ArrayList<>();
+        for (Diagnostico diagnostico : getDiagnosticos()) {
+            if (diagnostico.tipo == Diagnostico.Tipo.CARACTERE_DESCONHECIDO) {
+                for (int i = 0; i < diagnostico.trecho.length(); i++) {
+                    caracteres.add(diagnostico.trecho.charAt(i));
+                }
+            }
+        }
+        return caracteres;
+    }
+
+    /**
+     * Descarta todos os diagnósticos e contadores
+     */
+    public void limpar() {
+        retidos.clear();
+        java.util.Arrays.fill(totaisPorTipo, 0);
+        totalCaracteresDesconhecidos = 0;
+        descartados = 0;
+        histograma = null;
+        inicioSequencia = -1;
+        fimSequencia = -1;
+    }
+
+    // === RELATÓRIO ===
+
+    /**
+     * Seção de relatório exibida após a lista de tokens
+     * (mesmo formato usado pela tela do analisador e pelo modo em lote)
+     */
+    public String relatorio() {
+        StringBuilder resultado = new StringBuilder();
+        resultado.append("\n");
+        resultado.append("========================================\n");
+        resultado.append("       CARACTERES NÃO IDENTIFICADOS\n");
+        resultado.append("========================================\n");
+
+        List<Character> caracteres = getCaracteresRetidos();
+        if (totalCaracteresDesconhecidos == 0) {
+            resultado.append("Nenhum caractere não identificado encontrado.\n");
+        } else {
+            resultado.append("Caracteres encontrados: ");
+            for (int i = 0; i < caracteres.size(); i++) {
+                resultado.append("'").append(caracteres.get(i)).append("'");
+                if (i < caracteres.size() - 1) {
+                    resultado.append(", ");
+                }
+            }
+            if (caracteres.size() < totalCaracteresDesconhecidos) {
+                resultado.append(", ...");
+            }
+            resultado.append("\n");
+            resultado.append("Total de caracteres não identificados: ").append(totalCaracteresDesconhecidos).append("\n");
+        }
+
+        List<Diagnostico> diagnosticos = getDiagnosticos();
+        if (!diagnosticos.isEmpty()) {
+            resultado.append("----------------------------------------\n");
+            for (Diagnostico diagnostico : diagnosticos) {
+                resultado.append(diagnostico).append("\n");
+            }
+            long omitidos = getDescartados();
+            if (omitidos > 0) {
+                resultado.append("(").append(omitidos).append(" diagnósticos omitidos)\n");
+            }
+        }
+
+        resultado.append("========================================\n");
+        return resultado.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package lexico;
+
+/**
+ * Erro léxico encontrado durante a análise, com sua posição no código fonte
+ *
+ * Sequências de caracteres desconhecidos consecutivos são agrupadas em um
+ * único diagnóstico: comprimento indica quantos caracteres a sequência
+ * tem e trecho guarda os primeiros deles.
+ *
+ */
+public final class Diagnostico {
+
+    /**
+     * Tipos de erro léxico
+     */
+    public enum Tipo {
+        CARACTERE_DESCONHECIDO("caractere desconhecido"),
+        CARACTERE_NAO_FECHADO("caractere não fechado"),
+        STRING_NAO_FECHADA("string não fechada"),
+        COMENTARIO_NAO_FECHADO("comentário não fechado");
+
+        public final String descricao;
+
+        Tipo(String descricao) {
+            this.descricao = descricao;
+        }
+    }
+
+    public final Tipo tipo;
+    public final int posicao;       // Posição (índice do caractere) no código fonte
+    public final int linha;         // Linha, começando em 1
+    public final int coluna;        // Coluna, começando em 1
+    public final int comprimento;   // Quantidade de caracteres envolvidos
+    public final String trecho;     // Caracteres envolvidos (truncado em sequências longas)
+
+    public Diagnostico(Tipo tipo, int posicao, int linha, int coluna, int comprimento, String trecho) {
+        this.tipo = tipo;
+        this.posicao = posicao;
+        this.linha = linha;
+        this.coluna = coluna;
+        this.comprimento = comprimento;
+        this.trecho = trecho;
+    }
+
+    /**
+     * Representação no formato "Linha L, coluna C: descrição"
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Linha ").append(linha).append(", coluna ").append(coluna).append(": ").append(tipo.descricao);
+        if (tipo == Tipo.CARACTERE_DESCONHECIDO) {
+            sb.append(" \"").append(trecho);
+            if (comprimento > trecho.length()) {
+                sb.append("...");
+            }
+            sb.append("\"");
+            if (comprimento > 1) {
+                sb.append(" (").append(comprimento).append(" caracteres)");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Especificação declarativa dos tokens da linguagem
+ *
+ * Cada regra associa um padrão (expressão regular simplificada) a um tipo
+ * de token e a uma ação. A especificação é compilada uma única vez em um
+ * autômato finito determinístico (AutomatoLexico), usado pelo motor
+ * MotorLexico.TABELA do analisador.
+ *
+ * Sintaxe dos padrões:
+ * - caracteres literais; \x escapa qualquer caractere especial
+ * - [abc], [a-z], [^abc]: classes de caracteres
+ * - . qualquer caractere (exceto o fim do código)
+ * - {letra}, {digito}, {branco}: classes Unicode (Character.isLetter etc.)
+ * - {fim}: o fim do código fonte (não consome caractere)
+ * - ( ), |, *, +, ?: agrupamento, alternativa e repetição
+ *
+ * Em caso de empate no tamanho do lexema vence a regra declarada primeiro.
+ *
+ */
+public final class EspecificacaoLexica {
+
+    /**
+     * Ação executada quando uma regra é aceita
+     */
+    public enum Acao {
+        TOKEN,              // Token comum: o lexema é o trecho reconhecido
+        IGNORAR,            // Espaços em branco
+        COMENTARIO,         // Comentário fechado: ignorado, mas contado nas métricas
+        COMENTARIO_ABERTO,  // Comentário sem fechamento: ignorado, mas registrado como erro
+        IDENTIFICADOR,      // Verifica se o identificador é palavra reservada
+        PONTO,              // '.' após "end" é fim de programa (FIM)
+        LITERAL_FECHADO,    // Literal entre aspas: o lexema perde as duas aspas
+        STRING_ABERTA,      // String sem aspa final: o lexema perde a aspa inicial
+        CHAR_ABERTO         // Caractere sem aspa final: o lexema é o trecho inteiro
+    }
+
+    /**
+     * Contexto em que uma regra pode ser aplicada
+     */
+    public enum Contexto {
+        SEMPRE,             // Qualquer contexto
+        SEM_OPERANDO        // Token anterior não é número nem identificador
+    }
+
+    /**
+     * Regra da especificação
+     */
+    public static final class Regra {
+        public final TipoToken tipo;    // null para regras ignoradas
+        public final String padrao;
+        public final Acao acao;
+        public final Contexto contexto;
+
+        Regra(TipoToken tipo, String padrao, Acao acao, Contexto contexto) {
+            this.tipo = tipo;
+            this.padrao = padrao;
+            this.acao = acao;
+            this.contexto = contexto;
+        }
+    }
+
+    private final List<Regra> regras = new ArrayList<>();
+
+    // === CONSTRUÇÃO DA ESPECIFICAÇÃO ===
+
+    public EspecificacaoLexica regra(TipoToken tipo, String padrao) {
+        return regra(tipo, padrao, Acao.TOKEN, Contexto.SEMPRE);
+    }
+
+    public EspecificacaoLexica regra(TipoToken tipo, String padrao, Acao acao) {
+        return regra(tipo, padrao, acao, Contexto.SEMPRE);
+    }
+
+    public EspecificacaoLexica regra(TipoToken tipo, String padrao, Acao acao, Contexto contexto) {
+        regras.add(new Regra(tipo, padrao, acao, contexto));
+        return this;
+    }
+
+    public EspecificacaoLexica ignorar(String padrao) {
+        return regra(null, padrao, Acao.IGNORAR, Contexto.SEMPRE);
+    }
+
+    public EspecificacaoLexica comentario(String padrao) {
+        return regra(null, padrao, Acao.COMENTARIO, Contexto.SEMPRE);
+    }
+
+    public List<Regra> getRegras() {
+        return Collections.unmodifiableList(regras);
+    }
+
+    // === ESPECIFICAÇÃO DA LINGUAGEM ===
+
+    // Partes reutilizadas dos padrões numéricos
+    private static final String INTEIRO = "{digito}+";
+    private static final String REAL = "{digito}+\\.{digito}+|{digito}+(\\.{digito}+)?[eE][+\\-]?{digito}*";
+
+    // Corpo de comentário /* ... */ até (sem incluir) o fechamento
+    private static final String CORPO_COMENTARIO = "/\\*([^*]|\\*+[^*/])*";
+
+    /**
+     * Especificação equivalente ao reconhecimento manual do AnalisadorLexico
+     */
+    public static EspecificacaoLexica pascal() {
+        return new EspecificacaoLexica()
+            // Espaços em branco e comentários (fechados ou até o fim do código)
+            .ignorar("{branco}+")
+            .comentario(CORPO_COMENTARIO + "\\*+/")
+            .regra(null, CORPO_COMENTARIO + "\\**{fim}", Acao.COMENTARIO_ABERTO)
+
+            // Identificadores e palavras reservadas
+            .regra(TipoToken.IDENTIFICADOR, "{letra}({letra}|{digito})*", Acao.IDENTIFICADOR)
+
+            // Números (o sinal negativo só faz parte do número sem operando antes)
+            .regra(TipoToken.NUMERO_INTEIRO, INTEIRO)
+            .regra(TipoToken.NUMERO_REAL, REAL)
+            .regra(TipoToken.NUMERO_INTEIRO, "-" + INTEIRO, Acao.TOKEN, Contexto.SEM_OPERANDO)
+            .regra(TipoToken.NUMERO_REAL, "-(" + REAL + ")", Acao.TOKEN, Contexto.SEM_OPERANDO)
+
+            // Operadores e símbolos
+            .regra(TipoToken.ATRIBUICAO, ":=")
+            .regra(TipoToken.OPERADOR_RELACIONAL, "<=|<>|>=|<|>|=")
+            .regra(TipoToken.OPERADOR_ARITMETICO, "[+\\-*/]")
+            .regra(TipoToken.SIMBOLO_ESPECIAL, "[();,:]")
+            .regra(TipoToken.SIMBOLO_ESPECIAL, "\\.", Acao.PONTO)
+
+            // Literais de caractere e de string
+            .regra(TipoToken.CHAR_LITERAL, "'.'", Acao.LITERAL_FECHADO)
+            .regra(TipoToken.CHAR_LITERAL, "'.|'{fim}", Acao.CHAR_ABERTO)
+            .regra(TipoToken.STRING_LITERAL, "\"[^\"]*\"", Acao.LITERAL_FECHADO)
+            .regra(TipoToken.STRING_LITERAL, "\"[^\"]*{fim}", Acao.STRING_ABERTA);
+    }
+}
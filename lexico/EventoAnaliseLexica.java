@@ -0,0 +1,43 @@
+package lexico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder: uma análise léxica, do primeiro token ao
+ * fim do código fonte
+ *
+ * Só é gravado quando há uma gravação do JFR ativa com o evento habilitado
+ * (por exemplo, java -XX:StartFlightRecording ...). A duração do evento é
+ * o tempo total de análise.
+ *
+ */
+@Name("lexico.AnaliseLexica")
+@Label("Análise Léxica")
+@Category({"Compilador", "Análise Léxica"})
+@Description("Análise léxica de um código fonte, do primeiro token ao fim")
+@StackTrace(false)
+final class EventoAnaliseLexica extends Event {
+
+    @Label("Motor")
+    String motor;
+
+    @Label("Caracteres analisados")
+    long caracteres;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Erros léxicos")
+    long erros;
+
+    @Label("Caracteres desconhecidos")
+    long caracteresDesconhecidos;
+
+    @Label("Caracteres em comentários")
+    long caracteresComentarios;
+}
@@ -0,0 +1,35 @@
+package lexico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do JDK Flight Recorder: um token cujo reconhecimento levou mais
+ * que o limiar (1 ms por padrão, ajustável na configuração da gravação)
+ *
+ * A duração inclui os espaços e comentários ignorados antes do token, de
+ * modo que um comentário gigante aparece no token seguinte a ele.
+ *
+ */
+@Name("lexico.TokenLento")
+@Label("Token Lento")
+@Category({"Compilador", "Análise Léxica"})
+@Description("Reconhecimento de um token acima do limiar de duração")
+@Threshold("1 ms")
+@StackTrace(false)
+final class EventoTokenLento extends Event {
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Posição")
+    int posicao;
+
+    @Label("Comprimento")
+    int comprimento;
+}
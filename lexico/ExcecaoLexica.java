@@ -0,0 +1,25 @@
+package lexico;
+
+/**
+ * Erro léxico que interrompe a entrega de tokens (por exemplo, uma string
+ * ou um comentário não fechado, sinalizado pelo PublicadorTokens)
+ *
+ */
+public final class ExcecaoLexica extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Diagnostico diagnostico;
+
+    public ExcecaoLexica(Diagnostico diagnostico) {
+        super(diagnostico.toString());
+        this.diagnostico = diagnostico;
+    }
+
+    /**
+     * Erro que causou a interrupção, com posição, linha e coluna
+     */
+    public Diagnostico getDiagnostico() {
+        return diagnostico;
+    }
+}
@@ -0,0 +1,171 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binário compacto de tokens, lido por LeitorTokensBinario
+ *
+ * Estrutura do arquivo (inteiros fixos em little-endian):
+ *
+ *   Cabeçalho (TAMANHO_CABECALHO bytes)
+ *     0  int   MAGICO ("TOKB")
+ *     4  int   VERSAO
+ *     8  long  hash dos bytes do código fonte (HashConteudo, 0 se desconhecido)
+ *     16 long  quantidade de tokens
+ *     24 long  início da seção de erros léxicos (0 se ausente)
+ *     32 long  início da tabela de lexemas
+ *     40 int   quantidade de lexemas distintos
+ *   Tokens, a partir de TAMANHO_CABECALHO, quatro varints por token:
+ *     tipo (ordinal), distância desde o fim do token anterior,
+ *     comprimento no código fonte, índice do lexema na tabela
+ *   Erros léxicos (ver escreverDiagnosticos)
+ *   Tabela de lexemas: para cada lexema, varint com a quantidade de bytes
+ *   seguida dos caracteres em CESU-8 (UTF-8 em que cada char ocupa de 1 a
+ *   3 bytes, inclusive surrogates isolados, de modo que nada se perde)
+ *
+ * Os varints usam 7 bits por byte (LEB128): a maioria dos tokens ocupa 4
+ * bytes. Cada lexema distinto é guardado uma única vez.
+ *
+ */
+final class ExportadorBinario extends ExportadorTokens {
+
+    static final int MAGICO = 0x424B4F54;   // "TOKB" em little-endian
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 64;
+
+    private final Map<String, Integer> indiceLexemas = new HashMap<>();
+    private final List<String> lexemas = new ArrayList<>();
+    private long hashFonte;
+    private long fimAnterior;               // Fim do token anterior no código fonte
+    private long inicioDiagnosticos;
+
+    ExportadorBinario(FileChannel canal) throws IOException {
+        super(canal);
+        for (int i = 0; i < TAMANHO_CABECALHO; i++) {
+            escreverByte(0); // Reescrito em concluir()
+        }
+    }
+
+    @Override
+    public void setHashFonte(long hash) {
+        this.hashFonte = hash;
+    }
+
+    @Override
+    protected void escreverToken(long indice, TipoToken tipo, CharSequence texto,
+                                 int inicio, int fim, int posicao, int comprimento) throws IOException {
+        if (posicao < fimAnterior || comprimento < 0) {
+            throw new IllegalArgumentException("O formato binário exige tokens em ordem, com posição e comprimento: "
+                                               + tipo + " em " + posicao + " (" + comprimento + ")");
+        }
+        escreverVarint(tipo.ordinal());
+        escreverVarint(posicao - fimAnterior);
+        escreverVarint(comprimento);
+        escreverVarint(idLexema(texto, inicio, fim));
+        fimAnterior = (long) posicao + comprimento;
+    }
+
+    /**
+     * Seção de erros léxicos, suficiente para reconstruir o ColetorDiagnosticos
+     * (e portanto o mesmo relatório):
+     *   total de caracteres desconhecidos, diagnósticos descartados,
+     *   quantidade de tipos e o total de cada tipo,
+     *   quantidade de diagnósticos retidos e, para cada um:
+     *     tipo, posição, linha, coluna, comprimento, índice do trecho na tabela,
+     *   quantidade de caracteres do histograma e, para cada um: caractere, ocorrências
+     */
+    @Override
+    public void finalizar(ColetorDiagnosticos diagnosticos) throws IOException {
+        inicioDiagnosticos = posicaoArquivo();
+        escreverVarint(diagnosticos.getTotalCaracteresDesconhecidos());
+        escreverVarint(diagnosticos.getDescartados());
+        Diagnostico.Tipo[] tipos = Diagnostico.Tipo.values();
+        escreverVarint(tipos.length);
+        for (Diagnostico.Tipo tipo : tipos) {
+            escreverVarint(diagnosticos.getTotal(tipo));
+        }
+        List<Diagnostico> retidos = diagnosticos.getDiagnosticos();
+        escreverVarint(retidos.size());
+        for (Diagnostico diagnostico : retidos) {
+            escreverVarint(diagnostico.tipo.ordinal());
+            escreverVarint(diagnostico.posicao);
+            escreverVarint(diagnostico.linha);
+            escreverVarint(diagnostico.coluna);
+            escreverVarint(diagnostico.comprimento);
+            escreverVarint(idLexema(diagnostico.trecho, 0, diagnostico.trecho.length()));
+        }
+        char[] distintos = diagnosticos.getCaracteresDistintos();
+        escreverVarint(distintos.length);
+        for (char c : distintos) {
+            escreverVarint(c);
+            escreverVarint(diagnosticos.getOcorrencias(c));
+        }
+    }
+
+    @Override
+    protected void concluir() throws IOException {
+        long inicioTabela = posicaoArquivo();
+        for (String lexema : lexemas) {
+            escreverVarint(tamanhoCesu8(lexema));
+            for (int i = 0; i < lexema.length(); i++) {
+                char c = lexema.charAt(i);
+                if (c < 0x80) {
+                    escreverByte(c);
+                } else if (c < 0x800) {
+                    escreverByte(0xC0 | (c >> 6));
+                    escreverByte(0x80 | (c & 0x3F));
+                } else {
+                    escreverByte(0xE0 | (c >> 12));
+                    escreverByte(0x80 | ((c >> 6) & 0x3F));
+                    escreverByte(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO).order(ByteOrder.LITTLE_ENDIAN);
+        cabecalho.putInt(MAGICO);
+        cabecalho.putInt(VERSAO);
+        cabecalho.putLong(hashFonte);
+        cabecalho.putLong(getQuantidade());
+        cabecalho.putLong(inicioDiagnosticos);
+        cabecalho.putLong(inicioTabela);
+        cabecalho.putInt(lexemas.size());
+        cabecalho.clear();
+        FileChannel canal = descarregarTudo();
+        long posicao = 0;
+        while (cabecalho.hasRemaining()) {
+            posicao += canal.write(cabecalho, posicao);
+        }
+    }
+
+    /**
+     * Índice do lexema na tabela, acrescentando-o se ainda não existir
+     */
+    private int idLexema(CharSequence texto, int inicio, int fim) {
+        String lexema = texto instanceof String && inicio == 0 && fim == texto.length()
+                      ? (String) texto : texto.subSequence(inicio, fim).toString();
+        Integer id = indiceLexemas.get(lexema);
+        if (id == null) {
+            id = lexemas.size();
+            indiceLexemas.put(lexema, id);
+            lexemas.add(lexema);
+        }
+        return id;
+    }
+
+    private static int tamanhoCesu8(String lexema) {
+        int tamanho = 0;
+        for (int i = 0; i < lexema.length(); i++) {
+            char c = lexema.charAt(i);
+            tamanho += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return tamanho;
+    }
+}
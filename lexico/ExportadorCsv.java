@@ -0,0 +1,54 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * CSV (RFC 4180): cabeçalho "indice,tipo,lexema,posicao" e uma linha por token
+ *
+ * O lexema fica entre aspas quando contém vírgula, aspas ou quebra de
+ * linha. Os erros léxicos não fazem parte da tabela.
+ *
+ */
+final class ExportadorCsv extends ExportadorTokens {
+
+    ExportadorCsv(FileChannel canal) throws IOException {
+        super(canal);
+        escrever("indice,tipo,lexema,posicao\r\n");
+    }
+
+    @Override
+    protected void escreverToken(long indice, TipoToken tipo, CharSequence texto,
+                                 int inicio, int fim, int posicao, int comprimento) throws IOException {
+        escrever(indice);
+        escrever(',');
+        escrever(tipo.name());
+        escrever(',');
+        if (precisaAspas(texto, inicio, fim)) {
+            escrever('"');
+            for (int i = inicio; i < fim; i++) {
+                char c = texto.charAt(i);
+                if (c == '"') {
+                    escrever('"');
+                }
+                escrever(c);
+            }
+            escrever('"');
+        } else {
+            escrever(texto, inicio, fim);
+        }
+        escrever(',');
+        escrever(posicao);
+        escrever("\r\n");
+    }
+
+    private static boolean precisaAspas(CharSequence texto, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return fim == inicio; // Lexema vazio: aspas para distinguir de campo ausente
+    }
+}
@@ -0,0 +1,79 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * JSON Lines: um objeto por linha
+ *
+ * Tokens:  {"indice":0,"tipo":"PALAVRA_RESERVADA","lexema":"program","posicao":0}
+ * Erros:   {"diagnostico":"CARACTERE_DESCONHECIDO","linha":3,"coluna":5,"posicao":41,"comprimento":1,"trecho":"@"}
+ *
+ */
+final class ExportadorJsonLinhas extends ExportadorTokens {
+
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    ExportadorJsonLinhas(FileChannel canal) {
+        super(canal);
+    }
+
+    @Override
+    protected void escreverToken(long indice, TipoToken tipo, CharSequence texto,
+                                 int inicio, int fim, int posicao, int comprimento) throws IOException {
+        escrever("{\"indice\":");
+        escrever(indice);
+        escrever(",\"tipo\":\"");
+        escrever(tipo.name());
+        escrever("\",\"lexema\":");
+        escreverString(texto, inicio, fim);
+        escrever(",\"posicao\":");
+        escrever(posicao);
+        escrever("}\n");
+    }
+
+    @Override
+    public void finalizar(ColetorDiagnosticos diagnosticos) throws IOException {
+        for (Diagnostico diagnostico : diagnosticos.getDiagnosticos()) {
+            escrever("{\"diagnostico\":\"");
+            escrever(diagnostico.tipo.name());
+            escrever("\",\"linha\":");
+            escrever(diagnostico.linha);
+            escrever(",\"coluna\":");
+            escrever(diagnostico.coluna);
+            escrever(",\"posicao\":");
+            escrever(diagnostico.posicao);
+            escrever(",\"comprimento\":");
+            escrever(diagnostico.comprimento);
+            escrever(",\"trecho\":");
+            escreverString(diagnostico.trecho, 0, diagnostico.trecho.length());
+            escrever("}\n");
+        }
+    }
+
+    /**
+     * Escreve uma string JSON, com aspas e caracteres de escape
+     */
+    private void escreverString(CharSequence texto, int inicio, int fim) throws IOException {
+        escrever('"');
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"':  escrever("\\\""); break;
+                case '\\': escrever("\\\\"); break;
+                case '\n': escrever("\\n"); break;
+                case '\r': escrever("\\r"); break;
+                case '\t': escrever("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        escrever("\\u00");
+                        escrever(HEXADECIMAL[c >> 4]);
+                        escrever(HEXADECIMAL[c & 0xF]);
+                    } else {
+                        escrever(c);
+                    }
+            }
+        }
+        escrever('"');
+    }
+}
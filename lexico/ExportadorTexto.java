@@ -0,0 +1,31 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Formato padrão do compilador: "<lexema, tipo>" por linha, seguido do
+ * relatório de caracteres não identificados (o mesmo de Token.toString())
+ *
+ */
+final class ExportadorTexto extends ExportadorTokens {
+
+    ExportadorTexto(FileChannel canal) {
+        super(canal);
+    }
+
+    @Override
+    protected void escreverToken(long indice, TipoToken tipo, CharSequence texto,
+                                 int inicio, int fim, int posicao, int comprimento) throws IOException {
+        escrever('<');
+        escrever(texto, inicio, fim);
+        escrever(", ");
+        escrever(tipo.name());
+        escrever(">\n");
+    }
+
+    @Override
+    public void finalizar(ColetorDiagnosticos diagnosticos) throws IOException {
+        escrever(diagnosticos.relatorio());
+    }
+}
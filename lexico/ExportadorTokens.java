@@ -0,0 +1,262 @@
+package lexico;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exportação dos tokens para arquivo, à medida que são produzidos
+ *
+ * Cada token é escrito assim que é recebido, em um buffer de caracteres
+ * que é codificado em UTF-8 e gravado diretamente no canal quando enche.
+ * A memória usada é constante (os buffers), qualquer que seja o tamanho
+ * da saída, e os primeiros bytes chegam ao disco logo no início da
+ * análise.
+ *
+ * O lexema é recebido como um trecho de um texto (CharSequence), de modo
+ * que tokens de um BufferTokens são exportados sem criar Strings. Formatos
+ * textuais escrevem caracteres; o formato binário escreve bytes no mesmo
+ * buffer.
+ *
+ * Uso:
+ *   try (ExportadorTokens exportador = ExportadorTokens.criar(formato, destino)) {
+ *       ... exportador.exportar(token) ...
+ *       exportador.finalizar(analisador.getDiagnosticos());
+ *   }
+ *
+ */
+public abstract class ExportadorTokens implements Closeable {
+
+    // Tamanho dos buffers de caracteres e de bytes
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final FileChannel canal;
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer caracteres = CharBuffer.allocate(TAMANHO_BUFFER);
+    private final ByteBuffer bytes = ByteBuffer.allocate(TAMANHO_BUFFER * 3);
+    private final char[] digitos = new char[20];
+    private long quantidade;            // Tokens exportados até agora
+    private long gravados;              // Bytes já gravados no canal
+    private boolean fechado;
+
+    protected ExportadorTokens(FileChannel canal) {
+        this.canal = canal;
+    }
+
+    /**
+     * Cria (ou substitui) o arquivo de destino no formato informado
+     */
+    public static ExportadorTokens criar(FormatoExportacao formato, Path destino) throws IOException {
+        FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                             StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            switch (formato) {
+                case JSON_LINHAS:
+                    return new ExportadorJsonLinhas(canal);
+                case CSV:
+                    return new ExportadorCsv(canal);
+                case BINARIO:
+                    return new ExportadorBinario(canal);
+                case TEXTO:
+                default:
+                    return new ExportadorTexto(canal);
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    // === EXPORTAÇÃO ===
+
+    /**
+     * Exporta um token produzido por AnalisadorLexico.proximoToken()
+     */
+    public final void exportar(Token token) throws IOException {
+        escreverToken(quantidade++, token.tipo, token.lexema, 0, token.lexema.length(),
+                      token.posicao, token.comprimento);
+    }
+
+    /**
+     * Exporta os tokens [inicio, fim) de um buffer, com os lexemas lidos do texto analisado
+     */
+    public final void exportar(BufferTokens tokens, int inicio, int fim, CharSequence texto) throws IOException {
+        for (int i = inicio; i < fim; i++) {
+            escreverToken(quantidade++, tokens.tipo(i), texto, tokens.inicioLexema(i, texto),
+                          tokens.fimLexema(i, texto), tokens.inicio(i), tokens.comprimento(i));
+        }
+    }
+
+    /**
+     * Escreve o que vem depois dos tokens (relatório de erros, se o formato tiver)
+     */
+    public void finalizar(ColetorDiagnosticos diagnosticos) throws IOException {
+        // Nada por padrão
+    }
+
+    /**
+     * Informa o hash dos bytes do código fonte (HashConteudo), para os
+     * formatos que identificam a fonte; os demais ignoram
+     */
+    public void setHashFonte(long hash) {
+        // Nada por padrão
+    }
+
+    /**
+     * Quantidade de tokens exportados até agora
+     */
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Escreve um token no formato do exportador
+     *
+     * @param indice número do token (a partir de 0)
+     * @param texto texto que contém o lexema, no trecho [inicio, fim)
+     * @param posicao posição do token no código fonte (-1 se desconhecida)
+     * @param comprimento caracteres ocupados pelo token no código fonte (-1 se desconhecido)
+     */
+    protected abstract void escreverToken(long indice, TipoToken tipo, CharSequence texto,
+                                          int inicio, int fim, int posicao, int comprimento) throws IOException;
+
+    // === ESCRITA BUFFERIZADA ===
+
+    protected final void escrever(char c) throws IOException {
+        if (!caracteres.hasRemaining()) {
+            descarregar(false);
+        }
+        caracteres.put(c);
+    }
+
+    protected final void escrever(CharSequence texto) throws IOException {
+        escrever(texto, 0, texto.length());
+    }
+
+    protected final void escrever(CharSequence texto, int inicio, int fim) throws IOException {
+        for (int i = inicio; i < fim; i++) {
+            escrever(texto.charAt(i));
+        }
+    }
+
+    protected final void escrever(long numero) throws IOException {
+        if (numero < 0) {
+            escrever('-');
+            numero = -numero;
+        }
+        int n = digitos.length;
+        do {
+            digitos[--n] = (char) ('0' + numero % 10);
+            numero /= 10;
+        } while (numero > 0);
+        while (n < digitos.length) {
+            escrever(digitos[n++]);
+        }
+    }
+
+    protected final void escreverByte(int b) throws IOException {
+        if (caracteres.position() > 0) {
+            descarregar(false);
+        }
+        if (!bytes.hasRemaining()) {
+            gravarBytes();
+        }
+        bytes.put((byte) b);
+    }
+
+    /**
+     * Escreve um inteiro não negativo em 7 bits por byte (varint LEB128)
+     */
+    protected final void escreverVarint(long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            escreverByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        escreverByte((int) valor);
+    }
+
+    protected final void escreverBytes(byte[] origem) throws IOException {
+        for (byte b : origem) {
+            escreverByte(b);
+        }
+    }
+
+    /**
+     * Posição no arquivo do próximo byte escrito (texto ainda não codificado
+     * não é contado)
+     */
+    protected final long posicaoArquivo() {
+        return gravados + bytes.position();
+    }
+
+    /**
+     * Grava tudo o que está nos buffers e devolve o canal, para que o
+     * formato reescreva um trecho já gravado (como um cabeçalho)
+     */
+    protected final FileChannel descarregarTudo() throws IOException {
+        descarregar(false);
+        gravarBytes();
+        return canal;
+    }
+
+    /**
+     * Chamado por close() antes de gravar os buffers: o formato escreve o
+     * que só é conhecido no fim (tabelas, cabeçalho)
+     */
+    protected void concluir() throws IOException {
+        // Nada por padrão
+    }
+
+    /**
+     * Grava o conteúdo dos buffers no arquivo e o fecha
+     */
+    @Override
+    public void close() throws IOException {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        try {
+            concluir();
+            descarregar(true);
+            while (codificador.flush(bytes) == CoderResult.OVERFLOW) {
+                gravarBytes();
+            }
+            gravarBytes();
+        } finally {
+            canal.close();
+        }
+    }
+
+    /**
+     * Codifica os caracteres acumulados e grava os bytes no canal
+     *
+     * Um par surrogate cortado no fim do buffer fica para a próxima vez.
+     */
+    private void descarregar(boolean fim) throws IOException {
+        caracteres.flip();
+        while (codificador.encode(caracteres, bytes, fim) == CoderResult.OVERFLOW) {
+            gravarBytes();
+        }
+        gravarBytes();
+        caracteres.compact();
+    }
+
+    private void gravarBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            gravados += canal.write(bytes);
+        }
+        bytes.clear();
+    }
+}
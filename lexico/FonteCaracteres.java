@@ -0,0 +1,287 @@
+package lexico;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Fonte de caracteres consumida pelo analisador léxico
+ *
+ * Abstrai a origem do código fonte para que o analisador não precise
+ * manter o programa inteiro em uma única String. A fonte é acessada por
+ * posição absoluta (índice do caractere desde o início do código), e o
+ * analisador avisa, através de liberarAte(), a partir de qual posição não
+ * voltará mais a ler. Fontes com janela deslizante usam essa informação
+ * para descartar o trecho já analisado e manter a memória limitada.
+ *
+ * Implementações disponíveis:
+ * - Texto em memória (String, StringBuilder ou qualquer CharSequence)
+ * - Reader qualquer, inclusive a entrada padrão (System.in)
+ * - Arquivo mapeado em memória (FileChannel), decodificado em UTF-8
+ *
+ * As posições são int, portanto o código fonte é limitado a
+ * Integer.MAX_VALUE caracteres.
+ *
+ */
+public abstract class FonteCaracteres implements Closeable {
+
+    /** Valor retornado por caractereEm() quando a posição está além do fim */
+    public static final int FIM = -1;
+
+    /** Capacidade inicial da janela deslizante (em caracteres) */
+    public static final int TAMANHO_JANELA_PADRAO = 64 * 1024;
+
+    // Espaços em branco ASCII segundo Character.isWhitespace
+    private static final boolean[] ESPACOS_ASCII = new boolean[' ' + 1];
+    static {
+        for (char c = 0; c <= ' '; c++) {
+            ESPACOS_ASCII[c] = Character.isWhitespace(c);
+        }
+    }
+
+    /**
+     * Retorna o caractere na posição informada, ou FIM se a posição
+     * estiver além do fim do código fonte
+     */
+    public abstract int caractereEm(int posicao);
+
+    /**
+     * Retorna o texto entre as posições [inicio, fim)
+     *
+     * O trecho precisa estar dentro da janela ainda não liberada.
+     */
+    public abstract String trecho(int inicio, int fim);
+
+    /**
+     * Copia os caracteres [inicio, fim) para o vetor, a partir de 'destino'
+     *
+     * O trecho precisa estar dentro da janela ainda não liberada.
+     */
+    public void copiar(int inicio, int fim, char[] vetor, int destino) {
+        for (int p = inicio; p < fim; p++) {
+            vetor[destino++] = (char) caractereEm(p);
+        }
+    }
+
+    /**
+     * Informa que o analisador não acessará mais posições anteriores
+     * à posição informada. Fontes em memória ignoram o aviso.
+     */
+    public void liberarAte(int posicao) {
+        // Nada a descartar por padrão
+    }
+
+    // === VARREDURA EM BLOCO ===
+    // Usadas pelo analisador para atravessar espaços, comentários e strings
+    // sem uma chamada a caractereEm() por caractere. As implementações
+    // padrão são escalares; as fontes sobrescrevem com laços sobre o seu
+    // próprio armazenamento ou com as buscas intrínsecas de String.
+
+    /**
+     * Posição do primeiro caractere a partir de 'posicao' que não é espaço
+     * em branco (Character.isWhitespace), ou a posição do fim. O trecho
+     * percorrido é liberado.
+     */
+    public int pularEspacos(int posicao) {
+        int c;
+        while ((c = caractereEm(posicao)) != FIM && ehEspaco((char) c)) {
+            posicao++;
+            liberarAte(posicao);
+        }
+        return posicao;
+    }
+
+    /**
+     * Posição da primeira ocorrência do caractere a partir de 'posicao',
+     * ou a posição do fim. Nada é liberado (o trecho é o lexema de um literal).
+     */
+    public int procurar(char alvo, int posicao) {
+        int c;
+        while ((c = caractereEm(posicao)) != FIM && c != alvo) {
+            posicao++;
+        }
+        return posicao;
+    }
+
+    /**
+     * Posição do primeiro "*\/" a partir de 'posicao', ou a posição do fim.
+     * O trecho percorrido é liberado.
+     */
+    public int procurarFimComentario(int posicao) {
+        int c;
+        while ((c = caractereEm(posicao)) != FIM) {
+            if (c == '*' && caractereEm(posicao + 1) == '/') {
+                return posicao;
+            }
+            posicao++;
+            liberarAte(posicao);
+        }
+        return posicao;
+    }
+
+    /**
+     * Equivalente a Character.isWhitespace, com uma tabela para os
+     * caracteres ASCII (os únicos que aparecem na maioria dos códigos)
+     */
+    static boolean ehEspaco(char c) {
+        if (c <= ' ') {
+            return ESPACOS_ASCII[c];
+        }
+        return c >= 0x80 && Character.isWhitespace(c);
+    }
+
+    /**
+     * Fecha o recurso subjacente (Reader ou arquivo), se houver
+     */
+    @Override
+    public void close() throws IOException {
+        // Nada a fechar por padrão
+    }
+
+    // === LINHA E COLUNA ===
+
+    // Cursor de linhas: avança apenas para frente, contando quebras de linha.
+    // Só é usado quando alguém pergunta a linha de uma posição (diagnósticos)
+    // ou quando uma janela deslizante descarta um trecho.
+    private int posicaoCursor;          // Próxima posição ainda não contada
+    private int linhaCursor = 1;        // Linha da posição do cursor
+    private int inicioLinhaCursor;      // Posição onde começa a linha do cursor
+
+    // Posição marcada, cuja linha e coluna são guardadas quando o cursor passa por ela
+    private int posicaoMarca = -1;
+    private int linhaMarca;
+    private int colunaMarca;
+
+    /**
+     * Linha (começando em 1) da posição informada
+     *
+     * As consultas devem vir em ordem crescente de posição. Em fontes de
+     * janela deslizante, a posição não pode ter sido liberada (exceto a
+     * posição marcada com marcar()).
+     */
+    public int linhaDe(int posicao) {
+        if (localizarMarca(posicao)) {
+            return linhaMarca;
+        }
+        avancarCursor(posicao);
+        return linhaCursor;
+    }
+
+    /**
+     * Coluna (começando em 1) da posição informada
+     */
+    public int colunaDe(int posicao) {
+        if (localizarMarca(posicao)) {
+            return colunaMarca;
+        }
+        avancarCursor(posicao);
+        return posicao - inicioLinhaCursor + 1;
+    }
+
+    /**
+     * Pede que a linha e a coluna da posição sejam preservadas mesmo que
+     * ela seja liberada antes de ser consultada (por exemplo, o início de
+     * um comentário que só se descobre não fechado no fim do código)
+     */
+    public void marcar(int posicao) {
+        if (posicao < posicaoCursor) {
+            // O cursor já passou pela posição: calcular agora
+            avancarCursor(posicao);
+            linhaMarca = linhaCursor;
+            colunaMarca = posicao - inicioLinhaCursor + 1;
+        }
+        posicaoMarca = posicao;
+    }
+
+    private boolean localizarMarca(int posicao) {
+        return posicao == posicaoMarca && posicao < inicioLinhaCursor;
+    }
+
+    private void avancarCursor(int posicao) {
+        if (posicao < inicioLinhaCursor) {
+            // Consulta fora de ordem: recomeçar do início (só em fontes em memória)
+            posicaoCursor = 0;
+            linhaCursor = 1;
+            inicioLinhaCursor = 0;
+        }
+        while (posicaoCursor < posicao) {
+            int c = caractereEm(posicaoCursor);
+            if (c == FIM) {
+                break;
+            }
+            contar(c, posicaoCursor);
+            posicaoCursor++;
+        }
+    }
+
+    /**
+     * Conta as quebras de linha de um trecho que uma janela deslizante está
+     * prestes a descartar, para que linhaDe() continue correto depois
+     *
+     * @param caracteres vetor da janela
+     * @param base posição absoluta de caracteres[0]
+     * @param fim posição absoluta (exclusiva) do fim do trecho descartado
+     */
+    protected final void contarLinhasDescartadas(char[] caracteres, int base, int fim) {
+        for (int p = Math.max(posicaoCursor, base); p < fim; p++) {
+            contar(caracteres[p - base], p);
+        }
+        if (fim > posicaoCursor) {
+            posicaoCursor = fim;
+        }
+    }
+
+    private void contar(int c, int posicao) {
+        if (posicao == posicaoMarca) {
+            linhaMarca = linhaCursor;
+            colunaMarca = posicao - inicioLinhaCursor + 1;
+        }
+        if (c == '\n') {
+            linhaCursor++;
+            inicioLinhaCursor = posicao + 1;
+        }
+    }
+
+    // === FÁBRICAS ===
+
+    /**
+     * Cria uma fonte sobre um texto já carregado em memória
+     *
+     * O texto não deve ser alterado enquanto a análise estiver em andamento.
+     */
+    public static FonteCaracteres deTexto(CharSequence texto) {
+        return new FonteTexto(texto);
+    }
+
+    /**
+     * Cria uma fonte com janela deslizante sobre um Reader
+     */
+    public static FonteCaracteres deLeitor(Reader leitor) {
+        return new FonteJanela(leitor, TAMANHO_JANELA_PADRAO);
+    }
+
+    /**
+     * Cria uma fonte com janela deslizante sobre a entrada padrão (UTF-8)
+     */
+    public static FonteCaracteres deEntradaPadrao() {
+        return deLeitor(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cria uma fonte sobre um arquivo inteiro mapeado em memória (UTF-8)
+     */
+    public static FonteCaracteres deArquivoMapeado(Path arquivo) throws IOException {
+        return deLeitor(new LeitorMapeado(arquivo, 0, Long.MAX_VALUE));
+    }
+
+    /**
+     * Cria uma fonte sobre uma região [inicio, inicio + tamanho) de um
+     * arquivo, em bytes, mapeada em memória e decodificada em UTF-8
+     */
+    public static FonteCaracteres deArquivoMapeado(Path arquivo, long inicio, long tamanho) throws IOException {
+        return deLeitor(new LeitorMapeado(arquivo, inicio, tamanho));
+    }
+}
@@ -0,0 +1,186 @@
+package lexico;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Fonte de caracteres com janela deslizante sobre um Reader
+ *
+ * Mantém em memória apenas os caracteres entre a última posição liberada
+ * pelo analisador e a última posição lida. Quando o analisador pede um
+ * caractere além da janela, o trecho já liberado é descartado, o restante
+ * é movido para o início do vetor e o Reader preenche o espaço livre.
+ *
+ * A janela só cresce quando um único token (por exemplo, um identificador
+ * gigante) não cabe nela; comentários, strings e espaços em branco são
+ * liberados pelo analisador à medida que são consumidos.
+ *
+ * As quebras de linha do trecho descartado são contadas antes do descarte,
+ * para que linhaDe() e colunaDe() continuem valendo nas posições seguintes.
+ *
+ */
+final class FonteJanela extends FonteCaracteres {
+
+    private final Reader leitor;    // Origem dos caracteres
+    private char[] janela;          // Caracteres atualmente em memória
+    private int base;               // Posição absoluta de janela[0]
+    private int limite;             // Quantidade de caracteres válidos na janela
+    private int liberado;           // Posições anteriores a esta podem ser descartadas
+    private boolean fimDoLeitor;    // O Reader já chegou ao fim
+
+    FonteJanela(Reader leitor, int tamanhoJanela) {
+        this.leitor = leitor;
+        this.janela = new char[tamanhoJanela];
+    }
+
+    @Override
+    public int caractereEm(int posicao) {
+        int indice = posicao - base;
+        if (indice < limite) {
+            if (indice < 0) {
+                throw new IllegalStateException("Posição " + posicao + " já foi descartada da janela");
+            }
+            return janela[indice];
+        }
+        return carregarAte(posicao);
+    }
+
+    @Override
+    public String trecho(int inicio, int fim) {
+        if (inicio < base || fim - base > limite) {
+            throw new IllegalStateException("Trecho [" + inicio + ", " + fim + ") fora da janela");
+        }
+        return new String(janela, inicio - base, fim - inicio);
+    }
+
+    @Override
+    public void copiar(int inicio, int fim, char[] vetor, int destino) {
+        if (inicio < base || fim - base > limite) {
+            throw new IllegalStateException("Trecho [" + inicio + ", " + fim + ") fora da janela");
+        }
+        System.arraycopy(janela, inicio - base, vetor, destino, fim - inicio);
+    }
+
+    @Override
+    public void liberarAte(int posicao) {
+        if (posicao > liberado) {
+            liberado = posicao;
+        }
+    }
+
+    // === VARREDURA EM BLOCO ===
+    // Laços diretos sobre o vetor da janela; ao chegar ao fim dos caracteres
+    // lidos, o trecho percorrido é liberado (exceto em procurar) antes de o
+    // Reader ser consultado de novo.
+
+    @Override
+    public int pularEspacos(int posicao) {
+        while (true) {
+            int indice = indiceNaJanela(posicao);
+            char[] caracteres = janela;
+            int fim = limite;
+            while (indice < fim && ehEspaco(caracteres[indice])) {
+                indice++;
+            }
+            posicao = base + indice;
+            liberarAte(posicao);
+            if (indice < fim || carregarAte(posicao) == FIM) {
+                return posicao;
+            }
+        }
+    }
+
+    @Override
+    public int procurar(char alvo, int posicao) {
+        while (true) {
+            int indice = indiceNaJanela(posicao);
+            char[] caracteres = janela;
+            int fim = limite;
+            while (indice < fim && caracteres[indice] != alvo) {
+                indice++;
+            }
+            posicao = base + indice;
+            if (indice < fim || carregarAte(posicao) == FIM) {
+                return posicao;
+            }
+        }
+    }
+
+    @Override
+    public int procurarFimComentario(int posicao) {
+        while (true) {
+            int indice = indiceNaJanela(posicao);
+            char[] caracteres = janela;
+            int fim = limite - 1;   // O par precisa caber na janela
+            while (indice < fim && (caracteres[indice] != '*' || caracteres[indice + 1] != '/')) {
+                indice++;
+            }
+            posicao = base + indice;
+            if (indice < fim) {
+                return posicao;
+            }
+            liberarAte(posicao);
+            if (carregarAte(posicao + 1) == FIM) {
+                // Não há par "*\/": o comentário vai até o fim
+                posicao = Math.max(posicao, base + limite);
+                liberarAte(posicao);
+                return posicao;
+            }
+        }
+    }
+
+    private int indiceNaJanela(int posicao) {
+        int indice = posicao - base;
+        if (indice < 0) {
+            throw new IllegalStateException("Posição " + posicao + " já foi descartada da janela");
+        }
+        return indice;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    /**
+     * Lê do Reader até que a posição esteja na janela ou o fim seja atingido
+     */
+    private int carregarAte(int posicao) {
+        while (posicao - base >= limite) {
+            if (fimDoLeitor) {
+                return FIM;
+            }
+            abrirEspaco();
+            try {
+                int lidos = leitor.read(janela, limite, janela.length - limite);
+                if (lidos < 0) {
+                    fimDoLeitor = true;
+                } else {
+                    limite += lidos;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return janela[posicao - base];
+    }
+
+    /**
+     * Descarta o trecho liberado e, se ainda assim a janela estiver cheia,
+     * dobra sua capacidade
+     */
+    private void abrirEspaco() {
+        int descartar = Math.min(liberado - base, limite);
+        if (descartar > 0) {
+            contarLinhasDescartadas(janela, base, base + descartar);
+            System.arraycopy(janela, descartar, janela, 0, limite - descartar);
+            base += descartar;
+            limite -= descartar;
+        }
+        if (limite == janela.length) {
+            janela = Arrays.copyOf(janela, janela.length * 2);
+        }
+    }
+}
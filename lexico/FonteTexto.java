@@ -0,0 +1,129 @@
+package lexico;
+
+/**
+ * Fonte de caracteres sobre um texto já carregado em memória
+ *
+ * Usada pelo construtor AnalisadorLexico(String) e pela interface gráfica.
+ * Como o texto inteiro está disponível, liberarAte() não tem efeito, e
+ * linha e coluna são consultadas em qualquer ordem através de um
+ * IndiceLinhas construído na primeira consulta.
+ *
+ */
+final class FonteTexto extends FonteCaracteres {
+
+    private final CharSequence texto;   // Código fonte completo
+    private final int comprimento;      // Tamanho fixado na criação
+    private IndiceLinhas indiceLinhas;  // Construído na primeira consulta de linha/coluna
+
+    FonteTexto(CharSequence texto) {
+        this.texto = texto;
+        this.comprimento = texto.length();
+    }
+
+    /**
+     * Texto completo (usado pelo SpliteradorTokens para dividir a análise)
+     */
+    CharSequence texto() {
+        return texto;
+    }
+
+    @Override
+    public int caractereEm(int posicao) {
+        if (posicao >= comprimento) {
+            return FIM;
+        }
+        return texto.charAt(posicao);
+    }
+
+    @Override
+    public String trecho(int inicio, int fim) {
+        return texto.subSequence(inicio, fim).toString();
+    }
+
+    // === VARREDURA EM BLOCO ===
+    // String.indexOf é intrínseco na HotSpot (comparação vetorial de vários
+    // caracteres por instrução); StringBuilder.indexOf usa a mesma busca.
+
+    // Espaços não têm busca intrínseca equivalente (são vários caracteres
+    // alvo, em trechos curtos): um único laço atende a todos os textos.
+    @Override
+    public int pularEspacos(int posicao) {
+        while (posicao < comprimento && ehEspaco(texto.charAt(posicao))) {
+            posicao++;
+        }
+        return posicao;
+    }
+
+    @Override
+    public int procurar(char alvo, int posicao) {
+        if (texto instanceof String) {
+            return limitar(((String) texto).indexOf(alvo, posicao));
+        }
+        if (texto instanceof StringBuilder) {
+            return limitar(((StringBuilder) texto).indexOf(String.valueOf(alvo), posicao));
+        }
+        while (posicao < comprimento && texto.charAt(posicao) != alvo) {
+            posicao++;
+        }
+        return posicao;
+    }
+
+    @Override
+    public int procurarFimComentario(int posicao) {
+        if (texto instanceof String) {
+            return limitar(((String) texto).indexOf("*/", posicao));
+        }
+        if (texto instanceof StringBuilder) {
+            return limitar(((StringBuilder) texto).indexOf("*/", posicao));
+        }
+        while (posicao + 1 < comprimento) {
+            if (texto.charAt(posicao) == '*' && texto.charAt(posicao + 1) == '/') {
+                return posicao;
+            }
+            posicao++;
+        }
+        return comprimento;
+    }
+
+    /**
+     * Converte o resultado de indexOf (-1 se não encontrado) na posição do fim
+     */
+    private int limitar(int encontrado) {
+        return encontrado < 0 || encontrado > comprimento ? comprimento : encontrado;
+    }
+
+    @Override
+    public void copiar(int inicio, int fim, char[] vetor, int destino) {
+        if (texto instanceof String) {
+            ((String) texto).getChars(inicio, fim, vetor, destino);
+        } else if (texto instanceof StringBuilder) {
+            ((StringBuilder) texto).getChars(inicio, fim, vetor, destino);
+        } else {
+            super.copiar(inicio, fim, vetor, destino);
+        }
+    }
+
+    @Override
+    public int linhaDe(int posicao) {
+        return indiceLinhas().linha(posicao);
+    }
+
+    @Override
+    public int colunaDe(int posicao) {
+        return indiceLinhas().coluna(posicao);
+    }
+
+    @Override
+    public void marcar(int posicao) {
+        // Todo o texto continua disponível: nada a preservar
+    }
+
+    private IndiceLinhas indiceLinhas() {
+        if (indiceLinhas == null) {
+            // Arquivos mapeados usam o índice esparso, que não ocupa um int por linha
+            indiceLinhas = texto instanceof TextoMapeado ? ((TextoMapeado) texto).indiceLinhas()
+                                                         : IndiceLinhas.de(texto);
+        }
+        return indiceLinhas;
+    }
+}
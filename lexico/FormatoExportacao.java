@@ -0,0 +1,63 @@
+package lexico;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de exportação dos tokens (ver ExportadorTokens)
+ *
+ */
+public enum FormatoExportacao {
+
+    /** Formato padrão do compilador: uma linha "<lexema, tipo>" por token, seguida do relatório */
+    TEXTO("texto", ".txt"),
+
+    /** Um objeto JSON por linha: tokens e, ao final, os erros léxicos */
+    JSON_LINHAS("jsonl", ".jsonl"),
+
+    /** Tabela CSV (RFC 4180) com cabeçalho; contém apenas os tokens */
+    CSV("csv", ".csv"),
+
+    /** Arquivo binário compacto (ver ExportadorBinario e LeitorTokensBinario) */
+    BINARIO("binario", ".tokb");
+
+    /** Nome usado na linha de comando */
+    public final String nome;
+
+    /** Extensão dos arquivos gerados */
+    public final String extensao;
+
+    FormatoExportacao(String nome, String extensao) {
+        this.nome = nome;
+        this.extensao = extensao;
+    }
+
+    /**
+     * Formato correspondente ao nome da linha de comando, ou null se não existir
+     */
+    public static FormatoExportacao porNome(String nome) {
+        for (FormatoExportacao formato : values()) {
+            if (formato.nome.equalsIgnoreCase(nome)) {
+                return formato;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Formato deduzido da extensão do arquivo de destino (TEXTO se desconhecida)
+     */
+    public static FormatoExportacao porArquivo(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".jsonl") || nome.endsWith(".json")) {
+            return JSON_LINHAS;
+        }
+        if (nome.endsWith(".csv")) {
+            return CSV;
+        }
+        if (nome.endsWith(".tokb")) {
+            return BINARIO;
+        }
+        return TEXTO;
+    }
+}
@@ -0,0 +1,176 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hash de 64 bits do conteúdo de um código fonte (algoritmo XXH64)
+ *
+ * Identifica a fonte de um arquivo de tokens binário: o hash é sempre
+ * calculado sobre os bytes UTF-8, de modo que um arquivo e o mesmo texto
+ * carregado na tela têm o mesmo hash. Processa 32 bytes por iteração,
+ * lidos como long, e é incremental (atualizar() pode ser chamado com
+ * pedaços de qualquer tamanho).
+ *
+ */
+public final class HashConteudo {
+
+    private static final long PRIMO1 = 0x9E3779B185EBCA87L;
+    private static final long PRIMO2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIMO3 = 0x165667B19E3779F9L;
+    private static final long PRIMO4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIMO5 = 0x27D4EB2F165667C5L;
+
+    // Tamanho de cada segmento mapeado ao calcular o hash de um arquivo
+    private static final long TAMANHO_SEGMENTO = 64L * 1024 * 1024;
+
+    private long v1 = PRIMO1 + PRIMO2;
+    private long v2 = PRIMO2;
+    private long v3 = 0;
+    private long v4 = -PRIMO1;
+    private long total;                                 // Bytes recebidos
+    private final ByteBuffer pendente =                 // Bytes que ainda não completam 32
+        ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Hash dos bytes de um arquivo, lido por mapeamento em memória
+     */
+    public static long deArquivo(Path arquivo) throws IOException {
+        HashConteudo hash = new HashConteudo();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            for (long inicio = 0; inicio < tamanho; inicio += TAMANHO_SEGMENTO) {
+                MappedByteBuffer segmento = canal.map(FileChannel.MapMode.READ_ONLY, inicio,
+                                                      Math.min(TAMANHO_SEGMENTO, tamanho - inicio));
+                hash.atualizar(segmento);
+            }
+        }
+        return hash.valor();
+    }
+
+    /**
+     * Hash da codificação UTF-8 de um texto
+     */
+    public static long deTexto(CharSequence texto) {
+        HashConteudo hash = new HashConteudo();
+        CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer entrada = CharBuffer.wrap(texto);
+        ByteBuffer saida = ByteBuffer.allocate(64 * 1024);
+        while (true) {
+            CoderResult resultado = codificador.encode(entrada, saida, true);
+            saida.flip();
+            hash.atualizar(saida);
+            saida.clear();
+            if (resultado.isUnderflow()) {
+                break;
+            }
+        }
+        while (codificador.flush(saida) == CoderResult.OVERFLOW) {
+            saida.flip();
+            hash.atualizar(saida);
+            saida.clear();
+        }
+        saida.flip();
+        hash.atualizar(saida);
+        return hash.valor();
+    }
+
+    /**
+     * Acrescenta ao hash os bytes restantes do buffer (o buffer é consumido)
+     */
+    public void atualizar(ByteBuffer dados) {
+        ByteBuffer entrada = dados.order() == ByteOrder.LITTLE_ENDIAN ? dados
+                           : dados.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        total += entrada.remaining();
+
+        // Completar o bloco pendente
+        if (pendente.position() > 0) {
+            while (pendente.hasRemaining() && entrada.hasRemaining()) {
+                pendente.put(entrada.get());
+            }
+            if (pendente.hasRemaining()) {
+                dados.position(entrada.position());
+                return;
+            }
+            pendente.flip();
+            processarBloco(pendente);
+            pendente.clear();
+        }
+
+        // Blocos completos diretamente do buffer de entrada
+        while (entrada.remaining() >= 32) {
+            processarBloco(entrada);
+        }
+        pendente.put(entrada);
+        dados.position(dados.limit());
+    }
+
+    /**
+     * Valor do hash dos bytes recebidos até agora
+     */
+    public long valor() {
+        long h;
+        if (total >= 32) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = misturar(h, v1);
+            h = misturar(h, v2);
+            h = misturar(h, v3);
+            h = misturar(h, v4);
+        } else {
+            h = PRIMO5;
+        }
+        h += total;
+
+        ByteBuffer resto = pendente.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        resto.flip();
+        while (resto.remaining() >= 8) {
+            h ^= rodada(0, resto.getLong());
+            h = Long.rotateLeft(h, 27) * PRIMO1 + PRIMO4;
+        }
+        if (resto.remaining() >= 4) {
+            h ^= (resto.getInt() & 0xFFFFFFFFL) * PRIMO1;
+            h = Long.rotateLeft(h, 23) * PRIMO2 + PRIMO3;
+        }
+        while (resto.hasRemaining()) {
+            h ^= (resto.get() & 0xFF) * PRIMO5;
+            h = Long.rotateLeft(h, 11) * PRIMO1;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIMO2;
+        h ^= h >>> 29;
+        h *= PRIMO3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private void processarBloco(ByteBuffer bloco) {
+        v1 = rodada(v1, bloco.getLong());
+        v2 = rodada(v2, bloco.getLong());
+        v3 = rodada(v3, bloco.getLong());
+        v4 = rodada(v4, bloco.getLong());
+    }
+
+    private static long rodada(long acumulador, long entrada) {
+        acumulador += entrada * PRIMO2;
+        acumulador = Long.rotateLeft(acumulador, 31);
+        return acumulador * PRIMO1;
+    }
+
+    private static long misturar(long acumulador, long valor) {
+        acumulador ^= rodada(0, valor);
+        return acumulador * PRIMO1 + PRIMO4;
+    }
+}
@@ -0,0 +1,189 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Índice das posições de início de cada linha de um texto
+ *
+ * Os tokens guardam apenas a posição inicial (índice do caractere); linha
+ * e coluna são calculadas sob demanda por busca binária neste índice. O
+ * índice é construído com uma única varredura pelas quebras de linha ('\n'),
+ * e ocupa um int por linha.
+ *
+ * Para textos muito grandes (arquivos mapeados), o índice esparso guarda
+ * apenas o início de uma a cada "passo" linhas; as demais são encontradas
+ * percorrendo o texto a partir do início guardado mais próximo.
+ *
+ * Linhas e colunas começam em 1. A coluna conta caracteres (char) desde o
+ * início da linha; um '\r' antes do '\n' pertence à linha que termina.
+ *
+ */
+public final class IndiceLinhas {
+
+    private final CharSequence texto;   // Texto indexado (consultado apenas no índice esparso)
+    private final int[] inicios;        // inicios[i] = posição do primeiro caractere da linha i * passo + 1
+    private final int entradas;         // Quantidade de posições válidas em inicios
+    private final int passo;            // Linhas entre duas entradas (1: índice completo)
+    private final int quantidade;       // Quantidade de linhas (no mínimo 1)
+    private final int comprimento;      // Tamanho do texto indexado
+
+    private IndiceLinhas(CharSequence texto, int[] inicios, int entradas, int passo, int quantidade, int comprimento) {
+        this.texto = texto;
+        this.inicios = inicios;
+        this.entradas = entradas;
+        this.passo = passo;
+        this.quantidade = quantidade;
+        this.comprimento = comprimento;
+    }
+
+    /**
+     * Constrói o índice de um texto
+     */
+    public static IndiceLinhas de(CharSequence texto) {
+        int comprimento = texto.length();
+        int[] inicios = new int[Math.max(16, comprimento / 32)];
+        int quantidade = 1; // A primeira linha começa na posição 0
+
+        if (texto instanceof String) {
+            // indexOf é intrínseco na JVM e bem mais rápido que charAt em laço
+            String s = (String) texto;
+            int quebra = s.indexOf('\n');
+            while (quebra >= 0) {
+                if (quantidade == inicios.length) {
+                    inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                }
+                inicios[quantidade++] = quebra + 1;
+                quebra = s.indexOf('\n', quebra + 1);
+            }
+        } else {
+            for (int i = 0; i < comprimento; i++) {
+                if (texto.charAt(i) == '\n') {
+                    if (quantidade == inicios.length) {
+                        inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                    }
+                    inicios[quantidade++] = i + 1;
+                }
+            }
+        }
+        return new IndiceLinhas(null, inicios, quantidade, 1, quantidade, comprimento);
+    }
+
+    /**
+     * Constrói um índice esparso, que guarda o início de uma a cada "passo" linhas
+     *
+     * O texto continua sendo consultado pelo índice; ele não deve mudar nem
+     * ser usado por outra thread ao mesmo tempo (ver comTexto).
+     */
+    public static IndiceLinhas esparso(CharSequence texto, int passo) {
+        if (passo <= 1) {
+            return de(texto);
+        }
+        int comprimento = texto.length();
+        int[] inicios = new int[16];
+        int entradas = 1;   // A primeira linha começa na posição 0
+        int quantidade = 1;
+        for (int i = 0; i < comprimento; i++) {
+            if (texto.charAt(i) == '\n') {
+                if (quantidade % passo == 0) {
+                    if (entradas == inicios.length) {
+                        inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                    }
+                    inicios[entradas++] = i + 1;
+                }
+                quantidade++;
+            }
+        }
+        return new IndiceLinhas(texto, inicios, entradas, passo, quantidade, comprimento);
+    }
+
+    /**
+     * Mesmo índice, consultando outra instância de um texto idêntico
+     *
+     * Permite que cada thread use a sua própria cópia de um texto que não é
+     * seguro para acesso concorrente (como TextoMapeado) sem varrê-lo de novo.
+     */
+    IndiceLinhas comTexto(CharSequence outroTexto) {
+        return passo == 1 ? this : new IndiceLinhas(outroTexto, inicios, entradas, passo, quantidade, comprimento);
+    }
+
+    /**
+     * Linha (começando em 1) da posição informada
+     */
+    public int linha(int posicao) {
+        if (posicao < 0) {
+            throw new IndexOutOfBoundsException("Posição negativa: " + posicao);
+        }
+        int entrada = entrada(posicao);
+        int linha = entrada * passo + 1;
+        int fim = Math.min(posicao, comprimento);
+        for (int i = inicios[entrada]; i < fim && passo > 1; i++) {
+            if (texto.charAt(i) == '\n') {
+                linha++;
+            }
+        }
+        return linha;
+    }
+
+    /**
+     * Coluna (começando em 1) da posição informada
+     */
+    public int coluna(int posicao) {
+        if (passo == 1) {
+            return posicao - inicios[linha(posicao) - 1] + 1;
+        }
+        // Procurar para trás a quebra de linha anterior (no máximo até a entrada)
+        int limite = inicios[entrada(posicao)];
+        int inicio = Math.min(posicao, comprimento);
+        while (inicio > limite && texto.charAt(inicio - 1) != '\n') {
+            inicio--;
+        }
+        return posicao - inicio + 1;
+    }
+
+    /**
+     * Posição do primeiro caractere da linha informada (começando em 1)
+     */
+    public int inicioLinha(int linha) {
+        if (linha < 1 || linha > quantidade) {
+            throw new IndexOutOfBoundsException("Linha inexistente: " + linha);
+        }
+        int inicio = inicios[(linha - 1) / passo];
+        for (int restantes = (linha - 1) % passo; restantes > 0; inicio++) {
+            if (texto.charAt(inicio) == '\n') {
+                restantes--;
+            }
+        }
+        return inicio;
+    }
+
+    /**
+     * Posição logo após o último caractere da linha (sem a quebra de linha)
+     */
+    public int fimLinha(int linha) {
+        if (linha >= quantidade) {
+            inicioLinha(linha); // Validar a linha
+            return comprimento;
+        }
+        if (passo == 1) {
+            return inicioLinha(linha + 1) - 1;
+        }
+        int fim = inicioLinha(linha);
+        while (texto.charAt(fim) != '\n') {
+            fim++;
+        }
+        return fim;
+    }
+
+    public int quantidadeLinhas() {
+        return quantidade;
+    }
+
+    /**
+     * Índice da última entrada que começa até a posição informada
+     */
+    private int entrada(int posicao) {
+        int indice = Arrays.binarySearch(inicios, 0, entradas, posicao);
+        // Sem casamento exato: a entrada é a do maior início menor que a posição
+        return indice >= 0 ? indice : -indice - 2;
+    }
+}
@@ -0,0 +1,88 @@
+package lexico;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader que decodifica (UTF-8) uma região de arquivo mapeada em memória
+ *
+ * A região é mapeada em segmentos de tamanho fixo, um de cada vez, de modo
+ * que arquivos maiores que o limite de um MappedByteBuffer também podem ser
+ * lidos. Um caractere multibyte cortado no fim de um segmento é decodificado
+ * no início do segmento seguinte.
+ *
+ */
+final class LeitorMapeado extends Reader {
+
+    // Tamanho de cada segmento mapeado (em bytes)
+    private static final long TAMANHO_SEGMENTO = 64L * 1024 * 1024;
+
+    private final FileChannel canal;
+    private final CharsetDecoder decodificador;
+    private final long fimRegiao;       // Posição em bytes do fim da região
+    private long inicioSegmento;        // Posição em bytes do segmento atual
+    private MappedByteBuffer segmento;  // Segmento atualmente mapeado
+    private boolean finalizado;         // Decodificador já recebeu o fim da entrada
+
+    LeitorMapeado(Path arquivo, long inicio, long tamanho) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        long tamanhoArquivo = canal.size();
+        long fim = tamanho > tamanhoArquivo - inicio ? tamanhoArquivo : inicio + tamanho;
+        this.fimRegiao = Math.max(inicio, fim);
+        this.inicioSegmento = inicio;
+        this.decodificador = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        mapearSegmento();
+    }
+
+    @Override
+    public int read(char[] destino, int deslocamento, int quantidade) throws IOException {
+        if (quantidade == 0) {
+            return 0;
+        }
+        CharBuffer saida = CharBuffer.wrap(destino, deslocamento, quantidade);
+        while (saida.position() == deslocamento) {
+            boolean ultimoSegmento = inicioSegmento + segmento.limit() >= fimRegiao;
+            if (!finalizado) {
+                CoderResult resultado = decodificador.decode(segmento, saida, ultimoSegmento);
+                if (resultado.isOverflow()) {
+                    break;
+                }
+                if (!ultimoSegmento) {
+                    // Segmento consumido (restam no máximo os bytes de um caractere cortado)
+                    inicioSegmento += segmento.position();
+                    mapearSegmento();
+                    continue;
+                }
+                finalizado = true;
+            }
+            decodificador.flush(saida);
+            break;
+        }
+        int lidos = saida.position() - deslocamento;
+        return lidos == 0 && finalizado ? -1 : lidos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Mapeia o próximo segmento da região a partir de inicioSegmento
+     */
+    private void mapearSegmento() throws IOException {
+        long tamanho = Math.min(TAMANHO_SEGMENTO, fimRegiao - inicioSegmento);
+        segmento = canal.map(FileChannel.MapMode.READ_ONLY, inicioSegmento, tamanho);
+    }
+}
@@ -0,0 +1,388 @@
+package lexico;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de arquivos de tokens no formato binário (ver ExportadorBinario)
+ *
+ * O arquivo é mapeado em memória e lido diretamente do MappedByteBuffer,
+ * sem cópia: os tokens são decodificados um a um por um cursor
+ * (proximo()), e cada lexema da tabela só vira String quando é pedido
+ * pela primeira vez. Nenhuma análise léxica é refeita, de modo que as
+ * fases seguintes do compilador carregam uma análise salva sem precisar
+ * do código fonte nem do arquivo de texto de tokens.
+ *
+ * O arquivo não é confiável (pode estar truncado ou corrompido): abrir()
+ * confere o cabeçalho, a tabela de lexemas, todos os tokens e a seção de
+ * erros, em uma passada sem alocações por token, e lança
+ * IOException("Arquivo de tokens corrompido ...") em qualquer
+ * inconsistência. Depois disso, o cursor e as demais consultas não falham.
+ *
+ * Uso:
+ *   LeitorTokensBinario leitor = LeitorTokensBinario.abrir(arquivo);
+ *   while (leitor.proximo()) {
+ *       ... leitor.tipo(), leitor.lexema(), leitor.posicao() ...
+ *   }
+ *
+ */
+public final class LeitorTokensBinario {
+
+    private static final TipoToken[] TIPOS = TipoToken.values();
+    private static final Diagnostico.Tipo[] TIPOS_DIAGNOSTICO = Diagnostico.Tipo.values();
+
+    private final MappedByteBuffer dados;
+    private final long hashFonte;
+    private final long quantidadeTokens;
+    private final int inicioDiagnosticos;
+    private final int fimTokens;            // Fim da seção de tokens (início da seção seguinte)
+    private final int inicioTabela;
+    private final int[] inicioLexemas;      // Posição de cada lexema (após o varint de tamanho)
+    private final int[] tamanhoLexemas;     // Bytes de cada lexema
+    private final String[] lexemas;         // Lexemas já decodificados
+
+    // Cursor
+    private int leitura;                    // Próximo byte a ler
+    private long lidos;                     // Tokens já lidos
+    private long fimAnterior;
+    private TipoToken tipo;
+    private int posicao;
+    private int comprimento;
+    private int idLexema;
+
+    private LeitorTokensBinario(MappedByteBuffer dados) throws IOException {
+        this.dados = dados;
+        if (dados.limit() < ExportadorBinario.TAMANHO_CABECALHO
+                || dados.getInt(0) != ExportadorBinario.MAGICO) {
+            throw new IOException("Não é um arquivo de tokens binário");
+        }
+        if (dados.getInt(4) != ExportadorBinario.VERSAO) {
+            throw new IOException("Versão do arquivo de tokens não suportada: " + dados.getInt(4));
+        }
+        this.hashFonte = dados.getLong(8);
+        this.quantidadeTokens = dados.getLong(16);
+        long diagnosticos = dados.getLong(24);
+        this.inicioTabela = posicaoValida(dados.getLong(32), ExportadorBinario.TAMANHO_CABECALHO);
+        this.inicioDiagnosticos = diagnosticos == 0 ? 0 : posicaoValida(diagnosticos, ExportadorBinario.TAMANHO_CABECALHO);
+        if (inicioDiagnosticos > inicioTabela) {
+            throw corrompido("seções fora de ordem");
+        }
+        this.fimTokens = inicioDiagnosticos != 0 ? inicioDiagnosticos : inicioTabela;
+        // Cada token ocupa ao menos 4 bytes, e cada lexema ao menos 1
+        if (quantidadeTokens < 0 || quantidadeTokens > (fimTokens - ExportadorBinario.TAMANHO_CABECALHO) / 4) {
+            throw corrompido("quantidade de tokens " + quantidadeTokens);
+        }
+        int quantidadeLexemas = dados.getInt(40);
+        if (quantidadeLexemas < 0 || quantidadeLexemas > dados.limit() - inicioTabela) {
+            throw corrompido("quantidade de lexemas " + quantidadeLexemas);
+        }
+
+        // Índice da tabela de lexemas (apenas posições; os lexemas são decodificados sob demanda)
+        inicioLexemas = new int[quantidadeLexemas];
+        tamanhoLexemas = new int[quantidadeLexemas];
+        lexemas = new String[quantidadeLexemas];
+        leitura = inicioTabela;
+        for (int i = 0; i < quantidadeLexemas; i++) {
+            long tamanho = lerVarint(dados.limit());
+            if (tamanho > dados.limit() - leitura) {
+                throw corrompido("lexema " + i + " além do fim do arquivo");
+            }
+            tamanhoLexemas[i] = (int) tamanho;
+            inicioLexemas[i] = leitura;
+            leitura += tamanhoLexemas[i];
+        }
+        if (leitura != dados.limit()) {
+            throw corrompido("bytes sobrando após a tabela de lexemas");
+        }
+
+        // Todos os tokens e a seção de erros, antes de entregar o leitor
+        reiniciar();
+        while (avancar()) {
+            // Apenas conferindo
+        }
+        if (leitura != fimTokens) {
+            throw corrompido("bytes sobrando após o último token");
+        }
+        decodificarDiagnosticos();
+        reiniciar();
+    }
+
+    /**
+     * Mapeia um arquivo de tokens binário
+     */
+    public static LeitorTokensBinario abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo de tokens grande demais: " + canal.size() + " bytes");
+            }
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            dados.order(ByteOrder.LITTLE_ENDIAN);
+            return new LeitorTokensBinario(dados);
+        }
+    }
+
+    // === CABEÇALHO ===
+
+    /**
+     * Hash dos bytes do código fonte que originou os tokens (HashConteudo)
+     */
+    public long getHashFonte() {
+        return hashFonte;
+    }
+
+    public long getQuantidadeTokens() {
+        return quantidadeTokens;
+    }
+
+    public int getQuantidadeLexemas() {
+        return lexemas.length;
+    }
+
+    // === CURSOR ===
+
+    /**
+     * Volta o cursor para antes do primeiro token
+     */
+    public void reiniciar() {
+        leitura = ExportadorBinario.TAMANHO_CABECALHO;
+        lidos = 0;
+        fimAnterior = 0;
+        tipo = null;
+    }
+
+    /**
+     * Avança para o próximo token
+     *
+     * @return false no fim dos tokens
+     */
+    public boolean proximo() {
+        try {
+            return avancar();
+        } catch (IOException e) {
+            // Impossível: todos os tokens foram conferidos em abrir()
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean avancar() throws IOException {
+        if (lidos == quantidadeTokens) {
+            tipo = null;
+            return false;
+        }
+        long ordinal = lerVarint(fimTokens);
+        long inicio = fimAnterior + lerVarint(fimTokens);
+        long caracteres = lerVarint(fimTokens);
+        long lexema = lerVarint(fimTokens);
+        if (ordinal >= TIPOS.length || inicio > Integer.MAX_VALUE || caracteres > Integer.MAX_VALUE - inicio
+                || lexema >= lexemas.length) {
+            throw corrompido("token " + lidos);
+        }
+        tipo = TIPOS[(int) ordinal];
+        posicao = (int) inicio;
+        comprimento = (int) caracteres;
+        idLexema = (int) lexema;
+        fimAnterior = inicio + caracteres;
+        lidos++;
+        return true;
+    }
+
+    public TipoToken tipo() {
+        return tipo;
+    }
+
+    /**
+     * Posição do token atual no código fonte
+     */
+    public int posicao() {
+        return posicao;
+    }
+
+    /**
+     * Caracteres ocupados pelo token atual no código fonte
+     */
+    public int comprimento() {
+        return comprimento;
+    }
+
+    /**
+     * Índice do lexema do token atual na tabela (lexemas iguais têm o mesmo índice)
+     */
+    public int idLexema() {
+        return idLexema;
+    }
+
+    public String lexema() {
+        return lexema(idLexema);
+    }
+
+    /**
+     * Lê o próximo token como objeto Token, ou null no fim
+     */
+    public Token proximoToken() {
+        return proximo() ? new Token(tipo, lexema(), posicao, comprimento) : null;
+    }
+
+    // === CONTEÚDO COMPLETO ===
+
+    /**
+     * Lexema da tabela, decodificado na primeira consulta
+     */
+    public String lexema(int id) {
+        String lexema = lexemas[id];
+        if (lexema == null) {
+            lexema = decodificarCesu8(inicioLexemas[id], tamanhoLexemas[id]);
+            lexemas[id] = lexema;
+        }
+        return lexema;
+    }
+
+    /**
+     * Todos os tokens em um BufferTokens (os lexemas vêm do código fonte original)
+     */
+    public BufferTokens paraBuffer() {
+        if (quantidadeTokens > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Tokens demais para um BufferTokens: " + quantidadeTokens);
+        }
+        BufferTokens buffer = new BufferTokens((int) Math.max(16, quantidadeTokens));
+        int salvo = leitura;
+        long salvoLidos = lidos;
+        long salvoFim = fimAnterior;
+        reiniciar();
+        while (proximo()) {
+            buffer.adicionar(tipo, posicao, comprimento);
+        }
+        leitura = salvo;
+        lidos = salvoLidos;
+        fimAnterior = salvoFim;
+        return buffer;
+    }
+
+    /**
+     * Erros léxicos gravados com os tokens (coletor vazio se não houver)
+     */
+    public ColetorDiagnosticos diagnosticos() {
+        try {
+            return decodificarDiagnosticos();
+        } catch (IOException e) {
+            // Impossível: a seção foi conferida em abrir()
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ColetorDiagnosticos decodificarDiagnosticos() throws IOException {
+        if (inicioDiagnosticos == 0) {
+            return new ColetorDiagnosticos();
+        }
+        int salvo = leitura;
+        int fim = inicioTabela;
+        leitura = inicioDiagnosticos;
+        long totalDesconhecidos = lerVarint(fim);
+        long descartados = lerVarint(fim);
+        long[] totais = new long[quantidadeValida(lerVarint(fim), fim)];
+        for (int i = 0; i < totais.length; i++) {
+            totais[i] = lerVarint(fim);
+        }
+        int quantidade = quantidadeValida(lerVarint(fim), fim);
+        List<Diagnostico> retidos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            long ordinal = lerVarint(fim);
+            long posicaoDiagnostico = lerVarint(fim);
+            long linha = lerVarint(fim);
+            long coluna = lerVarint(fim);
+            long comprimentoDiagnostico = lerVarint(fim);
+            long trecho = lerVarint(fim);
+            if (ordinal >= TIPOS_DIAGNOSTICO.length || posicaoDiagnostico > Integer.MAX_VALUE
+                    || linha > Integer.MAX_VALUE || coluna > Integer.MAX_VALUE
+                    || comprimentoDiagnostico > Integer.MAX_VALUE || trecho >= lexemas.length) {
+                throw corrompido("erro léxico " + i);
+            }
+            retidos.add(new Diagnostico(TIPOS_DIAGNOSTICO[(int) ordinal], (int) posicaoDiagnostico, (int) linha,
+                                        (int) coluna, (int) comprimentoDiagnostico, lexema((int) trecho)));
+        }
+        char[] caracteres = new char[quantidadeValida(lerVarint(fim), fim)];
+        int[] ocorrencias = new int[caracteres.length];
+        for (int i = 0; i < caracteres.length; i++) {
+            long caractere = lerVarint(fim);
+            long vezes = lerVarint(fim);
+            if (caractere > Character.MAX_VALUE || vezes > Integer.MAX_VALUE) {
+                throw corrompido("histograma de caracteres");
+            }
+            caracteres[i] = (char) caractere;
+            ocorrencias[i] = (int) vezes;
+        }
+        leitura = salvo;
+        return ColetorDiagnosticos.restaurar(retidos, totais, totalDesconhecidos, descartados, caracteres, ocorrencias);
+    }
+
+    // === DECODIFICAÇÃO ===
+
+    /**
+     * Lê um varint que deve terminar antes de 'fim'
+     */
+    private long lerVarint(int fim) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            if (leitura >= fim) {
+                throw corrompido("varint além do fim da seção");
+            }
+            byte b = dados.get(leitura++);
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if (b >= 0) {
+                if (valor < 0) {
+                    throw corrompido("varint fora do intervalo");
+                }
+                return valor;
+            }
+        }
+        throw corrompido("varint longo demais");
+    }
+
+    /**
+     * Quantidade de itens de uma lista: cada item ocupa ao menos um byte da seção
+     */
+    private int quantidadeValida(long quantidade, int fim) throws IOException {
+        if (quantidade > fim - leitura) {
+            throw corrompido("quantidade " + quantidade);
+        }
+        return (int) quantidade;
+    }
+
+    private String decodificarCesu8(int inicio, int tamanho) {
+        char[] caracteres = new char[tamanho];
+        int n = 0;
+        int i = inicio;
+        int fim = inicio + tamanho;
+        while (i < fim) {
+            int b = dados.get(i++) & 0xFF;
+            if (b < 0x80) {
+                caracteres[n++] = (char) b;
+            } else if (b < 0xE0) {
+                int b2 = i < fim ? dados.get(i++) & 0x3F : 0;   // Sequência truncada: bytes ausentes valem 0
+                caracteres[n++] = (char) (((b & 0x1F) << 6) | b2);
+            } else {
+                int b2 = i < fim ? dados.get(i++) & 0x3F : 0;
+                int b3 = i < fim ? dados.get(i++) & 0x3F : 0;
+                caracteres[n++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | b3);
+            }
+        }
+        return new String(caracteres, 0, n);
+    }
+
+    private int posicaoValida(long posicao, int minimo) throws IOException {
+        if (posicao < minimo || posicao > dados.limit()) {
+            throw corrompido("posição " + posicao);
+        }
+        return (int) posicao;
+    }
+
+    private static IOException corrompido(String detalhe) {
+        return new IOException("Arquivo de tokens corrompido (" + detalhe + ")");
+    }
+}
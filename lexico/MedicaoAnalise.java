@@ -0,0 +1,245 @@
+package lexico;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Instrumentação de uma análise léxica: eventos do JFR e contadores das
+ * MetricasLexico
+ *
+ * Criada pelo analisador na primeira chamada de reconhecimento apenas se
+ * as métricas estiverem ligadas ou se algum dos eventos estiver habilitado
+ * em uma gravação do JFR; caso contrário iniciar() retorna null e o
+ * analisador não mede nada. Os contadores são locais à análise (sem
+ * sincronização por token) e são somados às métricas ao concluir.
+ *
+ * Cada análise lógica é registrada uma única vez:
+ * - ao chegar ao fim do código fonte, ou em AnalisadorLexico.concluir()
+ *   (análise interrompida, cancelada ou que termina antes do fim);
+ * - partes analisadas em outras threads (SpliteradorTokens) recebem uma
+ *   medição de parte(), somada à principal ao concluir; a análise é
+ *   registrada quando a principal e todas as partes tiverem concluído;
+ * - análises compostas de analisadores internos (AnalisadorParalelo)
+ *   desligam a medição desses analisadores e registram os tokens do
+ *   resultado com tokens(); nelas os caracteres de comentário não são
+ *   contados, e a alocação não é medida.
+ *
+ */
+final class MedicaoAnalise {
+
+    private final MotorLexico motor;
+    private final MedicaoAnalise principal;     // Análise da qual esta é uma parte (null: ela mesma)
+    private final int inicio;                   // Posição em que a análise começou
+    private final boolean metricas;             // Somar às MetricasLexico ao concluir
+    private final EventoAnaliseLexica evento;   // null se o evento não está habilitado
+    private EventoTokenLento eventoToken;       // Reaproveitado até ser gravado (null se desabilitado)
+
+    private final long[] tokensPorTipo = new long[TipoToken.values().length];
+    private long caracteresComentarios;
+
+    private final long inicioNanos;
+    private final Thread thread;                // Thread cuja alocação é medida
+    private long alocadosAntes;                 // -1 se a JVM não mede alocação por thread
+
+    // Totais da análise e das suas partes (apenas na principal; protegidos pelo seu monitor)
+    private long[] totalTokensPorTipo;
+    private long totalCaracteres;
+    private long totalComentarios;
+    private long totalErros;
+    private long totalDesconhecidos;
+    private long totalAlocados = -1;
+    private int partesPendentes;
+    private boolean comPartes;                  // Partes em outras threads: alocação não medida
+    private boolean concluida;
+
+    private MedicaoAnalise(MotorLexico motor, MedicaoAnalise principal, int inicio, boolean metricas,
+                           boolean eventoAnalise, boolean eventoToken) {
+        this.motor = motor;
+        this.principal = principal;
+        this.inicio = inicio;
+        this.metricas = metricas;
+        this.evento = eventoAnalise ? new EventoAnaliseLexica() : null;
+        this.eventoToken = eventoToken ? new EventoTokenLento() : null;
+        this.thread = Thread.currentThread();
+        this.alocadosAntes = metricas ? bytesAlocados(thread) : -1;
+        this.inicioNanos = System.nanoTime();
+        if (evento != null) {
+            evento.begin();
+        }
+    }
+
+    /**
+     * Inicia a medição de uma análise, ou retorna null se nada está sendo coletado
+     */
+    static MedicaoAnalise iniciar(MotorLexico motor, int posicao) {
+        boolean metricas = MetricasLexico.coletando();
+        // Sem gravação do JFR iniciada no processo, nenhum evento pode estar habilitado
+        boolean jfr = FlightRecorder.isInitialized();
+        boolean eventoAnalise = jfr && TiposEvento.ANALISE.isEnabled();
+        boolean eventoToken = jfr && TiposEvento.TOKEN_LENTO.isEnabled();
+        if (!metricas && !eventoAnalise && !eventoToken) {
+            return null;
+        }
+        return new MedicaoAnalise(motor, null, posicao, metricas, eventoAnalise, eventoToken);
+    }
+
+    /**
+     * Medição de uma parte da mesma análise, a partir da posição informada,
+     * possivelmente em outra thread
+     */
+    MedicaoAnalise parte(int posicao) {
+        MedicaoAnalise raiz = principal != null ? principal : this;
+        synchronized (raiz) {
+            raiz.partesPendentes++;
+            raiz.comPartes = true;
+        }
+        MedicaoAnalise parte = new MedicaoAnalise(motor, raiz, posicao, metricas, false, eventoToken != null);
+        parte.ignorarAlocacao();
+        return parte;
+    }
+
+    /**
+     * A análise usa outras threads, cuja alocação não é atribuída a ela
+     */
+    void ignorarAlocacao() {
+        alocadosAntes = -1;
+    }
+
+    // === DURANTE A ANÁLISE ===
+
+    void antesDoToken() {
+        if (eventoToken != null) {
+            eventoToken.begin();
+        }
+    }
+
+    void token(TipoToken tipo, int posicao, int comprimento) {
+        tokensPorTipo[tipo.ordinal()]++;
+        if (eventoToken != null) {
+            eventoToken.end();
+            if (eventoToken.shouldCommit()) {
+                eventoToken.tipo = tipo.name();
+                eventoToken.posicao = posicao;
+                eventoToken.comprimento = comprimento;
+                eventoToken.commit();
+                eventoToken = new EventoTokenLento();
+            }
+        }
+    }
+
+    void comentario(int caracteres) {
+        caracteresComentarios += caracteres;
+    }
+
+    /**
+     * Desconta um token já contado que pertence a outra parte da análise
+     */
+    void descontar(TipoToken tipo) {
+        tokensPorTipo[tipo.ordinal()]--;
+    }
+
+    /**
+     * Conta os tokens [de, ate) de um resultado montado fora do analisador
+     */
+    void tokens(BufferTokens tokens, int de, int ate) {
+        for (int i = de; i < ate; i++) {
+            tokensPorTipo[tokens.tipoOrdinal(i)]++;
+        }
+    }
+
+    // === CONCLUSÃO ===
+
+    /**
+     * Conclui a análise (ou a parte) em [inicio, fim)
+     *
+     * A análise principal grava o evento e soma os contadores às métricas
+     * quando ela e todas as suas partes tiverem concluído; uma parte apenas
+     * soma os seus contadores à principal.
+     *
+     * @param fim posição final (fim do código fonte ou do trecho analisado)
+     */
+    void concluir(int fim, ColetorDiagnosticos diagnosticos) {
+        // A alocação só é atribuída à análise se ela terminou na mesma thread
+        long alocados = metricas && alocadosAntes >= 0 && Thread.currentThread() == thread
+            ? bytesAlocados(thread) - alocadosAntes : -1;
+        MedicaoAnalise raiz = principal != null ? principal : this;
+        synchronized (raiz) {
+            raiz.somar(tokensPorTipo, Math.max(0, fim - inicio), caracteresComentarios, diagnosticos.getTotal(),
+                       diagnosticos.getTotalCaracteresDesconhecidos(), alocados);
+            if (principal != null) {
+                raiz.partesPendentes--;
+            } else {
+                concluida = true;
+            }
+            if (!raiz.concluida || raiz.partesPendentes > 0) {
+                return;
+            }
+        }
+        raiz.registrar();
+    }
+
+    private void somar(long[] tokens, long caracteres, long comentarios, long erros, long desconhecidos,
+                       long alocados) {
+        if (totalTokensPorTipo == null) {
+            totalTokensPorTipo = new long[tokens.length];
+        }
+        for (int i = 0; i < tokens.length; i++) {
+            totalTokensPorTipo[i] += tokens[i];
+        }
+        totalCaracteres += caracteres;
+        totalComentarios += comentarios;
+        totalErros += erros;
+        totalDesconhecidos += desconhecidos;
+        if (alocados >= 0) {
+            totalAlocados = Math.max(totalAlocados, 0) + alocados;
+        }
+    }
+
+    /**
+     * Grava o evento e soma os totais às métricas (análise principal,
+     * depois de concluídas ela e as partes)
+     */
+    private void registrar() {
+        // Chamado uma única vez, depois da última alteração dos totais
+        long nanos = System.nanoTime() - inicioNanos;
+        long tokens = 0;
+        for (long quantidade : totalTokensPorTipo) {
+            tokens += quantidade;
+        }
+        if (evento != null) {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.motor = motor.name();
+                evento.caracteres = totalCaracteres;
+                evento.tokens = tokens;
+                evento.erros = totalErros;
+                evento.caracteresDesconhecidos = totalDesconhecidos;
+                evento.caracteresComentarios = totalComentarios;
+                evento.commit();
+            }
+        }
+        if (metricas) {
+            MetricasLexico.instancia().acumular(totalTokensPorTipo, totalCaracteres, totalDesconhecidos,
+                totalComentarios, totalErros, nanos, comPartes ? -1 : totalAlocados);
+        }
+    }
+
+    /**
+     * Tipos dos eventos, obtidos só depois que o JFR foi iniciado (consultá-los
+     * antes disso inicializaria o JFR em todo processo que usa o analisador)
+     */
+    private static final class TiposEvento {
+        static final EventType ANALISE = EventType.getEventType(EventoAnaliseLexica.class);
+        static final EventType TOKEN_LENTO = EventType.getEventType(EventoTokenLento.class);
+    }
+
+    private static long bytesAlocados(Thread thread) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread.getId());
+        }
+        return -1; // JVM sem contagem de alocação por thread
+    }
+}
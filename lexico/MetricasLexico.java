@@ -0,0 +1,202 @@
+package lexico;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Totais do analisador léxico, publicados como MXBean no servidor de
+ * MBeans da plataforma (nome NOME_OBJETO)
+ *
+ * Desligadas (padrão), as métricas custam ao analisador apenas a leitura
+ * de um campo volatile por análise. Para ligá-las desde o início:
+ *   java -Dlexico.metricas=true ...
+ * ou, em código, MetricasLexico.registrar() seguido de setAtivo(true) (o
+ * atributo Ativo também pode ser alterado pelo jconsole).
+ *
+ * Cada análise acumula os seus contadores localmente (MedicaoAnalise) e
+ * os soma aqui uma única vez, ao chegar ao fim do código fonte.
+ *
+ */
+public final class MetricasLexico implements MetricasLexicoMXBean {
+
+    /** Nome do MXBean no servidor de MBeans */
+    public static final String NOME_OBJETO = "lexico:type=MetricasLexico";
+
+    /** Propriedade de sistema que liga e registra as métricas na inicialização */
+    public static final String PROPRIEDADE_ATIVAR = "lexico.metricas";
+
+    private static final TipoToken[] TIPOS = TipoToken.values();
+
+    private static final MetricasLexico INSTANCIA = new MetricasLexico();
+
+    private static volatile boolean ativo;
+
+    static {
+        if (Boolean.getBoolean(PROPRIEDADE_ATIVAR)) {
+            registrar();
+            ativo = true;
+        }
+    }
+
+    // === TOTAIS (protegidos pelo monitor da instância) ===
+    private long analises;
+    private final long[] tokensPorTipo = new long[TIPOS.length];
+    private long caracteres;
+    private long caracteresDesconhecidos;
+    private long caracteresComentarios;
+    private long erros;
+    private long nanosAnalise;
+    private long bytesAlocadosUltima;
+    private long bytesAlocadosTotal;
+
+    private MetricasLexico() {
+    }
+
+    public static MetricasLexico instancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Publica o MXBean no servidor de MBeans da plataforma (se ainda não publicado)
+     */
+    public static synchronized void registrar() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = new ObjectName(NOME_OBJETO);
+            if (!servidor.isRegistered(nome)) {
+                servidor.registerMBean(INSTANCIA, nome);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Não foi possível registrar " + NOME_OBJETO, e);
+        }
+    }
+
+    /**
+     * Consultado pelo analisador no início de cada análise
+     */
+    static boolean coletando() {
+        return ativo;
+    }
+
+    /**
+     * Soma os contadores de uma análise concluída
+     */
+    synchronized void acumular(long[] tokensDaAnalise, long caracteresDaAnalise, long desconhecidos,
+                               long comentarios, long errosDaAnalise, long nanos, long bytesAlocados) {
+        analises++;
+        for (int i = 0; i < tokensPorTipo.length; i++) {
+            tokensPorTipo[i] += tokensDaAnalise[i];
+        }
+        caracteres += caracteresDaAnalise;
+        caracteresDesconhecidos += desconhecidos;
+        caracteresComentarios += comentarios;
+        erros += errosDaAnalise;
+        nanosAnalise += nanos;
+        if (bytesAlocados >= 0) {
+            bytesAlocadosUltima = bytesAlocados;
+            bytesAlocadosTotal += bytesAlocados;
+        }
+    }
+
+    // === MXBEAN ===
+
+    @Override
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    @Override
+    public void setAtivo(boolean ativar) {
+        ativo = ativar;
+    }
+
+    @Override
+    public synchronized long getAnalises() {
+        return analises;
+    }
+
+    @Override
+    public synchronized long getTokens() {
+        long total = 0;
+        for (long quantidade : tokensPorTipo) {
+            total += quantidade;
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getTokensPorTipo() {
+        Map<String, Long> porTipo = new LinkedHashMap<>();
+        for (TipoToken tipo : TIPOS) {
+            porTipo.put(tipo.name(), tokensPorTipo[tipo.ordinal()]);
+        }
+        return porTipo;
+    }
+
+    @Override
+    public synchronized long getCaracteres() {
+        return caracteres;
+    }
+
+    @Override
+    public synchronized double getTokensPorSegundo() {
+        return porSegundo(getTokens());
+    }
+
+    @Override
+    public synchronized double getCaracteresPorSegundo() {
+        return porSegundo(caracteres);
+    }
+
+    @Override
+    public synchronized long getCaracteresDesconhecidos() {
+        return caracteresDesconhecidos;
+    }
+
+    @Override
+    public synchronized long getCaracteresComentarios() {
+        return caracteresComentarios;
+    }
+
+    @Override
+    public synchronized long getErros() {
+        return erros;
+    }
+
+    @Override
+    public synchronized long getTempoAnaliseMs() {
+        return nanosAnalise / 1_000_000;
+    }
+
+    @Override
+    public synchronized long getBytesAlocadosUltimaAnalise() {
+        return bytesAlocadosUltima;
+    }
+
+    @Override
+    public synchronized long getBytesAlocadosTotal() {
+        return bytesAlocadosTotal;
+    }
+
+    @Override
+    public synchronized void zerar() {
+        analises = 0;
+        Arrays.fill(tokensPorTipo, 0);
+        caracteres = 0;
+        caracteresDesconhecidos = 0;
+        caracteresComentarios = 0;
+        erros = 0;
+        nanosAnalise = 0;
+        bytesAlocadosUltima = 0;
+        bytesAlocadosTotal = 0;
+    }
+
+    private double porSegundo(long quantidade) {
+        return nanosAnalise == 0 ? 0 : quantidade * 1e9 / nanosAnalise;
+    }
+}
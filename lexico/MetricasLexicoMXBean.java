@@ -0,0 +1,52 @@
+package lexico;
+
+import java.util.Map;
+
+/**
+ * Métricas do analisador léxico expostas por JMX (jconsole, VisualVM)
+ *
+ * Os totais somam todas as análises concluídas (até o fim do código fonte)
+ * desde o início do processo ou desde a última chamada a zerar(). As taxas
+ * por segundo usam apenas o tempo gasto dentro das análises.
+ *
+ */
+public interface MetricasLexicoMXBean {
+
+    /** Coleta ligada; desligada, o analisador não mede nada */
+    boolean isAtivo();
+
+    void setAtivo(boolean ativo);
+
+    /** Análises concluídas */
+    long getAnalises();
+
+    long getTokens();
+
+    /** Quantidade de tokens de cada TipoToken */
+    Map<String, Long> getTokensPorTipo();
+
+    /** Caracteres analisados (igual aos bytes em código ASCII) */
+    long getCaracteres();
+
+    double getTokensPorSegundo();
+
+    double getCaracteresPorSegundo();
+
+    long getCaracteresDesconhecidos();
+
+    /** Caracteres ignorados dentro de comentários */
+    long getCaracteresComentarios();
+
+    /** Erros léxicos de todos os tipos */
+    long getErros();
+
+    long getTempoAnaliseMs();
+
+    /** Bytes alocados pela thread durante a última análise concluída */
+    long getBytesAlocadosUltimaAnalise();
+
+    long getBytesAlocadosTotal();
+
+    /** Zera todos os totais */
+    void zerar();
+}
@@ -0,0 +1,13 @@
+package lexico;
+
+/**
+ * Motores de reconhecimento disponíveis no analisador léxico
+ *
+ * Os dois motores produzem exatamente a mesma sequência de tokens; a
+ * escolha é feita na construção do AnalisadorLexico.
+ *
+ */
+public enum MotorLexico {
+    MANUAL,     // Reconhecimento escrito à mão (switch sobre o primeiro caractere)
+    TABELA      // Autômato determinístico compilado da EspecificacaoLexica
+}
@@ -0,0 +1,230 @@
+package lexico;
+
+/**
+ * Reconhecedor das palavras reservadas da linguagem Pascal
+ *
+ * Substitui a consulta lexema.toLowerCase() + HashMap por um hash perfeito
+ * mínimo (uma posição da tabela para cada uma das palavras) gerado na
+ * inicialização da classe. A consulta compara os caracteres diretamente na
+ * fonte, sem diferenciar maiúsculas de minúsculas e sem criar nenhuma String.
+ *
+ * Geração do hash (esquema "hash, deslocamento e compressão"):
+ * 1. Cada palavra recebe um hash FNV-1a de seus caracteres em minúsculas
+ * 2. O hash escolhe um balde entre NUM_BALDES
+ * 3. Para cada balde (do mais cheio ao mais vazio) procura-se um
+ *    deslocamento que leve todas as suas palavras a posições livres
+ *
+ * Na consulta: hash -> balde -> deslocamento -> posição -> comparação.
+ *
+ */
+public final class PalavrasReservadas {
+
+    /** Valor retornado quando o trecho não é palavra reservada */
+    public static final int NENHUMA = -1;
+
+    // Palavras reservadas reconhecidas (em minúsculas, ordem alfabética)
+    private static final String[] PALAVRAS = {
+        "absolute", "array", "begin", "case", "char", "const", "div", "do",
+        "dowto", "else", "end", "external", "file", "for", "forward", "func",
+        "function", "goto", "if", "implementation", "integer", "interface", "interrupt", "label",
+        "main", "nil", "nit", "of", "packed", "proc", "program", "real",
+        "record", "repeat", "set", "shl", "shr", "string", "then", "to",
+        "type", "unit", "until", "uses", "var", "while", "with", "xor"
+    };
+
+    // Quantidade de baldes do primeiro nível do hash
+    private static final int NUM_BALDES = 16;
+
+    // Limite de tentativas de deslocamento por balde durante a geração
+    private static final int MAXIMO_TENTATIVAS = 1 << 20;
+
+    // === TABELAS GERADAS ===
+    private static final int[] DESLOCAMENTOS = new int[NUM_BALDES];
+    private static final char[][] TABELA = new char[PALAVRAS.length][];    // Palavra em cada posição
+    private static final int[] INDICE_NA_TABELA = new int[PALAVRAS.length]; // Posição -> índice em PALAVRAS
+    private static final int COMPRIMENTO_MINIMO;
+    private static final int COMPRIMENTO_MAXIMO;
+
+    static {
+        int minimo = Integer.MAX_VALUE;
+        int maximo = 0;
+        for (String palavra : PALAVRAS) {
+            minimo = Math.min(minimo, palavra.length());
+            maximo = Math.max(maximo, palavra.length());
+        }
+        COMPRIMENTO_MINIMO = minimo;
+        COMPRIMENTO_MAXIMO = maximo;
+        gerarHashPerfeito();
+    }
+
+    /** Índice da palavra "end" (usado na regra do ponto final de programa) */
+    public static final int END = indiceDe("end");
+
+    private PalavrasReservadas() {
+    }
+
+    // === CONSULTA ===
+
+    /**
+     * Verifica se o trecho [inicio, inicio + comprimento) da fonte é uma
+     * palavra reservada, sem diferenciar maiúsculas de minúsculas
+     *
+     * @return índice da palavra reservada, ou NENHUMA
+     */
+    public static int procurar(FonteCaracteres fonte, int inicio, int comprimento) {
+        if (comprimento < COMPRIMENTO_MINIMO || comprimento > COMPRIMENTO_MAXIMO) {
+            return NENHUMA;
+        }
+        int hash = HASH_INICIAL;
+        for (int i = 0; i < comprimento; i++) {
+            hash = (hash ^ minuscula(fonte.caractereEm(inicio + i))) * PRIMO_FNV;
+        }
+        int balde = Integer.remainderUnsigned(hash, NUM_BALDES);
+        int posicao = Integer.remainderUnsigned(misturar(hash, DESLOCAMENTOS[balde]), TABELA.length);
+
+        // Confirmar comparando caractere a caractere
+        char[] candidata = TABELA[posicao];
+        if (candidata.length != comprimento) {
+            return NENHUMA;
+        }
+        for (int i = 0; i < comprimento; i++) {
+            if (minuscula(fonte.caractereEm(inicio + i)) != candidata[i]) {
+                return NENHUMA;
+            }
+        }
+        return INDICE_NA_TABELA[posicao];
+    }
+
+    /**
+     * Verifica se um lexema é palavra reservada
+     */
+    public static int procurar(String lexema) {
+        return procurar(FonteCaracteres.deTexto(lexema), 0, lexema.length());
+    }
+
+    /**
+     * Retorna a palavra reservada (em minúsculas) de um índice
+     */
+    public static String palavra(int indice) {
+        return PALAVRAS[indice];
+    }
+
+    /**
+     * Quantidade de palavras reservadas reconhecidas
+     */
+    public static int quantidade() {
+        return PALAVRAS.length;
+    }
+
+    // === GERAÇÃO DO HASH PERFEITO ===
+
+    private static final int HASH_INICIAL = 0x811C9DC5;
+    private static final int PRIMO_FNV = 0x01000193;
+
+    /**
+     * Converte letras ASCII para minúsculas; o sinal Kelvin (U+212A) também
+     * vira 'k', como em String.toLowerCase()
+     */
+    private static int minuscula(int c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c + ('a' - 'A');
+        }
+        if (c == 'K') {
+            return 'k';
+        }
+        return c;
+    }
+
+    private static int hashDe(String palavra) {
+        int hash = HASH_INICIAL;
+        for (int i = 0; i < palavra.length(); i++) {
+            hash = (hash ^ palavra.charAt(i)) * PRIMO_FNV;
+        }
+        return hash;
+    }
+
+    /**
+     * Combina o hash da palavra com o deslocamento do seu balde
+     */
+    private static int misturar(int hash, int deslocamento) {
+        int x = (hash ^ deslocamento) * 0x9E3779B1;
+        return x ^ (x >>> 15);
+    }
+
+    /**
+     * Distribui as palavras nos baldes e escolhe o deslocamento de cada balde
+     */
+    private static void gerarHashPerfeito() {
+        int n = PALAVRAS.length;
+        int[][] baldes = new int[NUM_BALDES][];
+        int[] tamanhos = new int[NUM_BALDES];
+        for (int i = 0; i < n; i++) {
+            tamanhos[Integer.remainderUnsigned(hashDe(PALAVRAS[i]), NUM_BALDES)]++;
+        }
+        for (int b = 0; b < NUM_BALDES; b++) {
+            baldes[b] = new int[tamanhos[b]];
+            tamanhos[b] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int b = Integer.remainderUnsigned(hashDe(PALAVRAS[i]), NUM_BALDES);
+            baldes[b][tamanhos[b]++] = i;
+        }
+
+        // Baldes mais cheios primeiro (ordenação simples; são poucos baldes)
+        Integer[] ordem = new Integer[NUM_BALDES];
+        for (int b = 0; b < NUM_BALDES; b++) {
+            ordem[b] = b;
+        }
+        java.util.Arrays.sort(ordem, (x, y) -> tamanhos[y] - tamanhos[x]);
+
+        boolean[] ocupada = new boolean[n];
+        int[] posicoes = new int[n];
+        for (int b : ordem) {
+            int[] balde = baldes[b];
+            if (balde.length == 0) {
+                continue;
+            }
+            int deslocamento = 1;
+            while (!cabe(balde, deslocamento, ocupada, posicoes)) {
+                if (++deslocamento > MAXIMO_TENTATIVAS) {
+                    throw new IllegalStateException("Não foi possível gerar o hash perfeito das palavras reservadas");
+                }
+            }
+            DESLOCAMENTOS[b] = deslocamento;
+            for (int j = 0; j < balde.length; j++) {
+                ocupada[posicoes[j]] = true;
+                TABELA[posicoes[j]] = PALAVRAS[balde[j]].toCharArray();
+                INDICE_NA_TABELA[posicoes[j]] = balde[j];
+            }
+        }
+    }
+
+    /**
+     * Verifica se o deslocamento leva todas as palavras do balde a posições
+     * livres e distintas (as posições calculadas ficam em posicoes[])
+     */
+    private static boolean cabe(int[] balde, int deslocamento, boolean[] ocupada, int[] posicoes) {
+        for (int j = 0; j < balde.length; j++) {
+            int posicao = Integer.remainderUnsigned(misturar(hashDe(PALAVRAS[balde[j]]), deslocamento), PALAVRAS.length);
+            if (ocupada[posicao]) {
+                return false;
+            }
+            for (int k = 0; k < j; k++) {
+                if (posicoes[k] == posicao) {
+                    return false;
+                }
+            }
+            posicoes[j] = posicao;
+        }
+        return true;
+    }
+
+    private static int indiceDe(String palavra) {
+        for (int i = 0; i < PALAVRAS.length; i++) {
+            if (PALAVRAS[i].equals(palavra)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(palavra);
+    }
+}
@@ -0,0 +1,309 @@
+package lexico;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publicador (java.util.concurrent.Flow) dos tokens de um AnalisadorLexico,
+ * com controle de demanda
+ *
+ * Os tokens são analisados sob demanda: a cada request(n), no máximo n
+ * tokens são analisados e entregues ao assinante, no Executor informado.
+ * Sem demanda, a análise fica parada (apenas o token seguinte já analisado,
+ * para que onComplete seja sinalizado logo após o último token) e continua
+ * no próximo request(n); nenhuma fila de tokens é mantida. Assim, um
+ * assinante lento (por exemplo, um envio pela rede) controla o ritmo da
+ * análise.
+ *
+ * O fim do fluxo é sinalizado com:
+ * - onComplete: fim do código fonte
+ * - onError(ExcecaoLexica): string ou comentário não fechado, depois de
+ *   entregar todos os tokens (ambos se estendem até o fim do código); com
+ *   setErroEmNaoFechados(false), o fluxo termina com onComplete e o erro
+ *   fica apenas nos diagnósticos do analisador
+ * - onError(IllegalArgumentException): request(n) com n <= 0
+ * - onError com a exceção lançada pela fonte (UncheckedIOException) ou
+ *   pelo próprio assinante em onNext, que cancela a assinatura
+ *
+ * Após cancel() nenhum outro token é analisado. O publicador aceita um
+ * único assinante, pois o analisador percorre o código uma única vez; um
+ * segundo assinante recebe onError(IllegalStateException). Os sinais ao
+ * assinante nunca são simultâneos, e o analisador é usado por uma única
+ * thread por vez.
+ *
+ * Uso:
+ *   analisador.publicador(executor).subscribe(assinante);
+ *
+ */
+public final class PublicadorTokens implements Flow.Publisher<Token> {
+
+    private final AnalisadorLexico analisador;
+    private final Executor executor;
+    private final AtomicBoolean assinado = new AtomicBoolean();
+    private Closeable recurso;                  // Fechado ao fim do fluxo (opcional)
+    private boolean erroEmNaoFechados = true;
+
+    public PublicadorTokens(AnalisadorLexico analisador) {
+        this(analisador, ForkJoinPool.commonPool());
+    }
+
+    public PublicadorTokens(AnalisadorLexico analisador, Executor executor) {
+        this.analisador = Objects.requireNonNull(analisador);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Publicador de uma fonte, que é fechada ao fim do fluxo (conclusão,
+     * erro ou cancelamento)
+     */
+    public static PublicadorTokens daFonte(FonteCaracteres fonte, MotorLexico motor, Executor executor) {
+        PublicadorTokens publicador = new PublicadorTokens(new AnalisadorLexico(fonte, motor), executor);
+        publicador.recurso = fonte;
+        return publicador;
+    }
+
+    /**
+     * Define se strings e comentários não fechados terminam o fluxo com
+     * onError (padrão) ou com onComplete
+     */
+    public void setErroEmNaoFechados(boolean erro) {
+        this.erroEmNaoFechados = erro;
+    }
+
+    public AnalisadorLexico getAnalisador() {
+        return analisador;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Token> assinante) {
+        Objects.requireNonNull(assinante);
+        if (!assinado.compareAndSet(false, true)) {
+            assinante.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            assinante.onError(new IllegalStateException("O publicador de tokens aceita um único assinante"));
+            return;
+        }
+        new Assinatura(assinante).agendar();
+    }
+
+    // === ASSINATURA ===
+
+    /**
+     * Entrega dos tokens a um assinante
+     *
+     * Todo o trabalho (onSubscribe, análise e sinais) é feito por drenar(),
+     * executada por no máximo uma thread por vez: 'pendentes' conta os
+     * pedidos de execução, e só quem o muda de 0 para 1 agenda uma nova
+     * execução no Executor; a execução em andamento atende os demais.
+     */
+    private final class Assinatura implements Flow.Subscription {
+
+        private Flow.Subscriber<? super Token> assinante;
+        private final AtomicLong demanda = new AtomicLong();    // Long.MAX_VALUE = ilimitada
+        private final AtomicInteger pendentes = new AtomicInteger();
+        private volatile boolean cancelada;
+        private volatile Throwable erroPedido;                  // request(n) com n <= 0
+
+        // Acessados apenas dentro de drenar()
+        private boolean iniciada;
+        private boolean encerrada;
+        private Token seguinte;                                 // Próximo token, já analisado
+
+        Assinatura(Flow.Subscriber<? super Token> assinante) {
+            this.assinante = assinante;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                erroPedido = new IllegalArgumentException("request(" + n + "): a demanda precisa ser positiva");
+            } else {
+                long atual;
+                long nova;
+                do {
+                    atual = demanda.get();
+                    nova = atual + n < 0 ? Long.MAX_VALUE : atual + n;
+                } while (!demanda.compareAndSet(atual, nova));
+            }
+            agendar();
+        }
+
+        @Override
+        public void cancel() {
+            cancelada = true;
+            agendar();
+        }
+
+        void agendar() {
+            if (pendentes.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drenar);
+                } catch (RuntimeException e) {
+                    // Executor recusou a tarefa: não há thread para sinalizar o assinante
+                    pendentes.set(0);
+                    cancelada = true;
+                    liberarRecurso();
+                    throw e;
+                }
+            }
+        }
+
+        private void drenar() {
+            int atendidos = 1;
+            while (true) {
+                if (!encerrada) {
+                    atender();
+                }
+                atendidos = pendentes.addAndGet(-atendidos);
+                if (atendidos == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Entrega tokens enquanto houver demanda e verifica o fim do fluxo
+         */
+        private void atender() {
+            if (!iniciada) {
+                iniciada = true;
+                try {
+                    assinante.onSubscribe(this);
+                } catch (Throwable e) {
+                    encerrar(e);
+                    return;
+                }
+            }
+            long pedidos = demanda.get();
+            long entregues = 0;
+            while (true) {
+                if (cancelada) {
+                    encerrar(null);
+                    return;
+                }
+                if (erroPedido != null) {
+                    encerrar(erroPedido);
+                    return;
+                }
+                if (seguinte == null) {
+                    try {
+                        seguinte = analisador.proximoToken();
+                    } catch (RuntimeException e) {
+                        encerrar(e);
+                        return;
+                    }
+                    if (seguinte == null) {
+                        encerrar(erroFinal());
+                        return;
+                    }
+                }
+                if (entregues == pedidos) {
+                    if (pedidos != Long.MAX_VALUE) {
+                        pedidos = demanda.addAndGet(-entregues);
+                        entregues = 0;
+                    }
+                    if (pedidos == 0) {
+                        return; // Sem demanda: a análise para aqui
+                    }
+                }
+                Token token = seguinte;
+                seguinte = null;
+                try {
+                    assinante.onNext(token);
+                } catch (Throwable e) {
+                    // Assinante com defeito: a assinatura é cancelada
+                    cancelada = true;
+                    encerrar(e);
+                    return;
+                }
+                entregues++;
+            }
+        }
+
+        /**
+         * Erro a sinalizar no fim do código fonte, ou null para onComplete
+         */
+        private Throwable erroFinal() {
+            if (!erroEmNaoFechados) {
+                return null;
+            }
+            ColetorDiagnosticos diagnosticos = analisador.getDiagnosticos();
+            Diagnostico.Tipo tipo;
+            if (diagnosticos.getTotal(Diagnostico.Tipo.STRING_NAO_FECHADA) > 0) {
+                tipo = Diagnostico.Tipo.STRING_NAO_FECHADA;
+            } else if (diagnosticos.getTotal(Diagnostico.Tipo.COMENTARIO_NAO_FECHADO) > 0) {
+                tipo = Diagnostico.Tipo.COMENTARIO_NAO_FECHADO;
+            } else {
+                return null;
+            }
+            List<Diagnostico> retidos = diagnosticos.getDiagnosticos();
+            for (int i = retidos.size() - 1; i >= 0; i--) {
+                if (retidos.get(i).tipo == tipo) {
+                    return new ExcecaoLexica(retidos.get(i));
+                }
+            }
+            // Diagnóstico descartado pelo limite do coletor: sem posição de início
+            int fim = analisador.getPosicao();
+            return new ExcecaoLexica(new Diagnostico(tipo, fim, 0, 0, 0, ""));
+        }
+
+        /**
+         * Sinaliza o fim ao assinante (onComplete se erro for null, exceto
+         * após cancel(), que não recebe sinal algum) e libera os recursos
+         */
+        private void encerrar(Throwable erro) {
+            encerrada = true;
+            seguinte = null;
+            analisador.concluir(); // Cancelamento ou erro antes do fim: registrar a medição
+            Flow.Subscriber<? super Token> destino = assinante;
+            assinante = null;
+            IOException erroFechamento = liberarRecurso();
+            if (erro == null && erroFechamento != null && !cancelada) {
+                erro = new UncheckedIOException(erroFechamento);
+            }
+            try {
+                if (erro != null) {
+                    destino.onError(erro);
+                } else if (!cancelada) {
+                    destino.onComplete();
+                }
+            } catch (Throwable ignorado) {
+                // O fluxo já terminou; não há a quem sinalizar
+            }
+        }
+    }
+
+    // === UTILITÁRIOS ===
+
+    /**
+     * Fecha o recurso, se houver, e retorna o erro do fechamento (ou null)
+     */
+    private IOException liberarRecurso() {
+        Closeable fechar = recurso;
+        recurso = null;
+        if (fechar != null) {
+            try {
+                fechar.close();
+            } catch (IOException e) {
+                return e;
+            }
+        }
+        return null;
+    }
+}
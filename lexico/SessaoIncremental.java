@@ -0,0 +1,274 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Sessão de análise léxica incremental sobre um documento editável
+ *
+ * Mantém o texto, os tokens (em um BufferTokens) e os erros léxicos de um
+ * documento. A cada edição, apenas o trecho afetado é analisado de novo:
+ *
+ * 1. Reinício: o último token que termina pelo menos MARGEM_LEITURA
+ *    caracteres antes da edição. Nenhum token lê mais de dois caracteres
+ *    além do próprio fim ("1." só é real se houver dígito após o ponto),
+ *    e o contexto de que '-' e "end." dependem é restaurado a partir
+ *    desse token.
+ * 2. Sincronização: a análise para no primeiro token novo, posterior à
+ *    edição, idêntico (posição deslocada, tipo e comprimento) a um token
+ *    antigo. Dali em diante o texto e o contexto são os mesmos, portanto
+ *    os tokens restantes também são.
+ *
+ * Durante a análise, um AcompanhamentoAnalise opcional recebe o progresso
+ * e pode cancelá-la; uma edição cancelada não altera a sessão.
+ *
+ * Cada edição é uma análise nas métricas (MedicaoAnalise), concluída na
+ * sincronização: apenas o trecho analisado de novo é medido.
+ *
+ */
+public final class SessaoIncremental {
+
+    /** Quantidade de caracteres além do fim que um token pode examinar */
+    static final int MARGEM_LEITURA = 2;
+
+    // Quantidade de tokens entre duas consultas ao acompanhamento
+    private static final int INTERVALO_ACOMPANHAMENTO = 4096;
+
+    private final MotorLexico motor;
+    private final StringBuilder texto;
+    private final BufferTokens tokens = new BufferTokens();
+
+    // Erros léxicos em ordem de posição (linha e coluna não são mantidas)
+    private List<Diagnostico> diagnosticos = new ArrayList<>();
+
+    private AcompanhamentoAnalise acompanhamento;   // Progresso e cancelamento (opcional)
+
+    public SessaoIncremental(CharSequence texto) {
+        this(texto, MotorLexico.MANUAL);
+    }
+
+    public SessaoIncremental(CharSequence texto, MotorLexico motor) {
+        this.motor = motor;
+        this.texto = new StringBuilder(texto);
+        AnalisadorLexico analisador = criarAnalisador();
+        analisador.tokenizar(tokens);
+        diagnosticos.addAll(analisador.getDiagnosticos().getDiagnosticos());
+    }
+
+    // === EDIÇÃO ===
+
+    /**
+     * Aplica uma edição ao documento e analisa novamente apenas o trecho afetado
+     *
+     * @param posicao posição da edição no texto atual
+     * @param removidos quantidade de caracteres removidos a partir da posição
+     * @param inserido texto inserido no lugar dos caracteres removidos
+     * @return trecho da sequência de tokens que mudou
+     * @throws CancellationException se o acompanhamento cancelar a análise
+     *         (o texto e os tokens permanecem como antes da edição)
+     */
+    public AlteracaoTokens editar(int posicao, int removidos, CharSequence inserido) {
+        if (posicao < 0 || removidos < 0 || posicao + removidos > texto.length()) {
+            throw new IndexOutOfBoundsException("Edição [" + posicao + ", " + (posicao + removidos)
+                                                + ") fora do texto de tamanho " + texto.length());
+        }
+        String textoRemovido = texto.substring(posicao, posicao + removidos);
+        texto.replace(posicao, posicao + removidos, inserido.toString());
+        int deslocamento = inserido.length() - removidos;
+        int fimEdicao = posicao + inserido.length();
+
+        // Reinício: último token seguro antes da edição
+        int anterior = ultimoTokenAntes(posicao - MARGEM_LEITURA);
+        int reinicio = anterior >= 0 ? tokens.fim(anterior) : 0;
+        AnalisadorLexico analisador = criarAnalisador();
+        if (anterior >= 0) {
+            analisador.reposicionar(reinicio, tokens.tipo(anterior), ehEndMinusculo(anterior));
+        }
+
+        // Analisar até sincronizar com a sequência antiga
+        BufferTokens novos = new BufferTokens(64);
+        int total = tokens.tamanho();
+        int antigo = anterior + 1;
+        int sincronizado = total;
+        while (analisador.tokenizar(novos, 1) == 1) {
+            int ultimo = novos.tamanho() - 1;
+            int inicio = novos.inicio(ultimo);
+            if (acompanhamento != null && novos.tamanho() % INTERVALO_ACOMPANHAMENTO == 0) {
+                if (acompanhamento.cancelado()) {
+                    // Desfazer a edição: a sessão continua com o estado anterior
+                    analisador.concluir();
+                    texto.replace(posicao, fimEdicao, textoRemovido);
+                    throw new CancellationException("Análise cancelada");
+                }
+                acompanhamento.progresso(inicio - reinicio, texto.length() - reinicio);
+            }
+            if (inicio < fimEdicao) {
+                continue;
+            }
+            while (antigo < total && tokens.inicio(antigo) + deslocamento < inicio) {
+                antigo++;
+            }
+            if (antigo < total
+                    && tokens.inicio(antigo) + deslocamento == inicio
+                    && tokens.tipoOrdinal(antigo) == novos.tipoOrdinal(ultimo)
+                    && tokens.comprimento(antigo) == novos.comprimento(ultimo)) {
+                analisador.concluirAte(inicio, novos.tipo(ultimo));
+                novos.truncar(ultimo); // Token idêntico ao antigo: já está na sequência
+                sincronizado = antigo;
+                break;
+            }
+        }
+
+        // Erros: substituir os do trecho analisado e deslocar os seguintes
+        int limiteAntigo = sincronizado < total ? tokens.inicio(sincronizado) : Integer.MAX_VALUE;
+        atualizarDiagnosticos(reinicio, limiteAntigo, deslocamento, analisador.getDiagnosticos().getDiagnosticos());
+
+        tokens.substituir(anterior + 1, sincronizado, novos, deslocamento);
+        if (acompanhamento != null) {
+            acompanhamento.progresso(texto.length() - reinicio, texto.length() - reinicio);
+        }
+        return new AlteracaoTokens(anterior + 1, sincronizado - anterior - 1, novos.tamanho(), deslocamento);
+    }
+
+    /**
+     * Substitui o texto inteiro do documento
+     *
+     * A edição equivalente é obtida pelo maior prefixo e maior sufixo em
+     * comum com o texto atual, de modo que apenas a região realmente
+     * alterada é analisada de novo.
+     */
+    public AlteracaoTokens atualizar(CharSequence novoTexto) {
+        int tamanhoAtual = texto.length();
+        int tamanhoNovo = novoTexto.length();
+        int limite = Math.min(tamanhoAtual, tamanhoNovo);
+
+        int prefixo = 0;
+        while (prefixo < limite && texto.charAt(prefixo) == novoTexto.charAt(prefixo)) {
+            prefixo++;
+        }
+        int sufixo = 0;
+        while (sufixo < limite - prefixo
+               && texto.charAt(tamanhoAtual - 1 - sufixo) == novoTexto.charAt(tamanhoNovo - 1 - sufixo)) {
+            sufixo++;
+        }
+        return editar(prefixo, tamanhoAtual - prefixo - sufixo,
+                      novoTexto.subSequence(prefixo, tamanhoNovo - sufixo));
+    }
+
+    /**
+     * Substitui o documento por um texto já analisado (por exemplo, obtido
+     * do CacheTokens), sem analisá-lo de novo
+     *
+     * @param novosTokens tokens de todo o novo texto
+     * @param novosDiagnosticos todos os erros léxicos do novo texto, em ordem de posição
+     */
+    public void restaurar(CharSequence novoTexto, BufferTokens novosTokens, List<Diagnostico> novosDiagnosticos) {
+        texto.setLength(0);
+        texto.append(novoTexto);
+        tokens.limpar();
+        tokens.substituir(0, 0, novosTokens, 0);
+        diagnosticos = new ArrayList<>(novosDiagnosticos);
+    }
+
+    // === CONSULTA ===
+
+    /**
+     * Texto atual do documento (não deve ser alterado diretamente)
+     */
+    public CharSequence getTexto() {
+        return texto;
+    }
+
+    /**
+     * Tokens atuais do documento; os lexemas são extraídos de getTexto()
+     */
+    public BufferTokens getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Erros léxicos do documento atual, com linha e coluna
+     */
+    public ColetorDiagnosticos getDiagnosticos() {
+        return ColetorDiagnosticos.reconstruir(texto, diagnosticos);
+    }
+
+    public MotorLexico getMotor() {
+        return motor;
+    }
+
+    /**
+     * Define quem acompanha as próximas edições (null para nenhum)
+     */
+    public void setAcompanhamento(AcompanhamentoAnalise acompanhamento) {
+        this.acompanhamento = acompanhamento;
+    }
+
+    // === UTILITÁRIOS ===
+
+    private AnalisadorLexico criarAnalisador() {
+        AnalisadorLexico analisador = new AnalisadorLexico(FonteCaracteres.deTexto(texto), motor);
+        analisador.getDiagnosticos().setLimite(Integer.MAX_VALUE);
+        analisador.getDiagnosticos().setCalcularLinhas(false);
+        return analisador;
+    }
+
+    /**
+     * Índice do último token que termina até a posição informada, ou -1
+     */
+    private int ultimoTokenAntes(int posicao) {
+        int baixo = 0;
+        int alto = tokens.tamanho() - 1;
+        int encontrado = -1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (tokens.fim(meio) <= posicao) {
+                encontrado = meio;
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return encontrado;
+    }
+
+    /**
+     * Verifica se o token é a palavra reservada "end" em minúsculas
+     * (contexto da regra do ponto final)
+     */
+    private boolean ehEndMinusculo(int indice) {
+        int inicio = tokens.inicio(indice);
+        return tokens.tipo(indice) == TipoToken.PALAVRA_RESERVADA
+            && tokens.comprimento(indice) == 3
+            && texto.charAt(inicio) == 'e'
+            && texto.charAt(inicio + 1) == 'n'
+            && texto.charAt(inicio + 2) == 'd';
+    }
+
+    /**
+     * Troca os erros de [reinicio, limiteAntigo) pelos novos e desloca os seguintes
+     */
+    private void atualizarDiagnosticos(int reinicio, int limiteAntigo, int deslocamento, List<Diagnostico> novos) {
+        int limiteNovo = limiteAntigo == Integer.MAX_VALUE ? Integer.MAX_VALUE : limiteAntigo + deslocamento;
+        List<Diagnostico> atualizados = new ArrayList<>(diagnosticos.size() + novos.size());
+        for (Diagnostico diagnostico : diagnosticos) {
+            if (diagnostico.posicao < reinicio) {
+                atualizados.add(diagnostico);
+            }
+        }
+        for (Diagnostico diagnostico : novos) {
+            if (diagnostico.posicao < limiteNovo) {
+                atualizados.add(diagnostico);
+            }
+        }
+        for (Diagnostico diagnostico : diagnosticos) {
+            if (diagnostico.posicao >= limiteAntigo) {
+                atualizados.add(deslocamento == 0 ? diagnostico
+                    : new Diagnostico(diagnostico.tipo, diagnostico.posicao + deslocamento, 0, 0,
+                                      diagnostico.comprimento, diagnostico.trecho));
+            }
+        }
+        diagnosticos = atualizados;
+    }
+}
@@ -0,0 +1,187 @@
+package lexico;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator dos tokens de um AnalisadorLexico (base de fluxo() e iterador())
+ *
+ * Percorre os tokens que começam em [posição atual do analisador, fim).
+ * Quando o código está em memória (texto, StringBuilder ou TextoMapeado),
+ * trySplit() entrega a metade inicial do trecho (como exige a
+ * característica ORDERED) a um novo Spliterator, que fica com o analisador
+ * atual; a metade final passa a ser analisada por um novo analisador, de
+ * forma independente, em outra thread, sem precisar dos tokens anteriores.
+ *
+ * O ponto de divisão é uma fronteira de token garantida: o início de uma
+ * linha fora de comentários e literais, cujo primeiro caractere não branco
+ * não é '-', '.' nem '/'. Só esses três dependem do token anterior (sinal
+ * de número negativo, ponto final após "end" e um comentário seguido
+ * deles), de modo que a nova parte pode começar sem contexto. Para saber
+ * se a posição está fora de comentários e literais, o trecho é percorrido
+ * desde a posição atual por uma varredura que reconhece apenas "/*",
+ * aspas duplas e aspas simples, bem mais rápida que a análise completa.
+ *
+ * Os erros léxicos das partes divididas não são reunidos; para tokens e
+ * erros de um texto inteiro em paralelo, use o AnalisadorParalelo. A
+ * medição (MedicaoAnalise) é uma só para o fluxo inteiro: cada parte é
+ * medida até o seu fim e somada à do analisador original.
+ *
+ */
+final class SpliteradorTokens implements Spliterator<Token> {
+
+    /** Trechos menores que este (em caracteres) não são divididos */
+    static final int TAMANHO_MINIMO_DIVISAO = 64 * 1024;
+
+    // Média aproximada de caracteres por token, para estimateSize()
+    private static final int CARACTERES_POR_TOKEN = 6;
+
+    private AnalisadorLexico analisador;
+    private CharSequence texto;         // Texto em memória, ou null se a fonte não permite divisão
+    private int fim;                    // Tokens que começam a partir daqui pertencem a outra parte
+    private boolean terminado;
+
+    SpliteradorTokens(AnalisadorLexico analisador, CharSequence texto, int fim) {
+        this.analisador = analisador;
+        this.texto = texto;
+        this.fim = fim;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Token> acao) {
+        if (terminado) {
+            return false;
+        }
+        Token token = analisador.proximoToken();
+        if (token == null || token.posicao >= fim) {
+            terminar(token);
+            return false;
+        }
+        acao.accept(token);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Token> acao) {
+        if (terminado) {
+            return;
+        }
+        Token token;
+        while ((token = analisador.proximoToken()) != null && token.posicao < fim) {
+            acao.accept(token);
+        }
+        terminar(token);
+    }
+
+    /**
+     * Fim desta parte; 'seguinte' é o token já lido que pertence à próxima
+     * parte (null no fim do código fonte, onde a medição já foi concluída)
+     */
+    private void terminar(Token seguinte) {
+        terminado = true;
+        if (seguinte != null) {
+            analisador.concluirAte(fim, seguinte.tipo);
+        }
+    }
+
+    /**
+     * Entrega os tokens anteriores a um ponto de divisão (com o analisador
+     * atual) e continua a partir dele com um novo analisador
+     *
+     * Não divide fontes em fluxo (Reader), trechos pequenos, nem analisadores
+     * com TabelaSimbolos (a tabela não pode ser usada por várias threads).
+     */
+    @Override
+    public Spliterator<Token> trySplit() {
+        int inicio = analisador.getPosicao();
+        if (texto == null || terminado || analisador.getTabelaSimbolos() != null
+                || fim - inicio < 2 * TAMANHO_MINIMO_DIVISAO) {
+            return null;
+        }
+        int divisao = pontoDeDivisao(texto, inicio, inicio + (fim - inicio) / 2, fim - TAMANHO_MINIMO_DIVISAO / 2);
+        if (divisao < 0) {
+            return null;
+        }
+        CharSequence copia = AnalisadorParalelo.copiaPara(texto);
+        AnalisadorLexico parte = new AnalisadorLexico(FonteCaracteres.deTexto(copia), analisador.getMotor());
+        parte.getDiagnosticos().setCalcularLinhas(false);
+        parte.reposicionar(divisao, null, false);
+        parte.medirComoParte(analisador.medicaoParaPartes());
+        SpliteradorTokens prefixo = new SpliteradorTokens(analisador, texto, divisao);
+        analisador = parte;
+        texto = copia;
+        return prefixo;
+    }
+
+    @Override
+    public long estimateSize() {
+        return terminado ? 0 : Math.max(0, fim - analisador.getPosicao()) / CARACTERES_POR_TOKEN;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    // === PONTO DE DIVISÃO ===
+
+    /**
+     * Primeira fronteira segura em [meio, limite), percorrendo o texto a
+     * partir de 'inicio' (que precisa estar fora de comentários e literais)
+     *
+     * Comentários e strings são atravessados pelas buscas em bloco da fonte.
+     *
+     * @return posição da fronteira, ou -1 se não houver
+     */
+    static int pontoDeDivisao(CharSequence texto, int inicio, int meio, int limite) {
+        FonteCaracteres fonte = FonteCaracteres.deTexto(texto);
+        int posicao = inicio;
+        while (posicao < limite) {
+            char c = texto.charAt(posicao);
+            switch (c) {
+                case '/':
+                    if (posicao + 1 < limite && texto.charAt(posicao + 1) == '*') {
+                        posicao = fonte.procurarFimComentario(posicao + 2) + 2;
+                    } else {
+                        posicao++;
+                    }
+                    break;
+                case '"':
+                    posicao = fonte.procurar('"', posicao + 1) + 1;
+                    break;
+                case '\'':
+                    // Literal de caractere: a aspa, um caractere qualquer e a aspa final, se houver
+                    posicao += 2;
+                    if (posicao < limite && texto.charAt(posicao) == '\'') {
+                        posicao++;
+                    }
+                    break;
+                case '\n':
+                    posicao++;
+                    if (posicao >= meio && posicao < limite && inicioSemContexto(texto, posicao, limite)) {
+                        return posicao;
+                    }
+                    break;
+                default:
+                    posicao++;
+                    break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Verifica se o primeiro caractere não branco a partir da posição
+     * independe do token anterior
+     */
+    private static boolean inicioSemContexto(CharSequence texto, int posicao, int limite) {
+        while (posicao < limite && FonteCaracteres.ehEspaco(texto.charAt(posicao))) {
+            posicao++;
+        }
+        if (posicao >= limite) {
+            return false;
+        }
+        char c = texto.charAt(posicao);
+        return c != '-' && c != '.' && c != '/';
+    }
+}
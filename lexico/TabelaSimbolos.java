@@ -0,0 +1,235 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de símbolos de uma compilação: cada identificador distinto recebe
+ * um número inteiro (ID) denso, a partir de 0, na ordem em que aparece
+ *
+ * Com a tabela ligada ao analisador (AnalisadorLexico.setTabelaSimbolos),
+ * cada ocorrência de identificador é consultada diretamente nos caracteres
+ * da fonte, sem criar String: só a primeira ocorrência copia o nome para a
+ * tabela. As fases seguintes comparam IDs em vez de chamar equals(), e os
+ * objetos Token de um mesmo identificador compartilham a mesma String.
+ *
+ * Estrutura (endereçamento aberto com sondagem linear):
+ * - posicoes: vetor de tamanho potência de 2 com ID + 1 em cada posição
+ *   ocupada (0 = livre), mantido no máximo meio cheio
+ * - caracteres: os nomes concatenados; o nome do ID i ocupa
+ *   [inicioNome[i], inicioNome[i + 1])
+ * - hashes, ocorrencias e primeirasPosicoes: vetores paralelos por ID
+ *
+ * Os nomes diferenciam maiúsculas de minúsculas, como o lexema dos tokens.
+ * A tabela não é sincronizada: cada compilação (ou thread) usa a sua.
+ *
+ */
+public final class TabelaSimbolos {
+
+    /** Valor retornado quando o trecho não é um símbolo da tabela */
+    public static final int NENHUM = -1;
+
+    // Capacidade inicial (em símbolos)
+    private static final int CAPACIDADE_INICIAL = 256;
+
+    // Hash FNV-1a, o mesmo das PalavrasReservadas
+    private static final int HASH_INICIAL = 0x811C9DC5;
+    private static final int PRIMO_FNV = 0x01000193;
+
+    private int[] posicoes;             // ID + 1 de cada posição ocupada (0 = livre)
+    private int mascara;                // posicoes.length - 1
+
+    // === DADOS POR ID ===
+    private char[] caracteres;          // Nomes concatenados
+    private int[] inicioNome;           // inicioNome[id] = início do nome (mais o fim do último)
+    private int[] hashes;               // Hash do nome (evita recalcular ao crescer)
+    private int[] ocorrencias;          // Quantidade de ocorrências internadas
+    private int[] primeirasPosicoes;    // Posição da primeira ocorrência no código fonte
+    private String[] nomes;             // Nomes já materializados (criados sob demanda)
+    private int quantidade;
+    private long totalOcorrencias;
+
+    // Caracteres do trecho consultado, lidos da fonte uma única vez
+    private char[] consulta = new char[64];
+
+    public TabelaSimbolos() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    public TabelaSimbolos(int capacidadeInicial) {
+        int capacidade = Math.max(capacidadeInicial, 16);
+        posicoes = new int[Integer.highestOneBit(capacidade - 1) << 2];
+        mascara = posicoes.length - 1;
+        caracteres = new char[capacidade * 8];
+        inicioNome = new int[capacidade + 1];
+        hashes = new int[capacidade];
+        ocorrencias = new int[capacidade];
+        primeirasPosicoes = new int[capacidade];
+        nomes = new String[capacidade];
+    }
+
+    // === INTERNAÇÃO ===
+
+    /**
+     * Registra uma ocorrência do identificador [inicio, inicio + comprimento)
+     * da fonte e retorna o seu ID
+     *
+     * Um identificador já conhecido é encontrado sem nenhuma alocação; um
+     * novo recebe o próximo ID, e a posição informada passa a ser a sua
+     * primeira ocorrência.
+     */
+    public int internar(FonteCaracteres fonte, int inicio, int comprimento) {
+        int hash = lerConsulta(fonte, inicio, comprimento);
+        int posicao = hash & mascara;
+        int ocupante;
+        while ((ocupante = posicoes[posicao]) != 0) {
+            int id = ocupante - 1;
+            if (hashes[id] == hash && mesmoNome(id, comprimento)) {
+                ocorrencias[id]++;
+                totalOcorrencias++;
+                return id;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        int id = adicionar(comprimento, hash, inicio);
+        posicoes[posicao] = id + 1;
+        if (quantidade * 2 > posicoes.length) {
+            redistribuir();
+        }
+        return id;
+    }
+
+    /**
+     * ID de um nome, ou NENHUM se ele nunca foi internado (não conta ocorrência)
+     */
+    public int procurar(CharSequence nome) {
+        int hash = lerConsulta(FonteCaracteres.deTexto(nome), 0, nome.length());
+        int posicao = hash & mascara;
+        int ocupante;
+        while ((ocupante = posicoes[posicao]) != 0) {
+            int id = ocupante - 1;
+            if (hashes[id] == hash && mesmoNome(id, nome.length())) {
+                return id;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        return NENHUM;
+    }
+
+    // === CONSULTA POR ID ===
+
+    /**
+     * Quantidade de identificadores distintos (os IDs vão de 0 a quantidade() - 1)
+     */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Total de ocorrências internadas, somando todos os identificadores
+     */
+    public long getTotalOcorrencias() {
+        return totalOcorrencias;
+    }
+
+    /**
+     * Nome do identificador; a mesma String é devolvida a cada chamada
+     */
+    public String nome(int id) {
+        String nome = nomes[verificar(id)];
+        if (nome == null) {
+            nome = new String(caracteres, inicioNome[id], inicioNome[id + 1] - inicioNome[id]);
+            nomes[id] = nome;
+        }
+        return nome;
+    }
+
+    public int comprimento(int id) {
+        return inicioNome[verificar(id) + 1] - inicioNome[id];
+    }
+
+    public int ocorrencias(int id) {
+        return ocorrencias[verificar(id)];
+    }
+
+    /**
+     * Posição da primeira ocorrência no código fonte
+     */
+    public int primeiraPosicao(int id) {
+        return primeirasPosicoes[verificar(id)];
+    }
+
+    // === UTILITÁRIOS ===
+
+    private int verificar(int id) {
+        if (id < 0 || id >= quantidade) {
+            throw new IndexOutOfBoundsException("Símbolo " + id + ", quantidade " + quantidade);
+        }
+        return id;
+    }
+
+    /**
+     * Copia o trecho da fonte para o vetor de consulta e retorna o seu hash
+     */
+    private int lerConsulta(FonteCaracteres fonte, int inicio, int comprimento) {
+        if (comprimento > consulta.length) {
+            consulta = new char[Math.max(comprimento, consulta.length * 2)];
+        }
+        fonte.copiar(inicio, inicio + comprimento, consulta, 0);
+        int hash = HASH_INICIAL;
+        for (int i = 0; i < comprimento; i++) {
+            hash = (hash ^ consulta[i]) * PRIMO_FNV;
+        }
+        // Espalhar os bits altos, pois a posição usa apenas os baixos
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compara o nome do ID com o trecho no vetor de consulta
+     */
+    private boolean mesmoNome(int id, int comprimento) {
+        int inicioId = inicioNome[id];
+        return inicioNome[id + 1] - inicioId == comprimento
+            && Arrays.equals(caracteres, inicioId, inicioId + comprimento, consulta, 0, comprimento);
+    }
+
+    /**
+     * Copia o nome (já no vetor de consulta) para a tabela e cria o próximo ID
+     */
+    private int adicionar(int comprimento, int hash, int posicaoFonte) {
+        if (quantidade == hashes.length) {
+            int novaCapacidade = hashes.length * 2;
+            inicioNome = Arrays.copyOf(inicioNome, novaCapacidade + 1);
+            hashes = Arrays.copyOf(hashes, novaCapacidade);
+            ocorrencias = Arrays.copyOf(ocorrencias, novaCapacidade);
+            primeirasPosicoes = Arrays.copyOf(primeirasPosicoes, novaCapacidade);
+            nomes = Arrays.copyOf(nomes, novaCapacidade);
+        }
+        int id = quantidade++;
+        int destino = inicioNome[id];
+        if (destino + comprimento > caracteres.length) {
+            caracteres = Arrays.copyOf(caracteres, Math.max(caracteres.length * 2, destino + comprimento));
+        }
+        System.arraycopy(consulta, 0, caracteres, destino, comprimento);
+        inicioNome[id + 1] = destino + comprimento;
+        hashes[id] = hash;
+        ocorrencias[id] = 1;
+        primeirasPosicoes[id] = posicaoFonte;
+        totalOcorrencias++;
+        return id;
+    }
+
+    /**
+     * Dobra o vetor de posições e reinsere os IDs pelos hashes guardados
+     */
+    private void redistribuir() {
+        posicoes = new int[posicoes.length * 2];
+        mascara = posicoes.length - 1;
+        for (int id = 0; id < quantidade; id++) {
+            int posicao = hashes[id] & mascara;
+            while (posicoes[posicao] != 0) {
+                posicao = (posicao + 1) & mascara;
+            }
+            posicoes[posicao] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Arquivo UTF-8 mapeado em memória, acessado como uma CharSequence
+ *
+ * Permite exibir e analisar arquivos muito maiores que o heap: o conteúdo
+ * nunca é decodificado por inteiro. Na abertura, o arquivo é percorrido uma
+ * vez para dividi-lo em blocos de até TAMANHO_BLOCO bytes (sem cortar
+ * caracteres multibyte) e guardar a posição, em caracteres, do início de
+ * cada bloco. charAt() decodifica apenas o bloco que contém a posição e o
+ * mantém em cache, de modo que a leitura sequencial (analisador léxico,
+ * índice de linhas) decodifica cada bloco uma única vez.
+ *
+ * Cada instância tem o seu próprio cache e não deve ser usada por mais de
+ * uma thread; duplicar() cria outra instância sobre o mesmo mapeamento.
+ *
+ */
+public final class TextoMapeado implements CharSequence {
+
+    /** Tamanho máximo de cada bloco decodificado (em bytes) */
+    public static final int TAMANHO_BLOCO = 16 * 1024;
+
+    /** Linhas entre duas entradas do índice de linhas esparso */
+    public static final int PASSO_INDICE_LINHAS = 64;
+
+    // Tamanho de cada segmento mapeado (um MappedByteBuffer é limitado a 2 GB)
+    private static final long TAMANHO_SEGMENTO = 1L << 30;
+
+    // Quantidade de blocos entre duas consultas ao acompanhamento na abertura
+    private static final int INTERVALO_ACOMPANHAMENTO = 1024;
+
+    // === ESTRUTURA COMPARTILHADA (imutável) ===
+    private final Path arquivo;
+    private final MappedByteBuffer[] segmentos;
+    private final long tamanhoBytes;
+    private final long[] inicioByteBloco;   // inicioByteBloco[b] = primeiro byte do bloco b (mais o fim)
+    private final int[] inicioCharBloco;    // inicioCharBloco[b] = primeiro caractere do bloco b (mais o fim)
+    private final int blocos;
+    private final int comprimento;
+
+    // === ESTADO DESTA INSTÂNCIA ===
+    private final CharsetDecoder decodificador = criarDecodificador();
+    private final byte[] bytes = new byte[TAMANHO_BLOCO];
+    private final char[] cache = new char[TAMANHO_BLOCO];
+    private int inicioCache;                // Posição (em caracteres) do bloco em cache
+    private int fimCache;                   // Fim do bloco em cache (vazio: inicioCache == fimCache)
+    private IndiceLinhas indiceLinhas;      // Construído na primeira consulta
+
+    private TextoMapeado(Path arquivo, MappedByteBuffer[] segmentos, long tamanhoBytes,
+                         long[] inicioByteBloco, int[] inicioCharBloco, int blocos) {
+        this.arquivo = arquivo;
+        this.segmentos = segmentos;
+        this.tamanhoBytes = tamanhoBytes;
+        this.inicioByteBloco = inicioByteBloco;
+        this.inicioCharBloco = inicioCharBloco;
+        this.blocos = blocos;
+        this.comprimento = inicioCharBloco[blocos];
+    }
+
+    /**
+     * Mapeia um arquivo inteiro
+     */
+    public static TextoMapeado abrir(Path arquivo) throws IOException {
+        return abrir(arquivo, null);
+    }
+
+    /**
+     * Mapeia um arquivo inteiro, informando o progresso da divisão em blocos
+     *
+     * @throws CancellationException se o acompanhamento cancelar a abertura
+     */
+    public static TextoMapeado abrir(Path arquivo, AcompanhamentoAnalise acompanhamento) throws IOException {
+        MappedByteBuffer[] segmentos;
+        long tamanhoBytes;
+        // O mapeamento continua válido depois que o canal é fechado
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            tamanhoBytes = canal.size();
+            segmentos = new MappedByteBuffer[(int) ((tamanhoBytes + TAMANHO_SEGMENTO - 1) / TAMANHO_SEGMENTO)];
+            for (int s = 0; s < segmentos.length; s++) {
+                long inicio = s * TAMANHO_SEGMENTO;
+                segmentos[s] = canal.map(FileChannel.MapMode.READ_ONLY, inicio,
+                                         Math.min(TAMANHO_SEGMENTO, tamanhoBytes - inicio));
+            }
+        }
+
+        // Dividir em blocos e contar os caracteres de cada um
+        int capacidade = (int) Math.min(Integer.MAX_VALUE - 8, tamanhoBytes / TAMANHO_BLOCO + 2);
+        long[] inicioByteBloco = new long[capacidade];
+        int[] inicioCharBloco = new int[capacidade];
+        TextoMapeado contador = new TextoMapeado(arquivo, segmentos, tamanhoBytes, inicioByteBloco, inicioCharBloco, 0);
+        long caracteres = 0;
+        long inicio = 0;
+        int blocos = 0;
+        while (inicio < tamanhoBytes) {
+            long fim = contador.fimBloco(inicio);
+            if (blocos + 1 == inicioByteBloco.length) {
+                inicioByteBloco = Arrays.copyOf(inicioByteBloco, inicioByteBloco.length * 2);
+                inicioCharBloco = Arrays.copyOf(inicioCharBloco, inicioCharBloco.length * 2);
+            }
+            inicioByteBloco[blocos] = inicio;
+            inicioCharBloco[blocos] = (int) caracteres;
+            blocos++;
+            caracteres += contador.decodificar(inicio, fim);
+            if (caracteres > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo grande demais: mais de " + Integer.MAX_VALUE + " caracteres");
+            }
+            if (acompanhamento != null && blocos % INTERVALO_ACOMPANHAMENTO == 0) {
+                if (acompanhamento.cancelado()) {
+                    throw new CancellationException("Abertura cancelada");
+                }
+                acompanhamento.progresso(fim, tamanhoBytes);
+            }
+            inicio = fim;
+        }
+        inicioByteBloco[blocos] = tamanhoBytes;
+        inicioCharBloco[blocos] = (int) caracteres;
+        return new TextoMapeado(arquivo, segmentos, tamanhoBytes,
+                                Arrays.copyOf(inicioByteBloco, blocos + 1),
+                                Arrays.copyOf(inicioCharBloco, blocos + 1), blocos);
+    }
+
+    /**
+     * Outra instância sobre o mesmo mapeamento, com cache próprio (para outra thread)
+     */
+    public TextoMapeado duplicar() {
+        TextoMapeado copia = new TextoMapeado(arquivo, segmentos, tamanhoBytes, inicioByteBloco, inicioCharBloco, blocos);
+        if (indiceLinhas != null) {
+            copia.indiceLinhas = indiceLinhas.comTexto(copia);
+        }
+        return copia;
+    }
+
+    // === CONSULTA ===
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    public long getTamanhoBytes() {
+        return tamanhoBytes;
+    }
+
+    /**
+     * Índice de linhas esparso deste texto, construído na primeira consulta
+     * (uma varredura completa do arquivo)
+     */
+    public IndiceLinhas indiceLinhas() {
+        if (indiceLinhas == null) {
+            indiceLinhas = IndiceLinhas.esparso(this, PASSO_INDICE_LINHAS);
+        }
+        return indiceLinhas;
+    }
+
+    // === CHARSEQUENCE ===
+
+    @Override
+    public int length() {
+        return comprimento;
+    }
+
+    @Override
+    public char charAt(int posicao) {
+        if (posicao < inicioCache || posicao >= fimCache) {
+            carregarBloco(posicao);
+        }
+        return cache[posicao - inicioCache];
+    }
+
+    /**
+     * Copia o trecho [inicio, fim) para uma String
+     */
+    @Override
+    public CharSequence subSequence(int inicio, int fim) {
+        if (inicio < 0 || fim > comprimento || inicio > fim) {
+            throw new IndexOutOfBoundsException("Trecho [" + inicio + ", " + fim + ") fora do texto de tamanho " + comprimento);
+        }
+        StringBuilder trecho = new StringBuilder(fim - inicio);
+        int posicao = inicio;
+        while (posicao < fim) {
+            if (posicao < inicioCache || posicao >= fimCache) {
+                carregarBloco(posicao);
+            }
+            int n = Math.min(fim, fimCache) - posicao;
+            trecho.append(cache, posicao - inicioCache, n);
+            posicao += n;
+        }
+        return trecho.toString();
+    }
+
+    /**
+     * Decodifica o arquivo inteiro (apenas para arquivos que cabem no heap)
+     */
+    @Override
+    public String toString() {
+        return subSequence(0, comprimento).toString();
+    }
+
+    // === BLOCOS ===
+
+    /**
+     * Decodifica para o cache o bloco que contém a posição
+     */
+    private void carregarBloco(int posicao) {
+        if (posicao < 0 || posicao >= comprimento) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + " fora do texto de tamanho " + comprimento);
+        }
+        // Último bloco que começa até a posição
+        int baixo = 0;
+        int alto = blocos - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (inicioCharBloco[meio] <= posicao) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        int decodificados = decodificar(inicioByteBloco[baixo], inicioByteBloco[baixo + 1]);
+        inicioCache = inicioCharBloco[baixo];
+        fimCache = inicioCache + decodificados;
+    }
+
+    /**
+     * Decodifica os bytes [inicio, fim) para o cache e retorna a quantidade de caracteres
+     */
+    private int decodificar(long inicio, long fim) {
+        int tamanho = (int) (fim - inicio);
+        int copiados = 0;
+        while (copiados < tamanho) {
+            long posicao = inicio + copiados;
+            MappedByteBuffer segmento = segmentos[(int) (posicao / TAMANHO_SEGMENTO)];
+            int deslocamento = (int) (posicao % TAMANHO_SEGMENTO);
+            int n = Math.min(tamanho - copiados, segmento.limit() - deslocamento);
+            segmento.get(deslocamento, bytes, copiados, n);
+            copiados += n;
+        }
+        // O cache é invalidado antes de ser sobrescrito
+        inicioCache = 0;
+        fimCache = 0;
+        CharBuffer saida = CharBuffer.wrap(cache);
+        decodificador.reset();
+        decodificador.decode(ByteBuffer.wrap(bytes, 0, tamanho), saida, true);
+        decodificador.flush(saida);
+        return saida.position();
+    }
+
+    /**
+     * Fim do bloco que começa em inicio, sem cortar um caractere multibyte
+     */
+    private long fimBloco(long inicio) {
+        long fim = Math.min(inicio + TAMANHO_BLOCO, tamanhoBytes);
+        // Recuar sobre bytes de continuação (10xxxxxx), no máximo os de um caractere
+        for (int recuo = 0; recuo < 3 && fim < tamanhoBytes && fim > inicio + 1 && ehContinuacao(fim); recuo++) {
+            fim--;
+        }
+        return fim;
+    }
+
+    private boolean ehContinuacao(long posicao) {
+        byte b = segmentos[(int) (posicao / TAMANHO_SEGMENTO)].get((int) (posicao % TAMANHO_SEGMENTO));
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static CharsetDecoder criarDecodificador() {
+        return StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+}
@@ -7,6 +7,12 @@ package lexico;
  * composto por:
  * - lexema: a sequência de caracteres que forma o token
  * - tipo: a categoria do token (identificador, número, operador, etc.)
+ * - posicao: índice do primeiro caractere do token no código fonte
+ *   (linha e coluna são obtidas sob demanda, ver IndiceLinhas)
+ * - comprimento: quantidade de caracteres do token no código fonte
+ *   (difere do lexema em literais, que perdem as aspas)
+ * - simbolo: ID do identificador na TabelaSimbolos, quando o analisador
+ *   usa uma (TabelaSimbolos.NENHUM nos demais casos)
  * 
  * Exemplos:
  * - Token("programa", PALAVRA_RESERVADA)
@@ -20,13 +26,40 @@ public class Token {
     // Campos públicos e finais para acesso direto e imutabilidade
     public final TipoToken tipo;    // Categoria do token
     public final String lexema;     // Texto original do token
+    public final int posicao;       // Posição inicial no código fonte (-1 se desconhecida)
+    public final int comprimento;   // Caracteres ocupados no código fonte (-1 se desconhecido)
+    public final int simbolo;       // ID na TabelaSimbolos (TabelaSimbolos.NENHUM se não internado)
     
     /**
      * Construtor do token
      */
     public Token(TipoToken tipo, String lexema) {
+        this(tipo, lexema, -1, -1);
+    }
+
+    /**
+     * Construtor do token com a posição inicial no código fonte
+     */
+    public Token(TipoToken tipo, String lexema, int posicao) {
+        this(tipo, lexema, posicao, -1);
+    }
+
+    /**
+     * Construtor do token com a posição e o comprimento no código fonte
+     */
+    public Token(TipoToken tipo, String lexema, int posicao, int comprimento) {
+        this(tipo, lexema, posicao, comprimento, TabelaSimbolos.NENHUM);
+    }
+
+    /**
+     * Construtor do token de um identificador internado na TabelaSimbolos
+     */
+    public Token(TipoToken tipo, String lexema, int posicao, int comprimento, int simbolo) {
         this.tipo = tipo;
         this.lexema = lexema;
+        this.posicao = posicao;
+        this.comprimento = comprimento;
+        this.simbolo = simbolo;
     }
     
     /**
@@ -0,0 +1,959 @@
+package semantico;
+
+import lexico.AnalisadorLexico;
+import lexico.TabelaSimbolos;
+import sintatico.ArvoreSintatica;
+import sintatico.Operador;
+import sintatico.TipoNo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analisador semântico: resolução de nomes e verificação de tipos
+ *
+ * Percorre a ArvoreSintatica uma única vez, em ordem de código fonte:
+ * - declarações: cada nome é registrado na TabelaEscopos (constantes,
+ *   tipos, variáveis, rótulos, sub-rotinas e parâmetros); procedimentos e
+ *   funções abrem um escopo, e "with" abre um escopo com os campos do
+ *   registro
+ * - usos: cada identificador é ligado à declaração visível, e cada
+ *   expressão recebe um tipo da TabelaTipos (integer, real, char e string,
+ *   as palavras reservadas de tipo; boolean nas condições)
+ *
+ * Erros verificados: nome não declarado ou declarado duas vezes no mesmo
+ * escopo, nome usado fora da sua categoria (tipo como valor, variável
+ * como procedimento...), atribuição a constante, tipos incompatíveis em
+ * atribuições, argumentos e operadores, quantidade de argumentos,
+ * argumento de parâmetro var que não é variável, condição que não é
+ * boolean e variável de controle de for ou seletor de case não ordinal.
+ * Um nome não declarado é registrado uma única vez por escopo, e
+ * expressões com erro recebem o tipo ERRO, compatível com todos, para que
+ * um erro não gere outros.
+ *
+ * Custo linear no tamanho da árvore: entrar e sair de escopos usa a pilha
+ * de desfazer da TabelaEscopos, e as expressões (cujos nós a árvore guarda
+ * em pós-ordem, a ordem de avaliação) são percorridas por um laço sobre o
+ * intervalo da subárvore, sem recursão, de modo que expressões longas não
+ * esgotam a pilha. Os comandos são percorridos recursivamente, com o
+ * aninhamento já limitado pelo AnalisadorSintatico.
+ *
+ * Nomes predefinidos (escopo externo ao programa): boolean, true, false,
+ * maxint e os procedimentos write, writeln, read e readln, que aceitam
+ * quaisquer argumentos.
+ *
+ * Uso:
+ *   ArvoreSintatica arvore = new AnalisadorSintatico(lexico).analisar();
+ *   AnalisadorSemantico semantico = new AnalisadorSemantico(arvore, lexico);
+ *   semantico.analisar();
+ *   ... semantico.getErros(), semantico.tipo(no), semantico.ligacao(no) ...
+ *
+ */
+public final class AnalisadorSemantico {
+
+    /** Quantidade máxima de erros guardados (os demais são apenas contados) */
+    public static final int LIMITE_PADRAO = 1000;
+
+    private final ArvoreSintatica arvore;
+    private final AnalisadorLexico lexico;      // Linha e coluna dos erros (pode ser null)
+    private final TabelaTipos tipos = new TabelaTipos();
+    private final TabelaEscopos escopos;
+
+    // === RESULTADO POR NÓ ===
+    private final int[] tiposNo;                // Tipo de cada expressão e de cada nó de tipo
+    private final int[] ligacoesNo;             // Declaração de cada nome usado ou declarado
+
+    // Filhos dos nós em análise, em ordem (cada chamada usa [base, topo) e restaura o topo)
+    private int[] pilha = new int[256];
+    private int topo;
+
+    // Funções cujo corpo está em análise (o nome delas pode receber o resultado)
+    private int[] funcoesAtivas = new int[16];
+    private int quantidadeFuncoesAtivas;
+
+    // Erros semânticos
+    private final List<ErroSemantico> erros = new ArrayList<>();
+    private long totalErros;
+    private int limite = LIMITE_PADRAO;
+    private int posicaoUltimoErro = -1;         // Um único erro por posição
+
+    private boolean analisado;
+
+    /**
+     * @param lexico analisador léxico que produziu a árvore, usado apenas
+     *        para a linha e a coluna dos erros (pode ser null)
+     */
+    public AnalisadorSemantico(ArvoreSintatica arvore, AnalisadorLexico lexico) {
+        this.arvore = arvore;
+        this.lexico = lexico;
+        TabelaSimbolos simbolos = arvore.getTabelaSimbolos();
+        this.escopos = new TabelaEscopos(simbolos != null ? simbolos : new TabelaSimbolos());
+        this.tiposNo = new int[arvore.tamanho()];
+        this.ligacoesNo = new int[arvore.tamanho()];
+        Arrays.fill(ligacoesNo, TabelaEscopos.NENHUMA);
+    }
+
+    // === ANÁLISE ===
+
+    /**
+     * Analisa a árvore inteira (apenas uma vez)
+     */
+    public void analisar() {
+        if (analisado) {
+            throw new IllegalStateException("A análise semântica já foi realizada");
+        }
+        analisado = true;
+        int raiz = arvore.raiz();
+        if (raiz == ArvoreSintatica.NENHUM) {
+            return;
+        }
+        escopos.entrar();
+        predefinidos();
+        escopos.entrar();
+        if (arvore.simbolo(raiz) != TabelaSimbolos.NENHUM) {
+            declarar(raiz, Categoria.PROGRAMA, TabelaTipos.ERRO);
+        }
+        int base = empilharFilhos(raiz);
+        int fim = topo;
+        for (int i = base; i < fim; i++) {
+            int filho = pilha[i];
+            switch (arvore.tipo(filho)) {
+                case USES:
+                    declararFilhos(filho, Categoria.UNIDADE, TabelaTipos.ERRO, 0);
+                    break;
+                case BLOCO:
+                    comando(filho);
+                    break;
+                default:
+                    declaracao(filho);
+                    break;
+            }
+        }
+        topo = base;
+        escopos.sair();
+        escopos.sair();
+    }
+
+    private void predefinidos() {
+        predefinido("boolean", Categoria.TIPO, TabelaTipos.LOGICO);
+        predefinido("true", Categoria.CONSTANTE, TabelaTipos.LOGICO);
+        predefinido("false", Categoria.CONSTANTE, TabelaTipos.LOGICO);
+        predefinido("maxint", Categoria.CONSTANTE, TabelaTipos.INTEIRO);
+        for (String nome : new String[] { "write", "writeln", "read", "readln" }) {
+            int ligacao = predefinido(nome, Categoria.PROCEDIMENTO, TabelaTipos.ERRO);
+            escopos.definirParametros(ligacao, TabelaEscopos.NENHUMA, TabelaEscopos.VARIADICO);
+        }
+    }
+
+    private int predefinido(String nome, Categoria categoria, int tipo) {
+        return escopos.declarar(escopos.chave(nome), categoria, tipo, TabelaEscopos.NENHUMA);
+    }
+
+    // === DECLARAÇÕES ===
+
+    private void declaracao(int no) {
+        switch (arvore.tipo(no)) {
+            case DECLARACAO_CONSTANTE:
+                declarar(no, Categoria.CONSTANTE, expressao(no - 1));
+                break;
+            case DECLARACAO_TIPO:
+                declarar(no, Categoria.TIPO, tipoDescrito(no - 1));
+                break;
+            case DECLARACAO_VARIAVEIS:
+                // Filhos: os nomes e, por último, o tipo
+                declararFilhos(no, Categoria.VARIAVEL, tipoDescrito(no - 1), 1);
+                break;
+            case DECLARACAO_ROTULOS:
+                declararFilhos(no, Categoria.ROTULO, TabelaTipos.ERRO, 0);
+                break;
+            case PROCEDIMENTO:
+            case FUNCAO:
+                subrotina(no);
+                break;
+            default:
+                break; // ERRO: trecho já reportado pelo analisador sintático
+        }
+    }
+
+    /**
+     * Declara os filhos IDENTIFICADOR do nó, exceto os 'ignorados' últimos
+     */
+    private void declararFilhos(int no, Categoria categoria, int tipo, int ignorados) {
+        int base = empilharFilhos(no);
+        int fim = topo - ignorados;
+        for (int i = base; i < fim; i++) {
+            if (arvore.tipo(pilha[i]) == TipoNo.IDENTIFICADOR) {
+                declarar(pilha[i], categoria, tipo);
+            }
+        }
+        topo = base;
+    }
+
+    /**
+     * Declara o nome do nó no escopo atual; se ele já está declarado nesse
+     * escopo, registra o erro e mantém a primeira declaração
+     */
+    private int declarar(int no, Categoria categoria, int tipo) {
+        int chave = escopos.chave(arvore.simbolo(no));
+        int existente = escopos.procurarNoEscopoAtual(chave);
+        if (existente != TabelaEscopos.NENHUMA) {
+            erro(no, "'" + arvore.nome(no) + "' já declarado neste escopo");
+            ligacoesNo[no] = existente;
+            return existente;
+        }
+        int ligacao = escopos.declarar(chave, categoria, tipo, no);
+        ligacoesNo[no] = ligacao;
+        return ligacao;
+    }
+
+    /**
+     * Procedimento ou função: o nome é declarado no escopo atual, e os
+     * parâmetros, as declarações locais e o bloco ficam em um escopo novo
+     *
+     * Uma sub-rotina declarada antes com forward recebe aqui o seu corpo.
+     */
+    private void subrotina(int no) {
+        boolean funcao = arvore.tipo(no) == TipoNo.FUNCAO;
+        Categoria categoria = funcao ? Categoria.FUNCAO : Categoria.PROCEDIMENTO;
+        int base = empilharFilhos(no);
+        int fim = topo;
+        int parametros = pilha[base];
+        int proximo = base + 1;
+        int resultado = TabelaTipos.ERRO;
+        if (funcao) {
+            resultado = tipoDescrito(pilha[proximo++]);
+        }
+
+        int chave = escopos.chave(arvore.simbolo(no));
+        int existente = escopos.procurarNoEscopoAtual(chave);
+        int ligacao;
+        boolean completaForward = existente != TabelaEscopos.NENHUMA
+                                  && escopos.categoria(existente) == categoria
+                                  && !temCorpo(escopos.no(existente));
+        if (completaForward) {
+            ligacao = existente;
+            escopos.definirNo(ligacao, no);
+        } else {
+            if (existente != TabelaEscopos.NENHUMA) {
+                erro(no, "'" + arvore.nome(no) + "' já declarado neste escopo");
+            }
+            // Mesmo duplicada, a sub-rotina ganha a sua ligação, para que o corpo seja analisado
+            ligacao = escopos.declarar(chave, categoria, resultado, no);
+        }
+        ligacoesNo[no] = ligacao;
+
+        escopos.entrar();
+        if (funcao) {
+            ativarFuncao(ligacao);
+        }
+        if (completaForward && arvore.ultimoFilho(parametros) == ArvoreSintatica.NENHUM) {
+            // Corpo de um forward sem a lista de parâmetros: valem os da primeira declaração
+            int primeiro = escopos.primeiroParametro(ligacao);
+            for (int i = 0; i < escopos.quantidadeParametros(ligacao); i++) {
+                int parametro = primeiro + i;
+                escopos.declarar(escopos.chaveLigacao(parametro), escopos.categoria(parametro),
+                                 escopos.tipo(parametro), escopos.no(parametro));
+            }
+        } else {
+            declararParametros(ligacao, parametros);
+        }
+        for (int i = proximo; i < fim; i++) {
+            int filho = pilha[i];
+            if (arvore.tipo(filho) == TipoNo.BLOCO) {
+                comando(filho);
+            } else {
+                declaracao(filho);
+            }
+        }
+        if (funcao) {
+            quantidadeFuncoesAtivas--;
+        }
+        escopos.sair();
+        topo = base;
+    }
+
+    /**
+     * Declara os parâmetros no escopo da sub-rotina; as ligações ficam
+     * contíguas mesmo com nomes repetidos, formando a lista de parâmetros
+     */
+    private void declararParametros(int subrotina, int parametros) {
+        int primeiro = escopos.quantidade();
+        int quantidade = 0;
+        int base = empilharFilhos(parametros);
+        int fim = topo;
+        for (int i = base; i < fim; i++) {
+            int grupo = pilha[i];
+            Categoria categoria = arvore.tipo(grupo) == TipoNo.PARAMETRO_REFERENCIA
+                                  ? Categoria.PARAMETRO_REFERENCIA : Categoria.PARAMETRO_VALOR;
+            int tipo = tipoDescrito(grupo - 1);
+            int baseGrupo = empilharFilhos(grupo);
+            int fimGrupo = topo - 1; // O último filho é o tipo
+            for (int j = baseGrupo; j < fimGrupo; j++) {
+                int nome = pilha[j];
+                int chave = escopos.chave(arvore.simbolo(nome));
+                if (escopos.procurarNoEscopoAtual(chave) != TabelaEscopos.NENHUMA) {
+                    erro(nome, "'" + arvore.nome(nome) + "' já declarado neste escopo");
+                }
+                ligacoesNo[nome] = escopos.declarar(chave, categoria, tipo, nome);
+                quantidade++;
+            }
+            topo = baseGrupo;
+        }
+        topo = base;
+        escopos.definirParametros(subrotina, quantidade > 0 ? primeiro : TabelaEscopos.NENHUMA, quantidade);
+    }
+
+    private boolean temCorpo(int subrotina) {
+        return subrotina != TabelaEscopos.NENHUMA && arvore.tipo(subrotina - 1) == TipoNo.BLOCO;
+    }
+
+    // === TIPOS ===
+
+    /**
+     * Tipo descrito por um nó de tipo (TIPO_*)
+     */
+    private int tipoDescrito(int no) {
+        int tipo;
+        switch (arvore.tipo(no)) {
+            case TIPO_INTEIRO:
+                tipo = TabelaTipos.INTEIRO;
+                break;
+            case TIPO_REAL:
+                tipo = TabelaTipos.REAL;
+                break;
+            case TIPO_CARACTERE:
+                tipo = TabelaTipos.CARACTERE;
+                break;
+            case TIPO_TEXTO:
+                tipo = TabelaTipos.TEXTO;
+                break;
+            case TIPO_NOMEADO: {
+                int ligacao = resolver(no, Categoria.TIPO);
+                if (escopos.categoria(ligacao) == Categoria.TIPO) {
+                    tipo = escopos.tipo(ligacao);
+                } else {
+                    erro(no, "'" + arvore.nome(no) + "' não é um tipo");
+                    tipo = TabelaTipos.ERRO;
+                }
+                break;
+            }
+            case TIPO_ARRAY:
+                tipo = tipos.novoComposto(TabelaTipos.ARRAY, tipoDescrito(no - 1));
+                break;
+            case TIPO_CONJUNTO:
+                tipo = tipos.novoComposto(TabelaTipos.CONJUNTO, tipoDescrito(no - 1));
+                break;
+            case TIPO_ARQUIVO:
+                tipo = tipos.novoComposto(TabelaTipos.ARQUIVO, tipoDescrito(no - 1));
+                break;
+            case TIPO_REGISTRO:
+                tipo = registro(no);
+                break;
+            default:
+                tipo = TabelaTipos.ERRO;
+                break;
+        }
+        tiposNo[no] = tipo;
+        return tipo;
+    }
+
+    /**
+     * Registro: os tipos dos campos são resolvidos antes (registros internos
+     * são criados nessa etapa), e só então os campos são acrescentados,
+     * para que fiquem contíguos na TabelaTipos
+     */
+    private int registro(int no) {
+        int base = empilharFilhos(no);
+        int fim = topo;
+        for (int i = base; i < fim; i++) {
+            int grupo = pilha[i];
+            tiposNo[grupo] = tipoDescrito(grupo - 1);
+        }
+        int registro = tipos.novoRegistro();
+        for (int i = base; i < fim; i++) {
+            int grupo = pilha[i];
+            int baseGrupo = empilharFilhos(grupo);
+            int fimGrupo = topo - 1; // O último filho é o tipo
+            for (int j = baseGrupo; j < fimGrupo; j++) {
+                int nome = pilha[j];
+                if (!tipos.adicionarCampo(registro, escopos.chave(arvore.simbolo(nome)), tiposNo[grupo], nome)) {
+                    erro(nome, "campo '" + arvore.nome(nome) + "' repetido no registro");
+                }
+            }
+            topo = baseGrupo;
+        }
+        topo = base;
+        return registro;
+    }
+
+    // === COMANDOS ===
+
+    private void comando(int no) {
+        switch (arvore.tipo(no)) {
+            case BLOCO:
+                comandosFilhos(no, 0);
+                break;
+            case ATRIBUICAO:
+                atribuicao(no);
+                break;
+            case CHAMADA:
+                chamada(no, true);
+                break;
+            case SE: {
+                int base = empilharFilhos(no);
+                condicao(pilha[base]);
+                for (int i = base + 1; i < topo; i++) {
+                    comando(pilha[i]);
+                }
+                topo = base;
+                break;
+            }
+            case ENQUANTO:
+                condicao(arvore.inicioSubarvore(no - 1) - 1);
+                comando(no - 1);
+                break;
+            case REPITA:
+                // Filhos: os comandos e, por último, a condição
+                comandosFilhos(no, 1);
+                condicao(no - 1);
+                break;
+            case PARA:
+            case PARA_DECRESCENTE:
+                para(no);
+                break;
+            case CASO:
+                caso(no);
+                break;
+            case COM:
+                com(no);
+                break;
+            case DESVIO:
+                if (arvore.tipo(no - 1) == TipoNo.IDENTIFICADOR) {
+                    int ligacao = resolver(no - 1, Categoria.ROTULO);
+                    if (escopos.categoria(ligacao) != Categoria.ROTULO) {
+                        erro(no - 1, "'" + arvore.nome(no - 1) + "' não é um rótulo");
+                    }
+                }
+                break;
+            default:
+                break; // VAZIO, ou ERRO já reportado pelo analisador sintático
+        }
+    }
+
+    /**
+     * Analisa os filhos do nó como comandos, exceto os 'ignorados' últimos
+     */
+    private void comandosFilhos(int no, int ignorados) {
+        int base = empilharFilhos(no);
+        int fim = topo - ignorados;
+        for (int i = base; i < fim; i++) {
+            comando(pilha[i]);
+        }
+        topo = base;
+    }
+
+    private void atribuicao(int no) {
+        int valor = no - 1;
+        int destino = arvore.inicioSubarvore(valor) - 1;
+        int tipoValor = expressao(valor);
+        int tipoDestino;
+        if (arvore.tipo(destino) == TipoNo.IDENTIFICADOR) {
+            int ligacao = resolver(destino, Categoria.VARIAVEL);
+            Categoria categoria = escopos.categoria(ligacao);
+            if (categoria.ehVariavel() || (categoria == Categoria.FUNCAO && funcaoAtiva(ligacao))) {
+                tipoDestino = escopos.tipo(ligacao);
+            } else {
+                erro(destino, "não é possível atribuir a " + categoria.descricao + " '" + arvore.nome(destino) + "'");
+                tipoDestino = TabelaTipos.ERRO;
+            }
+            tiposNo[destino] = tipoDestino;
+        } else {
+            tipoDestino = expressao(destino);
+        }
+        if (!TabelaTipos.atribuivel(tipoDestino, tipoValor)) {
+            erro(no, "tipos incompatíveis na atribuição: " + tipos.descrever(tipoDestino)
+                     + " := " + tipos.descrever(tipoValor));
+        }
+    }
+
+    private void condicao(int no) {
+        int tipo = expressao(no);
+        if (tipo != TabelaTipos.LOGICO && tipo != TabelaTipos.ERRO) {
+            erro(no, "condição deve ser boolean, encontrado " + tipos.descrever(tipo));
+        }
+    }
+
+    /**
+     * for: filhos IDENTIFICADOR, início, fim, comando
+     */
+    private void para(int no) {
+        int base = empilharFilhos(no);
+        int variavel = pilha[base];
+        int inicio = pilha[base + 1];
+        int fim = pilha[base + 2];
+        int corpo = pilha[base + 3];
+        topo = base;
+
+        int ligacao = resolver(variavel, Categoria.VARIAVEL);
+        int tipoVariavel = TabelaTipos.ERRO;
+        if (!escopos.categoria(ligacao).ehVariavel()) {
+            erro(variavel, "variável de controle '" + arvore.nome(variavel) + "' não é uma variável");
+        } else {
+            tipoVariavel = escopos.tipo(ligacao);
+            if (!TabelaTipos.ehOrdinal(tipoVariavel) && tipoVariavel != TabelaTipos.ERRO) {
+                erro(variavel, "variável de controle deve ser de tipo ordinal, encontrado " + tipos.descrever(tipoVariavel));
+                tipoVariavel = TabelaTipos.ERRO;
+            }
+        }
+        tiposNo[variavel] = tipoVariavel;
+        for (int limite : new int[] { inicio, fim }) {
+            int tipoLimite = expressao(limite);
+            if (!TabelaTipos.atribuivel(tipoVariavel, tipoLimite)) {
+                erro(limite, "limite do for incompatível: esperado " + tipos.descrever(tipoVariavel)
+                             + ", encontrado " + tipos.descrever(tipoLimite));
+            }
+        }
+        comando(corpo);
+    }
+
+    /**
+     * case: filhos seletor, RAMO_CASO... e [RAMO_SENAO]
+     */
+    private void caso(int no) {
+        int base = empilharFilhos(no);
+        int fim = topo;
+        int seletor = pilha[base];
+        int tipoSeletor = expressao(seletor);
+        if (!TabelaTipos.ehOrdinal(tipoSeletor) && tipoSeletor != TabelaTipos.ERRO) {
+            erro(seletor, "seletor do case deve ser de tipo ordinal, encontrado " + tipos.descrever(tipoSeletor));
+            tipoSeletor = TabelaTipos.ERRO;
+        }
+        for (int i = base + 1; i < fim; i++) {
+            int ramo = pilha[i];
+            if (arvore.tipo(ramo) == TipoNo.RAMO_SENAO) {
+                comandosFilhos(ramo, 0);
+                continue;
+            }
+            // RAMO_CASO: as constantes e, por último, o comando
+            int baseRamo = empilharFilhos(ramo);
+            int fimRamo = topo - 1;
+            for (int j = baseRamo; j < fimRamo; j++) {
+                int constante = pilha[j];
+                int tipoConstante = expressao(constante);
+                if (!comparaveis(tipoSeletor, tipoConstante)) {
+                    erro(constante, "rótulo do case incompatível com o seletor: esperado "
+                                    + tipos.descrever(tipoSeletor) + ", encontrado " + tipos.descrever(tipoConstante));
+                }
+            }
+            topo = baseRamo;
+            comando(ramo - 1);
+        }
+        topo = base;
+    }
+
+    /**
+     * with: cada variável de registro abre um escopo com os seus campos
+     */
+    private void com(int no) {
+        int base = empilharFilhos(no);
+        int fim = topo - 1; // O último filho é o comando
+        int escoposAbertos = 0;
+        for (int i = base; i < fim; i++) {
+            int variavel = pilha[i];
+            int tipo = expressao(variavel);
+            if (tipo == TabelaTipos.ERRO) {
+                continue;
+            }
+            if (tipos.forma(tipo) != TabelaTipos.REGISTRO) {
+                erro(variavel, "with exige um registro, encontrado " + tipos.descrever(tipo));
+                continue;
+            }
+            escopos.entrar();
+            escoposAbertos++;
+            int primeiro = tipos.primeiroCampo(tipo);
+            for (int campo = primeiro; campo < primeiro + tipos.quantidadeCampos(tipo); campo++) {
+                escopos.declarar(tipos.chaveCampo(campo), Categoria.CAMPO, tipos.tipoCampo(campo), tipos.noCampo(campo));
+            }
+        }
+        topo = base;
+        comando(no - 1);
+        for (int i = 0; i < escoposAbertos; i++) {
+            escopos.sair();
+        }
+    }
+
+    // === EXPRESSÕES ===
+
+    /**
+     * Tipo da expressão, calculado para todos os nós da subárvore
+     *
+     * Em pós-ordem, os operandos vêm antes do operador: basta percorrer o
+     * intervalo [inicioSubarvore(no), no] em ordem crescente.
+     */
+    private int expressao(int no) {
+        for (int n = arvore.inicioSubarvore(no); n <= no; n++) {
+            int tipo;
+            switch (arvore.tipo(n)) {
+                case NUMERO_INTEIRO:
+                    tipo = TabelaTipos.INTEIRO;
+                    break;
+                case NUMERO_REAL:
+                    tipo = TabelaTipos.REAL;
+                    break;
+                case CARACTERE:
+                    tipo = TabelaTipos.CARACTERE;
+                    break;
+                case TEXTO:
+                    tipo = TabelaTipos.TEXTO;
+                    break;
+                case NULO:
+                    tipo = TabelaTipos.NULO;
+                    break;
+                case IDENTIFICADOR:
+                    tipo = valor(n);
+                    break;
+                case ACESSO_CAMPO:
+                    tipo = campo(n);
+                    break;
+                case CHAMADA:
+                    tipo = chamada(n, false);
+                    break;
+                case OPERACAO_BINARIA:
+                    tipo = binaria(n);
+                    break;
+                case OPERACAO_UNARIA:
+                    tipo = unaria(n);
+                    break;
+                default:
+                    tipo = TabelaTipos.ERRO;
+                    break;
+            }
+            tiposNo[n] = tipo;
+        }
+        return tiposNo[no];
+    }
+
+    /**
+     * Identificador usado como valor (uma função sem argumentos é chamada)
+     */
+    private int valor(int no) {
+        int ligacao = resolver(no, Categoria.VARIAVEL);
+        Categoria categoria = escopos.categoria(ligacao);
+        if (categoria.ehVariavel() || categoria == Categoria.CONSTANTE) {
+            return escopos.tipo(ligacao);
+        }
+        if (categoria == Categoria.FUNCAO) {
+            verificarArgumentos(ligacao, no, topo, 0);
+            return escopos.tipo(ligacao);
+        }
+        erro(no, categoria.descricao + " '" + arvore.nome(no) + "' usado como valor");
+        return TabelaTipos.ERRO;
+    }
+
+    private int campo(int no) {
+        int tipoRegistro = tiposNo[no - 1];
+        if (tipoRegistro == TabelaTipos.ERRO) {
+            return TabelaTipos.ERRO;
+        }
+        if (tipos.forma(tipoRegistro) != TabelaTipos.REGISTRO) {
+            erro(no, "campo '" + arvore.nome(no) + "' em valor que não é registro ("
+                     + tipos.descrever(tipoRegistro) + ")");
+            return TabelaTipos.ERRO;
+        }
+        int campo = tipos.procurarCampo(tipoRegistro, escopos.chave(arvore.simbolo(no)));
+        if (campo == TabelaTipos.NENHUM) {
+            erro(no, "campo '" + arvore.nome(no) + "' não existe no registro");
+            return TabelaTipos.ERRO;
+        }
+        return tipos.tipoCampo(campo);
+    }
+
+    /**
+     * Chamada de procedimento (comando) ou de função (expressão)
+     *
+     * Em expressões, os argumentos já têm tipo; em comandos, são
+     * analisados aqui.
+     *
+     * @return tipo do resultado (ERRO em procedimentos)
+     */
+    private int chamada(int no, boolean comoComando) {
+        int ligacao = resolver(no, comoComando ? Categoria.PROCEDIMENTO : Categoria.FUNCAO);
+        int base = empilharFilhos(no);
+        int fim = topo;
+        if (comoComando) {
+            for (int i = base; i < fim; i++) {
+                expressao(pilha[i]);
+            }
+        }
+        Categoria categoria = escopos.categoria(ligacao);
+        int resultado = TabelaTipos.ERRO;
+        if (!categoria.ehSubrotina()) {
+            erro(no, categoria.descricao + " '" + arvore.nome(no) + "' não é procedimento nem função");
+        } else {
+            if (!comoComando && categoria == Categoria.PROCEDIMENTO) {
+                erro(no, "procedimento '" + arvore.nome(no) + "' não retorna valor");
+            } else if (categoria == Categoria.FUNCAO) {
+                resultado = escopos.tipo(ligacao);
+            }
+            verificarArgumentos(ligacao, no, base, fim - base);
+        }
+        topo = base;
+        return resultado;
+    }
+
+    /**
+     * Verifica a quantidade e o tipo dos argumentos pilha[base, base + quantidade)
+     */
+    private void verificarArgumentos(int subrotina, int no, int base, int quantidade) {
+        int esperados = escopos.quantidadeParametros(subrotina);
+        if (esperados == TabelaEscopos.VARIADICO) {
+            return;
+        }
+        if (esperados != quantidade) {
+            erro(no, "quantidade de argumentos de '" + arvore.nome(no) + "': esperado " + esperados
+                     + ", encontrado " + quantidade);
+        }
+        int primeiro = escopos.primeiroParametro(subrotina);
+        for (int i = 0; i < Math.min(esperados, quantidade); i++) {
+            int parametro = primeiro + i;
+            int argumento = pilha[base + i];
+            int tipoParametro = escopos.tipo(parametro);
+            int tipoArgumento = tiposNo[argumento];
+            boolean compativel;
+            if (escopos.categoria(parametro) == Categoria.PARAMETRO_REFERENCIA) {
+                if (!ehVariavel(argumento)) {
+                    erro(argumento, "argumento " + (i + 1) + " de '" + arvore.nome(no)
+                                    + "' deve ser uma variável (parâmetro var)");
+                    continue;
+                }
+                compativel = tipoParametro == tipoArgumento
+                             || tipoParametro == TabelaTipos.ERRO || tipoArgumento == TabelaTipos.ERRO;
+            } else {
+                compativel = TabelaTipos.atribuivel(tipoParametro, tipoArgumento);
+            }
+            if (!compativel) {
+                erro(argumento, "argumento " + (i + 1) + " de '" + arvore.nome(no) + "': esperado "
+                                + tipos.descrever(tipoParametro) + ", encontrado " + tipos.descrever(tipoArgumento));
+            }
+        }
+    }
+
+    private boolean ehVariavel(int no) {
+        TipoNo tipo = arvore.tipo(no);
+        if (tipo == TipoNo.ACESSO_CAMPO) {
+            return true;
+        }
+        return tipo == TipoNo.IDENTIFICADOR && ligacoesNo[no] != TabelaEscopos.NENHUMA
+               && escopos.categoria(ligacoesNo[no]).ehVariavel();
+    }
+
+    private int binaria(int no) {
+        int direita = no - 1;
+        int esquerda = arvore.inicioSubarvore(direita) - 1;
+        int a = tiposNo[esquerda];
+        int b = tiposNo[direita];
+        Operador operador = arvore.operador(no);
+        int falha = operador.ehRelacional() ? TabelaTipos.LOGICO : TabelaTipos.ERRO;
+        if (a == TabelaTipos.ERRO || b == TabelaTipos.ERRO) {
+            return falha;
+        }
+        int resultado;
+        switch (operador) {
+            case SOMA:
+                // Também concatena string e char
+                resultado = ehTextual(a) && ehTextual(b) ? TabelaTipos.TEXTO : aritmetico(a, b);
+                break;
+            case SUBTRACAO:
+            case MULTIPLICACAO:
+                resultado = aritmetico(a, b);
+                break;
+            case DIVISAO:
+                resultado = TabelaTipos.ehNumerico(a) && TabelaTipos.ehNumerico(b) ? TabelaTipos.REAL : TabelaTipos.ERRO;
+                break;
+            case DIVISAO_INTEIRA:
+            case RESTO:
+            case DESLOCAMENTO_ESQUERDA:
+            case DESLOCAMENTO_DIREITA:
+                resultado = a == TabelaTipos.INTEIRO && b == TabelaTipos.INTEIRO ? TabelaTipos.INTEIRO : TabelaTipos.ERRO;
+                break;
+            case E:
+            case OU:
+            case OU_EXCLUSIVO:
+                resultado = a == b && (a == TabelaTipos.LOGICO || a == TabelaTipos.INTEIRO) ? a : TabelaTipos.ERRO;
+                break;
+            default:
+                resultado = comparaveis(a, b) ? TabelaTipos.LOGICO : TabelaTipos.ERRO;
+                break;
+        }
+        if (resultado == TabelaTipos.ERRO) {
+            erro(no, "operador '" + operador.simbolo + "' não se aplica a " + tipos.descrever(a)
+                     + " e " + tipos.descrever(b));
+            return falha;
+        }
+        return resultado;
+    }
+
+    private int unaria(int no) {
+        int a = tiposNo[no - 1];
+        Operador operador = arvore.operador(no);
+        if (a == TabelaTipos.ERRO) {
+            return TabelaTipos.ERRO;
+        }
+        boolean valido = operador == Operador.NAO
+                         ? a == TabelaTipos.LOGICO || a == TabelaTipos.INTEIRO
+                         : TabelaTipos.ehNumerico(a);
+        if (!valido) {
+            erro(no, "operador '" + operador.simbolo + "' não se aplica a " + tipos.descrever(a));
+            return TabelaTipos.ERRO;
+        }
+        return a;
+    }
+
+    /**
+     * Resultado de + - * entre números: real se um dos operandos é real
+     */
+    private static int aritmetico(int a, int b) {
+        if (!TabelaTipos.ehNumerico(a) || !TabelaTipos.ehNumerico(b)) {
+            return TabelaTipos.ERRO;
+        }
+        return a == TabelaTipos.REAL || b == TabelaTipos.REAL ? TabelaTipos.REAL : TabelaTipos.INTEIRO;
+    }
+
+    /**
+     * Tipos que podem ser comparados (operadores relacionais, rótulos de case)
+     */
+    private boolean comparaveis(int a, int b) {
+        return a == TabelaTipos.ERRO || b == TabelaTipos.ERRO
+            || (TabelaTipos.ehNumerico(a) && TabelaTipos.ehNumerico(b))
+            || (ehTextual(a) && ehTextual(b))
+            || (a == b && tipos.forma(a) == TabelaTipos.PRIMITIVO);
+    }
+
+    private static boolean ehTextual(int tipo) {
+        return tipo == TabelaTipos.CARACTERE || tipo == TabelaTipos.TEXTO;
+    }
+
+    // === NOMES ===
+
+    /**
+     * Declaração visível do identificador do nó
+     *
+     * Um nome não declarado é registrado como erro e declarado no escopo
+     * atual com a categoria 'substituta' e o tipo ERRO, de modo que os
+     * usos seguintes no mesmo escopo não repitam o erro.
+     */
+    private int resolver(int no, Categoria substituta) {
+        int chave = escopos.chave(arvore.simbolo(no));
+        int ligacao = escopos.procurar(chave);
+        if (ligacao == TabelaEscopos.NENHUMA) {
+            erro(no, "identificador '" + arvore.nome(no) + "' não declarado");
+            ligacao = escopos.declarar(chave, substituta, TabelaTipos.ERRO, no);
+            if (substituta.ehSubrotina()) {
+                escopos.definirParametros(ligacao, TabelaEscopos.NENHUMA, TabelaEscopos.VARIADICO);
+            }
+        }
+        ligacoesNo[no] = ligacao;
+        return ligacao;
+    }
+
+    private void ativarFuncao(int ligacao) {
+        if (quantidadeFuncoesAtivas == funcoesAtivas.length) {
+            funcoesAtivas = Arrays.copyOf(funcoesAtivas, funcoesAtivas.length * 2);
+        }
+        funcoesAtivas[quantidadeFuncoesAtivas++] = ligacao;
+    }
+
+    private boolean funcaoAtiva(int ligacao) {
+        for (int i = quantidadeFuncoesAtivas - 1; i >= 0; i--) {
+            if (funcoesAtivas[i] == ligacao) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // === UTILITÁRIOS ===
+
+    /**
+     * Empilha os filhos do nó em ordem e retorna a base; o chamador
+     * restaura o topo (topo = base) ao terminar
+     */
+    private int empilharFilhos(int no) {
+        int base = topo;
+        for (int filho = arvore.ultimoFilho(no); filho != ArvoreSintatica.NENHUM; filho = arvore.irmaoAnterior(no, filho)) {
+            if (topo == pilha.length) {
+                pilha = Arrays.copyOf(pilha, pilha.length * 2);
+            }
+            pilha[topo++] = filho;
+        }
+        // A navegação é do último filho para o primeiro: inverter
+        for (int i = base, j = topo - 1; i < j; i++, j--) {
+            int filho = pilha[i];
+            pilha[i] = pilha[j];
+            pilha[j] = filho;
+        }
+        return base;
+    }
+
+    private void erro(int no, String mensagem) {
+        int posicao = arvore.posicao(no);
+        if (posicao == posicaoUltimoErro) {
+            return;
+        }
+        posicaoUltimoErro = posicao;
+        totalErros++;
+        if (erros.size() < limite) {
+            int linha = lexico != null ? lexico.linhaDe(posicao) : 0;
+            int coluna = lexico != null ? lexico.colunaDe(posicao) : 0;
+            erros.add(new ErroSemantico(posicao, linha, coluna, mensagem));
+        }
+    }
+
+    // === CONSULTA ===
+
+    /**
+     * Erros semânticos guardados, na ordem em que foram encontrados
+     */
+    public List<ErroSemantico> getErros() {
+        return erros;
+    }
+
+    /**
+     * Quantidade total de erros semânticos (guardados ou não)
+     */
+    public long getTotalErros() {
+        return totalErros;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Tipo (TabelaTipos) de um nó de expressão ou de tipo; ERRO nos demais
+     */
+    public int tipo(int no) {
+        return tiposNo[no];
+    }
+
+    /**
+     * Declaração (ligação da TabelaEscopos) do nome de um nó IDENTIFICADOR,
+     * CHAMADA, TIPO_NOMEADO ou de declaração, ou TabelaEscopos.NENHUMA
+     */
+    public int ligacao(int no) {
+        return ligacoesNo[no];
+    }
+
+    public TabelaEscopos getTabelaEscopos() {
+        return escopos;
+    }
+
+    public TabelaTipos getTabelaTipos() {
+        return tipos;
+    }
+
+    public ArvoreSintatica getArvore() {
+        return arvore;
+    }
+}
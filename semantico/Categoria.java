@@ -0,0 +1,37 @@
+package semantico;
+
+/**
+ * Categoria de um nome declarado (o que o identificador designa)
+ *
+ */
+public enum Categoria {
+    PROGRAMA("programa"),
+    UNIDADE("unidade"),
+    CONSTANTE("constante"),
+    TIPO("tipo"),
+    VARIAVEL("variável"),
+    PARAMETRO_VALOR("parâmetro"),
+    PARAMETRO_REFERENCIA("parâmetro var"),
+    PROCEDIMENTO("procedimento"),
+    FUNCAO("função"),
+    CAMPO("campo"),
+    ROTULO("rótulo");
+
+    public final String descricao;
+
+    Categoria(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Verifica se o nome designa um lugar que guarda valor (pode ser
+     * lido, atribuído e passado a um parâmetro var)
+     */
+    public boolean ehVariavel() {
+        return this == VARIAVEL || this == PARAMETRO_VALOR || this == PARAMETRO_REFERENCIA || this == CAMPO;
+    }
+
+    public boolean ehSubrotina() {
+        return this == PROCEDIMENTO || this == FUNCAO;
+    }
+}
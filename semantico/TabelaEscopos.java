@@ -0,0 +1,319 @@
+package semantico;
+
+import lexico.TabelaSimbolos;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de nomes declarados em escopos aninhados, com pilha de desfazer
+ *
+ * Chaves: os identificadores chegam com o ID da TabelaSimbolos, que
+ * diferencia maiúsculas de minúsculas; em Pascal, "Total" e "total" são o
+ * mesmo nome. Cada ID recebe uma única vez uma chave densa (0, 1, 2, ...),
+ * encontrada pelo nome em minúsculas em uma tabela de endereçamento aberto
+ * com sondagem linear, e guardada em um vetor indexado pelo ID. As
+ * consultas seguintes do mesmo ID custam um acesso a vetor.
+ *
+ * Ligações: cada declaração é uma ligação (um índice em vetores paralelos
+ * de chave, categoria, tipo, nível, nó e ligação anterior). O vetor
+ * 'visiveis', indexado pela chave, aponta para a ligação visível; a nova
+ * ligação guarda a que ela esconde.
+ *
+ * Escopos: entrar() apenas empilha a altura atual da pilha de desfazer;
+ * declarar() empilha a ligação criada; sair() desempilha até a marca,
+ * restaurando em 'visiveis' a ligação anterior de cada uma. Entrar e sair
+ * de um procedimento custa apenas as suas próprias declarações, sem cópia
+ * de tabelas. As ligações continuam guardadas após o escopo fechar, de modo
+ * que a declaração de cada uso pode ser consultada depois da análise.
+ *
+ */
+public final class TabelaEscopos {
+
+    /** Valor retornado quando o nome não está declarado */
+    public static final int NENHUMA = -1;
+
+    /** quantidadeParametros de sub-rotinas predefinidas que aceitam quaisquer argumentos */
+    public static final int VARIADICO = -1;
+
+    private static final int CAPACIDADE_INICIAL = 256;
+
+    private final TabelaSimbolos simbolos;
+
+    // === CHAVES ===
+    private int[] chavesSimbolo = new int[CAPACIDADE_INICIAL];  // Chave + 1 de cada ID (0 = ainda não calculada)
+    private String[] nomesChave = new String[CAPACIDADE_INICIAL];
+    private int[] hashesChave = new int[CAPACIDADE_INICIAL];
+    private int quantidadeChaves;
+    private int[] posicoesChave = new int[CAPACIDADE_INICIAL * 2];  // Chave + 1 (0 = livre)
+    private int mascaraChaves = posicoesChave.length - 1;
+
+    // === LIGAÇÕES ===
+    private int[] chaves = new int[CAPACIDADE_INICIAL];
+    private int[] categorias = new int[CAPACIDADE_INICIAL];
+    private int[] tipos = new int[CAPACIDADE_INICIAL];
+    private int[] niveis = new int[CAPACIDADE_INICIAL];
+    private int[] nos = new int[CAPACIDADE_INICIAL];                // Nó da declaração (NENHUMA se predefinida)
+    private int[] anteriores = new int[CAPACIDADE_INICIAL];         // Ligação escondida por esta
+    private int[] primeirosParametros = new int[CAPACIDADE_INICIAL];
+    private int[] quantidadesParametros = new int[CAPACIDADE_INICIAL];
+    private int quantidade;
+
+    private int[] visiveis = new int[CAPACIDADE_INICIAL];           // Ligação visível de cada chave
+
+    // === ESCOPOS ===
+    private int[] desfazer = new int[CAPACIDADE_INICIAL];           // Ligações na ordem de declaração
+    private int topoDesfazer;
+    private int[] marcas = new int[16];                             // Altura de 'desfazer' em cada entrar()
+    private int nivel;
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    public TabelaEscopos(TabelaSimbolos simbolos) {
+        this.simbolos = simbolos;
+        Arrays.fill(visiveis, NENHUMA);
+    }
+
+    // === CHAVES ===
+
+    /**
+     * Chave do identificador com o ID informado na TabelaSimbolos
+     */
+    public int chave(int simbolo) {
+        if (simbolo >= chavesSimbolo.length) {
+            chavesSimbolo = Arrays.copyOf(chavesSimbolo, Math.max(chavesSimbolo.length * 2, simbolo + 1));
+        }
+        int chave = chavesSimbolo[simbolo] - 1;
+        if (chave < 0) {
+            chave = chave(simbolos.nome(simbolo));
+            chavesSimbolo[simbolo] = chave + 1;
+        }
+        return chave;
+    }
+
+    /**
+     * Chave de um nome (sem distinção de maiúsculas e minúsculas); um nome
+     * novo recebe a próxima chave
+     */
+    public int chave(String nome) {
+        int hash = hashMinusculas(nome);
+        int posicao = hash & mascaraChaves;
+        int ocupante;
+        while ((ocupante = posicoesChave[posicao]) != 0) {
+            int chave = ocupante - 1;
+            if (hashesChave[chave] == hash && nomesChave[chave].equalsIgnoreCase(nome)) {
+                return chave;
+            }
+            posicao = (posicao + 1) & mascaraChaves;
+        }
+        int chave = novaChave(nome, hash);
+        posicoesChave[posicao] = chave + 1;
+        if (quantidadeChaves * 2 > posicoesChave.length) {
+            redistribuirChaves();
+        }
+        return chave;
+    }
+
+    /**
+     * Nome da chave, como escrito na primeira vez em que apareceu
+     */
+    public String nomeChave(int chave) {
+        return nomesChave[chave];
+    }
+
+    public int quantidadeChaves() {
+        return quantidadeChaves;
+    }
+
+    // === ESCOPOS ===
+
+    /**
+     * Abre um escopo dentro do atual
+     */
+    public void entrar() {
+        if (nivel == marcas.length) {
+            marcas = Arrays.copyOf(marcas, marcas.length * 2);
+        }
+        marcas[nivel++] = topoDesfazer;
+    }
+
+    /**
+     * Fecha o escopo atual: as suas declarações deixam de ser visíveis e
+     * as que elas escondiam voltam a ser
+     */
+    public void sair() {
+        if (nivel == 0) {
+            throw new IllegalStateException("Nenhum escopo aberto");
+        }
+        int marca = marcas[--nivel];
+        while (topoDesfazer > marca) {
+            int ligacao = desfazer[--topoDesfazer];
+            visiveis[chaves[ligacao]] = anteriores[ligacao];
+        }
+    }
+
+    /**
+     * Nível do escopo atual (0 antes do primeiro entrar())
+     */
+    public int nivel() {
+        return nivel;
+    }
+
+    /**
+     * Declara um nome no escopo atual, escondendo o de escopos externos
+     *
+     * Não verifica duplicidade (ver procurarNoEscopoAtual).
+     *
+     * @return índice da nova ligação
+     */
+    public int declarar(int chave, Categoria categoria, int tipo, int no) {
+        if (quantidade == chaves.length) {
+            crescerLigacoes();
+        }
+        int ligacao = quantidade++;
+        chaves[ligacao] = chave;
+        categorias[ligacao] = categoria.ordinal();
+        tipos[ligacao] = tipo;
+        niveis[ligacao] = nivel;
+        nos[ligacao] = no;
+        anteriores[ligacao] = visiveis[chave];
+        primeirosParametros[ligacao] = NENHUMA;
+        quantidadesParametros[ligacao] = 0;
+        visiveis[chave] = ligacao;
+        if (topoDesfazer == desfazer.length) {
+            desfazer = Arrays.copyOf(desfazer, desfazer.length * 2);
+        }
+        desfazer[topoDesfazer++] = ligacao;
+        return ligacao;
+    }
+
+    /**
+     * Ligação visível da chave, ou NENHUMA
+     */
+    public int procurar(int chave) {
+        return visiveis[chave];
+    }
+
+    /**
+     * Ligação da chave declarada no próprio escopo atual, ou NENHUMA
+     */
+    public int procurarNoEscopoAtual(int chave) {
+        int ligacao = visiveis[chave];
+        return ligacao != NENHUMA && niveis[ligacao] == nivel ? ligacao : NENHUMA;
+    }
+
+    // === CONSULTA DAS LIGAÇÕES ===
+
+    /**
+     * Quantidade de ligações criadas (os índices vão de 0 a quantidade() - 1)
+     */
+    public int quantidade() {
+        return quantidade;
+    }
+
+    public int chaveLigacao(int ligacao) {
+        return chaves[ligacao];
+    }
+
+    public String nome(int ligacao) {
+        return nomesChave[chaves[ligacao]];
+    }
+
+    public Categoria categoria(int ligacao) {
+        return CATEGORIAS[categorias[ligacao]];
+    }
+
+    /**
+     * Tipo (TabelaTipos) da constante, variável, parâmetro, campo ou tipo;
+     * tipo do resultado, em funções
+     */
+    public int tipo(int ligacao) {
+        return tipos[ligacao];
+    }
+
+    public int nivel(int ligacao) {
+        return niveis[ligacao];
+    }
+
+    /**
+     * Nó da declaração na árvore sintática (NENHUMA em nomes predefinidos)
+     */
+    public int no(int ligacao) {
+        return nos[ligacao];
+    }
+
+    /**
+     * Primeiro parâmetro de uma sub-rotina: os parâmetros são as ligações
+     * [primeiroParametro, primeiroParametro + quantidadeParametros)
+     */
+    public int primeiroParametro(int ligacao) {
+        return primeirosParametros[ligacao];
+    }
+
+    /**
+     * Quantidade de parâmetros de uma sub-rotina, ou VARIADICO
+     */
+    public int quantidadeParametros(int ligacao) {
+        return quantidadesParametros[ligacao];
+    }
+
+    // === ALTERAÇÃO (usada pelo AnalisadorSemantico) ===
+
+    void definirParametros(int ligacao, int primeiro, int quantidadeParametros) {
+        primeirosParametros[ligacao] = primeiro;
+        quantidadesParametros[ligacao] = quantidadeParametros;
+    }
+
+    void definirNo(int ligacao, int no) {
+        nos[ligacao] = no;
+    }
+
+    // === UTILITÁRIOS ===
+
+    private int novaChave(String nome, int hash) {
+        if (quantidadeChaves == nomesChave.length) {
+            int novaCapacidade = nomesChave.length * 2;
+            nomesChave = Arrays.copyOf(nomesChave, novaCapacidade);
+            hashesChave = Arrays.copyOf(hashesChave, novaCapacidade);
+            visiveis = Arrays.copyOf(visiveis, novaCapacidade);
+            Arrays.fill(visiveis, quantidadeChaves, novaCapacidade, NENHUMA);
+        }
+        nomesChave[quantidadeChaves] = nome;
+        hashesChave[quantidadeChaves] = hash;
+        return quantidadeChaves++;
+    }
+
+    private void redistribuirChaves() {
+        posicoesChave = new int[posicoesChave.length * 2];
+        mascaraChaves = posicoesChave.length - 1;
+        for (int chave = 0; chave < quantidadeChaves; chave++) {
+            int posicao = hashesChave[chave] & mascaraChaves;
+            while (posicoesChave[posicao] != 0) {
+                posicao = (posicao + 1) & mascaraChaves;
+            }
+            posicoesChave[posicao] = chave + 1;
+        }
+    }
+
+    private void crescerLigacoes() {
+        int novaCapacidade = chaves.length * 2;
+        chaves = Arrays.copyOf(chaves, novaCapacidade);
+        categorias = Arrays.copyOf(categorias, novaCapacidade);
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+        niveis = Arrays.copyOf(niveis, novaCapacidade);
+        nos = Arrays.copyOf(nos, novaCapacidade);
+        anteriores = Arrays.copyOf(anteriores, novaCapacidade);
+        primeirosParametros = Arrays.copyOf(primeirosParametros, novaCapacidade);
+        quantidadesParametros = Arrays.copyOf(quantidadesParametros, novaCapacidade);
+    }
+
+    /**
+     * Hash FNV-1a do nome em minúsculas (sem criar a String em minúsculas)
+     */
+    private static int hashMinusculas(String nome) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < nome.length(); i++) {
+            hash = (hash ^ Character.toLowerCase(nome.charAt(i))) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,252 @@
+package semantico;
+
+import java.util.Arrays;
+
+/**
+ * Tipos de uma compilação, identificados por números inteiros
+ *
+ * Os tipos primitivos têm números fixos (INTEIRO, REAL, ...). Cada
+ * expressão de tipo composto (array, set, file, record) cria um tipo novo:
+ * a equivalência é por nome, como em Pascal, de modo que duas variáveis só
+ * têm o mesmo tipo composto se foram declaradas com o mesmo nome de tipo
+ * ou na mesma lista.
+ *
+ * Estrutura (vetores paralelos por tipo):
+ * - formas: PRIMITIVO, ARRAY, CONJUNTO, ARQUIVO ou REGISTRO
+ * - elementos: tipo do elemento (array, set, file)
+ * - primeirosCampos e quantidadesCampos: campos do registro, contíguos
+ *   nos vetores de campos
+ *
+ * Os campos são encontrados por uma tabela de endereçamento aberto com
+ * sondagem linear, cuja chave é o par (registro, chave do nome do campo).
+ *
+ */
+public final class TabelaTipos {
+
+    /** Valor retornado quando o campo pedido não existe */
+    public static final int NENHUM = -1;
+
+    // === TIPOS PRIMITIVOS ===
+    public static final int ERRO = 0;           // Tipo de expressões com erro (compatível com todos)
+    public static final int INTEIRO = 1;
+    public static final int REAL = 2;
+    public static final int CARACTERE = 3;
+    public static final int TEXTO = 4;
+    public static final int LOGICO = 5;         // boolean: condições e operadores relacionais
+    public static final int NULO = 6;           // nil
+
+    private static final String[] NOMES_PRIMITIVOS = { "erro", "integer", "real", "char", "string", "boolean", "nil" };
+
+    // === FORMAS ===
+    public static final int PRIMITIVO = 0;
+    public static final int ARRAY = 1;
+    public static final int CONJUNTO = 2;
+    public static final int ARQUIVO = 3;
+    public static final int REGISTRO = 4;
+
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    // === DADOS POR TIPO ===
+    private int[] formas = new int[CAPACIDADE_INICIAL];
+    private int[] elementos = new int[CAPACIDADE_INICIAL];
+    private int[] primeirosCampos = new int[CAPACIDADE_INICIAL];
+    private int[] quantidadesCampos = new int[CAPACIDADE_INICIAL];
+    private int quantidade;
+
+    // === DADOS POR CAMPO ===
+    private int[] camposRegistro = new int[CAPACIDADE_INICIAL];
+    private int[] camposChave = new int[CAPACIDADE_INICIAL];
+    private int[] camposTipo = new int[CAPACIDADE_INICIAL];
+    private int[] camposNo = new int[CAPACIDADE_INICIAL];     // Nó IDENTIFICADOR da declaração
+    private int quantidadeCampos;
+
+    // Índice dos campos por (registro, chave): campo + 1 em cada posição ocupada (0 = livre)
+    private int[] posicoesCampos = new int[CAPACIDADE_INICIAL * 2];
+    private int mascaraCampos = posicoesCampos.length - 1;
+
+    public TabelaTipos() {
+        for (int i = 0; i < NOMES_PRIMITIVOS.length; i++) {
+            novo(PRIMITIVO, ERRO);
+        }
+    }
+
+    // === CONSTRUÇÃO (usada pelo AnalisadorSemantico) ===
+
+    /**
+     * Tipo composto novo (ARRAY, CONJUNTO ou ARQUIVO) com o elemento informado
+     */
+    int novoComposto(int forma, int elemento) {
+        return novo(forma, elemento);
+    }
+
+    /**
+     * Registro novo, sem campos; os campos devem ser acrescentados em
+     * seguida, antes de qualquer outro tipo, para ficarem contíguos
+     */
+    int novoRegistro() {
+        int registro = novo(REGISTRO, ERRO);
+        primeirosCampos[registro] = quantidadeCampos;
+        return registro;
+    }
+
+    /**
+     * Acrescenta um campo ao último registro criado
+     *
+     * @return false se o registro já tem um campo com essa chave
+     */
+    boolean adicionarCampo(int registro, int chave, int tipo, int no) {
+        if (procurarCampo(registro, chave) != NENHUM) {
+            return false;
+        }
+        if (quantidadeCampos == camposChave.length) {
+            int novaCapacidade = camposChave.length * 2;
+            camposRegistro = Arrays.copyOf(camposRegistro, novaCapacidade);
+            camposChave = Arrays.copyOf(camposChave, novaCapacidade);
+            camposTipo = Arrays.copyOf(camposTipo, novaCapacidade);
+            camposNo = Arrays.copyOf(camposNo, novaCapacidade);
+        }
+        int campo = quantidadeCampos++;
+        camposRegistro[campo] = registro;
+        camposChave[campo] = chave;
+        camposTipo[campo] = tipo;
+        camposNo[campo] = no;
+        quantidadesCampos[registro]++;
+        indexarCampo(campo);
+        if (quantidadeCampos * 2 > posicoesCampos.length) {
+            posicoesCampos = new int[posicoesCampos.length * 2];
+            mascaraCampos = posicoesCampos.length - 1;
+            for (int i = 0; i < quantidadeCampos; i++) {
+                indexarCampo(i);
+            }
+        }
+        return true;
+    }
+
+    // === CONSULTA ===
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    public int forma(int tipo) {
+        return formas[tipo];
+    }
+
+    /**
+     * Tipo do elemento de um array, set ou file (ERRO nos demais)
+     */
+    public int elemento(int tipo) {
+        return elementos[tipo];
+    }
+
+    /**
+     * Campo do registro com a chave informada, ou NENHUM
+     */
+    public int procurarCampo(int registro, int chave) {
+        int posicao = hashCampo(registro, chave) & mascaraCampos;
+        int ocupante;
+        while ((ocupante = posicoesCampos[posicao]) != 0) {
+            int campo = ocupante - 1;
+            if (camposRegistro[campo] == registro && camposChave[campo] == chave) {
+                return campo;
+            }
+            posicao = (posicao + 1) & mascaraCampos;
+        }
+        return NENHUM;
+    }
+
+    /**
+     * Primeiro campo do registro (os campos são [primeiroCampo, primeiroCampo + quantidadeCampos))
+     */
+    public int primeiroCampo(int registro) {
+        return primeirosCampos[registro];
+    }
+
+    public int quantidadeCampos(int registro) {
+        return quantidadesCampos[registro];
+    }
+
+    public int chaveCampo(int campo) {
+        return camposChave[campo];
+    }
+
+    public int tipoCampo(int campo) {
+        return camposTipo[campo];
+    }
+
+    public int noCampo(int campo) {
+        return camposNo[campo];
+    }
+
+    // === COMPATIBILIDADE ===
+
+    public static boolean ehNumerico(int tipo) {
+        return tipo == INTEIRO || tipo == REAL;
+    }
+
+    /**
+     * Tipos ordinais: podem controlar um for e selecionar um case
+     */
+    public static boolean ehOrdinal(int tipo) {
+        return tipo == INTEIRO || tipo == CARACTERE || tipo == LOGICO;
+    }
+
+    /**
+     * Verifica se um valor do tipo 'origem' pode ser atribuído a um lugar
+     * do tipo 'destino' (integer em real e char em string são convertidos)
+     *
+     * ERRO é compatível com qualquer tipo, para que um erro já registrado
+     * não gere outros.
+     */
+    public static boolean atribuivel(int destino, int origem) {
+        return destino == origem || destino == ERRO || origem == ERRO
+            || (destino == REAL && origem == INTEIRO)
+            || (destino == TEXTO && origem == CARACTERE);
+    }
+
+    /**
+     * Nome do tipo para mensagens (por exemplo "array of integer")
+     */
+    public String descrever(int tipo) {
+        switch (formas[tipo]) {
+            case ARRAY:
+                return "array of " + descrever(elementos[tipo]);
+            case CONJUNTO:
+                return "set of " + descrever(elementos[tipo]);
+            case ARQUIVO:
+                return "file of " + descrever(elementos[tipo]);
+            case REGISTRO:
+                return "record";
+            default:
+                return NOMES_PRIMITIVOS[tipo];
+        }
+    }
+
+    // === UTILITÁRIOS ===
+
+    private int novo(int forma, int elemento) {
+        if (quantidade == formas.length) {
+            int novaCapacidade = formas.length * 2;
+            formas = Arrays.copyOf(formas, novaCapacidade);
+            elementos = Arrays.copyOf(elementos, novaCapacidade);
+            primeirosCampos = Arrays.copyOf(primeirosCampos, novaCapacidade);
+            quantidadesCampos = Arrays.copyOf(quantidadesCampos, novaCapacidade);
+        }
+        formas[quantidade] = forma;
+        elementos[quantidade] = elemento;
+        return quantidade++;
+    }
+
+    private void indexarCampo(int campo) {
+        int posicao = hashCampo(camposRegistro[campo], camposChave[campo]) & mascaraCampos;
+        while (posicoesCampos[posicao] != 0) {
+            posicao = (posicao + 1) & mascaraCampos;
+        }
+        posicoesCampos[posicao] = campo + 1;
+    }
+
+    private static int hashCampo(int registro, int chave) {
+        int hash = registro * 0x9E3779B9 + chave;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,1115 @@
+package sintatico;
+
+import lexico.AnalisadorLexico;
+import lexico.PalavrasReservadas;
+import lexico.TabelaSimbolos;
+import lexico.TipoToken;
+import lexico.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analisador sintático descendente recursivo para a linguagem Pascal
+ *
+ * Os tokens são obtidos um a um de AnalisadorLexico.proximoToken(), à
+ * medida que a gramática avança (um token de antecipação), sem nenhuma
+ * lista intermediária: cada token é descartado assim que consumido. A
+ * árvore é construída em uma ArvoreSintatica (arena de vetores primitivos),
+ * em uma única passada.
+ *
+ * Gramática reconhecida (resumo):
+ *   programa    = [program id [(ids)] ;] [uses ids ;] declarações bloco (end. | .)
+ *   declarações = { const {id = expr ;} | type {id = tipo ;} | var {ids : tipo ;}
+ *                 | label rótulos ; | (proc | function | func) id [(parâmetros)] [: tipo] ;
+ *                   (forward ; | external ; | declarações bloco ;) }
+ *   comando     = [ variável := expr | id [(exprs)] | bloco | if | while | repeat
+ *                 | for | case | with | goto ]
+ *   expr        = simples [relacional simples]
+ *   simples     = termo { (+ | - | or | xor) termo }
+ *   termo       = fator { (* | / | div | mod | and | shl | shr) fator }
+ *   fator       = número | caractere | string | nil | variável | id (exprs)
+ *                 | (expr) | not fator | - fator | + fator
+ *
+ * Recuperação de erros (modo pânico): ao encontrar um erro, a regra atual
+ * é interrompida até o comando (ou declaração) mais próximo; os nós já
+ * construídos desse trecho passam a ser filhos de um nó ERRO e os tokens
+ * são descartados até o próximo ';', "end" ou "until". Como a árvore é
+ * pós-ordem, todo nó já acrescentado está completo, e o nó ERRO apenas os
+ * adota. Falta de ';' entre comandos é registrada sem descartar nada.
+ *
+ * Listas de comandos e de declarações são percorridas iterativamente; a
+ * recursão cresce apenas com o aninhamento, limitado a PROFUNDIDADE_MAXIMA.
+ *
+ * Uso:
+ *   AnalisadorSintatico sintatico = new AnalisadorSintatico(new AnalisadorLexico(fonte));
+ *   ArvoreSintatica arvore = sintatico.analisar();
+ *   ... sintatico.getErros(), sintatico.getAnalisadorLexico().getDiagnosticos() ...
+ *
+ */
+public final class AnalisadorSintatico {
+
+    /** Quantidade máxima de erros guardados (os demais são apenas contados) */
+    public static final int LIMITE_PADRAO = 1000;
+
+    /** Aninhamento máximo de comandos e expressões */
+    public static final int PROFUNDIDADE_MAXIMA = 500;
+
+    // === PALAVRAS RESERVADAS DA GRAMÁTICA ===
+    private static final int ARRAY = PalavrasReservadas.procurar("array");
+    private static final int BEGIN = PalavrasReservadas.procurar("begin");
+    private static final int CASE = PalavrasReservadas.procurar("case");
+    private static final int CHAR = PalavrasReservadas.procurar("char");
+    private static final int CONST = PalavrasReservadas.procurar("const");
+    private static final int DIV = PalavrasReservadas.procurar("div");
+    private static final int DO = PalavrasReservadas.procurar("do");
+    private static final int DOWTO = PalavrasReservadas.procurar("dowto");
+    private static final int ELSE = PalavrasReservadas.procurar("else");
+    private static final int END = PalavrasReservadas.procurar("end");
+    private static final int EXTERNAL = PalavrasReservadas.procurar("external");
+    private static final int FILE = PalavrasReservadas.procurar("file");
+    private static final int FOR = PalavrasReservadas.procurar("for");
+    private static final int FORWARD = PalavrasReservadas.procurar("forward");
+    private static final int FUNC = PalavrasReservadas.procurar("func");
+    private static final int FUNCTION = PalavrasReservadas.procurar("function");
+    private static final int GOTO = PalavrasReservadas.procurar("goto");
+    private static final int IF = PalavrasReservadas.procurar("if");
+    private static final int INTEGER = PalavrasReservadas.procurar("integer");
+    private static final int LABEL = PalavrasReservadas.procurar("label");
+    private static final int NIL = PalavrasReservadas.procurar("nil");
+    private static final int OF = PalavrasReservadas.procurar("of");
+    private static final int PACKED = PalavrasReservadas.procurar("packed");
+    private static final int PROC = PalavrasReservadas.procurar("proc");
+    private static final int PROGRAM = PalavrasReservadas.procurar("program");
+    private static final int REAL = PalavrasReservadas.procurar("real");
+    private static final int RECORD = PalavrasReservadas.procurar("record");
+    private static final int REPEAT = PalavrasReservadas.procurar("repeat");
+    private static final int SET = PalavrasReservadas.procurar("set");
+    private static final int SHL = PalavrasReservadas.procurar("shl");
+    private static final int SHR = PalavrasReservadas.procurar("shr");
+    private static final int STRING = PalavrasReservadas.procurar("string");
+    private static final int THEN = PalavrasReservadas.procurar("then");
+    private static final int TO = PalavrasReservadas.procurar("to");
+    private static final int TYPE = PalavrasReservadas.procurar("type");
+    private static final int UNTIL = PalavrasReservadas.procurar("until");
+    private static final int USES = PalavrasReservadas.procurar("uses");
+    private static final int VAR = PalavrasReservadas.procurar("var");
+    private static final int WHILE = PalavrasReservadas.procurar("while");
+    private static final int WITH = PalavrasReservadas.procurar("with");
+    private static final int XOR = PalavrasReservadas.procurar("xor");
+
+    /**
+     * Interrupção da regra atual após um erro já registrado (sem pilha,
+     * uma única instância)
+     */
+    private static final class Falha extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Falha() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Falha FALHA = new Falha();
+
+    private final AnalisadorLexico lexico;
+    private final ArvoreSintatica arvore;
+
+    // Erros sintáticos
+    private final List<ErroSintatico> erros = new ArrayList<>();
+    private long totalErros;
+    private int limite = LIMITE_PADRAO;
+    private int posicaoUltimoErro = -1;     // Um único erro por token (evita cascatas)
+
+    // Token de antecipação
+    private Token atual;                    // Token atual (null no fim do código)
+    private int indiceAtual = -1;           // Índice do token atual na sequência
+    private int palavraAtual;               // Índice em PalavrasReservadas, ou NENHUMA
+    private int fimAnterior;                // Posição logo após o último token consumido
+
+    private int profundidade;               // Aninhamento atual de comandos e expressões
+
+    /**
+     * Analisador sintático de um texto
+     */
+    public AnalisadorSintatico(String codigoFonte) {
+        this(new AnalisadorLexico(codigoFonte));
+    }
+
+    /**
+     * Analisador sintático sobre um analisador léxico ainda não usado
+     *
+     * Se o analisador léxico não tem TabelaSimbolos, uma nova é ligada a
+     * ele: os nós guardam o ID dos identificadores, não o seu texto.
+     */
+    public AnalisadorSintatico(AnalisadorLexico lexico) {
+        this.lexico = lexico;
+        if (lexico.getTabelaSimbolos() == null) {
+            lexico.setTabelaSimbolos(new TabelaSimbolos());
+        }
+        this.arvore = new ArvoreSintatica(lexico.getTabelaSimbolos());
+    }
+
+    // === ANÁLISE ===
+
+    /**
+     * Analisa o código fonte inteiro e retorna a árvore sintática
+     *
+     * A árvore é construída mesmo com erros (ver getErros()); a raiz é
+     * sempre um nó PROGRAMA.
+     */
+    public ArvoreSintatica analisar() {
+        if (indiceAtual >= 0) {
+            throw new IllegalStateException("A análise sintática já foi realizada");
+        }
+        avancar();
+        programa();
+        // Tokens após o fim do programa (já registrados como erro): analisados apenas pelo léxico
+        while (atual != null) {
+            avancar();
+        }
+        arvore.setQuantidadeTokens(indiceAtual);
+        return arvore;
+    }
+
+    // === ESTRUTURA DO PROGRAMA ===
+
+    private void programa() {
+        Token nome = atual;
+        int indiceNome = indiceAtual;
+        if (ehPalavra(PROGRAM)) {
+            avancar();
+            if (ehIdentificador()) {
+                nome = atual;
+                indiceNome = indiceAtual;
+                avancar();
+            } else {
+                registrarEsperado("nome do programa");
+            }
+            if (ehSimbolo('(')) {
+                // Parâmetros do programa (input, output): sem significado aqui
+                while (atual != null && !ehSimbolo(')') && !ehSimbolo(';')) {
+                    avancar();
+                }
+                aceitarSimbolo(')');
+            }
+            pontoEVirgula();
+        }
+        if (ehPalavra(USES)) {
+            protegida(TipoNo.USES);
+        }
+        declaracoes();
+        if (ehPalavra(BEGIN)) {
+            bloco();
+        } else {
+            // Sem "begin": os comandos formam o bloco principal mesmo assim
+            registrarEsperado("'begin'");
+            int inicio = arvore.tamanho();
+            Token primeiro = atual;
+            int indicePrimeiro = indiceAtual;
+            listaComandos();
+            aceitarPalavraOuRegistrar(END);
+            adicionar(TipoNo.BLOCO, inicio, primeiro, indicePrimeiro);
+        }
+        if (atual != null && (atual.tipo == TipoToken.FIM || ehSimbolo('.'))) {
+            avancar();
+        } else {
+            registrarEsperado("'.'");
+        }
+        if (atual != null) {
+            registrarEsperado("fim do código");
+        }
+        adicionar(TipoNo.PROGRAMA, 0, nome, indiceNome);
+    }
+
+    private void usos() {
+        int inicio = arvore.tamanho();
+        Token usos = atual;
+        int indiceUsos = indiceAtual;
+        avancar();
+        identificador();
+        while (aceitarSimbolo(',')) {
+            identificador();
+        }
+        pontoEVirgula();
+        adicionar(TipoNo.USES, inicio, usos, indiceUsos);
+    }
+
+    /**
+     * Seções de declaração, em qualquer ordem e quantidade
+     */
+    private void declaracoes() {
+        while (true) {
+            if (ehPalavra(CONST)) {
+                avancar();
+                do {
+                    protegida(TipoNo.DECLARACAO_CONSTANTE);
+                } while (ehIdentificador());
+            } else if (ehPalavra(TYPE)) {
+                avancar();
+                do {
+                    protegida(TipoNo.DECLARACAO_TIPO);
+                } while (ehIdentificador());
+            } else if (ehPalavra(VAR)) {
+                avancar();
+                do {
+                    protegida(TipoNo.DECLARACAO_VARIAVEIS);
+                } while (ehIdentificador());
+            } else if (ehPalavra(LABEL)) {
+                protegida(TipoNo.DECLARACAO_ROTULOS);
+            } else if (ehPalavra(PROC) || ehPalavra(FUNCTION) || ehPalavra(FUNC)) {
+                protegida(TipoNo.PROCEDIMENTO);
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Analisa uma declaração; em caso de erro, descarta tokens até o
+     * próximo ';' (consumido) ou o início de outra seção
+     */
+    private void protegida(TipoNo regra) {
+        int inicio = arvore.tamanho();
+        int profundidadeAntes = profundidade;
+        try {
+            switch (regra) {
+                case USES:
+                    usos();
+                    break;
+                case DECLARACAO_CONSTANTE:
+                    constante();
+                    break;
+                case DECLARACAO_TIPO:
+                    declaracaoTipo();
+                    break;
+                case DECLARACAO_VARIAVEIS:
+                    variaveis();
+                    break;
+                case DECLARACAO_ROTULOS:
+                    rotulos();
+                    break;
+                default:
+                    subrotina();
+                    break;
+            }
+        } catch (Falha falha) {
+            profundidade = profundidadeAntes;
+            adicionar(TipoNo.ERRO, inicio, atual, indiceAtual);
+            while (atual != null && !ehSimbolo(';') && !iniciaDeclaracao() && !ehPalavra(BEGIN)) {
+                avancar();
+            }
+            aceitarSimbolo(';');
+        }
+    }
+
+    private void constante() {
+        int inicio = arvore.tamanho();
+        Token nome = exigirIdentificador();
+        int indiceNome = indiceAtual;
+        avancar();
+        exigirSimbolo('=');
+        expressao();
+        pontoEVirgula();
+        adicionar(TipoNo.DECLARACAO_CONSTANTE, inicio, nome, indiceNome);
+    }
+
+    private void declaracaoTipo() {
+        int inicio = arvore.tamanho();
+        Token nome = exigirIdentificador();
+        int indiceNome = indiceAtual;
+        avancar();
+        exigirSimbolo('=');
+        tipo();
+        pontoEVirgula();
+        adicionar(TipoNo.DECLARACAO_TIPO, inicio, nome, indiceNome);
+    }
+
+    private void variaveis() {
+        int inicio = arvore.tamanho();
+        Token primeiro = atual;
+        int indicePrimeiro = indiceAtual;
+        listaIdentificadores();
+        exigirSimbolo(':');
+        tipo();
+        pontoEVirgula();
+        adicionar(TipoNo.DECLARACAO_VARIAVEIS, inicio, primeiro, indicePrimeiro);
+    }
+
+    private void rotulos() {
+        int inicio = arvore.tamanho();
+        Token label = atual;
+        int indiceLabel = indiceAtual;
+        avancar();
+        do {
+            rotulo();
+        } while (aceitarSimbolo(','));
+        pontoEVirgula();
+        adicionar(TipoNo.DECLARACAO_ROTULOS, inicio, label, indiceLabel);
+    }
+
+    /**
+     * Procedimento (proc) ou função (function, func), com o próprio bloco
+     */
+    private void subrotina() {
+        int inicio = arvore.tamanho();
+        boolean funcao = !ehPalavra(PROC);
+        avancar();
+        Token nome = exigirIdentificador();
+        int indiceNome = indiceAtual;
+        avancar();
+
+        int inicioParametros = arvore.tamanho();
+        Token parametros = nome;
+        int indiceParametros = indiceNome;
+        if (ehSimbolo('(')) {
+            parametros = atual;
+            indiceParametros = indiceAtual;
+            avancar();
+            if (!ehSimbolo(')')) {
+                do {
+                    grupoParametros();
+                } while (aceitarSimbolo(';'));
+            }
+            exigirSimbolo(')');
+        }
+        adicionar(TipoNo.PARAMETROS, inicioParametros, parametros, indiceParametros);
+
+        if (funcao) {
+            exigirSimbolo(':');
+            tipo();
+        }
+        pontoEVirgula();
+        if (ehPalavra(FORWARD) || ehPalavra(EXTERNAL)) {
+            avancar();
+        } else {
+            declaracoes();
+            if (!ehPalavra(BEGIN)) {
+                throw falhar("'begin'");
+            }
+            bloco();
+        }
+        pontoEVirgula();
+        adicionar(funcao ? TipoNo.FUNCAO : TipoNo.PROCEDIMENTO, inicio, nome, indiceNome);
+    }
+
+    private void grupoParametros() {
+        int inicio = arvore.tamanho();
+        Token primeiro = atual;
+        int indicePrimeiro = indiceAtual;
+        boolean referencia = ehPalavra(VAR);
+        if (referencia) {
+            avancar();
+        }
+        listaIdentificadores();
+        exigirSimbolo(':');
+        tipo();
+        adicionar(referencia ? TipoNo.PARAMETRO_REFERENCIA : TipoNo.PARAMETRO_VALOR, inicio, primeiro, indicePrimeiro);
+    }
+
+    // === TIPOS ===
+
+    private void tipo() {
+        int inicio = arvore.tamanho();
+        if (ehPalavra(PACKED)) {
+            avancar();
+        }
+        Token token = atual;
+        int indiceToken = indiceAtual;
+        if (ehPalavra(INTEGER)) {
+            folha(TipoNo.TIPO_INTEIRO);
+        } else if (ehPalavra(REAL)) {
+            folha(TipoNo.TIPO_REAL);
+        } else if (ehPalavra(CHAR)) {
+            folha(TipoNo.TIPO_CARACTERE);
+        } else if (ehPalavra(STRING)) {
+            folha(TipoNo.TIPO_TEXTO);
+        } else if (ehIdentificador()) {
+            folha(TipoNo.TIPO_NOMEADO);
+        } else if (ehPalavra(ARRAY) || ehPalavra(SET) || ehPalavra(FILE)) {
+            TipoNo tipo = ehPalavra(ARRAY) ? TipoNo.TIPO_ARRAY : ehPalavra(SET) ? TipoNo.TIPO_CONJUNTO : TipoNo.TIPO_ARQUIVO;
+            avancar();
+            exigirPalavra(OF);
+            tipo();
+            adicionar(tipo, inicio, token, indiceToken);
+        } else if (ehPalavra(RECORD)) {
+            avancar();
+            while (ehIdentificador()) {
+                int inicioCampos = arvore.tamanho();
+                Token primeiro = atual;
+                int indicePrimeiro = indiceAtual;
+                listaIdentificadores();
+                exigirSimbolo(':');
+                tipo();
+                adicionar(TipoNo.CAMPOS, inicioCampos, primeiro, indicePrimeiro);
+                if (!aceitarSimbolo(';')) {
+                    break;
+                }
+            }
+            exigirPalavra(END);
+            adicionar(TipoNo.TIPO_REGISTRO, inicio, token, indiceToken);
+        } else {
+            throw falhar("tipo");
+        }
+    }
+
+    // === COMANDOS ===
+
+    /**
+     * Comandos separados por ';' até "end", "until", "end." ou o fim do código
+     */
+    private void listaComandos() {
+        while (!fimDeLista()) {
+            int indiceAntes = indiceAtual;
+            comandoProtegido();
+            if (aceitarSimbolo(';')) {
+                continue;
+            }
+            if (fimDeLista()) {
+                break;
+            }
+            if (indiceAtual == indiceAntes) {
+                // Token que não inicia comando (por exemplo um "else" solto): descartado
+                registrarEsperado("comando");
+                avancar();
+            } else {
+                // Falta de ';' entre dois comandos: o seguinte é analisado normalmente
+                registrarEsperado("';'");
+            }
+        }
+    }
+
+    /**
+     * Analisa um comando; em caso de erro, os nós do trecho passam a ser
+     * filhos de um nó ERRO e os tokens são descartados até o próximo ';'
+     */
+    private void comandoProtegido() {
+        int inicio = arvore.tamanho();
+        int profundidadeAntes = profundidade;
+        try {
+            comando();
+        } catch (Falha falha) {
+            profundidade = profundidadeAntes;
+            adicionar(TipoNo.ERRO, inicio, atual, indiceAtual);
+            while (atual != null && !ehSimbolo(';') && !fimDeLista()) {
+                avancar();
+            }
+        }
+    }
+
+    /**
+     * Comando em posição obrigatória (após then, else, do...); o comando
+     * vazio gera um nó VAZIO, para que a posição dos filhos seja fixa
+     */
+    private void comandoObrigatorio() {
+        int inicio = arvore.tamanho();
+        comando();
+        if (arvore.tamanho() == inicio) {
+            adicionar(TipoNo.VAZIO, inicio, atual, indiceAtual);
+        }
+    }
+
+    private void comando() {
+        if (atual == null || ehSimbolo(';') || fimDeLista() || ehPalavra(ELSE)) {
+            return; // Comando vazio
+        }
+        entrar();
+        if (ehIdentificador()) {
+            atribuicaoOuChamada();
+        } else if (ehPalavra(BEGIN)) {
+            bloco();
+        } else if (ehPalavra(IF)) {
+            se();
+        } else if (ehPalavra(WHILE)) {
+            enquanto();
+        } else if (ehPalavra(REPEAT)) {
+            repita();
+        } else if (ehPalavra(FOR)) {
+            para();
+        } else if (ehPalavra(CASE)) {
+            caso();
+        } else if (ehPalavra(WITH)) {
+            com();
+        } else if (ehPalavra(GOTO)) {
+            desvio();
+        } else {
+            throw falhar("comando");
+        }
+        profundidade--;
+    }
+
+    private void atribuicaoOuChamada() {
+        int inicio = arvore.tamanho();
+        Token nome = atual;
+        int indiceNome = indiceAtual;
+        avancar();
+        if (atual == null || (atual.tipo != TipoToken.ATRIBUICAO && !ehSimbolo('.'))) {
+            chamada(inicio, nome, indiceNome);
+            return;
+        }
+        adicionar(TipoNo.IDENTIFICADOR, inicio, nome, indiceNome);
+        acessosCampo(inicio);
+        if (atual == null || atual.tipo != TipoToken.ATRIBUICAO) {
+            throw falhar("':='");
+        }
+        Token atribuicao = atual;
+        int indiceAtribuicao = indiceAtual;
+        avancar();
+        expressao();
+        adicionar(TipoNo.ATRIBUICAO, inicio, atribuicao, indiceAtribuicao);
+    }
+
+    /**
+     * Chamada de procedimento ou função cujo nome já foi consumido
+     */
+    private void chamada(int inicio, Token nome, int indiceNome) {
+        if (aceitarSimbolo('(')) {
+            if (!ehSimbolo(')')) {
+                do {
+                    expressao();
+                } while (aceitarSimbolo(','));
+            }
+            exigirSimbolo(')');
+        }
+        adicionar(TipoNo.CHAMADA, inicio, nome, indiceNome);
+    }
+
+    private void bloco() {
+        int inicio = arvore.tamanho();
+        Token begin = atual;
+        int indiceBegin = indiceAtual;
+        avancar();
+        listaComandos();
+        aceitarPalavraOuRegistrar(END);
+        adicionar(TipoNo.BLOCO, inicio, begin, indiceBegin);
+    }
+
+    private void se() {
+        int inicio = arvore.tamanho();
+        Token se = atual;
+        int indiceSe = indiceAtual;
+        avancar();
+        expressao();
+        exigirPalavra(THEN);
+        comandoObrigatorio();
+        if (ehPalavra(ELSE)) {
+            avancar();
+            comandoObrigatorio();
+        }
+        adicionar(TipoNo.SE, inicio, se, indiceSe);
+    }
+
+    private void enquanto() {
+        int inicio = arvore.tamanho();
+        Token enquanto = atual;
+        int indiceEnquanto = indiceAtual;
+        avancar();
+        expressao();
+        exigirPalavra(DO);
+        comandoObrigatorio();
+        adicionar(TipoNo.ENQUANTO, inicio, enquanto, indiceEnquanto);
+    }
+
+    private void repita() {
+        int inicio = arvore.tamanho();
+        Token repita = atual;
+        int indiceRepita = indiceAtual;
+        avancar();
+        listaComandos();
+        exigirPalavra(UNTIL);
+        expressao();
+        adicionar(TipoNo.REPITA, inicio, repita, indiceRepita);
+    }
+
+    private void para() {
+        int inicio = arvore.tamanho();
+        Token para = atual;
+        int indicePara = indiceAtual;
+        avancar();
+        identificador();
+        if (atual == null || atual.tipo != TipoToken.ATRIBUICAO) {
+            throw falhar("':='");
+        }
+        avancar();
+        expressao();
+        TipoNo tipo;
+        if (ehPalavra(TO)) {
+            tipo = TipoNo.PARA;
+        } else if (ehPalavra(DOWTO)) {
+            tipo = TipoNo.PARA_DECRESCENTE;
+        } else {
+            throw falhar("'to' ou 'dowto'");
+        }
+        avancar();
+        expressao();
+        exigirPalavra(DO);
+        comandoObrigatorio();
+        adicionar(tipo, inicio, para, indicePara);
+    }
+
+    private void caso() {
+        int inicio = arvore.tamanho();
+        Token caso = atual;
+        int indiceCaso = indiceAtual;
+        avancar();
+        expressao();
+        exigirPalavra(OF);
+        while (atual != null && !ehPalavra(END) && !ehPalavra(ELSE)) {
+            if (aceitarSimbolo(';')) {
+                continue;
+            }
+            int inicioRamo = arvore.tamanho();
+            Token primeira = atual;
+            int indicePrimeira = indiceAtual;
+            do {
+                expressao();
+            } while (aceitarSimbolo(','));
+            exigirSimbolo(':');
+            comandoObrigatorio();
+            adicionar(TipoNo.RAMO_CASO, inicioRamo, primeira, indicePrimeira);
+            if (!aceitarSimbolo(';')) {
+                break;
+            }
+        }
+        if (ehPalavra(ELSE)) {
+            int inicioSenao = arvore.tamanho();
+            Token senao = atual;
+            int indiceSenao = indiceAtual;
+            avancar();
+            listaComandos();
+            adicionar(TipoNo.RAMO_SENAO, inicioSenao, senao, indiceSenao);
+        }
+        exigirPalavra(END);
+        adicionar(TipoNo.CASO, inicio, caso, indiceCaso);
+    }
+
+    private void com() {
+        int inicio = arvore.tamanho();
+        Token com = atual;
+        int indiceCom = indiceAtual;
+        avancar();
+        do {
+            int inicioVariavel = arvore.tamanho();
+            identificador();
+            acessosCampo(inicioVariavel);
+        } while (aceitarSimbolo(','));
+        exigirPalavra(DO);
+        comandoObrigatorio();
+        adicionar(TipoNo.COM, inicio, com, indiceCom);
+    }
+
+    private void desvio() {
+        int inicio = arvore.tamanho();
+        Token desvio = atual;
+        int indiceDesvio = indiceAtual;
+        avancar();
+        rotulo();
+        adicionar(TipoNo.DESVIO, inicio, desvio, indiceDesvio);
+    }
+
+    // === EXPRESSÕES ===
+
+    private void expressao() {
+        int inicio = arvore.tamanho();
+        simples();
+        Operador operador = relacional();
+        if (operador != null) {
+            Token token = atual;
+            int indiceToken = indiceAtual;
+            avancar();
+            simples();
+            adicionarOperacao(TipoNo.OPERACAO_BINARIA, inicio, token, indiceToken, operador);
+        }
+    }
+
+    private void simples() {
+        int inicio = arvore.tamanho();
+        termo();
+        Operador operador;
+        while ((operador = aditivo()) != null) {
+            Token token = atual;
+            int indiceToken = indiceAtual;
+            avancar();
+            termo();
+            adicionarOperacao(TipoNo.OPERACAO_BINARIA, inicio, token, indiceToken, operador);
+        }
+    }
+
+    private void termo() {
+        int inicio = arvore.tamanho();
+        fator();
+        Operador operador;
+        while ((operador = multiplicativo()) != null) {
+            Token token = atual;
+            int indiceToken = indiceAtual;
+            avancar();
+            fator();
+            adicionarOperacao(TipoNo.OPERACAO_BINARIA, inicio, token, indiceToken, operador);
+        }
+    }
+
+    private void fator() {
+        if (atual == null) {
+            throw falhar("expressão");
+        }
+        entrar();
+        int inicio = arvore.tamanho();
+        switch (atual.tipo) {
+            case NUMERO_INTEIRO:
+                folha(TipoNo.NUMERO_INTEIRO);
+                break;
+            case NUMERO_REAL:
+                folha(TipoNo.NUMERO_REAL);
+                break;
+            case CHAR_LITERAL:
+                folha(TipoNo.CARACTERE);
+                break;
+            case STRING_LITERAL:
+                folha(TipoNo.TEXTO);
+                break;
+            case IDENTIFICADOR:
+            case OPERADOR_LOGICO:
+                if (ehOperadorPalavra("not")) {
+                    unaria(inicio, Operador.NAO);
+                } else if (atual.tipo == TipoToken.OPERADOR_LOGICO) {
+                    throw falhar("expressão");
+                } else {
+                    variavelOuChamada(inicio);
+                }
+                break;
+            case PALAVRA_RESERVADA:
+                if (!ehPalavra(NIL)) {
+                    throw falhar("expressão");
+                }
+                folha(TipoNo.NULO);
+                break;
+            default:
+                if (aceitarSimbolo('(')) {
+                    expressao();
+                    exigirSimbolo(')');
+                } else if (ehSimbolo('-')) {
+                    unaria(inicio, Operador.SUBTRACAO);
+                } else if (ehSimbolo('+')) {
+                    unaria(inicio, Operador.SOMA);
+                } else {
+                    throw falhar("expressão");
+                }
+                break;
+        }
+        profundidade--;
+    }
+
+    private void unaria(int inicio, Operador operador) {
+        Token token = atual;
+        int indiceToken = indiceAtual;
+        avancar();
+        fator();
+        adicionarOperacao(TipoNo.OPERACAO_UNARIA, inicio, token, indiceToken, operador);
+    }
+
+    private void variavelOuChamada(int inicio) {
+        Token nome = atual;
+        int indiceNome = indiceAtual;
+        avancar();
+        if (ehSimbolo('(')) {
+            chamada(inicio, nome, indiceNome);
+        } else {
+            adicionar(TipoNo.IDENTIFICADOR, inicio, nome, indiceNome);
+            acessosCampo(inicio);
+        }
+    }
+
+    /**
+     * Acessos a campos de registro (".campo") após uma variável cujos nós
+     * começam em 'inicio'
+     */
+    private void acessosCampo(int inicio) {
+        while (aceitarSimbolo('.')) {
+            Token campo = exigirIdentificador();
+            int indiceCampo = indiceAtual;
+            avancar();
+            adicionar(TipoNo.ACESSO_CAMPO, inicio, campo, indiceCampo);
+        }
+    }
+
+    // === OPERADORES ===
+
+    private Operador relacional() {
+        if (atual == null || atual.tipo != TipoToken.OPERADOR_RELACIONAL) {
+            return null;
+        }
+        switch (atual.lexema) {
+            case "=":
+                return Operador.IGUAL;
+            case "<>":
+                return Operador.DIFERENTE;
+            case "<":
+                return Operador.MENOR;
+            case "<=":
+                return Operador.MENOR_IGUAL;
+            case ">":
+                return Operador.MAIOR;
+            default:
+                return Operador.MAIOR_IGUAL;
+        }
+    }
+
+    private Operador aditivo() {
+        if (ehSimbolo('+')) {
+            return Operador.SOMA;
+        }
+        if (ehSimbolo('-')) {
+            return Operador.SUBTRACAO;
+        }
+        if (ehOperadorPalavra("or")) {
+            return Operador.OU;
+        }
+        return ehPalavra(XOR) ? Operador.OU_EXCLUSIVO : null;
+    }
+
+    private Operador multiplicativo() {
+        if (ehSimbolo('*')) {
+            return Operador.MULTIPLICACAO;
+        }
+        if (ehSimbolo('/')) {
+            return Operador.DIVISAO;
+        }
+        if (ehPalavra(DIV)) {
+            return Operador.DIVISAO_INTEIRA;
+        }
+        if (ehPalavra(SHL)) {
+            return Operador.DESLOCAMENTO_ESQUERDA;
+        }
+        if (ehPalavra(SHR)) {
+            return Operador.DESLOCAMENTO_DIREITA;
+        }
+        if (ehOperadorPalavra("and")) {
+            return Operador.E;
+        }
+        return ehOperadorPalavra("mod") ? Operador.RESTO : null;
+    }
+
+    /**
+     * Verifica se o token atual é um operador escrito por extenso (and, or,
+     * not, mod), que o analisador léxico entrega como identificador
+     */
+    private boolean ehOperadorPalavra(String palavra) {
+        return atual != null
+            && (atual.tipo == TipoToken.IDENTIFICADOR || atual.tipo == TipoToken.OPERADOR_LOGICO)
+            && atual.lexema.length() == palavra.length()
+            && atual.lexema.equalsIgnoreCase(palavra);
+    }
+
+    // === TOKENS ===
+
+    private void avancar() {
+        if (atual != null) {
+            fimAnterior = atual.posicao + atual.comprimento;
+        }
+        atual = lexico.proximoToken();
+        indiceAtual++;
+        palavraAtual = atual != null && atual.tipo == TipoToken.PALAVRA_RESERVADA
+                       ? PalavrasReservadas.procurar(atual.lexema) : PalavrasReservadas.NENHUMA;
+    }
+
+    private boolean ehPalavra(int palavra) {
+        return palavraAtual == palavra;
+    }
+
+    private boolean ehIdentificador() {
+        return atual != null && atual.tipo == TipoToken.IDENTIFICADOR;
+    }
+
+    /**
+     * Verifica se o token atual é o símbolo de um caractere (pontuação ou operador)
+     */
+    private boolean ehSimbolo(char simbolo) {
+        return atual != null
+            && (atual.tipo == TipoToken.SIMBOLO_ESPECIAL || atual.tipo == TipoToken.OPERADOR_ARITMETICO
+                || atual.tipo == TipoToken.OPERADOR_RELACIONAL)
+            && atual.lexema.length() == 1
+            && atual.lexema.charAt(0) == simbolo;
+    }
+
+    private boolean aceitarSimbolo(char simbolo) {
+        if (ehSimbolo(simbolo)) {
+            avancar();
+            return true;
+        }
+        return false;
+    }
+
+    private void exigirSimbolo(char simbolo) {
+        if (!aceitarSimbolo(simbolo)) {
+            throw falhar("'" + simbolo + "'");
+        }
+    }
+
+    private void exigirPalavra(int palavra) {
+        if (!ehPalavra(palavra)) {
+            throw falhar("'" + PalavrasReservadas.palavra(palavra) + "'");
+        }
+        avancar();
+    }
+
+    private void aceitarPalavraOuRegistrar(int palavra) {
+        if (ehPalavra(palavra)) {
+            avancar();
+        } else {
+            registrarEsperado("'" + PalavrasReservadas.palavra(palavra) + "'");
+        }
+    }
+
+    /**
+     * ';' que termina declarações: a falta é registrada sem interromper a regra
+     */
+    private void pontoEVirgula() {
+        if (!aceitarSimbolo(';')) {
+            registrarEsperado("';'");
+        }
+    }
+
+    /**
+     * Token atual, que precisa ser um identificador (não é consumido)
+     */
+    private Token exigirIdentificador() {
+        if (!ehIdentificador()) {
+            throw falhar("identificador");
+        }
+        return atual;
+    }
+
+    private void identificador() {
+        exigirIdentificador();
+        folha(TipoNo.IDENTIFICADOR);
+    }
+
+    private void listaIdentificadores() {
+        do {
+            identificador();
+        } while (aceitarSimbolo(','));
+    }
+
+    private void rotulo() {
+        if (ehIdentificador()) {
+            folha(TipoNo.IDENTIFICADOR);
+        } else if (atual != null && atual.tipo == TipoToken.NUMERO_INTEIRO) {
+            folha(TipoNo.NUMERO_INTEIRO);
+        } else {
+            throw falhar("rótulo");
+        }
+    }
+
+    private boolean fimDeLista() {
+        return atual == null || atual.tipo == TipoToken.FIM || ehPalavra(END) || ehPalavra(UNTIL);
+    }
+
+    private boolean iniciaDeclaracao() {
+        return ehPalavra(CONST) || ehPalavra(TYPE) || ehPalavra(VAR) || ehPalavra(LABEL)
+            || ehPalavra(PROC) || ehPalavra(FUNCTION) || ehPalavra(FUNC);
+    }
+
+    // === CONSTRUÇÃO DA ÁRVORE ===
+
+    /**
+     * Nó sem filhos a partir do token atual, que é consumido
+     */
+    private void folha(TipoNo tipo) {
+        adicionar(tipo, arvore.tamanho(), atual, indiceAtual);
+        avancar();
+    }
+
+    /**
+     * Acrescenta um nó com os filhos [inicio, tamanho()) e o token informado
+     * (null no fim do código: posição logo após o último token)
+     */
+    private void adicionar(TipoNo tipo, int inicio, Token token, int indiceToken) {
+        if (token == null) {
+            arvore.adicionar(tipo, inicio, indiceToken, fimAnterior, 0, TabelaSimbolos.NENHUM);
+        } else {
+            arvore.adicionar(tipo, inicio, indiceToken, token.posicao, token.comprimento, token.simbolo);
+        }
+    }
+
+    private void adicionarOperacao(TipoNo tipo, int inicio, Token token, int indiceToken, Operador operador) {
+        arvore.adicionar(tipo, inicio, indiceToken, token.posicao, token.comprimento, operador.ordinal());
+    }
+
+    /**
+     * Entra em um nível de aninhamento (comando ou fator)
+     */
+    private void entrar() {
+        if (++profundidade > PROFUNDIDADE_MAXIMA) {
+            registrar("aninhamento acima de " + PROFUNDIDADE_MAXIMA + " níveis");
+            throw FALHA;
+        }
+    }
+
+    // === ERROS ===
+
+    /**
+     * Registra que 'esperado' não foi encontrado (mensagem "esperado X,
+     * encontrado Y") e retorna a interrupção a ser lançada
+     */
+    private Falha falhar(String esperado) {
+        registrarEsperado(esperado);
+        return FALHA;
+    }
+
+    private void registrarEsperado(String esperado) {
+        registrar("esperado " + esperado + ", encontrado " + descreverAtual());
+    }
+
+    private void registrar(String mensagem) {
+        int posicao = atual != null ? atual.posicao : fimAnterior;
+        if (posicao == posicaoUltimoErro) {
+            return;
+        }
+        posicaoUltimoErro = posicao;
+        totalErros++;
+        if (erros.size() < limite) {
+            erros.add(new ErroSintatico(posicao, lexico.linhaDe(posicao), lexico.colunaDe(posicao), mensagem));
+        }
+    }
+
+    private String descreverAtual() {
+        if (atual == null) {
+            return "fim do código";
+        }
+        switch (atual.tipo) {
+            case STRING_LITERAL:
+                return "string";
+            case CHAR_LITERAL:
+                return "caractere";
+            default:
+                return "'" + atual.lexema + "'";
+        }
+    }
+
+    // === CONSULTA ===
+
+    /**
+     * Erros sintáticos guardados, em ordem de posição
+     */
+    public List<ErroSintatico> getErros() {
+        return erros;
+    }
+
+    /**
+     * Quantidade total de erros sintáticos (guardados ou não)
+     */
+    public long getTotalErros() {
+        return totalErros;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Analisador léxico usado (erros léxicos em getDiagnosticos())
+     */
+    public AnalisadorLexico getAnalisadorLexico() {
+        return lexico;
+    }
+}
@@ -0,0 +1,268 @@
+package sintatico;
+
+import lexico.TabelaSimbolos;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Árvore sintática abstrata em arena plana (vetores primitivos paralelos)
+ *
+ * Em vez de um objeto por nó, cada nó é um índice em seis vetores:
+ * - tipos: ordinal do TipoNo
+ * - inicios: primeiro nó da subárvore (os filhos ficam em [inicio, no))
+ * - tokens: índice do token principal na sequência de tokens do código
+ * - posicoes e comprimentos: trecho desse token no código fonte
+ * - valores: ID do identificador na TabelaSimbolos (nós cujo token é um
+ *   identificador) ou ordinal do Operador (nós de operação); NENHUM nos demais
+ *
+ * Os nós ficam em pós-ordem: cada nó é acrescentado depois dos seus filhos,
+ * e a subárvore de um nó ocupa o intervalo contíguo [inicio, no]. A raiz é
+ * o último nó. Os filhos são percorridos de trás para a frente: o último
+ * filho é no - 1, e o irmão anterior de um filho f é inicio(f) - 1,
+ * enquanto não for menor que inicio(no).
+ *
+ * Os vetores crescem por duplicação, de modo que a memória é proporcional
+ * à quantidade de nós (24 bytes por nó, sem cabeçalhos de objeto).
+ *
+ */
+public final class ArvoreSintatica {
+
+    /** Valor retornado quando o nó pedido não existe */
+    public static final int NENHUM = -1;
+
+    // Capacidade inicial dos vetores (em nós)
+    private static final int TAMANHO_BLOCO = 4096;
+
+    private static final TipoNo[] TIPOS = TipoNo.values();
+    private static final Operador[] OPERADORES = Operador.values();
+
+    private int[] tipos;
+    private int[] inicios;
+    private int[] tokens;
+    private int[] posicoes;
+    private int[] comprimentos;
+    private int[] valores;
+    private int tamanho;
+
+    private final TabelaSimbolos tabelaSimbolos;   // Nomes dos identificadores
+    private int quantidadeTokens;                   // Tokens consumidos pela análise
+
+    ArvoreSintatica(TabelaSimbolos tabelaSimbolos) {
+        this.tabelaSimbolos = tabelaSimbolos;
+        tipos = new int[TAMANHO_BLOCO];
+        inicios = new int[TAMANHO_BLOCO];
+        tokens = new int[TAMANHO_BLOCO];
+        posicoes = new int[TAMANHO_BLOCO];
+        comprimentos = new int[TAMANHO_BLOCO];
+        valores = new int[TAMANHO_BLOCO];
+    }
+
+    // === CONSTRUÇÃO (usada pelo AnalisadorSintatico) ===
+
+    /**
+     * Acrescenta um nó cujos filhos são os nós [inicio, tamanho())
+     *
+     * @return índice do novo nó
+     */
+    int adicionar(TipoNo tipo, int inicio, int token, int posicao, int comprimento, int valor) {
+        if (tamanho == tipos.length) {
+            crescer();
+        }
+        tipos[tamanho] = tipo.ordinal();
+        inicios[tamanho] = inicio;
+        tokens[tamanho] = token;
+        posicoes[tamanho] = posicao;
+        comprimentos[tamanho] = comprimento;
+        valores[tamanho] = valor;
+        return tamanho++;
+    }
+
+    void setQuantidadeTokens(int quantidadeTokens) {
+        this.quantidadeTokens = quantidadeTokens;
+    }
+
+    // === CONSULTA ===
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Raiz da árvore (o nó PROGRAMA), ou NENHUM se a árvore está vazia
+     */
+    public int raiz() {
+        return tamanho > 0 ? tamanho - 1 : NENHUM;
+    }
+
+    public TipoNo tipo(int no) {
+        return TIPOS[tipos[verificar(no)]];
+    }
+
+    /**
+     * Primeiro nó da subárvore (igual ao próprio nó se ele não tem filhos)
+     */
+    public int inicioSubarvore(int no) {
+        return inicios[verificar(no)];
+    }
+
+    /**
+     * Índice do token principal na sequência de tokens do código
+     */
+    public int token(int no) {
+        return tokens[verificar(no)];
+    }
+
+    /**
+     * Posição do token principal no código fonte
+     */
+    public int posicao(int no) {
+        return posicoes[verificar(no)];
+    }
+
+    public int comprimento(int no) {
+        return comprimentos[verificar(no)];
+    }
+
+    /**
+     * ID do identificador na TabelaSimbolos, ou TabelaSimbolos.NENHUM se o
+     * token principal não é um identificador
+     */
+    public int simbolo(int no) {
+        return ehOperacao(no) ? TabelaSimbolos.NENHUM : valores[no];
+    }
+
+    /**
+     * Nome do identificador do token principal, ou null
+     */
+    public String nome(int no) {
+        int simbolo = simbolo(no);
+        return simbolo != TabelaSimbolos.NENHUM ? tabelaSimbolos.nome(simbolo) : null;
+    }
+
+    /**
+     * Operador de um nó OPERACAO_BINARIA ou OPERACAO_UNARIA, ou null
+     */
+    public Operador operador(int no) {
+        return ehOperacao(no) ? OPERADORES[valores[no]] : null;
+    }
+
+    /**
+     * Trecho do token principal no código fonte (com as aspas, em literais)
+     */
+    public CharSequence trecho(int no, CharSequence codigoFonte) {
+        int posicao = posicoes[verificar(no)];
+        return codigoFonte.subSequence(posicao, posicao + comprimentos[no]);
+    }
+
+    public TabelaSimbolos getTabelaSimbolos() {
+        return tabelaSimbolos;
+    }
+
+    /**
+     * Quantidade de tokens consumidos pela análise sintática
+     */
+    public int getQuantidadeTokens() {
+        return quantidadeTokens;
+    }
+
+    // === NAVEGAÇÃO ===
+
+    /**
+     * Último filho do nó, ou NENHUM se ele não tem filhos
+     */
+    public int ultimoFilho(int no) {
+        return no - 1 >= inicios[verificar(no)] ? no - 1 : NENHUM;
+    }
+
+    /**
+     * Irmão anterior de um filho do nó pai, ou NENHUM se ele é o primeiro
+     */
+    public int irmaoAnterior(int pai, int filho) {
+        int anterior = inicios[verificar(filho)] - 1;
+        return anterior >= inicios[verificar(pai)] ? anterior : NENHUM;
+    }
+
+    public int quantidadeFilhos(int no) {
+        int quantidade = 0;
+        for (int filho = ultimoFilho(no); filho != NENHUM; filho = irmaoAnterior(no, filho)) {
+            quantidade++;
+        }
+        return quantidade;
+    }
+
+    /**
+     * Filhos do nó, em ordem
+     */
+    public int[] filhos(int no) {
+        int[] filhos = new int[quantidadeFilhos(no)];
+        int i = filhos.length;
+        for (int filho = ultimoFilho(no); filho != NENHUM; filho = irmaoAnterior(no, filho)) {
+            filhos[--i] = filho;
+        }
+        return filhos;
+    }
+
+    // === EXIBIÇÃO ===
+
+    /**
+     * Escreve a árvore indentada, um nó por linha
+     *
+     * @param codigoFonte texto analisado, para exibir literais e palavras
+     *        reservadas (pode ser null: exibe apenas a posição desses tokens)
+     */
+    public void escrever(Appendable destino, CharSequence codigoFonte) throws IOException {
+        if (tamanho > 0) {
+            escrever(destino, codigoFonte, raiz(), 0);
+        }
+    }
+
+    private void escrever(Appendable destino, CharSequence codigoFonte, int no, int nivel) throws IOException {
+        for (int i = 0; i < nivel; i++) {
+            destino.append("  ");
+        }
+        destino.append(tipo(no).name());
+        String nome = nome(no);
+        Operador operador = operador(no);
+        if (nome != null) {
+            destino.append(' ').append(nome);
+        } else if (operador != null) {
+            destino.append(' ').append(operador.simbolo);
+        } else if (codigoFonte != null && comprimentos[no] > 0) {
+            destino.append(' ').append(trecho(no, codigoFonte));
+        } else {
+            destino.append(" @").append(Integer.toString(posicoes[no]));
+        }
+        destino.append('\n');
+        for (int filho : filhos(no)) {
+            escrever(destino, codigoFonte, filho, nivel + 1);
+        }
+    }
+
+    // === UTILITÁRIOS ===
+
+    private boolean ehOperacao(int no) {
+        int tipo = tipos[verificar(no)];
+        return tipo == TipoNo.OPERACAO_BINARIA.ordinal() || tipo == TipoNo.OPERACAO_UNARIA.ordinal();
+    }
+
+    private int verificar(int no) {
+        if (no < 0 || no >= tamanho) {
+            throw new IndexOutOfBoundsException("Nó " + no + ", tamanho " + tamanho);
+        }
+        return no;
+    }
+
+    /**
+     * Dobra a capacidade dos vetores
+     */
+    private void crescer() {
+        int novaCapacidade = tipos.length * 2;
+        tipos = Arrays.copyOf(tipos, novaCapacidade);
+        inicios = Arrays.copyOf(inicios, novaCapacidade);
+        tokens = Arrays.copyOf(tokens, novaCapacidade);
+        posicoes = Arrays.copyOf(posicoes, novaCapacidade);
+        comprimentos = Arrays.copyOf(comprimentos, novaCapacidade);
+        valores = Arrays.copyOf(valores, novaCapacidade);
+    }
+}
@@ -0,0 +1,28 @@
+package sintatico;
+
+/**
+ * Erro sintático encontrado durante a análise, com sua posição no código fonte
+ *
+ */
+public final class ErroSintatico {
+
+    public final int posicao;       // Posição (índice do caractere) no código fonte
+    public final int linha;         // Linha, começando em 1 (0 se desconhecida)
+    public final int coluna;        // Coluna, começando em 1 (0 se desconhecida)
+    public final String mensagem;   // Por exemplo "esperado 'then', encontrado ':='"
+
+    public ErroSintatico(int posicao, int linha, int coluna, String mensagem) {
+        this.posicao = posicao;
+        this.linha = linha;
+        this.coluna = coluna;
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * Representação no formato "Linha L, coluna C: mensagem"
+     */
+    @Override
+    public String toString() {
+        return "Linha " + linha + ", coluna " + coluna + ": " + mensagem;
+    }
+}
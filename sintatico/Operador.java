@@ -0,0 +1,48 @@
+package sintatico;
+
+/**
+ * Operadores das expressões (guardados nos nós OPERACAO_BINARIA e
+ * OPERACAO_UNARIA)
+ *
+ * As palavras and, or, not e mod não são palavras reservadas para o
+ * analisador léxico: chegam como identificadores e são reconhecidas pelo
+ * analisador sintático na posição de operador.
+ *
+ */
+public enum Operador {
+    // Aditivos
+    SOMA("+"),
+    SUBTRACAO("-"),
+    OU("or"),
+    OU_EXCLUSIVO("xor"),
+
+    // Multiplicativos
+    MULTIPLICACAO("*"),
+    DIVISAO("/"),
+    DIVISAO_INTEIRA("div"),
+    RESTO("mod"),
+    E("and"),
+    DESLOCAMENTO_ESQUERDA("shl"),
+    DESLOCAMENTO_DIREITA("shr"),
+
+    // Relacionais
+    IGUAL("="),
+    DIFERENTE("<>"),
+    MENOR("<"),
+    MENOR_IGUAL("<="),
+    MAIOR(">"),
+    MAIOR_IGUAL(">="),
+
+    // Unário lógico
+    NAO("not");
+
+    public final String simbolo;
+
+    Operador(String simbolo) {
+        this.simbolo = simbolo;
+    }
+
+    public boolean ehRelacional() {
+        return ordinal() >= IGUAL.ordinal() && ordinal() <= MAIOR_IGUAL.ordinal();
+    }
+}
@@ -0,0 +1,66 @@
+package sintatico;
+
+/**
+ * Tipos de nó da árvore sintática
+ *
+ * Cada tipo documenta o seu token principal (guardado no nó) e a ordem dos
+ * seus filhos. Filhos entre colchetes são opcionais; "..." indica zero ou
+ * mais repetições.
+ *
+ */
+public enum TipoNo {
+    // === ESTRUTURA DO PROGRAMA ===
+    PROGRAMA,                   // Nome do programa: [USES] declarações... BLOCO
+    USES,                       // "uses": IDENTIFICADOR...
+    DECLARACAO_CONSTANTE,       // Nome: expressão
+    DECLARACAO_TIPO,            // Nome: tipo
+    DECLARACAO_VARIAVEIS,       // Primeiro nome: IDENTIFICADOR... tipo
+    DECLARACAO_ROTULOS,         // "label": rótulos (IDENTIFICADOR ou NUMERO_INTEIRO)...
+    PROCEDIMENTO,               // Nome: PARAMETROS declarações... [BLOCO] (sem BLOCO se forward/external)
+    FUNCAO,                     // Nome: PARAMETROS tipo declarações... [BLOCO]
+    PARAMETROS,                 // "(" ou nome da sub-rotina: grupos de parâmetros...
+    PARAMETRO_VALOR,            // Primeiro nome: IDENTIFICADOR... tipo
+    PARAMETRO_REFERENCIA,       // "var": IDENTIFICADOR... tipo
+
+    // === TIPOS ===
+    TIPO_INTEIRO,               // "integer" (sem filhos)
+    TIPO_REAL,                  // "real" (sem filhos)
+    TIPO_CARACTERE,             // "char" (sem filhos)
+    TIPO_TEXTO,                 // "string" (sem filhos)
+    TIPO_NOMEADO,               // Nome de um tipo declarado (sem filhos)
+    TIPO_ARRAY,                 // "array": tipo do elemento
+    TIPO_CONJUNTO,              // "set": tipo do elemento
+    TIPO_ARQUIVO,               // "file": tipo do elemento
+    TIPO_REGISTRO,              // "record": CAMPOS...
+    CAMPOS,                     // Primeiro nome: IDENTIFICADOR... tipo
+
+    // === COMANDOS ===
+    BLOCO,                      // "begin": comandos...
+    ATRIBUICAO,                 // ":=": destino (IDENTIFICADOR ou ACESSO_CAMPO) expressão
+    CHAMADA,                    // Nome: argumentos... (comando ou expressão)
+    SE,                         // "if": condição, comando então, [comando senão]
+    ENQUANTO,                   // "while": condição, comando
+    REPITA,                     // "repeat": comandos..., condição (último filho)
+    PARA,                       // "for" com "to": IDENTIFICADOR, início, fim, comando
+    PARA_DECRESCENTE,           // "for" com "dowto": IDENTIFICADOR, início, fim, comando
+    CASO,                       // "case": seletor, RAMO_CASO..., [RAMO_SENAO]
+    RAMO_CASO,                  // Primeira constante: constantes..., comando (último filho)
+    RAMO_SENAO,                 // "else": comandos...
+    COM,                        // "with": variáveis..., comando (último filho)
+    DESVIO,                     // "goto": rótulo (IDENTIFICADOR ou NUMERO_INTEIRO)
+    VAZIO,                      // Comando vazio onde um comando é obrigatório (sem filhos)
+
+    // === EXPRESSÕES ===
+    OPERACAO_BINARIA,           // Operador (ver ArvoreSintatica.operador): esquerda, direita
+    OPERACAO_UNARIA,            // Operador (SUBTRACAO, SOMA ou NAO): operando
+    ACESSO_CAMPO,               // Nome do campo: registro
+    IDENTIFICADOR,              // Nome (sem filhos)
+    NUMERO_INTEIRO,             // Literal (sem filhos)
+    NUMERO_REAL,                // Literal (sem filhos)
+    CARACTERE,                  // Literal entre aspas simples (sem filhos)
+    TEXTO,                      // Literal entre aspas duplas (sem filhos)
+    NULO,                       // "nil" (sem filhos)
+
+    // === RECUPERAÇÃO DE ERROS ===
+    ERRO                        // Token onde o erro foi detectado: nós completos do trecho descartado...
+}